@@ -1,5 +1,5 @@
 DROP TABLE IF EXISTS pessoa;
-CREATE TABLE pessoa(id INT, nome VARCHAR(500),email VARCHAR(500),data_nascimento DATETIME,idade INT, PRIMARY KEY(id));
+CREATE TABLE pessoa(id INT, nome VARCHAR(500),email VARCHAR(500),data_nascimento TIMESTAMP,idade INT, PRIMARY KEY(id));
 
 DROP TABLE IF EXISTS dados_bancarios;
 CREATE TABLE dados_bancarios(id INT, pessoa_id INT,agencia INT, conta INT, banco INT , PRIMARY KEY(id));
@@ -0,0 +1,96 @@
+package com.dowglasmaia.migracaodadosjob.benchmark;
+
+import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasMigracao;
+import com.dowglasmaia.migracaodadosjob.reader.ArquivoDadosBancarioReaderConfig;
+import com.dowglasmaia.migracaodadosjob.reader.ArquivoPessoaReaderConfig;
+import com.dowglasmaia.migracaodadosjob.reader.ModoLeitura;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Carrega os registros dos arquivos de exemplo em {@code files/}, usados como entrada fixa dos benchmarks.
+ * Os benchmarks devem ser executados a partir da raiz do projeto.
+ */
+final class Amostras {
+
+    /**
+     * Quantidade de registros de cada arquivo de exemplo.
+     */
+    static final int REGISTROS = 10_000;
+
+    static final int TAMANHO_BUFFER = 4 * 1024 * 1024;
+
+    /**
+     * Métricas habilitadas, como na aplicação, para que os benchmarks incluam o custo da medição.
+     */
+    static final MetricasMigracao METRICAS = new MetricasMigracao(new SimpleMeterRegistry(), true);
+
+    private Amostras() {
+    }
+
+    static ArquivoPessoaReaderConfig pessoaReaderConfig(ModoLeitura modo) {
+        ArquivoPessoaReaderConfig config = new ArquivoPessoaReaderConfig();
+        ReflectionTestUtils.setField(config, "caminhoArquivo", "files/pessoas.csv");
+        ReflectionTestUtils.setField(config, "modoLeitura", modo);
+        ReflectionTestUtils.setField(config, "tamanhoBuffer", TAMANHO_BUFFER);
+        ReflectionTestUtils.setField(config, "metricasMigracao", METRICAS);
+        return config;
+    }
+
+    static ArquivoDadosBancarioReaderConfig dadosBancarioReaderConfig(ModoLeitura modo) {
+        ArquivoDadosBancarioReaderConfig config = new ArquivoDadosBancarioReaderConfig();
+        ReflectionTestUtils.setField(config, "caminhoArquivo", "files/dados_bancarios.csv");
+        ReflectionTestUtils.setField(config, "modoLeitura", modo);
+        ReflectionTestUtils.setField(config, "tamanhoBuffer", TAMANHO_BUFFER);
+        ReflectionTestUtils.setField(config, "metricasMigracao", METRICAS);
+        return config;
+    }
+
+    static List<Pessoa> pessoas() throws Exception {
+        return lerTodos(pessoaReaderConfig(ModoLeitura.FLATFILE).arquivoPessoaReader(null));
+    }
+
+    /**
+     * @return {@link #REGISTROS} pessoas válidas: as válidas do arquivo de exemplo, repetidas com ids novos até completar
+     * a quantidade, para que os benchmarks de escrita por registro dividam o tempo pela quantidade realmente gravada.
+     */
+    static List<Pessoa> pessoasValidas() throws Exception {
+        List<Pessoa> validas = new ArrayList<>(REGISTROS);
+        for (Pessoa pessoa : pessoas()) {
+            if (pessoa.isValida()) {
+                validas.add(pessoa);
+            }
+        }
+        List<Pessoa> amostra = new ArrayList<>(REGISTROS);
+        for (int i = 0; i < REGISTROS; i++) {
+            Pessoa pessoa = validas.get(i % validas.size());
+            amostra.add(new Pessoa(i + 1, pessoa.getNome(), pessoa.getEmail(), pessoa.getDataNascimento(), pessoa.getIdade()));
+        }
+        return amostra;
+    }
+
+    static List<DadosBancario> dadosBancarios() throws Exception {
+        return lerTodos(dadosBancarioReaderConfig(ModoLeitura.FLATFILE).arquivoDadosBancarioReader(null));
+    }
+
+    private static <T> List<T> lerTodos(ItemStreamReader<T> reader) throws Exception {
+        List<T> itens = new ArrayList<>(REGISTROS);
+        reader.open(new ExecutionContext());
+        try {
+            T item;
+            while ((item = reader.read()) != null) {
+                itens.add(item);
+            }
+        } finally {
+            reader.close();
+        }
+        return itens;
+    }
+}
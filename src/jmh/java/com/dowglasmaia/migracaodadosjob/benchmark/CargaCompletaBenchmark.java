@@ -0,0 +1,230 @@
+package com.dowglasmaia.migracaodadosjob.benchmark;
+
+import com.dowglasmaia.migracaodadosjob.MigracaoDadosJobApplication;
+import com.dowglasmaia.migracaodadosjob.entrada.TipoArquivo;
+import com.dowglasmaia.migracaodadosjob.writer.ModoEscrita;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Carga de ponta a ponta: gera os arquivos com o {@link GeradorArquivos} e executa o {@code migracaoDadosJob}
+ * completo em um H2 em memória (modo PostgreSQL) para cada combinação de modo de leitura e de escrita,
+ * reportando o tempo de inicialização do contexto, registros por segundo, pico de heap e tempo de GC de cada execução.
+ * <p>
+ * Não é um benchmark JMH: cada medição é um job inteiro, em um contexto Spring novo, com bancos novos
+ * e o repositório do job também em um H2 em memória. Os modos de escrita COPY exigem o driver do PostgreSQL
+ * e só são executados com {@code --url}, que troca o H2 por um banco PostgreSQL cujas tabelas são esvaziadas
+ * antes de cada execução.
+ * <p>
+ * Argumentos ({@code --chave=valor}): os do {@link GeradorArquivos}, {@code --leituras} e {@code --escritas}
+ * (listas separadas por vírgula), {@code --repeticoes}, {@code --url}, {@code --usuario} e {@code --senha}.
+ * Argumentos {@code --app.*}, {@code --spring.*} e {@code --logging.*} são repassados à aplicação, como
+ * {@code --spring.profiles.active=rapido} para medir a inicialização rápida:
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark.classe=com.dowglasmaia.migracaodadosjob.benchmark.CargaCompletaBenchmark \
+ *     -Djmh.args="--registros=1000000 --leituras=flatfile,nio --app.migracao.particionamento.habilitado=true"
+ * </pre>
+ */
+public final class CargaCompletaBenchmark {
+
+    private static final String[] PREFIXOS_APLICACAO = {"app.", "spring.", "logging."};
+
+    private CargaCompletaBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> argumentos = argumentos(args);
+        Path diretorio = Paths.get(argumentos.getOrDefault("diretorio", "target/carga-completa"));
+        String[] leituras = argumentos.getOrDefault("leituras", "flatfile,nio").split(",");
+        String[] escritas = argumentos.getOrDefault("escritas", "jdbc,copy-texto,copy-binario").split(",");
+        int repeticoes = Integer.parseInt(argumentos.getOrDefault("repeticoes", "1"));
+        String url = argumentos.get("url");
+
+        GeradorArquivos gerador = GeradorArquivos.de(argumentos);
+        Path pessoas = diretorio.resolve("pessoas.csv");
+        Path dadosBancarios = diretorio.resolve("dados_bancarios.csv");
+        gerador.gerar(pessoas, dadosBancarios);
+
+        List<String> resultados = new ArrayList<>();
+        int execucao = 0;
+        for (String leitura : leituras) {
+            for (String escrita : escritas) {
+                if (url == null && ModoEscrita.valueOf(escrita.trim().toUpperCase(Locale.ROOT).replace('-', '_')).isCopy()) {
+                    System.out.printf("Escrita %s ignorada: o COPY exige PostgreSQL (--url)%n", escrita);
+                    continue;
+                }
+                for (int repeticao = 0; repeticao < repeticoes; repeticao++) {
+                    resultados.add(executar(++execucao, leitura.trim(), escrita.trim(), pessoas, dadosBancarios,
+                          diretorio, gerador, argumentos));
+                }
+            }
+        }
+
+        System.out.printf("%n%-10s %-14s %11s %12s %10s %14s %16s %9s %8s%n",
+              "leitura", "escrita", "início (s)", "registros", "tempo (s)", "registros/s", "pico heap (MiB)", "GC (ms)", "coletas");
+        resultados.forEach(System.out::println);
+    }
+
+    /**
+     * Executa o job uma vez, em um contexto Spring e bancos novos.
+     *
+     * @return Linha da tabela de resultados.
+     */
+    private static String executar(int execucao, String leitura, String escrita, Path pessoas, Path dadosBancarios,
+                                   Path diretorio, GeradorArquivos gerador, Map<String, String> argumentos) throws Exception {
+        String url = argumentos.getOrDefault("url", "jdbc:h2:mem:carga_" + execucao + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        String usuario = argumentos.getOrDefault("usuario", argumentos.containsKey("url") ? "maia" : "sa");
+        String senha = argumentos.getOrDefault("senha", argumentos.containsKey("url") ? "maiapw" : "");
+        Connection tabelas = DriverManager.getConnection(url, usuario, senha); // Mantém o H2 em memória durante a execução
+        try {
+            prepararTabelas(tabelas);
+
+            List<String> propriedades = new ArrayList<>();
+            propriedades.add("--spring.datasource.jdbcUrl=jdbc:h2:mem:repositorio_" + execucao + ";DB_CLOSE_DELAY=-1");
+            propriedades.add("--spring.datasource.driver-class-name=org.h2.Driver");
+            propriedades.add("--spring.datasource.username=sa");
+            propriedades.add("--spring.datasource.password=");
+            propriedades.add("--app.datasource.jdbcUrl=" + url);
+            propriedades.add("--app.datasource.driver-class-name=" + DriverManager.getDriver(url).getClass().getName());
+            propriedades.add("--app.datasource.username=" + usuario);
+            propriedades.add("--app.datasource.password=" + senha);
+            propriedades.add("--spring.batch.job.enabled=false");
+            propriedades.add("--spring.main.banner-mode=off");
+            propriedades.add("--logging.level.root=WARN");
+            propriedades.add("--app.migracao.metricas.porta=0");
+            propriedades.add("--app.migracao.metricas.resumo.diretorio=");
+            propriedades.add("--app.migracao.leitura.modo=" + leitura);
+            propriedades.add("--app.migracao.escrita.pessoa=" + escrita);
+            propriedades.add("--app.migracao.escrita.dados-bancarios=" + escrita);
+            if (gerador.getTaxaDuplicados() > 0 && !argumentos.containsKey("app.migracao.escrita.conflito")) {
+                // Sem ON CONFLICT (id), que o H2 não tem, os duplicados são isolados e rejeitados
+                propriedades.add("--app.migracao.escrita.isolamento.habilitado=true");
+            }
+            argumentos.forEach((chave, valor) -> {
+                for (String prefixo : PREFIXOS_APLICACAO) {
+                    if (chave.startsWith(prefixo)) {
+                        propriedades.add("--" + chave + "=" + valor);
+                    }
+                }
+            });
+
+            Path rejeitados = Files.createDirectories(diretorio.resolve("rejeitados-" + execucao));
+            long inicioContexto = System.nanoTime();
+            try (ConfigurableApplicationContext contexto = SpringApplication.run(MigracaoDadosJobApplication.class,
+                  propriedades.toArray(new String[0]))) {
+                // Só a primeira execução inclui o carregamento das classes, o que o arquivo CDS reduz
+                long inicializacao = System.nanoTime() - inicioContexto;
+                JobParameters parametros = new JobParametersBuilder()
+                      .addString(TipoArquivo.PESSOAS.getParametro(), pessoas.toString())
+                      .addString(TipoArquivo.DADOS_BANCARIOS.getParametro(), dadosBancarios.toString())
+                      .addString("diretorio.rejeitados", rejeitados.toString())
+                      .toJobParameters();
+                JobLauncher jobLauncher = contexto.getBean(JobLauncher.class);
+                Job job = contexto.getBean("migracaoDadosJob", Job.class);
+
+                System.gc();
+                List<MemoryPoolMXBean> pools = new ArrayList<>();
+                for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                    if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                        pool.resetPeakUsage();
+                        pools.add(pool);
+                    }
+                }
+                long[] gcInicio = gc();
+                long inicio = System.nanoTime();
+                JobExecution jobExecution = jobLauncher.run(job, parametros);
+                long duracao = System.nanoTime() - inicio;
+                long[] gcFim = gc();
+                long picoHeap = 0;
+                for (MemoryPoolMXBean pool : pools) {
+                    picoHeap += pool.getPeakUsage().getUsed();
+                }
+
+                if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+                    throw new IllegalStateException("Execução " + execucao + " terminou com " + jobExecution.getStatus()
+                          + ": " + jobExecution.getAllFailureExceptions());
+                }
+                long registros = 0;
+                for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+                    // Nos steps gerenciadores do particionamento, a soma das partições
+                    if (stepExecution.getStepName().equals("migrarPessoaStep")
+                          || stepExecution.getStepName().equals("migrarDadosBancariosStep")) {
+                        registros += stepExecution.getReadCount();
+                    }
+                }
+                double segundos = duracao / 1e9;
+                return String.format(Locale.ROOT, "%-10s %-14s %11.2f %12d %10.2f %14.0f %16.1f %9d %8d",
+                      leitura, escrita, inicializacao / 1e9, registros, segundos, registros / segundos, picoHeap / 1048576.0,
+                      gcFim[0] - gcInicio[0], gcFim[1] - gcInicio[1]);
+            }
+        } finally {
+            tabelas.close();
+        }
+    }
+
+    /**
+     * Cria as tabelas finais, ou esvazia as existentes.
+     */
+    private static void prepararTabelas(Connection conexao) throws SQLException {
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS pessoa(id INT, nome VARCHAR(500),email VARCHAR(500),data_nascimento TIMESTAMP,idade INT, PRIMARY KEY(id))");
+            statement.execute("CREATE TABLE IF NOT EXISTS dados_bancarios(id INT, pessoa_id INT,agencia INT, conta INT, banco INT , PRIMARY KEY(id))");
+            statement.execute("TRUNCATE TABLE dados_bancarios");
+            statement.execute("TRUNCATE TABLE pessoa");
+        }
+    }
+
+    /**
+     * @return Tempo total em ms e quantidade de coletas de todos os coletores.
+     */
+    private static long[] gc() {
+        long[] totais = new long[2];
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totais[0] += Math.max(0, coletor.getCollectionTime());
+            totais[1] += Math.max(0, coletor.getCollectionCount());
+        }
+        return totais;
+    }
+
+    /**
+     * Lê argumentos {@code --chave=valor}, na ordem em que foram informados.
+     *
+     * @param args Argumentos da linha de comando.
+     * @return Valores por chave, sem o prefixo {@code --}.
+     */
+    static Map<String, String> argumentos(String[] args) {
+        Map<String, String> argumentos = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separador = arg.indexOf('=');
+            if (!arg.startsWith("--") || separador < 0) {
+                throw new IllegalArgumentException("Argumento inválido, use --chave=valor: " + arg);
+            }
+            argumentos.put(arg.substring(2, separador), arg.substring(separador + 1));
+        }
+        return argumentos;
+    }
+}
@@ -0,0 +1,69 @@
+package com.dowglasmaia.migracaodadosjob.benchmark;
+
+import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import com.dowglasmaia.migracaodadosjob.writer.PessoaClassifierWriterConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.support.ClassifierCompositeItemWriter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por registro da classificação do {@link PessoaClassifierWriterConfig}: {@code Pessoa.isValida}
+ * e a separação do chunk entre os escritores. Os escritores de destino apenas consomem os itens.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClassificacaoPessoaBenchmark {
+
+    private List<Pessoa> chunk;
+    private ClassifierCompositeItemWriter<Pessoa> classificador;
+    private Blackhole blackhole;
+
+    @Setup
+    public void preparar(Blackhole blackhole) throws Exception {
+        this.blackhole = blackhole;
+        this.chunk = Amostras.pessoas();
+        PessoaClassifierWriterConfig config = new PessoaClassifierWriterConfig();
+        ReflectionTestUtils.setField(config, "metricasMigracao", Amostras.METRICAS);
+        this.classificador = config.pessoaClassifierCompositeItemWriter(new ConsumidorItemWriter(), new ConsumidorFlatFileItemWriter());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Amostras.REGISTROS)
+    public void classificar() throws Exception {
+        classificador.write(chunk);
+    }
+
+    private class ConsumidorItemWriter implements ItemWriter<Pessoa> {
+        @Override
+        public void write(List<? extends Pessoa> items) {
+            blackhole.consume(items);
+        }
+    }
+
+    private class ConsumidorFlatFileItemWriter extends FlatFileItemWriter<Pessoa> {
+        @Override
+        public void write(List<? extends Pessoa> items) {
+            blackhole.consume(items);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.dowglasmaia.migracaodadosjob.benchmark;
+
+import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import com.dowglasmaia.migracaodadosjob.integridade.IndiceIds;
+import com.dowglasmaia.migracaodadosjob.writer.BancoDadosBancariosWriterConfig;
+import com.dowglasmaia.migracaodadosjob.writer.BancoPessoaWriterConfig;
+import com.dowglasmaia.migracaodadosjob.writer.ModoCarga;
+import com.dowglasmaia.migracaodadosjob.writer.ModoConflito;
+import com.dowglasmaia.migracaodadosjob.writer.ModoEscrita;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por registro da escrita de um chunk completo no banco, com os escritores JDBC das classes de configuração
+ * e um H2 em memória no modo PostgreSQL. As tabelas são esvaziadas antes de cada chunk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EscritaChunkBenchmark {
+
+    private Connection conexaoAberta;
+    private JdbcTemplate jdbcTemplate;
+    private List<Pessoa> pessoas;
+    private List<DadosBancario> dadosBancarios;
+    private ItemWriter<Pessoa> pessoaWriter;
+    private ItemWriter<DadosBancario> dadosBancarioWriter;
+
+    @Setup
+    public void preparar() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:benchmark;MODE=PostgreSQL");
+        conexaoAberta = dataSource.getConnection(); // Mantém o banco em memória enquanto o benchmark executa
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE pessoa(id INT, nome VARCHAR(500),email VARCHAR(500),data_nascimento TIMESTAMP,idade INT, PRIMARY KEY(id))");
+        jdbcTemplate.execute("CREATE TABLE dados_bancarios(id INT, pessoa_id INT,agencia INT, conta INT, banco INT , PRIMARY KEY(id))");
+
+        pessoas = Amostras.pessoasValidas(); // Exatamente REGISTROS pessoas, todas gravadas
+        dadosBancarios = Amostras.dadosBancarios();
+
+        BancoPessoaWriterConfig pessoaConfig = new BancoPessoaWriterConfig();
+        ReflectionTestUtils.setField(pessoaConfig, "modoEscrita", ModoEscrita.JDBC);
+        ReflectionTestUtils.setField(pessoaConfig, "modoConflito", ModoConflito.FALHAR);
+        ReflectionTestUtils.setField(pessoaConfig, "modoCarga", ModoCarga.DIRETA);
+        pessoaWriter = pessoaConfig.bancoPessoaWriter(dataSource, new IndiceIds(), null);
+        ((InitializingBean) pessoaWriter).afterPropertiesSet();
+
+        BancoDadosBancariosWriterConfig dadosBancarioConfig = new BancoDadosBancariosWriterConfig();
+        ReflectionTestUtils.setField(dadosBancarioConfig, "modoEscrita", ModoEscrita.JDBC);
+        ReflectionTestUtils.setField(dadosBancarioConfig, "modoConflito", ModoConflito.FALHAR);
+        ReflectionTestUtils.setField(dadosBancarioConfig, "modoCarga", ModoCarga.DIRETA);
+        dadosBancarioWriter = dadosBancarioConfig.bancoDadosBancarioWriter(dataSource, null);
+        ((InitializingBean) dadosBancarioWriter).afterPropertiesSet();
+    }
+
+    @Setup(Level.Invocation)
+    public void esvaziarTabelas() {
+        jdbcTemplate.execute("TRUNCATE TABLE pessoa");
+        jdbcTemplate.execute("TRUNCATE TABLE dados_bancarios");
+    }
+
+    @TearDown
+    public void encerrar() throws Exception {
+        conexaoAberta.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Amostras.REGISTROS)
+    public void pessoas() throws Exception {
+        pessoaWriter.write(pessoas);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Amostras.REGISTROS)
+    public void dadosBancarios() throws Exception {
+        dadosBancarioWriter.write(dadosBancarios);
+    }
+}
@@ -0,0 +1,205 @@
+package com.dowglasmaia.migracaodadosjob.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Gera arquivos de pessoas e de dados bancários de qualquer tamanho, nos layouts de {@code files/}.
+ * A geração é determinística: a mesma semente e as mesmas taxas produzem os mesmos bytes.
+ * <ul>
+ *     <li>Inválidos: pessoas sem nome, sem e-mail ou sem data de nascimento, enviadas para o arquivo de inválidas.
+ *     Os dados bancários não têm registro inválido: um campo numérico malformado falha o step.</li>
+ *     <li>Duplicados: registros com o id de um registro anterior do mesmo arquivo.</li>
+ *     <li>Órfãos: dados bancários cujo {@code pessoa_id} não está no arquivo de pessoas.</li>
+ * </ul>
+ * Execução, a partir da raiz do projeto:
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark.classe=com.dowglasmaia.migracaodadosjob.benchmark.GeradorArquivos \
+ *     -Djmh.args="--registros=1000000 --invalidos=0.01 --duplicados=0 --orfaos=0.01 --diretorio=target/dados"
+ * </pre>
+ */
+public final class GeradorArquivos {
+
+    private static final String[] NOMES = {"Andrea", "Kieth", "Maria", "Joao", "Ana", "Pedro", "Lucas", "Julia",
+          "Carlos", "Fernanda", "Rafael", "Beatriz", "Gustavo", "Larissa", "Thiago", "Camila"};
+    private static final String[] SOBRENOMES = {"Bailey", "Clark", "Silva", "Souza", "Costa", "Oliveira", "Pereira",
+          "Lima", "Gomes", "Ribeiro", "Almeida", "Carvalho", "Rocha", "Martins", "Barros", "Freitas"};
+    private static final String[] DOMINIOS = {"zorer.org", "corti.com", "exemplo.com.br", "correio.net"};
+
+    private static final long INICIO_NASCIMENTO = -2208988800L; // 1900-01-01T00:00:00Z
+    private static final long FIM_NASCIMENTO = 1136073600L; // 2006-01-01T00:00:00Z
+
+    private final long registros;
+    private final long semente;
+    private final double taxaInvalidos;
+    private final double taxaDuplicados;
+    private final double taxaOrfaos;
+
+    /**
+     * @param registros      Registros de cada arquivo.
+     * @param semente        Semente do gerador pseudoaleatório.
+     * @param taxaInvalidos  Fração das pessoas inválidas.
+     * @param taxaDuplicados Fração dos registros com o id de um registro anterior.
+     * @param taxaOrfaos     Fração dos dados bancários com {@code pessoa_id} sem pessoa.
+     */
+    public GeradorArquivos(long registros, long semente, double taxaInvalidos, double taxaDuplicados, double taxaOrfaos) {
+        this.registros = registros;
+        this.semente = semente;
+        this.taxaInvalidos = taxaInvalidos;
+        this.taxaDuplicados = taxaDuplicados;
+        this.taxaOrfaos = taxaOrfaos;
+    }
+
+    /**
+     * Cria o gerador a partir dos argumentos {@code --registros}, {@code --semente}, {@code --invalidos},
+     * {@code --duplicados} e {@code --orfaos}.
+     *
+     * @param argumentos Argumentos da linha de comando, sem o prefixo {@code --}.
+     * @return Gerador configurado.
+     */
+    public static GeradorArquivos de(Map<String, String> argumentos) {
+        return new GeradorArquivos(
+              Long.parseLong(argumentos.getOrDefault("registros", "1000000")),
+              Long.parseLong(argumentos.getOrDefault("semente", "42")),
+              Double.parseDouble(argumentos.getOrDefault("invalidos", "0.01")),
+              Double.parseDouble(argumentos.getOrDefault("duplicados", "0")),
+              Double.parseDouble(argumentos.getOrDefault("orfaos", "0.01"))
+        );
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> argumentos = CargaCompletaBenchmark.argumentos(args);
+        Path diretorio = Paths.get(argumentos.getOrDefault("diretorio", "target/dados"));
+        GeradorArquivos gerador = de(argumentos);
+        long inicio = System.nanoTime();
+        gerador.gerar(diretorio.resolve("pessoas.csv"), diretorio.resolve("dados_bancarios.csv"));
+        System.out.printf("%d registros por arquivo gerados em %s em %d ms%n",
+              gerador.registros, diretorio, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    public long getRegistros() {
+        return registros;
+    }
+
+    public double getTaxaDuplicados() {
+        return taxaDuplicados;
+    }
+
+    /**
+     * Gera os dois arquivos, substituindo os existentes.
+     *
+     * @param pessoas        Arquivo de pessoas.
+     * @param dadosBancarios Arquivo de dados bancários.
+     */
+    public void gerar(Path pessoas, Path dadosBancarios) throws IOException {
+        Files.createDirectories(pessoas.toAbsolutePath().getParent());
+        Files.createDirectories(dadosBancarios.toAbsolutePath().getParent());
+        gerarPessoas(pessoas, new SplittableRandom(semente));
+        gerarDadosBancarios(dadosBancarios, new SplittableRandom(semente + 1));
+    }
+
+    private void gerarPessoas(Path arquivo, SplittableRandom aleatorio) throws IOException {
+        StringBuilder linha = new StringBuilder(128);
+        char[] data = new char[19];
+        try (BufferedWriter writer = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            writer.write("-- Estrutura: nome,email,data_nascimento,idade,id");
+            writer.newLine();
+            for (long i = 1; i <= registros; i++) {
+                String nome = NOMES[aleatorio.nextInt(NOMES.length)];
+                String sobrenome = SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)];
+                int invalido = aleatorio.nextDouble() < taxaInvalidos ? 1 + aleatorio.nextInt(3) : 0;
+                linha.setLength(0);
+                if (invalido != 1) {
+                    linha.append(nome).append(' ').append(sobrenome);
+                }
+                linha.append(',');
+                if (invalido != 2) {
+                    linha.append(nome).append('_').append(sobrenome).append(aleatorio.nextInt(10000))
+                          .append('@').append(DOMINIOS[aleatorio.nextInt(DOMINIOS.length)]);
+                }
+                linha.append(',');
+                if (invalido != 3) {
+                    linha.append(dataHora(aleatorio.nextLong(INICIO_NASCIMENTO, FIM_NASCIMENTO), data));
+                }
+                linha.append(',').append(18 + aleatorio.nextInt(73))
+                      .append(',').append(id(i, aleatorio));
+                writer.append(linha);
+                writer.newLine();
+            }
+        }
+    }
+
+    private void gerarDadosBancarios(Path arquivo, SplittableRandom aleatorio) throws IOException {
+        StringBuilder linha = new StringBuilder(64);
+        try (BufferedWriter writer = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            writer.write("-- Estrutura: pessoa_id,agencia,conta,banco,id");
+            writer.newLine();
+            for (long i = 1; i <= registros; i++) {
+                long pessoaId = aleatorio.nextDouble() < taxaOrfaos
+                      ? registros + 1 + aleatorio.nextLong(registros) // Acima do maior id de pessoa
+                      : 1 + aleatorio.nextLong(registros);
+                linha.setLength(0);
+                linha.append(pessoaId)
+                      .append(',').append(1000 + aleatorio.nextInt(99000))
+                      .append(',').append(10_000_000 + aleatorio.nextInt(90_000_000))
+                      .append(',').append(100_000 + aleatorio.nextInt(900_000))
+                      .append(',').append(id(i, aleatorio));
+                writer.append(linha);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * @return Id da linha: a sua posição, ou o id de uma linha anterior na fração de duplicados.
+     */
+    private long id(long linha, SplittableRandom aleatorio) {
+        if (linha > 1 && aleatorio.nextDouble() < taxaDuplicados) {
+            return 1 + aleatorio.nextLong(linha - 1);
+        }
+        return linha;
+    }
+
+    /**
+     * Formata segundos desde a época como {@code yyyy-MM-dd HH:mm:ss}, em UTC, sem criar objetos de data.
+     */
+    private static char[] dataHora(long segundos, char[] destino) {
+        long dias = Math.floorDiv(segundos, 86400);
+        int segundosDia = (int) Math.floorMod(segundos, 86400);
+        // Conversão de dias civis de Howard Hinnant
+        long z = dias + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int dia = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int mes = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int ano = (int) (yoe + era * 400 + (mes <= 2 ? 1 : 0));
+        digitos(destino, 0, ano, 4);
+        destino[4] = '-';
+        digitos(destino, 5, mes, 2);
+        destino[7] = '-';
+        digitos(destino, 8, dia, 2);
+        destino[10] = ' ';
+        digitos(destino, 11, segundosDia / 3600, 2);
+        destino[13] = ':';
+        digitos(destino, 14, segundosDia / 60 % 60, 2);
+        destino[16] = ':';
+        digitos(destino, 17, segundosDia % 60, 2);
+        return destino;
+    }
+
+    private static void digitos(char[] destino, int posicao, int valor, int quantidade) {
+        for (int i = posicao + quantidade - 1; i >= posicao; i--) {
+            destino[i] = (char) ('0' + valor % 10);
+            valor /= 10;
+        }
+    }
+}
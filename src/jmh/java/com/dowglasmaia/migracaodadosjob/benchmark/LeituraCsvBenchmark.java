@@ -0,0 +1,71 @@
+package com.dowglasmaia.migracaodadosjob.benchmark;
+
+import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import com.dowglasmaia.migracaodadosjob.reader.ModoLeitura;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por registro da leitura, tokenização e mapeamento dos dois layouts de CSV,
+ * com os leitores criados pelas próprias classes de configuração.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LeituraCsvBenchmark {
+
+    @Param({"FLATFILE", "NIO"})
+    public ModoLeitura modo;
+
+    private ItemStreamReader<Pessoa> pessoaReader;
+    private ItemStreamReader<DadosBancario> dadosBancarioReader;
+
+    @Setup
+    public void preparar() {
+        pessoaReader = Amostras.pessoaReaderConfig(modo).arquivoPessoaReader(null);
+        dadosBancarioReader = Amostras.dadosBancarioReaderConfig(modo).arquivoDadosBancarioReader(null);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Amostras.REGISTROS)
+    public void pessoas(Blackhole blackhole) throws Exception {
+        lerTodos(pessoaReader, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Amostras.REGISTROS)
+    public void dadosBancarios(Blackhole blackhole) throws Exception {
+        lerTodos(dadosBancarioReader, blackhole);
+    }
+
+    private static <T> void lerTodos(ItemStreamReader<T> reader, Blackhole blackhole) throws Exception {
+        reader.open(new ExecutionContext());
+        try {
+            T item;
+            while ((item = reader.read()) != null) {
+                blackhole.consume(item);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+}
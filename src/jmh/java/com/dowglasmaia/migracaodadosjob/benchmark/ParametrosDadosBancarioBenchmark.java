@@ -0,0 +1,141 @@
+package com.dowglasmaia.migracaodadosjob.benchmark;
+
+import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import com.dowglasmaia.migracaodadosjob.mapeamento.MapeamentoPropriedades;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
+import org.springframework.batch.item.database.ItemPreparedStatementSetter;
+import org.springframework.batch.item.database.ItemSqlParameterSourceProvider;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por registro da extração de parâmetros do {@code beanMapped()} que o {@code bancoDadosBancarioWriter} usava,
+ * comparado com a leitura direta pelos getters e com o {@link MapeamentoPropriedades} que o substituiu.
+ * Os benchmarks com sufixo {@code PreparedStatement} também definem os parâmetros em um comando preparado do H2 em memória,
+ * sem executá-lo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParametrosDadosBancarioBenchmark {
+
+    private static final String SQL = "INSERT INTO public.dados_bancarios (id, pessoa_id, agencia, conta, banco) VALUES (:id, :pessoaId, :agencia, :conta, :banco);";
+
+    private List<DadosBancario> chunk;
+    private ItemSqlParameterSourceProvider<DadosBancario> beanMapped;
+    private ParsedSql parsedSql;
+    private ItemPreparedStatementSetter<DadosBancario> mapeamento;
+    private ItemPreparedStatementSetter<DadosBancario> manual;
+    private Connection conexao;
+    private PreparedStatement ps;
+
+    @Setup
+    public void preparar() throws Exception {
+        chunk = Amostras.dadosBancarios();
+        beanMapped = new BeanPropertyItemSqlParameterSourceProvider<>();
+        parsedSql = NamedParameterUtils.parseSqlStatement(SQL);
+        mapeamento = MapeamentoPropriedades.de(DadosBancario.class).preparedStatementSetter("id", "pessoaId", "agencia", "conta", "banco");
+        manual = new ItemPreparedStatementSetter<DadosBancario>() {
+            @Override
+            public void setValues(DadosBancario dadosBancario, PreparedStatement ps) throws SQLException {
+                ps.setInt(1, dadosBancario.getId());
+                ps.setInt(2, dadosBancario.getPessoaId());
+                ps.setInt(3, dadosBancario.getAgencia());
+                ps.setInt(4, dadosBancario.getConta());
+                ps.setInt(5, dadosBancario.getBanco());
+            }
+        };
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:parametros;MODE=PostgreSQL");
+        conexao = dataSource.getConnection();
+        conexao.createStatement().execute("CREATE TABLE dados_bancarios(id INT, pessoa_id INT,agencia INT, conta INT, banco INT , PRIMARY KEY(id))");
+        ps = conexao.prepareStatement("INSERT INTO dados_bancarios (id, pessoa_id, agencia, conta, banco) VALUES (?, ?, ?, ?, ?)");
+    }
+
+    @TearDown
+    public void encerrar() throws Exception {
+        conexao.close();
+    }
+
+    /**
+     * Mesmo caminho do {@code NamedParameterJdbcTemplate.batchUpdate} usado pelo {@code JdbcBatchItemWriter}:
+     * um {@code BeanPropertySqlParameterSource} por item e a resolução de cada parâmetro nomeado.
+     */
+    @Benchmark
+    @OperationsPerInvocation(Amostras.REGISTROS)
+    public void beanMapped(Blackhole blackhole) {
+        for (DadosBancario dadosBancario : chunk) {
+            SqlParameterSource source = beanMapped.createSqlParameterSource(dadosBancario);
+            blackhole.consume(NamedParameterUtils.buildValueArray(parsedSql, source, null));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Amostras.REGISTROS)
+    public void getters(Blackhole blackhole) {
+        for (DadosBancario dadosBancario : chunk) {
+            blackhole.consume(dadosBancario.getId());
+            blackhole.consume(dadosBancario.getPessoaId());
+            blackhole.consume(dadosBancario.getAgencia());
+            blackhole.consume(dadosBancario.getConta());
+            blackhole.consume(dadosBancario.getBanco());
+        }
+    }
+
+    /**
+     * Caminho completo do {@code beanMapped()}: valores resolvidos pelo nome e definidos com
+     * {@code StatementCreatorUtils}, que descobre o tipo SQL de cada valor.
+     */
+    @Benchmark
+    @OperationsPerInvocation(Amostras.REGISTROS)
+    public void beanMappedPreparedStatement() throws SQLException {
+        for (DadosBancario dadosBancario : chunk) {
+            Object[] valores = NamedParameterUtils.buildValueArray(parsedSql, beanMapped.createSqlParameterSource(dadosBancario), null);
+            for (int i = 0; i < valores.length; i++) {
+                StatementCreatorUtils.setParameterValue(ps, i + 1, SqlTypeValue.TYPE_UNKNOWN, valores[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Amostras.REGISTROS)
+    public void manualPreparedStatement() throws SQLException {
+        for (DadosBancario dadosBancario : chunk) {
+            manual.setValues(dadosBancario, ps);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Amostras.REGISTROS)
+    public void mapeamentoPreparedStatement() throws SQLException {
+        for (DadosBancario dadosBancario : chunk) {
+            mapeamento.setValues(dadosBancario, ps);
+        }
+    }
+}
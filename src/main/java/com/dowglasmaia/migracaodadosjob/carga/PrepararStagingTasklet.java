@@ -0,0 +1,56 @@
+package com.dowglasmaia.migracaodadosjob.carga;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Tasklet que recria as tabelas de staging antes dos steps de migração.
+ * <p>
+ * Cada staging é {@code UNLOGGED} (não grava WAL), criada com {@code LIKE} sem índices nem chave primária,
+ * para que cada registro seja apenas acrescentado ao heap, e sem autovacuum, já que só recebe inserções
+ * e é descartada na promoção. Como o step não é reexecutado no restart de um job que falhou,
+ * os registros já gravados na staging são mantidos.
+ */
+public class PrepararStagingTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(PrepararStagingTasklet.class);
+
+    private final DataSource dataSource;
+    private final List<TabelaStaging> tabelas;
+
+    /**
+     * @param dataSource Fonte de dados das tabelas finais.
+     * @param tabelas    Tabelas carregadas por staging.
+     */
+    public PrepararStagingTasklet(DataSource dataSource, List<TabelaStaging> tabelas) {
+        this.dataSource = dataSource;
+        this.tabelas = tabelas;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws SQLException {
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try (Statement statement = conexao.createStatement()) {
+            for (TabelaStaging tabela : tabelas) {
+                statement.execute("DROP TABLE IF EXISTS " + tabela.getStaging());
+                statement.execute("CREATE UNLOGGED TABLE " + tabela.getStaging() + " (LIKE " + tabela.getDestino()
+                      + " INCLUDING DEFAULTS) WITH (autovacuum_enabled = false)");
+                log.info("Tabela de staging {} criada para {}", tabela.getStaging(), tabela.getDestino());
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -0,0 +1,167 @@
+package com.dowglasmaia.migracaodadosjob.carga;
+
+import com.dowglasmaia.migracaodadosjob.writer.ModoConflito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tasklet que promove os registros das tabelas de staging para as tabelas finais ao fim do job,
+ * com um {@code INSERT ... SELECT} por tabela, todas na mesma transação.
+ * <p>
+ * Ids repetidos na staging (o mesmo id em mais de uma linha do arquivo, ou um chunk regravado após um restart)
+ * não falham a carga: o {@code SELECT DISTINCT ON (chave)} mantém a última linha gravada de cada id
+ * e as demais são contadas como filtradas no step. Registros já existentes na tabela final seguem o {@link ModoConflito}.
+ * <p>
+ * Quando a tabela final está vazia e nenhuma chave estrangeira a referencia, a chave primária, as restrições
+ * únicas e os índices são removidos antes da inserção e recriados depois dela, de uma vez, com os dados já ordenados
+ * pela chave, em vez de atualizar o B-tree a cada registro. A staging é removida ao fim e as estatísticas
+ * da tabela final são atualizadas com {@code ANALYZE}.
+ */
+public class PromoverStagingTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(PromoverStagingTasklet.class);
+
+    private final DataSource dataSource;
+    private final List<TabelaStaging> tabelas;
+    private final ModoConflito modoConflito;
+
+    /**
+     * @param dataSource   Fonte de dados das tabelas finais.
+     * @param tabelas      Tabelas carregadas por staging.
+     * @param modoConflito Tratamento dos ids já existentes nas tabelas finais.
+     */
+    public PromoverStagingTasklet(DataSource dataSource, List<TabelaStaging> tabelas, ModoConflito modoConflito) {
+        this.dataSource = dataSource;
+        this.tabelas = tabelas;
+        this.modoConflito = modoConflito;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws SQLException {
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try {
+            boolean autoCommit = conexao.getAutoCommit();
+            conexao.setAutoCommit(false); // As tabelas são promovidas juntas, ou nenhuma em caso de falha
+            try {
+                for (TabelaStaging tabela : tabelas) {
+                    promover(conexao, tabela, contribution);
+                }
+                conexao.commit();
+            } catch (SQLException | RuntimeException e) {
+                conexao.rollback();
+                throw e;
+            } finally {
+                conexao.setAutoCommit(autoCommit);
+            }
+            try (Statement statement = conexao.createStatement()) {
+                for (TabelaStaging tabela : tabelas) {
+                    statement.execute("ANALYZE " + tabela.getDestino());
+                }
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+        return RepeatStatus.FINISHED;
+    }
+
+    private void promover(Connection conexao, TabelaStaging tabela, StepContribution contribution) throws SQLException {
+        long inicio = System.currentTimeMillis();
+        String colunas = String.join(", ", tabela.getColunas());
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute("LOCK TABLE " + tabela.getDestino() + " IN ACCESS EXCLUSIVE MODE");
+            long registros;
+            long distintos;
+            try (ResultSet resultSet = statement.executeQuery("SELECT count(*), count(DISTINCT " + tabela.getChave() + ") FROM " + tabela.getStaging())) {
+                resultSet.next();
+                registros = resultSet.getLong(1);
+                distintos = resultSet.getLong(2);
+            }
+            boolean vazia;
+            try (ResultSet resultSet = statement.executeQuery("SELECT NOT EXISTS (SELECT 1 FROM " + tabela.getDestino() + ")")) {
+                resultSet.next();
+                vazia = resultSet.getBoolean(1);
+            }
+            List<String> recriacoes = vazia ? removerIndices(conexao, tabela) : null;
+            int inseridos = statement.executeUpdate("INSERT INTO " + tabela.getDestino() + " (" + colunas + ")"
+                  + " SELECT DISTINCT ON (" + tabela.getChave() + ") " + colunas + " FROM " + tabela.getStaging()
+                  + " ORDER BY " + tabela.getChave() + ", ctid DESC" // A última linha gravada de cada id
+                  + (vazia ? "" : modoConflito.clausula(tabela.getChave(), tabela.getColunas())));
+            if (recriacoes != null) {
+                for (String recriacao : recriacoes) {
+                    statement.execute(recriacao);
+                }
+            }
+            statement.execute("DROP TABLE " + tabela.getStaging());
+            contribution.incrementWriteCount(inseridos);
+            contribution.incrementFilterCount((int) (registros - distintos));
+            if (registros > distintos) {
+                log.warn("{} registros com id repetido descartados na promoção de {}", registros - distintos, tabela.getStaging());
+            }
+            log.info("{} registros promovidos de {} para {} em {} ms{}", inseridos, tabela.getStaging(), tabela.getDestino(),
+                  System.currentTimeMillis() - inicio, recriacoes != null ? ", com " + recriacoes.size() + " índices recriados" : "");
+        }
+    }
+
+    /**
+     * Remove a chave primária, as restrições únicas e os índices da tabela final vazia, se nenhuma chave estrangeira
+     * depender deles.
+     *
+     * @return Comandos que recriam o que foi removido, na ordem de execução, ou {@code null} se nada foi removido.
+     */
+    private List<String> removerIndices(Connection conexao, TabelaStaging tabela) throws SQLException {
+        try (PreparedStatement referencias = conexao.prepareStatement(
+              "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE confrelid = ?::regclass AND contype = 'f')")) {
+            referencias.setString(1, tabela.getDestino());
+            try (ResultSet resultSet = referencias.executeQuery()) {
+                resultSet.next();
+                if (resultSet.getBoolean(1)) {
+                    return null; // Recriar a chave exigiria recriar também as chaves estrangeiras que a referenciam
+                }
+            }
+        }
+        List<String> remocoes = new ArrayList<>();
+        List<String> recriacoes = new ArrayList<>();
+        try (PreparedStatement restricoes = conexao.prepareStatement(
+              "SELECT conname, pg_get_constraintdef(oid) FROM pg_constraint WHERE conrelid = ?::regclass AND contype IN ('p', 'u')")) {
+            restricoes.setString(1, tabela.getDestino());
+            try (ResultSet resultSet = restricoes.executeQuery()) {
+                while (resultSet.next()) {
+                    String nome = '"' + resultSet.getString(1).replace("\"", "\"\"") + '"';
+                    remocoes.add("ALTER TABLE " + tabela.getDestino() + " DROP CONSTRAINT " + nome);
+                    recriacoes.add("ALTER TABLE " + tabela.getDestino() + " ADD CONSTRAINT " + nome + " " + resultSet.getString(2));
+                }
+            }
+        }
+        try (PreparedStatement indices = conexao.prepareStatement(
+              "SELECT indexrelid::regclass::text, pg_get_indexdef(indexrelid) FROM pg_index WHERE indrelid = ?::regclass"
+                    + " AND NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conindid = indexrelid)")) {
+            indices.setString(1, tabela.getDestino());
+            try (ResultSet resultSet = indices.executeQuery()) {
+                while (resultSet.next()) {
+                    remocoes.add("DROP INDEX " + resultSet.getString(1));
+                    recriacoes.add(resultSet.getString(2));
+                }
+            }
+        }
+        try (Statement statement = conexao.createStatement()) {
+            for (String remocao : remocoes) {
+                statement.execute(remocao);
+            }
+        }
+        return recriacoes;
+    }
+}
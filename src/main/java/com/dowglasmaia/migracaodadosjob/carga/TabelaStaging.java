@@ -0,0 +1,43 @@
+package com.dowglasmaia.migracaodadosjob.carga;
+
+import com.dowglasmaia.migracaodadosjob.writer.ModoCarga;
+
+/**
+ * Tabela final carregada por uma tabela de staging, com a chave usada para descartar ids duplicados na promoção.
+ */
+public final class TabelaStaging {
+
+    private final String destino;
+    private final String chave;
+    private final String[] colunas;
+
+    /**
+     * @param destino Tabela final, opcionalmente qualificada pelo schema.
+     * @param chave   Coluna da chave primária.
+     * @param colunas Colunas gravadas pelos writers, incluindo a chave.
+     */
+    public TabelaStaging(String destino, String chave, String... colunas) {
+        this.destino = destino;
+        this.chave = chave;
+        this.colunas = colunas;
+    }
+
+    public String getDestino() {
+        return destino;
+    }
+
+    /**
+     * @return Tabela de staging, com o nome da tabela final e o sufixo {@link ModoCarga#SUFIXO_STAGING}.
+     */
+    public String getStaging() {
+        return ModoCarga.STAGING.tabela(destino);
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    public String[] getColunas() {
+        return colunas;
+    }
+}
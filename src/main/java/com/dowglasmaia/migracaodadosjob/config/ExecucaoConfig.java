@@ -0,0 +1,144 @@
+package com.dowglasmaia.migracaodadosjob.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Configuração dos executores usados pelo job no lugar do {@link org.springframework.core.task.SimpleAsyncTaskExecutor},
+ * que cria uma thread nova e sem limite para cada tarefa.
+ * <p>
+ * São três pools de tamanho fixo, separados para que um fluxo aguardando as suas partições nunca ocupe
+ * a thread de que uma partição precisa, nem uma partição aguardando a descompressão a thread que descompacta:
+ * <ul>
+ *     <li>{@code fluxoTaskExecutor}: executa os fluxos do split do job;</li>
+ *     <li>{@code particaoTaskExecutor}: executa as partições dos steps particionados, compartilhado entre os steps;</li>
+ *     <li>{@code descompressaoTaskExecutor}: descompacta os lotes dos arquivos {@code .gz} e {@code .zst},
+ *     compartilhado entre os leitores.</li>
+ * </ul>
+ * Cada partição em execução usa uma conexão do springDataSource (transação do chunk) e uma do appDataSource (escrita),
+ * então o pool de partições nunca é maior que o pool de conexões do appDataSource, nem que o pool do
+ * springDataSource descontadas as conexões dos fluxos.
+ * <p>
+ * As métricas de cada pool, {@code executor.active} (threads ativas), {@code executor.queued} (tarefas na fila)
+ * e {@code executor.pool.size}, com o nome do bean na tag {@code name}, são registradas pelo
+ * {@link com.dowglasmaia.migracaodadosjob.metricas.ExecutoresMetricasPostProcessor}.
+ */
+@Configuration
+public class ExecucaoConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecucaoConfig.class);
+
+    private static final int TAMANHO_PADRAO_POOL_HIKARI = 10;
+
+    @Value("${app.migracao.execucao.threads:plataforma}")
+    private TipoThread tipoThread;
+
+    @Value("${app.migracao.execucao.fluxos:2}")
+    private int fluxos;
+
+    @Value("${app.migracao.execucao.particoes:0}")
+    private int particoes;
+
+    @Value("${app.migracao.leitura.descompressao.threads:0}")
+    private int threadsDescompressao;
+
+    /**
+     * Cria o executor dos fluxos executados em paralelo pelo split do job.
+     *
+     * @return Executor com uma thread por fluxo.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor fluxoTaskExecutor() {
+        return criarExecutor("fluxo-", fluxos);
+    }
+
+    /**
+     * Cria o executor das partições, limitado pelas conexões disponíveis nos dois pools.
+     * Com {@code app.migracao.execucao.particoes} igual a 0, usa uma thread por processador, respeitando o mesmo limite.
+     *
+     * @param springDataSource Fonte de dados do repositório do job.
+     * @param appDataSource    Fonte de dados da aplicação.
+     * @return Executor das partições.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor particaoTaskExecutor(
+          @Qualifier("springDataSource") DataSource springDataSource,
+          @Qualifier("appDataSource") DataSource appDataSource
+    ) {
+        int desejado = particoes > 0 ? particoes : Runtime.getRuntime().availableProcessors();
+        int limite = Math.min(conexoes(appDataSource, desejado), conexoes(springDataSource, desejado + fluxos) - fluxos);
+        if (limite < 1) {
+            throw new IllegalStateException("O pool de conexões do springDataSource não comporta "
+                  + fluxos + " fluxos e ao menos uma partição");
+        }
+        if (desejado > limite) {
+            log.warn("Partições simultâneas limitadas a {} pelos pools de conexões (solicitado: {})", limite, desejado);
+        }
+        return criarExecutor("particao-", Math.min(desejado, limite));
+    }
+
+    /**
+     * Cria o executor que descompacta em paralelo os lotes dos arquivos compactados, compartilhado entre todos os
+     * arquivos abertos, para que a quantidade de threads de descompressão não cresça com os leitores.
+     * Com {@code app.migracao.leitura.descompressao.threads} igual a 0, usa uma thread por processador.
+     *
+     * @return Executor da descompressão.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor descompressaoTaskExecutor() {
+        return criarExecutor("descompressao-", threadsDescompressao > 0 ? threadsDescompressao : Runtime.getRuntime().availableProcessors());
+    }
+
+    private ThreadPoolTaskExecutor criarExecutor(String prefixo, int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads); // Pool fixo: as tarefas excedentes aguardam na fila
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix(prefixo);
+        executor.setDaemon(true); // Não impede o encerramento da JVM ao fim do job
+        ThreadFactory fabricaVirtual = tipoThread == TipoThread.VIRTUAL ? fabricaThreadsVirtuais(prefixo) : null;
+        if (fabricaVirtual != null) {
+            executor.setThreadFactory(fabricaVirtual);
+        }
+        log.info("Executor {} com {} threads ({})", prefixo, threads, fabricaVirtual != null ? "virtuais" : "plataforma");
+        return executor;
+    }
+
+    /**
+     * Retorna o tamanho máximo do pool Hikari ou, para outro tipo de DataSource, o valor informado.
+     * Antes de o pool ser iniciado, o Hikari só informa o tamanho se ele foi configurado explicitamente.
+     */
+    private static int conexoes(DataSource dataSource, int padrao) {
+        if (dataSource instanceof HikariDataSource) {
+            int maximo = ((HikariDataSource) dataSource).getMaximumPoolSize();
+            return maximo > 0 ? maximo : TAMANHO_PADRAO_POOL_HIKARI;
+        }
+        return padrao;
+    }
+
+    /**
+     * Obtém por reflexão a fábrica de threads virtuais ({@code Thread.ofVirtual().name(prefixo, 0).factory()}),
+     * já que o projeto compila para o Java 11.
+     *
+     * @return Fábrica de threads virtuais, ou {@code null} se o JDK em execução não as suportar.
+     */
+    private static ThreadFactory fabricaThreadsVirtuais(String prefixo) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, prefixo, 0L);
+            return (ThreadFactory) ofVirtual.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Threads virtuais não disponíveis no JDK {}; usando threads de plataforma", Runtime.version().feature());
+            return null;
+        }
+    }
+}
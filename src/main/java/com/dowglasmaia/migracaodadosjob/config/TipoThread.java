@@ -0,0 +1,17 @@
+package com.dowglasmaia.migracaodadosjob.config;
+
+/**
+ * Tipo de thread usado pelos executores de fluxos e partições.
+ */
+public enum TipoThread {
+
+    /**
+     * Threads de plataforma (do sistema operacional).
+     */
+    PLATAFORMA,
+
+    /**
+     * Threads virtuais, disponíveis a partir do JDK 21. Em JDKs anteriores são usadas threads de plataforma.
+     */
+    VIRTUAL
+}
@@ -0,0 +1,197 @@
+package com.dowglasmaia.migracaodadosjob.delta;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Arquivo de impressões: para cada id, a {@link Impressao} do registro gravado e o segmento do arquivo CSV
+ * em que ele estava, em registros de 12 bytes endereçados pelo próprio id.
+ * <p>
+ * O arquivo é mapeado em memória em páginas de 2^20 ids (12 MiB), mapeadas sob demanda; páginas sem nenhum id
+ * gravado não ocupam disco (o arquivo é esparso). Consulta e gravação são O(1), sem objetos por id,
+ * e partições diferentes podem gravar ids diferentes ao mesmo tempo (o fim de cada partição publica as suas
+ * gravações para o step seguinte). Os dados chegam ao disco pelo cache de páginas do sistema operacional;
+ * {@link #forcar()} os grava antes de o arquivo substituir o da execução anterior.
+ */
+public class ArquivoImpressoes implements Closeable {
+
+    /**
+     * Impressão de um id que não está no arquivo.
+     */
+    public static final long AUSENTE = 0;
+
+    /**
+     * Impressão de um id lido, mas não gravado no banco (inválido, órfão ou recusado pelo banco).
+     */
+    public static final long VISTO = 1;
+
+    private static final int BYTES_REGISTRO = 12;
+    private static final int BITS_PAGINA = 20;
+    private static final int IDS_PAGINA = 1 << BITS_PAGINA;
+    private static final long BYTES_PAGINA = (long) IDS_PAGINA * BYTES_REGISTRO;
+
+    private final FileChannel canal;
+    private final boolean gravacao;
+    private final long tamanho;
+    private final AtomicReferenceArray<MappedByteBuffer> paginas = new AtomicReferenceArray<>(1 << (31 - BITS_PAGINA));
+    private final AtomicInteger limite;
+
+    private ArquivoImpressoes(FileChannel canal, boolean gravacao) throws IOException {
+        this.canal = canal;
+        this.gravacao = gravacao;
+        this.tamanho = canal != null ? canal.size() : 0;
+        this.limite = new AtomicInteger((int) Math.min(Integer.MAX_VALUE, tamanho / BYTES_REGISTRO));
+    }
+
+    /**
+     * Abre um arquivo somente para consulta. Um arquivo inexistente é tratado como vazio.
+     *
+     * @param caminho Caminho do arquivo.
+     * @return Arquivo de impressões somente para consulta.
+     */
+    public static ArquivoImpressoes consultar(Path caminho) throws IOException {
+        if (!Files.exists(caminho)) {
+            return new ArquivoImpressoes(null, false);
+        }
+        return new ArquivoImpressoes(FileChannel.open(caminho, StandardOpenOption.READ), false);
+    }
+
+    /**
+     * Abre um arquivo para gravação, mantendo os ids já gravados, ou o cria vazio.
+     *
+     * @param caminho Caminho do arquivo.
+     * @return Arquivo de impressões para consulta e gravação.
+     */
+    public static ArquivoImpressoes gravar(Path caminho) throws IOException {
+        return new ArquivoImpressoes(FileChannel.open(caminho, StandardOpenOption.CREATE, StandardOpenOption.READ,
+              StandardOpenOption.WRITE, StandardOpenOption.SPARSE), true);
+    }
+
+    /**
+     * @param id Id consultado.
+     * @return Impressão do id, {@link #AUSENTE} ou {@link #VISTO}.
+     */
+    public long impressao(int id) {
+        MappedByteBuffer pagina = pagina(id, false);
+        return pagina == null || posicao(id) >= pagina.limit() ? AUSENTE : pagina.getLong(posicao(id));
+    }
+
+    /**
+     * @param id Id consultado.
+     * @return Segmento do arquivo CSV em que o id estava, ou -1 se o arquivo não foi segmentado.
+     */
+    public int segmento(int id) {
+        MappedByteBuffer pagina = pagina(id, false);
+        return pagina == null || posicao(id) >= pagina.limit() ? -1 : pagina.getInt(posicao(id) + Long.BYTES) - 1;
+    }
+
+    /**
+     * Grava a impressão e o segmento de um id.
+     *
+     * @param id        Id gravado, não negativo.
+     * @param impressao Impressão do registro, ou {@link #VISTO}.
+     * @param segmento  Segmento do arquivo CSV, ou -1.
+     */
+    public void gravar(int id, long impressao, int segmento) {
+        MappedByteBuffer pagina = pagina(id, true);
+        pagina.putInt(posicao(id) + Long.BYTES, segmento + 1); // Zero, o valor de uma página nova, é "sem segmento"
+        pagina.putLong(posicao(id), impressao);
+        limite.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /**
+     * Grava a impressão de um id, mantendo o segmento já gravado.
+     *
+     * @param id        Id gravado, não negativo.
+     * @param impressao Impressão do registro.
+     */
+    public void gravar(int id, long impressao) {
+        MappedByteBuffer pagina = pagina(id, true);
+        pagina.putLong(posicao(id), impressao);
+        limite.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /**
+     * @return Maior id gravado mais um, ou um limite superior a ele em um arquivo aberto de disco.
+     */
+    public int limite() {
+        return limite.get();
+    }
+
+    /**
+     * Grava no disco as páginas alteradas.
+     */
+    public void forcar() throws IOException {
+        for (int i = 0; i < paginas.length(); i++) {
+            MappedByteBuffer pagina = paginas.get(i);
+            if (pagina != null) {
+                pagina.force();
+            }
+        }
+        canal.force(true);
+    }
+
+    /**
+     * Fecha o canal. As páginas mapeadas são liberadas pela coleta de lixo e não devem mais ser usadas.
+     */
+    @Override
+    public void close() throws IOException {
+        for (int i = 0; i < paginas.length(); i++) {
+            paginas.set(i, null);
+        }
+        if (canal != null) {
+            canal.close();
+        }
+    }
+
+    private long tamanhoAtual() {
+        try {
+            return gravacao ? canal.size() : tamanho;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao consultar o arquivo de impressões", e);
+        }
+    }
+
+    private static int posicao(int id) {
+        return (id & (IDS_PAGINA - 1)) * BYTES_REGISTRO;
+    }
+
+    /**
+     * @return Página do id, mapeada no primeiro acesso. Uma consulta além do fim do arquivo não o estende e devolve {@code null}.
+     */
+    private MappedByteBuffer pagina(int id, boolean criar) {
+        int indice = id >>> BITS_PAGINA;
+        MappedByteBuffer pagina = paginas.get(indice);
+        if (pagina != null) {
+            return pagina;
+        }
+        long inicio = indice * BYTES_PAGINA;
+        if (canal == null || !criar && inicio >= tamanhoAtual()) {
+            return null;
+        }
+        synchronized (this) {
+            pagina = paginas.get(indice);
+            if (pagina == null) {
+                try {
+                    if (gravacao) {
+                        pagina = canal.map(FileChannel.MapMode.READ_WRITE, inicio, BYTES_PAGINA); // Estende o arquivo, sem ocupar disco
+                    } else {
+                        pagina = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(BYTES_PAGINA, tamanho - inicio));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Falha ao mapear o arquivo de impressões", e);
+                }
+                paginas.set(indice, pagina);
+            }
+        }
+        return pagina;
+    }
+}
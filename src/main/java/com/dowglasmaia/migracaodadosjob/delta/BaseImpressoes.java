@@ -0,0 +1,311 @@
+package com.dowglasmaia.migracaodadosjob.delta;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Base de impressões de uma tabela no modo delta: o {@link ArquivoImpressoes} da última execução concluída
+ * ({@code <nome>.impressoes}), consultado durante a leitura, e o da execução atual ({@code <nome>.impressoes.novo}),
+ * preenchido durante a leitura e a escrita. Os segmentos do arquivo CSV de cada execução ficam em {@code <nome>.segmentos}.
+ * <p>
+ * A comparação é sempre com a execução anterior, então um chunk desfeito não altera o resultado: os seus registros
+ * são comparados de novo quando relidos. A base só passa a valer quando {@link #concluir} substitui os arquivos
+ * da execução anterior pelos da atual; até lá, um restart continua o arquivo da execução atual.
+ *
+ * @param <T> Tipo do registro.
+ */
+public class BaseImpressoes<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(BaseImpressoes.class);
+
+    private static final int TAMANHO_LOTE_EXCLUSAO = 10000;
+
+    private final String nome;
+    private final String tabela;
+    private final String parametro;
+    private final String arquivoPadrao;
+    private final Path diretorio;
+    private final ImpressaoRegistro<T> registro;
+
+    private final LongAdder novos = new LongAdder();
+    private final LongAdder alterados = new LongAdder();
+    private final LongAdder inalterados = new LongAdder();
+
+    private volatile ArquivoImpressoes anterior;
+    private volatile ArquivoImpressoes atual;
+
+    /**
+     * @param nome          Nome da base, usado nos nomes dos arquivos.
+     * @param tabela        Tabela de destino, de onde são excluídos os ids ausentes do arquivo.
+     * @param parametro     Parâmetro do job com o caminho do arquivo CSV da tabela.
+     * @param arquivoPadrao Arquivo CSV usado quando o parâmetro não é informado.
+     * @param diretorio     Diretório dos arquivos da base.
+     * @param registro      Id e impressão de cada registro.
+     */
+    public BaseImpressoes(String nome, String tabela, String parametro, String arquivoPadrao, Path diretorio,
+                          ImpressaoRegistro<T> registro) {
+        this.nome = nome;
+        this.tabela = tabela;
+        this.parametro = parametro;
+        this.arquivoPadrao = arquivoPadrao;
+        this.diretorio = diretorio;
+        this.registro = registro;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * @param parametros Parâmetros do job.
+     * @return Se a execução tem o arquivo desta tabela; uma execução da caixa de entrada recebe um tipo de arquivo por vez.
+     */
+    public boolean temArquivo(Map<String, Object> parametros) {
+        Object arquivo = parametros.get(parametro);
+        return !(arquivo != null ? arquivo.toString() : arquivoPadrao).isEmpty();
+    }
+
+    /**
+     * Inicia uma nova execução: descarta os arquivos de uma execução que não foi concluída e abre a base.
+     */
+    public synchronized void iniciar() throws IOException {
+        fechar();
+        Files.createDirectories(diretorio);
+        Files.deleteIfExists(caminho(".impressoes.novo"));
+        Files.deleteIfExists(caminho(".segmentos.novo"));
+        novos.reset();
+        alterados.reset();
+        inalterados.reset();
+        abrir();
+    }
+
+    /**
+     * @return Impressões da última execução concluída.
+     */
+    public ArquivoImpressoes anterior() {
+        if (anterior == null) {
+            abrir();
+        }
+        return anterior;
+    }
+
+    /**
+     * @return Impressões da execução atual.
+     */
+    public ArquivoImpressoes atual() {
+        if (atual == null) {
+            abrir();
+        }
+        return atual;
+    }
+
+    /**
+     * Compara o registro com a execução anterior e o marca como lido na execução atual.
+     *
+     * @param item     Registro lido.
+     * @param segmento Segmento do arquivo em que o registro está, ou -1.
+     * @return Se o registro é igual ao gravado na execução anterior e pode ser descartado.
+     */
+    public boolean inalterado(T item, int segmento) {
+        int id = registro.id(item);
+        if (id < 0) {
+            return false;
+        }
+        long impressao = registro.impressao(item);
+        long impressaoAnterior = anterior().impressao(id);
+        if (impressaoAnterior == impressao) {
+            atual().gravar(id, impressao, segmento);
+            inalterados.increment();
+            return true;
+        }
+        atual().gravar(id, ArquivoImpressoes.VISTO, segmento); // Gravado no banco, recebe a impressão no escritor
+        if (impressaoAnterior == ArquivoImpressoes.AUSENTE) {
+            novos.increment();
+        } else {
+            alterados.increment();
+        }
+        return false;
+    }
+
+    /**
+     * Registra a impressão dos registros gravados no banco.
+     *
+     * @param itens Registros gravados.
+     */
+    public void gravados(List<? extends T> itens) {
+        ArquivoImpressoes impressoes = atual();
+        for (T item : itens) {
+            int id = registro.id(item);
+            if (id >= 0) {
+                impressoes.gravar(id, registro.impressao(item));
+            }
+        }
+    }
+
+    /**
+     * @return Segmentos do arquivo CSV na última execução concluída, em ordem; vazio se o arquivo não foi segmentado.
+     */
+    public List<Segmento> segmentosAnteriores() throws IOException {
+        return lerSegmentos(caminho(".segmentos"));
+    }
+
+    /**
+     * Grava os segmentos do arquivo CSV na execução atual.
+     *
+     * @param segmentos Segmentos, em ordem.
+     */
+    public void registrarSegmentos(List<Segmento> segmentos) throws IOException {
+        Files.createDirectories(diretorio);
+        List<String> linhas = new ArrayList<>(segmentos.size());
+        for (Segmento segmento : segmentos) {
+            linhas.add(segmento.linha());
+        }
+        Files.write(caminho(".segmentos.novo"), linhas, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Conclui a execução: copia para a execução atual os ids dos segmentos pulados, exclui da tabela os ids gravados
+     * na execução anterior que não foram lidos nesta, marca como incompletos os segmentos com algum id lido e não gravado
+     * ({@link ArquivoImpressoes#VISTO}), que não podem ser pulados na execução seguinte, e substitui os arquivos
+     * da execução anterior.
+     * Pode ser repetida no restart de um job que falhou aqui: as exclusões já feitas não excluem nada de novo,
+     * e a substituição do arquivo de impressões é o último passo, atômico.
+     *
+     * @param dataSource      Fonte de dados da tabela.
+     * @param excluirAusentes Se os ids ausentes do arquivo são excluídos da tabela.
+     */
+    public synchronized void concluir(DataSource dataSource, boolean excluirAusentes) throws IOException, SQLException {
+        if (atual == null && !Files.exists(caminho(".impressoes.novo"))) {
+            Files.deleteIfExists(caminho(".segmentos.novo")); // Já concluída, antes de uma falha na limpeza
+            return;
+        }
+        ArquivoImpressoes anterior = anterior();
+        ArquivoImpressoes atual = atual();
+        List<Segmento> segmentos = lerSegmentos(caminho(".segmentos.novo"));
+        BitSet pulados = new BitSet();
+        for (Segmento segmento : segmentos) {
+            pulados.set(segmento.getIndice(), segmento.isPulado());
+        }
+        long copiados = 0;
+        List<Integer> ausentes = new ArrayList<>();
+        long excluidos = 0;
+        for (int id = 0; id < anterior.limite(); id++) {
+            long impressao = anterior.impressao(id);
+            if (impressao == ArquivoImpressoes.AUSENTE || atual.impressao(id) != ArquivoImpressoes.AUSENTE) {
+                continue;
+            }
+            int segmento = anterior.segmento(id);
+            if (segmento >= 0 && pulados.get(segmento)) {
+                atual.gravar(id, impressao, segmento); // Registro de um segmento igual ao anterior, que não foi lido
+                copiados++;
+            } else if (excluirAusentes && impressao != ArquivoImpressoes.VISTO) {
+                ausentes.add(id);
+                if (ausentes.size() == TAMANHO_LOTE_EXCLUSAO) {
+                    excluidos += excluir(dataSource, ausentes);
+                }
+            }
+        }
+        excluidos += excluir(dataSource, ausentes);
+        BitSet incompletos = new BitSet();
+        for (int id = 0; id < atual.limite(); id++) {
+            int segmento = atual.segmento(id);
+            if (segmento >= 0 && atual.impressao(id) == ArquivoImpressoes.VISTO) {
+                incompletos.set(segmento); // Registro lido e não gravado: o segmento precisa ser relido na próxima execução
+            }
+        }
+        atual.forcar();
+        fechar();
+        if (segmentos.isEmpty()) {
+            Files.deleteIfExists(caminho(".segmentos"));
+        } else {
+            List<String> linhas = new ArrayList<>(segmentos.size());
+            for (Segmento segmento : segmentos) {
+                linhas.add(segmento.completo(!incompletos.get(segmento.getIndice())).linha());
+            }
+            Files.write(caminho(".segmentos"), linhas, StandardCharsets.UTF_8);
+        }
+        Files.move(caminho(".impressoes.novo"), caminho(".impressoes"), StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(caminho(".segmentos.novo"));
+        log.info("Delta de {}: {} novos, {} alterados ou não gravados antes, {} inalterados, {} em segmentos não lidos,"
+              + " {} excluídos",
+              nome, novos.sum(), alterados.sum(), inalterados.sum(), copiados, excluidos);
+    }
+
+    /**
+     * Exclui da tabela um lote de ids com {@code DELETE ... WHERE id = ANY(?)} e esvazia o lote.
+     */
+    private int excluir(DataSource dataSource, List<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = conexao.prepareStatement("DELETE FROM " + tabela + " WHERE id = ANY(?)")) {
+            statement.setArray(1, conexao.createArrayOf("integer", ids.toArray()));
+            return statement.executeUpdate();
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+            ids.clear();
+        }
+    }
+
+    private synchronized void abrir() {
+        try {
+            if (anterior == null) {
+                anterior = ArquivoImpressoes.consultar(caminho(".impressoes"));
+            }
+            if (atual == null) {
+                Files.createDirectories(diretorio);
+                atual = ArquivoImpressoes.gravar(caminho(".impressoes.novo"));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir a base de impressões de " + nome, e);
+        }
+    }
+
+    private synchronized void fechar() throws IOException {
+        if (anterior != null) {
+            anterior.close();
+            anterior = null;
+        }
+        if (atual != null) {
+            atual.close();
+            atual = null;
+        }
+    }
+
+    private Path caminho(String extensao) {
+        return diretorio.resolve(nome + extensao);
+    }
+
+    private static List<Segmento> lerSegmentos(Path caminho) throws IOException {
+        if (!Files.exists(caminho)) {
+            return Collections.emptyList();
+        }
+        List<Segmento> segmentos = new ArrayList<>();
+        for (String linha : Files.readAllLines(caminho, StandardCharsets.UTF_8)) {
+            if (!linha.isEmpty()) {
+                segmentos.add(Segmento.ler(linha));
+            }
+        }
+        return segmentos;
+    }
+}
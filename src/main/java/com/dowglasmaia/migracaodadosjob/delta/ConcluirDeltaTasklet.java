@@ -0,0 +1,45 @@
+package com.dowglasmaia.migracaodadosjob.delta;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tasklet que conclui as bases de impressões das tabelas cujo arquivo está na execução, depois dos steps de migração:
+ * exclui das tabelas os ids que não estão mais nos arquivos e substitui as impressões da execução anterior.
+ */
+public class ConcluirDeltaTasklet implements Tasklet {
+
+    private final List<BaseImpressoes<?>> bases;
+    private final DataSource dataSource;
+    private final boolean excluirAusentes;
+
+    /**
+     * @param bases           Bases de impressões das tabelas migradas.
+     * @param dataSource      Fonte de dados das tabelas finais.
+     * @param excluirAusentes Se os ids ausentes dos arquivos são excluídos das tabelas.
+     */
+    public ConcluirDeltaTasklet(List<BaseImpressoes<?>> bases, DataSource dataSource, boolean excluirAusentes) {
+        this.bases = bases;
+        this.dataSource = dataSource;
+        this.excluirAusentes = excluirAusentes;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws IOException, SQLException {
+        Map<String, Object> parametros = chunkContext.getStepContext().getJobParameters();
+        for (BaseImpressoes<?> base : bases) {
+            if (base.temArquivo(parametros)) {
+                base.concluir(dataSource, excluirAusentes);
+            }
+        }
+        return RepeatStatus.FINISHED;
+    }
+}
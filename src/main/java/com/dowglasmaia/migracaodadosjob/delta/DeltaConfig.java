@@ -0,0 +1,155 @@
+package com.dowglasmaia.migracaodadosjob.delta;
+
+import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import com.dowglasmaia.migracaodadosjob.entrada.TipoArquivo;
+import com.dowglasmaia.migracaodadosjob.remoto.TransporteParticoes;
+import com.dowglasmaia.migracaodadosjob.writer.ModoConflito;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Configuração do modo delta ({@code app.migracao.delta.habilitado}): cada tabela tem uma {@link BaseImpressoes}
+ * com a impressão de cada id gravado na execução anterior. Os registros iguais são descartados na leitura,
+ * os novos e os alterados são gravados com {@code ON CONFLICT (id) DO UPDATE}, e os ids que não estão mais
+ * no arquivo são excluídos ao fim do job. Com o particionamento, os segmentos do arquivo iguais aos da execução
+ * anterior nem são lidos.
+ */
+@Configuration
+public class DeltaConfig {
+
+    @Value("${app.migracao.delta.habilitado:false}")
+    private boolean deltaHabilitado;
+
+    @Value("${app.migracao.delta.diretorio:files/delta}")
+    private String diretorio;
+
+    @Value("${app.migracao.arquivos.pessoas:files/pessoas.csv}")
+    private String arquivoPessoas;
+
+    @Value("${app.migracao.arquivos.dados-bancarios:files/dados_bancarios.csv}")
+    private String arquivoDadosBancarios;
+
+    @Value("${app.migracao.escrita.conflito:falhar}")
+    private ModoConflito modoConflito;
+
+    @Value("${app.migracao.particionamento.habilitado:false}")
+    private boolean particionamentoHabilitado;
+
+    @Value("${app.migracao.particionamento.remoto.habilitado:false}")
+    private boolean particionamentoRemoto;
+
+    @Value("${app.migracao.particionamento.remoto.transporte:jdbc}")
+    private TransporteParticoes transporteParticoes;
+
+    /**
+     * Cria a base de impressões da tabela pessoa.
+     *
+     * @return Base de impressões de pessoas, aberta no primeiro uso.
+     */
+    @Bean
+    public BaseImpressoes<Pessoa> basePessoas() {
+        validar();
+        return new BaseImpressoes<>(
+              "pessoa", // Nome dos arquivos da base
+              "pessoa", // Tabela de onde são excluídos os ids ausentes
+              TipoArquivo.PESSOAS.getParametro(), arquivoPessoas, // Arquivo CSV da execução
+              Paths.get(diretorio), // Diretório da base
+              new ImpressaoRegistro<Pessoa>() {
+                  @Override
+                  public int id(Pessoa pessoa) {
+                      return pessoa.getId();
+                  }
+
+                  @Override
+                  public long impressao(Pessoa pessoa) {
+                      long estado = Impressao.com(Impressao.SEMENTE, pessoa.getNome());
+                      estado = Impressao.com(estado, pessoa.getEmail());
+                      estado = Impressao.com(estado, pessoa.getDataNascimento());
+                      return Impressao.finalizar(Impressao.com(estado, pessoa.getIdade()));
+                  }
+              }
+        );
+    }
+
+    /**
+     * Cria a base de impressões da tabela dados_bancarios.
+     *
+     * @return Base de impressões de dados bancários, aberta no primeiro uso.
+     */
+    @Bean
+    public BaseImpressoes<DadosBancario> baseDadosBancarios() {
+        validar();
+        return new BaseImpressoes<>(
+              "dados_bancarios", // Nome dos arquivos da base
+              "public.dados_bancarios", // Tabela de onde são excluídos os ids ausentes
+              TipoArquivo.DADOS_BANCARIOS.getParametro(), arquivoDadosBancarios, // Arquivo CSV da execução
+              Paths.get(diretorio), // Diretório da base
+              new ImpressaoRegistro<DadosBancario>() {
+                  @Override
+                  public int id(DadosBancario dadosBancario) {
+                      return dadosBancario.getId();
+                  }
+
+                  @Override
+                  public long impressao(DadosBancario dadosBancario) {
+                      long estado = Impressao.com(Impressao.SEMENTE, dadosBancario.getPessoaId());
+                      estado = Impressao.com(estado, dadosBancario.getAgencia());
+                      estado = Impressao.com(estado, dadosBancario.getConta());
+                      return Impressao.finalizar(Impressao.com(estado, dadosBancario.getBanco()));
+                  }
+              }
+        );
+    }
+
+    /**
+     * Cria o processador que descarta as pessoas inalteradas, com o segmento do arquivo lido pela partição.
+     *
+     * @param basePessoas Base de impressões de pessoas.
+     * @param segmento    Segmento da partição, ausente sem o particionamento ou com o arquivo inteiro em uma partição.
+     * @return DeltaItemProcessor de pessoas.
+     */
+    @Bean
+    @StepScope
+    public DeltaItemProcessor<Pessoa> pessoaDeltaProcessor(
+          @Qualifier("basePessoas") BaseImpressoes<Pessoa> basePessoas,
+          @Value("#{stepExecutionContext['segmento']}") Integer segmento
+    ) {
+        return new DeltaItemProcessor<>(basePessoas, segmento != null ? segmento : -1);
+    }
+
+    /**
+     * Cria o processador que descarta os dados bancários inalterados, com o segmento do arquivo lido pela partição.
+     *
+     * @param baseDadosBancarios Base de impressões de dados bancários.
+     * @param segmento           Segmento da partição, ausente sem o particionamento ou com o arquivo inteiro em uma partição.
+     * @return DeltaItemProcessor de dados bancários.
+     */
+    @Bean
+    @StepScope
+    public DeltaItemProcessor<DadosBancario> dadosBancarioDeltaProcessor(
+          @Qualifier("baseDadosBancarios") BaseImpressoes<DadosBancario> baseDadosBancarios,
+          @Value("#{stepExecutionContext['segmento']}") Integer segmento
+    ) {
+        return new DeltaItemProcessor<>(baseDadosBancarios, segmento != null ? segmento : -1);
+    }
+
+    private void validar() {
+        if (!deltaHabilitado) {
+            return;
+        }
+        if (modoConflito != ModoConflito.ATUALIZAR) {
+            throw new IllegalStateException("O modo delta grava os registros alterados sobre os existentes;"
+                  + " use app.migracao.escrita.conflito: atualizar");
+        }
+        if (particionamentoHabilitado && particionamentoRemoto && transporteParticoes == TransporteParticoes.JDBC) {
+            throw new IllegalStateException("A base de impressões do modo delta é local e não é compartilhada com os"
+                  + " trabalhadores do particionamento remoto; use o transporte local");
+        }
+    }
+}
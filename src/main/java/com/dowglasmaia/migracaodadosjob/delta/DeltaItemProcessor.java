@@ -0,0 +1,29 @@
+package com.dowglasmaia.migracaodadosjob.delta;
+
+import org.springframework.batch.item.ItemProcessor;
+
+/**
+ * {@link ItemProcessor} do modo delta: descarta os registros iguais aos gravados na execução anterior,
+ * contados como filtrados no step, e passa adiante os novos e os alterados.
+ *
+ * @param <T> Tipo do registro.
+ */
+public class DeltaItemProcessor<T> implements ItemProcessor<T, T> {
+
+    private final BaseImpressoes<T> base;
+    private final int segmento;
+
+    /**
+     * @param base     Base de impressões da tabela.
+     * @param segmento Segmento do arquivo lido pelo step, ou -1 quando o arquivo não é segmentado.
+     */
+    public DeltaItemProcessor(BaseImpressoes<T> base, int segmento) {
+        this.base = base;
+        this.segmento = segmento;
+    }
+
+    @Override
+    public T process(T item) {
+        return base.inalterado(item, segmento) ? null : item;
+    }
+}
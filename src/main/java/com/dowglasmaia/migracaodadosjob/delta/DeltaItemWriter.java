@@ -0,0 +1,33 @@
+package com.dowglasmaia.migracaodadosjob.delta;
+
+import com.dowglasmaia.migracaodadosjob.writer.AposConfirmacao;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ItemWriter} do modo delta que grava pelo escritor delegado e, após a gravação, registra a impressão
+ * dos registros na {@link BaseImpressoes}. Assim só os registros que de fato foram gravados no banco
+ * são descartados na próxima execução; os recusados continuam marcados como lidos e são reenviados.
+ * As impressões só são registradas na confirmação da transação ({@link AposConfirmacao}).
+ *
+ * @param <T> Tipo do registro.
+ */
+public class DeltaItemWriter<T> implements ItemWriter<T> {
+
+    private final ItemWriter<T> delegate;
+    private final BaseImpressoes<T> base;
+
+    public DeltaItemWriter(ItemWriter<T> delegate, BaseImpressoes<T> base) {
+        this.delegate = delegate;
+        this.base = base;
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        delegate.write(items);
+        List<? extends T> gravados = new ArrayList<>(items);
+        AposConfirmacao.executar(() -> base.gravados(gravados));
+    }
+}
@@ -0,0 +1,127 @@
+package com.dowglasmaia.migracaodadosjob.delta;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.time.LocalDateTime;
+
+/**
+ * Impressão digital de 64 bits de registros e de trechos de arquivo, no esquema do MurmurHash3 x64:
+ * cada valor é misturado ao estado e o resultado passa pela finalização, que espalha todos os bits.
+ * Não é criptográfica; com 64 bits, a chance de dois registros diferentes terem a mesma impressão
+ * em uma carga de 100 milhões de ids é da ordem de 10^-4.
+ * <p>
+ * As impressões finais nunca são {@link ArquivoImpressoes#AUSENTE} nem {@link ArquivoImpressoes#VISTO},
+ * os valores reservados do arquivo de impressões.
+ */
+public final class Impressao {
+
+    /**
+     * Estado inicial de uma impressão.
+     */
+    public static final long SEMENTE = 0x9E3779B97F4A7C15L;
+
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+    private static final long NULO = 0xA5A5A5A5A5A5A5A5L;
+
+    private Impressao() {
+    }
+
+    /**
+     * @param estado Estado atual da impressão.
+     * @param valor  Valor acrescentado.
+     * @return Novo estado.
+     */
+    public static long com(long estado, long valor) {
+        long k = valor * C1;
+        k = Long.rotateLeft(k, 31) * C2;
+        estado ^= k;
+        return Long.rotateLeft(estado, 27) * 5 + 0x52DCE729;
+    }
+
+    /**
+     * @param estado Estado atual da impressão.
+     * @param texto  Texto acrescentado, ou {@code null}, que tem impressão diferente do texto vazio.
+     * @return Novo estado.
+     */
+    public static long com(long estado, CharSequence texto) {
+        if (texto == null) {
+            return com(estado, NULO);
+        }
+        int tamanho = texto.length();
+        int i = 0;
+        for (; i + 4 <= tamanho; i += 4) { // Quatro caracteres de 16 bits por valor
+            estado = com(estado, texto.charAt(i) | (long) texto.charAt(i + 1) << 16
+                  | (long) texto.charAt(i + 2) << 32 | (long) texto.charAt(i + 3) << 48);
+        }
+        long resto = 0;
+        for (int deslocamento = 0; i < tamanho; i++, deslocamento += 16) {
+            resto |= (long) texto.charAt(i) << deslocamento;
+        }
+        return com(com(estado, resto), tamanho); // O tamanho separa textos vizinhos: ("ab", "c") de ("a", "bc")
+    }
+
+    /**
+     * @param estado Estado atual da impressão.
+     * @param data   Data e hora acrescentada, ou {@code null}.
+     * @return Novo estado.
+     */
+    public static long com(long estado, LocalDateTime data) {
+        if (data == null) {
+            return com(estado, NULO);
+        }
+        return com(com(estado, data.toLocalDate().toEpochDay()), data.toLocalTime().toNanoOfDay());
+    }
+
+    /**
+     * @param estado Estado da impressão.
+     * @return Impressão final, com os bits espalhados e fora dos valores reservados.
+     */
+    public static long finalizar(long estado) {
+        estado ^= estado >>> 33;
+        estado *= 0xFF51AFD7ED558CCDL;
+        estado ^= estado >>> 33;
+        estado *= 0xC4CEB9FE1A85EC53L;
+        estado ^= estado >>> 33;
+        return estado == ArquivoImpressoes.AUSENTE || estado == ArquivoImpressoes.VISTO ? estado + 2 : estado;
+    }
+
+    /**
+     * Calcula a impressão de um trecho de arquivo, lido oito bytes por vez.
+     * O resultado não depende do tamanho do buffer nem de quantos bytes cada leitura do canal devolve.
+     *
+     * @param canal  Canal do arquivo.
+     * @param inicio Byte inicial do trecho, inclusivo.
+     * @param fim    Byte final do trecho, exclusivo.
+     * @param buffer Buffer de leitura, reutilizado entre os trechos.
+     * @return Impressão do trecho.
+     */
+    public static long trecho(FileChannel canal, long inicio, long fim, ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        long estado = SEMENTE;
+        long posicao = inicio;
+        buffer.clear();
+        while (posicao < fim) {
+            buffer.limit((int) Math.min(buffer.capacity(), buffer.position() + (fim - posicao)));
+            int lidos = canal.read(buffer, posicao);
+            if (lidos <= 0) {
+                break;
+            }
+            posicao += lidos;
+            buffer.flip();
+            while (buffer.remaining() >= Long.BYTES) {
+                estado = com(estado, buffer.getLong());
+            }
+            buffer.compact(); // Os bytes que não completam um long seguem para a próxima leitura
+        }
+        buffer.flip();
+        long resto = 0;
+        for (int deslocamento = 0; buffer.hasRemaining(); deslocamento += 8) {
+            resto |= (buffer.get() & 0xFFL) << deslocamento;
+        }
+        estado = com(estado, resto);
+        return finalizar(com(estado, fim - inicio));
+    }
+}
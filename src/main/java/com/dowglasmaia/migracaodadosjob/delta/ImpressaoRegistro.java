@@ -0,0 +1,21 @@
+package com.dowglasmaia.migracaodadosjob.delta;
+
+/**
+ * Extrai de um registro o id e a {@link Impressao} dos campos gravados no banco.
+ *
+ * @param <T> Tipo do registro.
+ */
+public interface ImpressaoRegistro<T> {
+
+    /**
+     * @param item Registro.
+     * @return Id do registro. Registros com id negativo não são acompanhados e são sempre enviados ao banco.
+     */
+    int id(T item);
+
+    /**
+     * @param item Registro.
+     * @return Impressão dos campos do registro, obtida com {@link Impressao#finalizar(long)}.
+     */
+    long impressao(T item);
+}
@@ -0,0 +1,43 @@
+package com.dowglasmaia.migracaodadosjob.delta;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tasklet que inicia as bases de impressões das tabelas cujo arquivo está na execução, antes dos steps de migração.
+ * Os arquivos de uma execução anterior que não foi concluída são descartados. Como o step não é reexecutado
+ * no restart de um job que falhou, o restart continua as impressões já registradas.
+ */
+public class PrepararDeltaTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(PrepararDeltaTasklet.class);
+
+    private final List<BaseImpressoes<?>> bases;
+
+    /**
+     * @param bases Bases de impressões das tabelas migradas.
+     */
+    public PrepararDeltaTasklet(List<BaseImpressoes<?>> bases) {
+        this.bases = bases;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws IOException {
+        Map<String, Object> parametros = chunkContext.getStepContext().getJobParameters();
+        for (BaseImpressoes<?> base : bases) {
+            if (base.temArquivo(parametros)) {
+                base.iniciar();
+                log.info("Base de impressões de {} iniciada", base.getNome());
+            }
+        }
+        return RepeatStatus.FINISHED;
+    }
+}
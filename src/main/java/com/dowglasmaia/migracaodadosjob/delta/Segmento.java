@@ -0,0 +1,92 @@
+package com.dowglasmaia.migracaodadosjob.delta;
+
+/**
+ * Segmento de um arquivo CSV no modo delta: intervalo de bytes alinhado em quebras de linha, a sua impressão,
+ * se ele foi pulado por estar igual ao segmento de mesmo índice da execução anterior e se todos os seus registros
+ * foram gravados no banco. Só um segmento completo pode ser pulado na execução seguinte: um registro inválido,
+ * órfão ou recusado pelo banco precisa ser lido de novo, mesmo que a linha não tenha mudado.
+ */
+public final class Segmento {
+
+    private final int indice;
+    private final long inicio;
+    private final long fim;
+    private final long impressao;
+    private final boolean pulado;
+    private final boolean completo;
+
+    /**
+     * @param indice    Posição do segmento no arquivo, a partir de zero.
+     * @param inicio    Byte inicial, inclusivo.
+     * @param fim       Byte final, exclusivo.
+     * @param impressao Impressão dos bytes do segmento.
+     * @param pulado    Se o segmento estava igual ao da execução anterior e não foi lido.
+     * @param completo  Se todos os registros do segmento foram gravados no banco; só é conhecido na conclusão do delta.
+     */
+    public Segmento(int indice, long inicio, long fim, long impressao, boolean pulado, boolean completo) {
+        this.indice = indice;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.impressao = impressao;
+        this.pulado = pulado;
+        this.completo = completo;
+    }
+
+    /**
+     * @param linha Linha {@code indice;inicio;fim;impressao;pulado;completo} do arquivo de segmentos.
+     * @return Segmento da linha. Sem o último campo, de uma base anterior a ele, o segmento é tratado como incompleto.
+     */
+    static Segmento ler(String linha) {
+        String[] campos = linha.split(";");
+        return new Segmento(Integer.parseInt(campos[0]), Long.parseLong(campos[1]), Long.parseLong(campos[2]),
+              Long.parseLong(campos[3]), Boolean.parseBoolean(campos[4]), campos.length > 5 && Boolean.parseBoolean(campos[5]));
+    }
+
+    /**
+     * @param completo Se todos os registros do segmento foram gravados no banco.
+     * @return Cópia do segmento com o indicador informado.
+     */
+    Segmento completo(boolean completo) {
+        return new Segmento(indice, inicio, fim, impressao, pulado, completo);
+    }
+
+    /**
+     * @return Linha do segmento no arquivo de segmentos.
+     */
+    String linha() {
+        return indice + ";" + inicio + ";" + fim + ";" + impressao + ";" + pulado + ";" + completo;
+    }
+
+    /**
+     * @param outro Segmento da execução anterior.
+     * @return Se o segmento tem o mesmo intervalo e o mesmo conteúdo do outro.
+     */
+    public boolean igual(Segmento outro) {
+        return outro != null && outro.indice == indice && outro.inicio == inicio && outro.fim == fim
+              && outro.impressao == impressao;
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public long getInicio() {
+        return inicio;
+    }
+
+    public long getFim() {
+        return fim;
+    }
+
+    public long getImpressao() {
+        return impressao;
+    }
+
+    public boolean isPulado() {
+        return pulado;
+    }
+
+    public boolean isCompleto() {
+        return completo;
+    }
+}
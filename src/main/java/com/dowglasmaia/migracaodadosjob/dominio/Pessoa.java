@@ -6,7 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.apache.logging.log4j.util.Strings;
 
-import java.util.Date;
+import java.time.LocalDateTime;
 
 @Builder
 @Data
@@ -17,7 +17,7 @@ public class Pessoa {
     private int id;
     private String nome;
     private String email;
-    private Date dataNascimento;
+    private LocalDateTime dataNascimento;
     private int idade;
 
     public boolean isValida(){
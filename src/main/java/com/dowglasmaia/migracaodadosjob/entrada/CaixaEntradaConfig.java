@@ -0,0 +1,117 @@
+package com.dowglasmaia.migracaodadosjob.entrada;
+
+import com.dowglasmaia.migracaodadosjob.repositorio.ModoRepositorio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Configuração da caixa de entrada ({@code app.migracao.caixa-entrada.habilitada}): a JVM fica em execução
+ * e processa cada arquivo de pessoas ou de dados bancários assim que ele chega ao diretório monitorado,
+ * em vez de uma execução do job por arquivo. O job não é executado na inicialização
+ * ({@code spring.batch.job.enabled: false}, no profile {@code caixa-entrada}).
+ */
+@Configuration
+public class CaixaEntradaConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(CaixaEntradaConfig.class);
+
+    @Value("${app.migracao.caixa-entrada.habilitada:false}")
+    private boolean habilitada;
+
+    @Value("${app.migracao.caixa-entrada.diretorio:files/entrada}")
+    private String diretorio;
+
+    @Value("${app.migracao.caixa-entrada.arquivados:files/arquivados}")
+    private String arquivados;
+
+    @Value("${app.migracao.caixa-entrada.erros:files/erros}")
+    private String erros;
+
+    @Value("${app.migracao.caixa-entrada.padrao-pessoas:pessoas*.{csv,csv.gz,csv.zst}}")
+    private String padraoPessoas;
+
+    @Value("${app.migracao.caixa-entrada.padrao-dados-bancarios:dados_bancarios*.{csv,csv.gz,csv.zst}}")
+    private String padraoDadosBancarios;
+
+    @Value("${app.migracao.caixa-entrada.intervalo-ms:1000}")
+    private long intervaloMs;
+
+    @Value("${app.migracao.caixa-entrada.estabilidade-ms:1000}")
+    private long estabilidadeMs;
+
+    @Value("${app.migracao.caixa-entrada.tentativas:3}")
+    private int tentativas;
+
+    @Value("${app.migracao.caixa-entrada.espera-tentativa-ms:30000}")
+    private long esperaTentativaMs;
+
+    @Value("${app.migracao.caixa-entrada.encerramento-ms:60000}")
+    private long encerramentoMs;
+
+    @Value("${app.migracao.repositorio.modo:completo}")
+    private ModoRepositorio modoRepositorio;
+
+    /**
+     * Cria o monitor da caixa de entrada, iniciado pelo {@code caixaEntradaRunner}.
+     *
+     * @param jobLauncher      Launcher do job.
+     * @param migracaoDadosJob Job executado para cada arquivo recebido.
+     * @return Monitor da caixa de entrada.
+     */
+    @Bean(destroyMethod = "parar")
+    public MonitorCaixaEntrada monitorCaixaEntrada(
+          JobLauncher jobLauncher,
+          @Qualifier("migracaoDadosJob") Job migracaoDadosJob
+    ) {
+        Map<TipoArquivo, PathMatcher> padroes = new EnumMap<>(TipoArquivo.class);
+        padroes.put(TipoArquivo.PESSOAS, FileSystems.getDefault().getPathMatcher("glob:" + padraoPessoas));
+        padroes.put(TipoArquivo.DADOS_BANCARIOS, FileSystems.getDefault().getPathMatcher("glob:" + padraoDadosBancarios));
+        return new MonitorCaixaEntrada(
+              jobLauncher, migracaoDadosJob,
+              Paths.get(diretorio), // Diretório monitorado
+              Paths.get(arquivados), // Arquivos concluídos, com os rejeitados de cada lote
+              Paths.get(erros), // Arquivos que esgotaram as tentativas
+              padroes, intervaloMs, estabilidadeMs, tentativas,
+              esperaTentativaMs, // Espera antes da segunda tentativa, dobrada a cada falha
+              encerramentoMs // Espera pelo lote em execução no encerramento antes de interrompê-lo
+        );
+    }
+
+    /**
+     * Inicia o monitoramento depois da inicialização do contexto e mantém a JVM em execução até o seu encerramento.
+     *
+     * @param monitorCaixaEntrada Monitor da caixa de entrada.
+     * @return ApplicationRunner que aguarda o fim do monitoramento.
+     */
+    @Bean
+    public ApplicationRunner caixaEntradaRunner(@Qualifier("monitorCaixaEntrada") MonitorCaixaEntrada monitorCaixaEntrada) {
+        return new ApplicationRunner() {
+            @Override
+            public void run(ApplicationArguments args) throws Exception {
+                if (!habilitada) {
+                    return;
+                }
+                if (modoRepositorio == ModoRepositorio.MEMORIA) {
+                    log.warn("Com o repositório do job em memória, os arquivos já processados só são reconhecidos"
+                          + " até o fim desta JVM");
+                }
+                monitorCaixaEntrada.iniciar();
+                monitorCaixaEntrada.aguardar();
+            }
+        };
+    }
+}
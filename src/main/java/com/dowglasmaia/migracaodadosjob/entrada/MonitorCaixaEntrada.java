@@ -0,0 +1,419 @@
+package com.dowglasmaia.migracaodadosjob.entrada;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monitora a caixa de entrada e executa o job uma vez para cada arquivo recebido, no contexto já iniciado.
+ * <p>
+ * O diretório é observado por um {@link WatchService}, com uma varredura a cada intervalo mesmo sem eventos,
+ * o que cobre sistemas de arquivos sem notificação (NFS, volumes montados). Um arquivo só é processado depois
+ * de manter o tamanho e a data de modificação durante o tempo de estabilidade, para não ler um arquivo ainda
+ * sendo copiado.
+ * <p>
+ * Cada arquivo é um lote: o job recebe o seu caminho e a sua versão (tamanho e data de modificação) como
+ * parâmetros identificadores, e o outro arquivo vazio. A instância do job no repositório registra o que já foi
+ * processado: um arquivo cuja instância já terminou é só arquivado, sem nova carga, e um arquivo cujo lote
+ * falhou é reexecutado com os mesmos parâmetros, o que faz o restart a partir do último chunk confirmado.
+ * Um arquivo substituído com o mesmo nome tem outra versão e é um novo lote.
+ * <p>
+ * Ao concluir, o arquivo é movido para {@code <arquivados>/<lote>/}, onde o job também grava os rejeitados
+ * do lote. Um lote com falha só é reexecutado depois de uma espera que dobra a cada falha, e depois do número
+ * máximo de tentativas o arquivo é movido para {@code <erros>/<lote>/}.
+ * <p>
+ * O job é executado na thread do monitor, então {@link #parar()} aguarda o lote em execução até o tempo de
+ * encerramento e só então interrompe a thread: o step em execução termina como {@code STOPPED} e o lote é
+ * retomado do último chunk confirmado na próxima inicialização, sem contar como tentativa.
+ */
+public class MonitorCaixaEntrada {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorCaixaEntrada.class);
+
+    private static final DateTimeFormatter FORMATO_LOTE =
+          DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneId.systemDefault());
+
+    private final JobLauncher jobLauncher;
+    private final Job job;
+    private final Path entrada;
+    private final Path arquivados;
+    private final Path erros;
+    private final Map<TipoArquivo, PathMatcher> padroes;
+    private final long intervaloMs;
+    private final long estabilidadeMs;
+    private final int tentativasMaximas;
+    private final long esperaTentativaMs;
+    private final long encerramentoMs;
+
+    private final Map<Path, Observacao> observacoes = new HashMap<>();
+    private final Map<String, Tentativa> tentativas = new HashMap<>();
+
+    private volatile boolean ativo;
+    private Thread thread;
+
+    /**
+     * @param jobLauncher       Launcher síncrono do job.
+     * @param job               Job executado para cada arquivo.
+     * @param entrada           Diretório monitorado.
+     * @param arquivados        Diretório dos arquivos concluídos e dos seus rejeitados.
+     * @param erros             Diretório dos arquivos que esgotaram as tentativas.
+     * @param padroes           Padrão do nome dos arquivos de cada tipo.
+     * @param intervaloMs       Intervalo máximo entre as varreduras da caixa de entrada.
+     * @param estabilidadeMs    Tempo sem alteração de tamanho e data após o qual o arquivo é considerado completo.
+     * @param tentativasMaximas Execuções com falha de um lote antes de mover o arquivo para o diretório de erros.
+     * @param esperaTentativaMs Espera antes de reexecutar um lote depois da primeira falha, dobrada a cada nova falha.
+     * @param encerramentoMs    Tempo que {@link #parar()} aguarda o lote em execução antes de interromper a thread.
+     */
+    public MonitorCaixaEntrada(JobLauncher jobLauncher, Job job, Path entrada, Path arquivados, Path erros,
+                               Map<TipoArquivo, PathMatcher> padroes, long intervaloMs, long estabilidadeMs,
+                               int tentativasMaximas, long esperaTentativaMs, long encerramentoMs) {
+        this.jobLauncher = jobLauncher;
+        this.job = job;
+        this.entrada = entrada;
+        this.arquivados = arquivados;
+        this.erros = erros;
+        this.padroes = padroes;
+        this.intervaloMs = intervaloMs;
+        this.estabilidadeMs = estabilidadeMs;
+        this.tentativasMaximas = tentativasMaximas;
+        this.esperaTentativaMs = esperaTentativaMs;
+        this.encerramentoMs = encerramentoMs;
+    }
+
+    /**
+     * Cria os diretórios e inicia o monitoramento em uma thread própria.
+     */
+    public synchronized void iniciar() throws IOException {
+        Files.createDirectories(entrada);
+        Files.createDirectories(arquivados);
+        Files.createDirectories(erros);
+        ativo = true;
+        thread = new Thread(this::monitorar, "caixa-entrada");
+        thread.start();
+        log.info("Monitorando a caixa de entrada {} a cada {} ms, arquivos estáveis por {} ms",
+              entrada.toAbsolutePath(), intervaloMs, estabilidadeMs);
+    }
+
+    /**
+     * Bloqueia até o fim do monitoramento, mantendo a JVM em execução.
+     */
+    public void aguardar() throws InterruptedException {
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Encerra o monitoramento, bloqueando até o fim do lote em execução por no máximo o tempo de encerramento.
+     * Esgotado esse tempo, interrompe a thread do monitor, o que para o step em execução, e aguarda o seu fim.
+     */
+    public void parar() throws InterruptedException {
+        Thread monitor;
+        synchronized (this) {
+            ativo = false;
+            monitor = thread;
+        }
+        if (monitor == null || monitor == Thread.currentThread()) {
+            return;
+        }
+        monitor.join(encerramentoMs);
+        if (monitor.isAlive()) {
+            log.warn("Lote em execução após {} ms de encerramento; interrompendo a caixa de entrada", encerramentoMs);
+            monitor.interrupt();
+            monitor.join();
+        }
+    }
+
+    private void monitorar() {
+        WatchService watchService = null;
+        try {
+            try {
+                watchService = entrada.getFileSystem().newWatchService();
+                entrada.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            } catch (IOException | UnsupportedOperationException e) {
+                log.warn("Caixa de entrada sem notificação de alterações, usando só a varredura periódica: {}", e.getMessage());
+            }
+            while (ativo) {
+                try {
+                    for (ArquivoRecebido arquivo : prontos()) {
+                        if (!ativo) {
+                            break;
+                        }
+                        if (aguardandoTentativa(arquivo)) {
+                            continue;
+                        }
+                        processar(arquivo);
+                    }
+                } catch (IOException e) {
+                    log.warn("Falha ao varrer a caixa de entrada {}: {}", entrada, e.getMessage());
+                }
+                aguardarAlteracao(watchService);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException e) {
+                    log.debug("Falha ao fechar o WatchService da caixa de entrada", e);
+                }
+            }
+        }
+        log.info("Monitoramento da caixa de entrada encerrado");
+    }
+
+    /**
+     * Aguarda um evento na caixa de entrada ou o intervalo. Um arquivo ainda instável é reavaliado depois do
+     * tempo de estabilidade, e um lote com falha na hora da sua próxima tentativa, mesmo que nenhum evento chegue.
+     */
+    private void aguardarAlteracao(WatchService watchService) throws InterruptedException {
+        long espera = observacoes.isEmpty() ? intervaloMs : Math.min(intervaloMs, estabilidadeMs);
+        long agora = System.currentTimeMillis();
+        for (Tentativa tentativa : tentativas.values()) {
+            espera = Math.min(espera, Math.max(1, tentativa.proxima - agora));
+        }
+        if (watchService == null) {
+            Thread.sleep(espera);
+            return;
+        }
+        WatchKey chave = watchService.poll(espera, TimeUnit.MILLISECONDS);
+        if (chave != null) {
+            chave.pollEvents(); // A varredura seguinte lê o diretório inteiro
+            chave.reset();
+        }
+    }
+
+    /**
+     * Lista os arquivos estáveis, do mais antigo para o mais novo, com pessoas antes de dados bancários
+     * quando a data coincide.
+     */
+    private List<ArquivoRecebido> prontos() throws IOException {
+        long agora = System.currentTimeMillis();
+        Map<Path, Observacao> atuais = new HashMap<>();
+        List<ArquivoRecebido> prontos = new ArrayList<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(entrada)) {
+            for (Path arquivo : arquivos) {
+                TipoArquivo tipo = tipo(arquivo.getFileName());
+                if (tipo == null) {
+                    continue;
+                }
+                BasicFileAttributes atributos;
+                try {
+                    atributos = Files.readAttributes(arquivo, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    continue; // Removido durante a varredura
+                }
+                if (!atributos.isRegularFile()) {
+                    continue;
+                }
+                long tamanho = atributos.size();
+                long modificado = atributos.lastModifiedTime().toMillis();
+                Observacao anterior = observacoes.get(arquivo);
+                Observacao observacao = anterior != null && anterior.tamanho == tamanho && anterior.modificado == modificado
+                      ? anterior : new Observacao(tamanho, modificado, agora);
+                atuais.put(arquivo, observacao);
+                if (agora - observacao.desde >= estabilidadeMs) {
+                    prontos.add(new ArquivoRecebido(arquivo, tipo, tamanho, modificado));
+                }
+            }
+        }
+        observacoes.clear();
+        observacoes.putAll(atuais);
+        prontos.sort(Comparator.comparingLong(ArquivoRecebido::getModificado)
+              .thenComparing(ArquivoRecebido::getTipo)
+              .thenComparing(ArquivoRecebido::getNome));
+        return prontos;
+    }
+
+    private TipoArquivo tipo(Path nome) {
+        for (Map.Entry<TipoArquivo, PathMatcher> padrao : padroes.entrySet()) {
+            if (padrao.getValue().matches(nome)) {
+                return padrao.getKey();
+            }
+        }
+        return null;
+    }
+
+    private void processar(ArquivoRecebido arquivo) {
+        String lote = arquivo.lote();
+        Path diretorioLote = arquivados.resolve(lote);
+        JobParametersBuilder parametros = new JobParametersBuilder();
+        for (TipoArquivo tipo : TipoArquivo.values()) {
+            parametros.addString(tipo.getParametro(), tipo == arquivo.getTipo() ? arquivo.getCaminho().toString() : "");
+        }
+        JobParameters jobParameters = parametros
+              .addString("arquivo.versao", arquivo.versao()) // Um arquivo substituído com o mesmo nome é outro lote
+              .addString("diretorio.rejeitados", diretorioLote.toString(), false)
+              .toJobParameters();
+
+        long inicio = System.currentTimeMillis();
+        try {
+            Files.createDirectories(diretorioLote);
+            JobExecution execucao = jobLauncher.run(job, jobParameters);
+            if (execucao.getStatus() == BatchStatus.COMPLETED) {
+                mover(arquivo, diretorioLote);
+                log.info("Arquivo {} processado em {} ms, {} ms após a última alteração; arquivado em {}",
+                      arquivo.getNome(), System.currentTimeMillis() - inicio,
+                      System.currentTimeMillis() - arquivo.getModificado(), diretorioLote);
+                return;
+            }
+            falhou(arquivo, "execução " + execucao.getId() + " terminou com " + execucao.getStatus());
+        } catch (JobInstanceAlreadyCompleteException e) {
+            log.info("Arquivo {} já processado em uma execução anterior; arquivado sem nova carga", arquivo.getNome());
+            moverSemFalha(arquivo, diretorioLote);
+        } catch (Exception e) {
+            falhou(arquivo, e.getMessage());
+        }
+    }
+
+    /**
+     * @return Se o lote do arquivo falhou e a espera até a próxima tentativa ainda não terminou.
+     */
+    private boolean aguardandoTentativa(ArquivoRecebido arquivo) {
+        Tentativa tentativa = tentativas.get(arquivo.chave());
+        return tentativa != null && System.currentTimeMillis() < tentativa.proxima;
+    }
+
+    private void falhou(ArquivoRecebido arquivo, String motivo) {
+        if (!ativo) {
+            log.info("Lote {} interrompido pelo encerramento, retomado na próxima inicialização: {}", arquivo.lote(), motivo);
+            return; // Não conta como tentativa
+        }
+        String chave = arquivo.chave();
+        Tentativa anterior = tentativas.get(chave);
+        int falhas = anterior == null ? 1 : anterior.falhas + 1;
+        if (falhas < tentativasMaximas) {
+            long espera = esperaTentativaMs << Math.min(falhas - 1, 20); // Dobra a cada falha, sem estourar o long
+            tentativas.put(chave, new Tentativa(falhas, System.currentTimeMillis() + espera));
+            log.warn("Falha no lote {} ({} de {} tentativas), nova tentativa em {} ms: {}",
+                  arquivo.lote(), falhas, tentativasMaximas, espera, motivo);
+            return;
+        }
+        tentativas.remove(chave);
+        log.error("Lote {} falhou {} vezes e foi movido para {}: {}", arquivo.lote(), falhas, erros, motivo);
+        moverSemFalha(arquivo, erros.resolve(arquivo.lote()));
+    }
+
+    private void moverSemFalha(ArquivoRecebido arquivo, Path destino) {
+        try {
+            mover(arquivo, destino);
+        } catch (IOException e) {
+            log.error("Falha ao mover {} para {}: {}", arquivo.getCaminho(), destino, e.getMessage());
+        }
+    }
+
+    private void mover(ArquivoRecebido arquivo, Path destino) throws IOException {
+        Files.createDirectories(destino);
+        Files.move(arquivo.getCaminho(), destino.resolve(arquivo.getNome()), StandardCopyOption.REPLACE_EXISTING);
+        observacoes.remove(arquivo.getCaminho());
+    }
+
+    /**
+     * Tamanho e data de modificação de um arquivo e desde quando estão inalterados.
+     */
+    private static final class Observacao {
+
+        private final long tamanho;
+        private final long modificado;
+        private final long desde;
+
+        private Observacao(long tamanho, long modificado, long desde) {
+            this.tamanho = tamanho;
+            this.modificado = modificado;
+            this.desde = desde;
+        }
+    }
+
+    /**
+     * Falhas de um lote e o instante a partir do qual ele pode ser reexecutado.
+     */
+    private static final class Tentativa {
+
+        private final int falhas;
+        private final long proxima;
+
+        private Tentativa(int falhas, long proxima) {
+            this.falhas = falhas;
+            this.proxima = proxima;
+        }
+    }
+
+    /**
+     * Arquivo estável na caixa de entrada.
+     */
+    private static final class ArquivoRecebido {
+
+        private final Path caminho;
+        private final TipoArquivo tipo;
+        private final long tamanho;
+        private final long modificado;
+
+        private ArquivoRecebido(Path caminho, TipoArquivo tipo, long tamanho, long modificado) {
+            this.caminho = caminho;
+            this.tipo = tipo;
+            this.tamanho = tamanho;
+            this.modificado = modificado;
+        }
+
+        private Path getCaminho() {
+            return caminho;
+        }
+
+        private TipoArquivo getTipo() {
+            return tipo;
+        }
+
+        private long getModificado() {
+            return modificado;
+        }
+
+        private String getNome() {
+            return caminho.getFileName().toString();
+        }
+
+        private String versao() {
+            return tamanho + "-" + modificado;
+        }
+
+        /**
+         * Identidade do lote nas tentativas: o caminho e a versão, como nos parâmetros do job.
+         */
+        private String chave() {
+            return caminho + "@" + versao();
+        }
+
+        /**
+         * Nome do lote, estável entre as tentativas: o nome do arquivo e a data da sua última alteração.
+         */
+        private String lote() {
+            return getNome() + "_" + FORMATO_LOTE.format(Instant.ofEpochMilli(modificado));
+        }
+    }
+}
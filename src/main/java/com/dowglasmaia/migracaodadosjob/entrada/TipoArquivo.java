@@ -0,0 +1,25 @@
+package com.dowglasmaia.migracaodadosjob.entrada;
+
+/**
+ * Tipo de um arquivo recebido na caixa de entrada, com o parâmetro do job que informa o seu caminho aos leitores
+ * e particionadores. Pessoas vem antes de dados bancários quando os dois chegam juntos, para a integridade referencial.
+ */
+public enum TipoArquivo {
+
+    PESSOAS("arquivo.pessoas"),
+
+    DADOS_BANCARIOS("arquivo.dados-bancarios");
+
+    private final String parametro;
+
+    TipoArquivo(String parametro) {
+        this.parametro = parametro;
+    }
+
+    /**
+     * @return Nome do parâmetro do job com o caminho do arquivo deste tipo.
+     */
+    public String getParametro() {
+        return parametro;
+    }
+}
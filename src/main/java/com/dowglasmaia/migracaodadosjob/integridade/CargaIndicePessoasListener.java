@@ -0,0 +1,95 @@
+package com.dowglasmaia.migracaodadosjob.integridade;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Listener que mantém o {@link IndiceIds} de pessoas consistente com a tabela {@code pessoa}.
+ * <ul>
+ *     <li>No step de pessoas, recarrega o índice com os ids já gravados (de uma execução anterior que falhou)
+ *     e o marca como completo quando o step termina com sucesso;</li>
+ *     <li>No step de dados bancários, recarrega o índice se ele não foi preenchido nesta execução,
+ *     por exemplo no restart de um job cujo step de pessoas já havia terminado.</li>
+ * </ul>
+ * A recarga lê os ids com uma única consulta por cursor ({@code SELECT id FROM pessoa}, incluindo a staging
+ * na carga por staging), sem trazer a tabela para a memória.
+ */
+public class CargaIndicePessoasListener implements StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CargaIndicePessoasListener.class);
+
+    private static final int TAMANHO_FETCH = 10000;
+
+    private final IndiceIds indice;
+    private final DataSource dataSource;
+    private final boolean preencheIndice;
+    private final String consulta;
+
+    /**
+     * @param indice         Índice de ids de pessoas.
+     * @param dataSource     Fonte de dados onde está a tabela {@code pessoa}.
+     * @param preencheIndice Se o listener está no step que preenche o índice (pessoas) ou no que o consulta.
+     * @param consulta       Consulta dos ids de pessoas gravadas.
+     */
+    public CargaIndicePessoasListener(IndiceIds indice, DataSource dataSource, boolean preencheIndice, String consulta) {
+        this.indice = indice;
+        this.dataSource = dataSource;
+        this.preencheIndice = preencheIndice;
+        this.consulta = consulta;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        if (preencheIndice || !indice.isCompleto()) {
+            recarregar();
+        }
+        if (!preencheIndice) {
+            indice.setCompleto(true);
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (preencheIndice && !stepExecution.getStatus().isUnsuccessful()) {
+            indice.setCompleto(true);
+            log.info("Índice de pessoas completo com {} ids", indice.quantidade());
+        }
+        return null;
+    }
+
+    void recarregar() {
+        indice.limpar();
+        long inicio = System.currentTimeMillis();
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try {
+            boolean autoCommit = conexao.getAutoCommit();
+            conexao.setAutoCommit(false); // O PgJDBC só usa cursor (fetch size) fora do modo auto-commit
+            try (Statement statement = conexao.createStatement()) {
+                statement.setFetchSize(TAMANHO_FETCH);
+                try (ResultSet resultSet = statement.executeQuery(consulta)) {
+                    while (resultSet.next()) {
+                        indice.adicionar(resultSet.getInt(1));
+                    }
+                }
+            } finally {
+                conexao.rollback();
+                conexao.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao carregar o índice de pessoas", e);
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+        log.info("Índice de pessoas carregado do banco com {} ids em {} ms", indice.quantidade(), System.currentTimeMillis() - inicio);
+    }
+}
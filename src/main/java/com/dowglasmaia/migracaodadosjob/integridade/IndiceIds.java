@@ -0,0 +1,103 @@
+package com.dowglasmaia.migracaodadosjob.integridade;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Conjunto de ids inteiros guardado como bitset fora do heap, dividido em segmentos alocados sob demanda.
+ * Todo o intervalo de {@code int} é endereçável (os ids são tratados como sem sinal); cada segmento cobre
+ * 2^20 ids em 128 KiB de memória direta, então 100 milhões de ids consecutivos ocupam cerca de 12 MiB,
+ * fora do heap e sem nenhum objeto por id.
+ * <p>
+ * Inclusão e consulta são O(1) e sem boxing. A inclusão é atômica, então várias partições podem
+ * incluir ids ao mesmo tempo.
+ */
+public class IndiceIds {
+
+    private static final int BITS_SEGMENTO = 20;
+    private static final int BYTES_SEGMENTO = (1 << BITS_SEGMENTO) / 8;
+    private static final int QUANTIDADE_SEGMENTOS = 1 << (32 - BITS_SEGMENTO);
+    private static final VarHandle PALAVRAS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final AtomicReferenceArray<ByteBuffer> segmentos = new AtomicReferenceArray<>(QUANTIDADE_SEGMENTOS);
+    private volatile boolean completo;
+
+    /**
+     * Inclui o id no índice.
+     *
+     * @param id Id a incluir.
+     */
+    public void adicionar(int id) {
+        ByteBuffer segmento = segmento(id >>> BITS_SEGMENTO);
+        PALAVRAS.getAndBitwiseOr(segmento, deslocamento(id), 1L << id);
+    }
+
+    /**
+     * @param id Id a consultar.
+     * @return Se o id foi incluído no índice.
+     */
+    public boolean contem(int id) {
+        ByteBuffer segmento = segmentos.get(id >>> BITS_SEGMENTO);
+        if (segmento == null) {
+            return false;
+        }
+        long palavra = (long) PALAVRAS.getVolatile(segmento, deslocamento(id));
+        return (palavra & (1L << id)) != 0;
+    }
+
+    /**
+     * Remove todos os ids e libera os segmentos.
+     */
+    public void limpar() {
+        completo = false;
+        for (int i = 0; i < QUANTIDADE_SEGMENTOS; i++) {
+            segmentos.set(i, null);
+        }
+    }
+
+    /**
+     * @return Quantidade de ids incluídos.
+     */
+    public long quantidade() {
+        long total = 0;
+        for (int i = 0; i < QUANTIDADE_SEGMENTOS; i++) {
+            ByteBuffer segmento = segmentos.get(i);
+            if (segmento != null) {
+                for (int deslocamento = 0; deslocamento < BYTES_SEGMENTO; deslocamento += Long.BYTES) {
+                    total += Long.bitCount((long) PALAVRAS.getVolatile(segmento, deslocamento));
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return Se o índice contém todos os ids carregados, ou seja, se pode ser consultado.
+     */
+    public boolean isCompleto() {
+        return completo;
+    }
+
+    public void setCompleto(boolean completo) {
+        this.completo = completo;
+    }
+
+    private ByteBuffer segmento(int indice) {
+        ByteBuffer segmento = segmentos.get(indice);
+        if (segmento == null) {
+            ByteBuffer novo = ByteBuffer.allocateDirect(BYTES_SEGMENTO).order(ByteOrder.nativeOrder());
+            segmento = segmentos.compareAndSet(indice, null, novo) ? novo : segmentos.get(indice);
+        }
+        return segmento;
+    }
+
+    /**
+     * Posição, em bytes, da palavra de 64 bits que guarda o id dentro do segmento.
+     */
+    private static int deslocamento(int id) {
+        return ((id & ((1 << BITS_SEGMENTO) - 1)) >>> 6) << 3;
+    }
+}
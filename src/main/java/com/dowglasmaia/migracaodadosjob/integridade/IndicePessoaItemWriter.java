@@ -0,0 +1,37 @@
+package com.dowglasmaia.migracaodadosjob.integridade;
+
+import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import com.dowglasmaia.migracaodadosjob.writer.AposConfirmacao;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.List;
+
+/**
+ * {@link ItemWriter} que grava as pessoas pelo escritor delegado e, após a gravação, inclui os ids no {@link IndiceIds}.
+ * Assim o índice só contém pessoas que de fato foram gravadas no banco: os ids só são incluídos na confirmação
+ * da transação ({@link AposConfirmacao}).
+ */
+public class IndicePessoaItemWriter implements ItemWriter<Pessoa> {
+
+    private final ItemWriter<Pessoa> delegate;
+    private final IndiceIds indice;
+
+    public IndicePessoaItemWriter(ItemWriter<Pessoa> delegate, IndiceIds indice) {
+        this.delegate = delegate;
+        this.indice = indice;
+    }
+
+    @Override
+    public void write(List<? extends Pessoa> items) throws Exception {
+        delegate.write(items);
+        int[] ids = new int[items.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = items.get(i).getId();
+        }
+        AposConfirmacao.executar(() -> {
+            for (int id : ids) {
+                indice.adicionar(id);
+            }
+        });
+    }
+}
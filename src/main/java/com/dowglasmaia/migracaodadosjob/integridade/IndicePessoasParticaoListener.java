@@ -0,0 +1,39 @@
+package com.dowglasmaia.migracaodadosjob.integridade;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.listener.StepExecutionListenerSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * Listener do step worker de dados bancários no particionamento remoto.
+ * <p>
+ * Cada JVM trabalhadora tem o seu próprio {@link IndiceIds}, que os listeners dos steps gerenciadores não alcançam.
+ * O índice é recarregado do banco na primeira partição de cada execução do job executada nesta JVM; as partições
+ * seguintes da mesma execução aguardam a carga e usam o índice já carregado.
+ */
+public class IndicePessoasParticaoListener extends StepExecutionListenerSupport {
+
+    private final IndiceIds indice;
+    private final CargaIndicePessoasListener carga;
+    private Long jobExecutionCarregado;
+
+    /**
+     * @param indice     Índice de ids de pessoas desta JVM.
+     * @param dataSource Fonte de dados onde está a tabela {@code pessoa}.
+     * @param consulta   Consulta dos ids de pessoas gravadas.
+     */
+    public IndicePessoasParticaoListener(IndiceIds indice, DataSource dataSource, String consulta) {
+        this.indice = indice;
+        this.carga = new CargaIndicePessoasListener(indice, dataSource, false, consulta);
+    }
+
+    @Override
+    public synchronized void beforeStep(StepExecution stepExecution) {
+        if (!stepExecution.getJobExecutionId().equals(jobExecutionCarregado)) {
+            carga.recarregar();
+            indice.setCompleto(true);
+            jobExecutionCarregado = stepExecution.getJobExecutionId();
+        }
+    }
+}
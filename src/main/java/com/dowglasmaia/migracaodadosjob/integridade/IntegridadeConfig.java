@@ -0,0 +1,110 @@
+package com.dowglasmaia.migracaodadosjob.integridade;
+
+import com.dowglasmaia.migracaodadosjob.writer.ModoCarga;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.listener.StepExecutionListenerSupport;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuração da verificação de integridade referencial entre dados bancários e pessoas.
+ * Com a integridade habilitada, o job executa o step de pessoas antes do step de dados bancários, o escritor de pessoas
+ * preenche o {@link IndiceIds} com os ids gravados e os dados bancários cuja pessoa não está no índice vão para
+ * um arquivo de órfãos em vez do banco.
+ */
+@Configuration
+public class IntegridadeConfig {
+
+    @Value("${app.migracao.integridade.habilitada:false}")
+    private boolean integridadeHabilitada;
+
+    @Value("${app.migracao.carga.modo:direta}")
+    private ModoCarga modoCarga;
+
+    @Value("${app.migracao.particionamento.remoto.habilitado:false}")
+    private boolean particionamentoRemoto;
+
+    /**
+     * Cria o índice dos ids de pessoas gravadas no banco.
+     *
+     * @return Índice de ids fora do heap, inicialmente vazio.
+     */
+    @Bean
+    public IndiceIds indicePessoas() {
+        return new IndiceIds();
+    }
+
+    /**
+     * Cria o listener do step de pessoas, que recarrega o índice no início e o marca como completo ao fim.
+     * Sem a integridade habilitada, não faz nada.
+     *
+     * @param indicePessoas Índice de ids de pessoas.
+     * @param dataSource    Fonte de dados da tabela pessoa.
+     * @return StepExecutionListener do step de pessoas.
+     */
+    @Bean
+    public StepExecutionListener cargaIndicePessoasListener(
+          @Qualifier("indicePessoas") IndiceIds indicePessoas,
+          @Qualifier("appDataSource") DataSource dataSource
+    ) {
+        if (!integridadeHabilitada) {
+            return new StepExecutionListenerSupport();
+        }
+        return new CargaIndicePessoasListener(indicePessoas, dataSource, true, consultaIds());
+    }
+
+    /**
+     * Cria o listener do step de dados bancários, que recarrega o índice do banco se ele não foi preenchido nesta execução.
+     * Sem a integridade habilitada, não faz nada.
+     *
+     * @param indicePessoas Índice de ids de pessoas.
+     * @param dataSource    Fonte de dados da tabela pessoa.
+     * @return StepExecutionListener do step de dados bancários.
+     */
+    @Bean
+    public StepExecutionListener consultaIndicePessoasListener(
+          @Qualifier("indicePessoas") IndiceIds indicePessoas,
+          @Qualifier("appDataSource") DataSource dataSource
+    ) {
+        if (!integridadeHabilitada) {
+            return new StepExecutionListenerSupport();
+        }
+        return new CargaIndicePessoasListener(indicePessoas, dataSource, false, consultaIds());
+    }
+
+    /**
+     * Cria o listener das partições do step de dados bancários no particionamento remoto, que carrega o índice
+     * da JVM que executa a partição. Sem a integridade ou o particionamento remoto habilitados, não faz nada.
+     *
+     * @param indicePessoas Índice de ids de pessoas.
+     * @param dataSource    Fonte de dados da tabela pessoa.
+     * @return StepExecutionListener do step worker de dados bancários.
+     */
+    @Bean
+    public StepExecutionListener indicePessoasParticaoListener(
+          @Qualifier("indicePessoas") IndiceIds indicePessoas,
+          @Qualifier("appDataSource") DataSource dataSource
+    ) {
+        if (!integridadeHabilitada || !particionamentoRemoto) {
+            return new StepExecutionListenerSupport();
+        }
+        return new IndicePessoasParticaoListener(indicePessoas, dataSource, consultaIds());
+    }
+
+    /**
+     * Monta a consulta dos ids de pessoas gravadas. Na carga por staging, as pessoas desta execução
+     * ainda estão na staging, e as de cargas anteriores na tabela final.
+     *
+     * @return Consulta dos ids de pessoas.
+     */
+    private String consultaIds() {
+        if (modoCarga == ModoCarga.STAGING) {
+            return "SELECT id FROM pessoa UNION ALL SELECT id FROM " + modoCarga.tabela("pessoa");
+        }
+        return "SELECT id FROM pessoa";
+    }
+}
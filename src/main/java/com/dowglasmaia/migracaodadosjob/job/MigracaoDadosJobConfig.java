@@ -1,15 +1,19 @@
 package com.dowglasmaia.migracaodadosjob.job;
 
+import com.dowglasmaia.migracaodadosjob.writer.ModoCarga;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.job.builder.FlowBuilder;
 import org.springframework.batch.core.job.flow.Flow;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 
 
 @Configuration
@@ -18,17 +22,134 @@ public class MigracaoDadosJobConfig {
     @Autowired
     private JobBuilderFactory jobBuilderFactory;
 
+    @Autowired
+    @Qualifier("fluxoTaskExecutor")
+    private TaskExecutor fluxoTaskExecutor;
+
+    @Autowired
+    @Qualifier("resumoMetricasListener")
+    private JobExecutionListener resumoMetricasListener;
+
+    @Value("${app.migracao.integridade.habilitada:false}")
+    private boolean integridadeHabilitada;
+
+    @Value("${app.migracao.carga.modo:direta}")
+    private ModoCarga modoCarga;
+
+    @Value("${app.migracao.delta.habilitado:false}")
+    private boolean deltaHabilitado;
+
+    @Value("${app.migracao.reconciliacao.habilitada:false}")
+    private boolean reconciliacaoHabilitada;
+
+    /**
+     * Define o job de migração, com o fluxo montado em camadas conforme os modos habilitados.
+     * Por padrão os steps são executados em paralelo; com a integridade habilitada,
+     * os dados bancários dependem das pessoas gravadas, então o step de pessoas é executado primeiro.
+     * Na carga por staging, os steps de migração ficam entre a preparação e a promoção das tabelas de staging.
+     * No modo delta, toda a carga fica entre a preparação e a conclusão das bases de impressões.
+     * Com a reconciliação habilitada, os arquivos são comparados com as tabelas depois de toda a carga.
+     * Ao fim de cada execução, o resumo das métricas é gravado em JSON.
+     *
+     * @param migrarPessoaStep         Step para migrar dados de pessoas.
+     * @param migrarDadosBancariosStep Step para migrar dados bancários.
+     * @param prepararStagingStep      Step que recria as tabelas de staging.
+     * @param promoverStagingStep      Step que promove as tabelas de staging para as tabelas finais.
+     * @param prepararDeltaStep        Step que inicia as bases de impressões do modo delta.
+     * @param concluirDeltaStep        Step que exclui os ids ausentes e substitui as impressões do modo delta.
+     * @param prepararReconciliacaoStep     Step que inicia as reconciliações.
+     * @param reconciliarPessoaStep         Step que relê o arquivo de pessoas para a reconciliação.
+     * @param reconciliarDadosBancariosStep Step que relê o arquivo de dados bancários para a reconciliação.
+     * @param compararReconciliacaoStep     Step que compara os arquivos com as tabelas.
+     * @return Job de migração de dados.
+     */
     @Bean
-    public Job migracaoDadosJob(Step migrarPessoaStep, Step migrarDadosBancariosStep){
+    public Job migracaoDadosJob(Step migrarPessoaStep, Step migrarDadosBancariosStep, Step prepararStagingStep, Step promoverStagingStep,
+                                Step prepararDeltaStep, Step concluirDeltaStep, Step prepararReconciliacaoStep,
+                                Step reconciliarPessoaStep, Step reconciliarDadosBancariosStep, Step compararReconciliacaoStep){
+        Flow flow = migracaoFlow(migrarPessoaStep, migrarDadosBancariosStep);
+        if (modoCarga == ModoCarga.STAGING) {
+            flow = cargaStagingFlow(flow, prepararStagingStep, promoverStagingStep);
+        }
+        if (deltaHabilitado) {
+            flow = deltaFlow(flow, prepararDeltaStep, concluirDeltaStep);
+        }
+        if (reconciliacaoHabilitada) {
+            flow = reconciliacaoFlow(flow, prepararReconciliacaoStep, reconciliarPessoaStep, reconciliarDadosBancariosStep,
+                  compararReconciliacaoStep);
+        }
         return jobBuilderFactory.get("migracaoDadosJob")
               .incrementer(new RunIdIncrementer())
-              .start(parallelStepsFlow(migrarPessoaStep, migrarDadosBancariosStep))
+              .listener(resumoMetricasListener)
+              .start(flow)
               .end()
               .build();
     }
 
     /**
-     * Define o fluxo de steps que serão executados em paralelo.
+     * Define o fluxo da reconciliação: os arquivos relidos e comparados com as tabelas depois de toda a carga.
+     *
+     * @param cargaFlow                     Flow da carga.
+     * @param prepararReconciliacaoStep     Step que inicia as reconciliações.
+     * @param reconciliarPessoaStep         Step que relê o arquivo de pessoas para a reconciliação.
+     * @param reconciliarDadosBancariosStep Step que relê o arquivo de dados bancários para a reconciliação.
+     * @param compararReconciliacaoStep     Step que compara os arquivos com as tabelas.
+     * @return Flow da reconciliação.
+     */
+    private Flow reconciliacaoFlow(Flow cargaFlow, Step prepararReconciliacaoStep, Step reconciliarPessoaStep,
+                                   Step reconciliarDadosBancariosStep, Step compararReconciliacaoStep){
+        return new FlowBuilder<Flow>("reconciliacaoFlow")
+              .start(cargaFlow)
+              .next(prepararReconciliacaoStep)
+              .next(reconciliarPessoaStep)
+              .next(reconciliarDadosBancariosStep)
+              .next(compararReconciliacaoStep)
+              .build();
+    }
+
+    /**
+     * Define o fluxo do modo delta: a carga entre a preparação e a conclusão das bases de impressões.
+     *
+     * @param cargaFlow         Flow da carga.
+     * @param prepararDeltaStep Step que inicia as bases de impressões do modo delta.
+     * @param concluirDeltaStep Step que exclui os ids ausentes e substitui as impressões do modo delta.
+     * @return Flow do modo delta.
+     */
+    private Flow deltaFlow(Flow cargaFlow, Step prepararDeltaStep, Step concluirDeltaStep){
+        return new FlowBuilder<Flow>("deltaFlow").start(prepararDeltaStep).next(cargaFlow).next(concluirDeltaStep).build();
+    }
+
+    /**
+     * Define o fluxo da carga por staging: preparação das tabelas de staging, migração e promoção para as tabelas finais.
+     *
+     * @param migracaoFlow        Flow dos steps de migração.
+     * @param prepararStagingStep Step que recria as tabelas de staging.
+     * @param promoverStagingStep Step que promove as tabelas de staging para as tabelas finais.
+     * @return Flow da carga por staging.
+     */
+    private Flow cargaStagingFlow(Flow migracaoFlow, Step prepararStagingStep, Step promoverStagingStep){
+        return new FlowBuilder<Flow>("cargaStagingFlow")
+              .start(prepararStagingStep)
+              .next(migracaoFlow)
+              .next(promoverStagingStep)
+              .build();
+    }
+
+    /**
+     * Define o fluxo dos steps de migração: em paralelo, ou sequencial com a integridade habilitada.
+     *
+     * @param migrarPessoaStep         Step para migrar dados de pessoas.
+     * @param migrarDadosBancariosStep Step para migrar dados bancários.
+     * @return Flow dos steps de migração.
+     */
+    private Flow migracaoFlow(Step migrarPessoaStep, Step migrarDadosBancariosStep){
+        return integridadeHabilitada
+              ? new FlowBuilder<Flow>("migracaoSequencialFlow").start(migrarPessoaStep).next(migrarDadosBancariosStep).build()
+              : parallelStepsFlow(migrarPessoaStep, migrarDadosBancariosStep);
+    }
+
+    /**
+     * Define o fluxo de steps que serão executados em paralelo, cada um em uma thread do {@code fluxoTaskExecutor}.
      *
      * @param migrarPessoaStep         Step para migrar dados de pessoas.
      * @param migrarDadosBancariosStep Step para migrar dados bancários.
@@ -36,7 +157,7 @@ public class MigracaoDadosJobConfig {
      */
     private Flow parallelStepsFlow(Step migrarPessoaStep, Step migrarDadosBancariosStep){
         return new FlowBuilder<Flow>("parallelStepsFlow")
-              .split(new SimpleAsyncTaskExecutor())
+              .split(fluxoTaskExecutor)
               .add(migrarPessoaFlow(migrarPessoaStep), migrarDadosBancariosFlow(migrarDadosBancariosStep))
               .build();
     }
@@ -0,0 +1,189 @@
+package com.dowglasmaia.migracaodadosjob.mapeamento;
+
+import com.dowglasmaia.migracaodadosjob.reader.csv.LinhaCsv;
+import com.dowglasmaia.migracaodadosjob.reader.csv.MapeadorLinhaCsv;
+import com.dowglasmaia.migracaodadosjob.writer.copy.CodificadorCopy;
+import com.dowglasmaia.migracaodadosjob.writer.copy.LinhaCopy;
+import org.springframework.batch.item.database.ItemPreparedStatementSetter;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.beans.BeanUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Mapeamento das propriedades de uma classe de domínio para parâmetros de {@link PreparedStatement}, campos de CSV
+ * e colunas do COPY, sem reflexão por registro.
+ * <p>
+ * O {@code beanMapped()} e o {@code targetType()} do Spring Batch resolvem as propriedades pelo nome, com
+ * {@code BeanWrapper} e conversão de tipos, a cada registro. Aqui a classe é inspecionada uma única vez e os getters,
+ * setters e o construtor viram implementações de interfaces funcionais geradas pelo {@code LambdaMetafactory}, que
+ * o JIT trata como chamadas diretas, e os parâmetros de um comando SQL viram um único method handle. Os mapeadores criados recebem as propriedades na ordem dos parâmetros
+ * ou dos campos e acessam cada um pelo índice.
+ * <p>
+ * A classe deve ser pública, com construtor sem argumentos e getters e setters públicos, como as classes do Lombok.
+ * Tipos não suportados por um destino são rejeitados ao criar o mapeador, e não durante a execução do job.
+ *
+ * @param <T> Tipo da classe de domínio.
+ */
+public final class MapeamentoPropriedades<T> {
+
+    private static final ClassValue<MapeamentoPropriedades<?>> MAPEAMENTOS = new ClassValue<MapeamentoPropriedades<?>>() {
+        @Override
+        protected MapeamentoPropriedades<?> computeValue(Class<?> classe) {
+            return new MapeamentoPropriedades<>(classe);
+        }
+    };
+
+    private final Class<T> classe;
+    private final Supplier<T> construtor;
+    private final Map<String, Propriedade<T>> propriedades = new LinkedHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    private MapeamentoPropriedades(Class<T> classe) {
+        this.classe = classe;
+        try {
+            this.construtor = (Supplier<T>) Propriedade.gerar(Supplier.class, "get", MethodType.methodType(Object.class),
+                  Propriedade.lookup().findConstructor(classe, MethodType.methodType(void.class)), MethodType.methodType(classe));
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("A classe " + classe.getName() + " não possui construtor público sem argumentos", e);
+        }
+        for (PropertyDescriptor descritor : BeanUtils.getPropertyDescriptors(classe)) {
+            if (descritor.getPropertyType() != null && !"class".equals(descritor.getName())) {
+                propriedades.put(descritor.getName(), Propriedade.de(classe, descritor));
+            }
+        }
+    }
+
+    /**
+     * Inspeciona a classe e gera os acessores das suas propriedades na primeira chamada; as seguintes devolvem
+     * o mesmo mapeamento, compartilhado entre leitores e escritores da classe.
+     *
+     * @param classe Classe de domínio.
+     * @return Mapeamento das propriedades da classe.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> MapeamentoPropriedades<T> de(Class<T> classe) {
+        return (MapeamentoPropriedades<T>) MAPEAMENTOS.get(classe);
+    }
+
+    /**
+     * Cria o setter dos parâmetros posicionais ({@code ?}) de um comando SQL. Os parâmetros são encadeados em um único
+     * {@link MethodHandle}, especializado para esta lista de propriedades: um laço sobre um acessor por parâmetro
+     * tornaria a chamada megamórfica, sem inlining pelo JIT.
+     *
+     * @param nomes Propriedades na ordem dos parâmetros do SQL.
+     * @return ItemPreparedStatementSetter que define cada parâmetro pelo tipo da propriedade.
+     */
+    public ItemPreparedStatementSetter<T> preparedStatementSetter(String... nomes) {
+        MethodHandle cadeia = MethodHandles.empty(MethodType.methodType(void.class, PreparedStatement.class, Object.class));
+        for (int i = nomes.length - 1; i >= 0; i--) {
+            Propriedade<T> propriedade = propriedade(nomes[i]);
+            try {
+                cadeia = MethodHandles.foldArguments(cadeia, propriedade.parametro(i + 1)); // Define o parâmetro i e segue a cadeia
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Falha ao gerar o parâmetro " + nomes[i] + " de " + classe.getName(), e);
+            }
+        }
+        MethodHandle setter = cadeia;
+        return new ItemPreparedStatementSetter<T>() {
+            @Override
+            public void setValues(T item, PreparedStatement ps) throws SQLException {
+                try {
+                    setter.invokeExact(ps, (Object) item);
+                } catch (SQLException | RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Cria o mapeador dos tokens de um {@link FieldSet}, lidos pelo índice e não pelo nome da coluna.
+     *
+     * @param nomes Propriedades na ordem dos campos do arquivo.
+     * @return FieldSetMapper que cria um item e grava cada campo na propriedade correspondente.
+     */
+    @SuppressWarnings("unchecked")
+    public FieldSetMapper<T> fieldSetMapper(String... nomes) {
+        Propriedade.Campo<T>[] campos = new Propriedade.Campo[nomes.length];
+        for (int i = 0; i < nomes.length; i++) {
+            campos[i] = propriedade(nomes[i]).campo();
+        }
+        return new FieldSetMapper<T>() {
+            @Override
+            public T mapFieldSet(FieldSet fieldSet) {
+                T item = construtor.get();
+                for (int i = 0; i < campos.length; i++) {
+                    campos[i].ler(fieldSet, i, item);
+                }
+                return item;
+            }
+        };
+    }
+
+    /**
+     * Cria o mapeador dos campos de uma {@link LinhaCsv} do leitor NIO. Suporta propriedades {@code int} e {@link String}.
+     *
+     * @param nomes Propriedades na ordem dos campos do arquivo.
+     * @return MapeadorLinhaCsv que cria um item e grava cada campo na propriedade correspondente.
+     */
+    @SuppressWarnings("unchecked")
+    public MapeadorLinhaCsv<T> mapeadorLinhaCsv(String... nomes) {
+        Propriedade.CampoCsv<T>[] campos = new Propriedade.CampoCsv[nomes.length];
+        for (int i = 0; i < nomes.length; i++) {
+            campos[i] = propriedade(nomes[i]).campoCsv();
+        }
+        return new MapeadorLinhaCsv<T>() {
+            @Override
+            public T mapear(LinhaCsv linha) {
+                T item = construtor.get();
+                for (int i = 0; i < campos.length; i++) {
+                    campos[i].ler(linha, i, item);
+                }
+                return item;
+            }
+        };
+    }
+
+    /**
+     * Cria o codificador das colunas do COPY. Suporta propriedades {@code int}, {@link String},
+     * {@link java.time.LocalDate} e {@link java.time.LocalDateTime}.
+     *
+     * @param nomes Propriedades na ordem das colunas do COPY.
+     * @return CodificadorCopy que grava cada propriedade na coluna correspondente.
+     */
+    @SuppressWarnings("unchecked")
+    public CodificadorCopy<T> codificadorCopy(String... nomes) {
+        Propriedade.Coluna<T>[] colunas = new Propriedade.Coluna[nomes.length];
+        for (int i = 0; i < nomes.length; i++) {
+            colunas[i] = propriedade(nomes[i]).coluna();
+        }
+        return new CodificadorCopy<T>() {
+            @Override
+            public void codificar(T item, LinhaCopy linha) {
+                for (Propriedade.Coluna<T> coluna : colunas) {
+                    coluna.codificar(item, linha);
+                }
+            }
+        };
+    }
+
+    private Propriedade<T> propriedade(String nome) {
+        Propriedade<T> propriedade = propriedades.get(nome);
+        if (propriedade == null) {
+            throw new IllegalArgumentException("Propriedade " + nome + " inexistente em " + classe.getName());
+        }
+        return propriedade;
+    }
+}
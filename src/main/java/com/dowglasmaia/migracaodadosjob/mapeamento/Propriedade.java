@@ -0,0 +1,294 @@
+package com.dowglasmaia.migracaodadosjob.mapeamento;
+
+import com.dowglasmaia.migracaodadosjob.reader.csv.LinhaCsv;
+import com.dowglasmaia.migracaodadosjob.writer.copy.LinhaCopy;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Acessores de uma propriedade de uma classe de domínio, gerados uma única vez pelo {@link LambdaMetafactory}
+ * a partir do getter e do setter. Propriedades {@code int}, {@code long} e {@code double} usam as interfaces
+ * funcionais primitivas, sem boxing; as demais usam {@link Function} e {@link BiConsumer}.
+ * <p>
+ * O tipo da propriedade é verificado ao criar cada parâmetro, {@link Campo}, {@link CampoCsv}
+ * ou {@link Coluna}, e não a cada registro: cada um chama diretamente o método do destino correspondente ao tipo.
+ * Os parâmetros de {@link PreparedStatement} são method handles, e não interfaces funcionais, para que os de um
+ * comando sejam encadeados em um único handle, sem um laço sobre implementações diferentes.
+ *
+ * @param <T> Tipo da classe de domínio.
+ */
+final class Propriedade<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final String nome;
+    private final Class<?> tipo;
+    private final MethodHandle leitura;
+    private final Object getter;
+    private final Object setter;
+
+    private Propriedade(String nome, Class<?> tipo, MethodHandle leitura, Object getter, Object setter) {
+        this.nome = nome;
+        this.tipo = tipo;
+        this.leitura = leitura;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * Gera os acessores da propriedade. Getter e setter devem ser públicos; o que não existir fica nulo
+     * e só causa erro se a propriedade for usada em um sentido que precise dele.
+     *
+     * @param classe    Classe de domínio.
+     * @param descritor Descritor da propriedade.
+     * @return Propriedade com os acessores gerados.
+     */
+    static <T> Propriedade<T> de(Class<T> classe, PropertyDescriptor descritor) {
+        Class<?> tipo = descritor.getPropertyType();
+        MethodHandle leitura = null;
+        Object getter = null;
+        Object setter = null;
+        try {
+            if (acessivel(descritor.getReadMethod())) {
+                leitura = LOOKUP.unreflect(descritor.getReadMethod());
+                getter = getter(classe, tipo, leitura);
+            }
+            if (acessivel(descritor.getWriteMethod())) {
+                setter = setter(classe, tipo, LOOKUP.unreflect(descritor.getWriteMethod()));
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException("Falha ao gerar os acessores de " + classe.getName() + "." + descritor.getName(), e);
+        }
+        return new Propriedade<>(descritor.getName(), tipo, leitura, getter, setter);
+    }
+
+    private static boolean acessivel(Method metodo) {
+        return metodo != null && Modifier.isPublic(metodo.getModifiers()) && Modifier.isPublic(metodo.getDeclaringClass().getModifiers());
+    }
+
+    private static Object getter(Class<?> classe, Class<?> tipo, MethodHandle metodo) throws Throwable {
+        if (tipo == int.class) {
+            return gerar(ToIntFunction.class, "applyAsInt", MethodType.methodType(int.class, Object.class),
+                  metodo, MethodType.methodType(int.class, classe));
+        }
+        if (tipo == long.class) {
+            return gerar(ToLongFunction.class, "applyAsLong", MethodType.methodType(long.class, Object.class),
+                  metodo, MethodType.methodType(long.class, classe));
+        }
+        if (tipo == double.class) {
+            return gerar(ToDoubleFunction.class, "applyAsDouble", MethodType.methodType(double.class, Object.class),
+                  metodo, MethodType.methodType(double.class, classe));
+        }
+        return gerar(Function.class, "apply", MethodType.methodType(Object.class, Object.class),
+              metodo, MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(tipo), classe)); // Primitivos restantes com boxing
+    }
+
+    private static Object setter(Class<?> classe, Class<?> tipo, MethodHandle metodo) throws Throwable {
+        if (tipo == int.class) {
+            return gerar(ObjIntConsumer.class, "accept", MethodType.methodType(void.class, Object.class, int.class),
+                  metodo, MethodType.methodType(void.class, classe, int.class));
+        }
+        if (tipo == long.class) {
+            return gerar(ObjLongConsumer.class, "accept", MethodType.methodType(void.class, Object.class, long.class),
+                  metodo, MethodType.methodType(void.class, classe, long.class));
+        }
+        if (tipo == double.class) {
+            return gerar(ObjDoubleConsumer.class, "accept", MethodType.methodType(void.class, Object.class, double.class),
+                  metodo, MethodType.methodType(void.class, classe, double.class));
+        }
+        return gerar(BiConsumer.class, "accept", MethodType.methodType(void.class, Object.class, Object.class),
+              metodo, MethodType.methodType(void.class, classe, ClassUtils.resolvePrimitiveIfNecessary(tipo)));
+    }
+
+    /**
+     * Gera uma implementação da interface funcional que chama o método diretamente, como um method reference.
+     * O retorno de setters encadeáveis é descartado.
+     */
+    static Object gerar(Class<?> interfaceFuncional, String metodoInterface, MethodType assinatura,
+                        MethodHandle metodo, MethodType assinaturaInstanciada) throws Throwable {
+        return LambdaMetafactory.metafactory(LOOKUP, metodoInterface, MethodType.methodType(interfaceFuncional),
+              assinatura, metodo, assinaturaInstanciada).getTarget().invoke();
+    }
+
+    static MethodHandles.Lookup lookup() {
+        return LOOKUP;
+    }
+
+    /**
+     * @param indice Índice do parâmetro no comando SQL, a partir de 1.
+     * @return Method handle {@code (PreparedStatement, Object)void} que lê a propriedade do item e a define
+     * no parâmetro, com o índice fixo. Os handles de todos os parâmetros são encadeados em um único setter.
+     */
+    MethodHandle parametro(int indice) throws ReflectiveOperationException {
+        exigir(leitura, "getter");
+        MethodHandle definir;
+        if (tipo == int.class || tipo == long.class || tipo == double.class) {
+            String metodo = tipo == int.class ? "setInt" : tipo == long.class ? "setLong" : "setDouble";
+            definir = LOOKUP.findVirtual(PreparedStatement.class, metodo, MethodType.methodType(void.class, int.class, tipo)); // Sem boxing
+        } else if (tipo == String.class) {
+            definir = LOOKUP.findStatic(Propriedade.class, "definirTexto",
+                  MethodType.methodType(void.class, PreparedStatement.class, int.class, String.class));
+        } else if (tipo == LocalDate.class || tipo == LocalDateTime.class) {
+            definir = MethodHandles.insertArguments(LOOKUP.findStatic(Propriedade.class, "definirDataHora",
+                  MethodType.methodType(void.class, PreparedStatement.class, int.class, int.class, Object.class)),
+                  2, tipo == LocalDate.class ? Types.DATE : Types.TIMESTAMP);
+        } else {
+            definir = LOOKUP.findStatic(Propriedade.class, "definirValor",
+                  MethodType.methodType(void.class, PreparedStatement.class, int.class, Object.class));
+        }
+        MethodHandle valor = leitura.asType(MethodType.methodType(definir.type().parameterType(2), Object.class)); // Com boxing nos demais primitivos
+        return MethodHandles.filterArguments(MethodHandles.insertArguments(definir, 1, indice), 1, valor);
+    }
+
+    private static void definirTexto(PreparedStatement ps, int indice, String valor) throws SQLException {
+        if (valor == null) {
+            ps.setNull(indice, Types.VARCHAR);
+        } else {
+            ps.setString(indice, valor);
+        }
+    }
+
+    private static void definirDataHora(PreparedStatement ps, int indice, int tipoSql, Object valor) throws SQLException {
+        if (valor == null) {
+            ps.setNull(indice, tipoSql);
+        } else {
+            ps.setObject(indice, valor); // Tipos do java.time suportados pelo driver JDBC 4.2
+        }
+    }
+
+    private static void definirValor(PreparedStatement ps, int indice, Object valor) throws SQLException {
+        StatementCreatorUtils.setParameterValue(ps, indice, SqlTypeValue.TYPE_UNKNOWN, valor); // Mesma conversão do beanMapped()
+    }
+
+    /**
+     * @return Campo que lê um token do {@link FieldSet} e o grava na propriedade do item.
+     */
+    @SuppressWarnings("unchecked")
+    Campo<T> campo() {
+        exigir(setter, "setter");
+        if (tipo == int.class) {
+            ObjIntConsumer<T> escritor = (ObjIntConsumer<T>) setter;
+            return (fieldSet, indice, item) -> escritor.accept(item, fieldSet.readInt(indice));
+        }
+        if (tipo == long.class) {
+            ObjLongConsumer<T> escritor = (ObjLongConsumer<T>) setter;
+            return (fieldSet, indice, item) -> escritor.accept(item, fieldSet.readLong(indice));
+        }
+        if (tipo == double.class) {
+            ObjDoubleConsumer<T> escritor = (ObjDoubleConsumer<T>) setter;
+            return (fieldSet, indice, item) -> escritor.accept(item, fieldSet.readDouble(indice));
+        }
+        BiConsumer<T, Object> escritor = (BiConsumer<T, Object>) setter;
+        if (tipo == boolean.class || tipo == Boolean.class) {
+            return (fieldSet, indice, item) -> escritor.accept(item, fieldSet.readBoolean(indice));
+        }
+        if (tipo == String.class) {
+            return (fieldSet, indice, item) -> escritor.accept(item, fieldSet.readString(indice));
+        }
+        if (tipo == BigDecimal.class) {
+            return (fieldSet, indice, item) -> escritor.accept(item, fieldSet.readBigDecimal(indice));
+        }
+        if (tipo == LocalDate.class) {
+            return (fieldSet, indice, item) -> {
+                String valor = fieldSet.readString(indice);
+                escritor.accept(item, valor == null || valor.isEmpty() ? null : LocalDate.parse(valor)); // Formato ISO-8601
+            };
+        }
+        if (tipo == LocalDateTime.class) {
+            return (fieldSet, indice, item) -> {
+                String valor = fieldSet.readString(indice);
+                escritor.accept(item, valor == null || valor.isEmpty() ? null : LocalDateTime.parse(valor)); // Formato ISO-8601
+            };
+        }
+        throw naoSuportado("FieldSet");
+    }
+
+    /**
+     * @return Campo que lê um campo da {@link LinhaCsv} e o grava na propriedade do item.
+     */
+    @SuppressWarnings("unchecked")
+    CampoCsv<T> campoCsv() {
+        exigir(setter, "setter");
+        if (tipo == int.class) {
+            ObjIntConsumer<T> escritor = (ObjIntConsumer<T>) setter;
+            return (linha, indice, item) -> escritor.accept(item, linha.inteiro(indice));
+        }
+        if (tipo == String.class) {
+            BiConsumer<T, Object> escritor = (BiConsumer<T, Object>) setter;
+            return (linha, indice, item) -> escritor.accept(item, linha.texto(indice));
+        }
+        throw naoSuportado("LinhaCsv");
+    }
+
+    /**
+     * @return Coluna que lê a propriedade do item e a grava na {@link LinhaCopy}.
+     */
+    @SuppressWarnings("unchecked")
+    Coluna<T> coluna() {
+        exigir(getter, "getter");
+        if (tipo == int.class) {
+            ToIntFunction<T> leitor = (ToIntFunction<T>) getter;
+            return (item, linha) -> linha.inteiro(leitor.applyAsInt(item));
+        }
+        if (tipo.isPrimitive()) {
+            throw naoSuportado("LinhaCopy"); // long e double têm getters sem boxing, que não são Function
+        }
+        Function<T, Object> leitor = (Function<T, Object>) getter;
+        if (tipo == String.class) {
+            return (item, linha) -> linha.texto((String) leitor.apply(item));
+        }
+        if (tipo == LocalDateTime.class) {
+            return (item, linha) -> linha.timestamp((LocalDateTime) leitor.apply(item));
+        }
+        if (tipo == LocalDate.class) {
+            return (item, linha) -> linha.timestamp((LocalDate) leitor.apply(item));
+        }
+        throw naoSuportado("LinhaCopy");
+    }
+
+    private void exigir(Object acessor, String descricao) {
+        if (acessor == null) {
+            throw new IllegalArgumentException("A propriedade " + nome + " não possui " + descricao + " público");
+        }
+    }
+
+    private IllegalArgumentException naoSuportado(String destino) {
+        return new IllegalArgumentException("Tipo " + tipo.getName() + " da propriedade " + nome + " não suportado por " + destino);
+    }
+
+    interface Campo<T> {
+        void ler(FieldSet fieldSet, int indice, T item);
+    }
+
+    interface CampoCsv<T> {
+        void ler(LinhaCsv linha, int indice, T item);
+    }
+
+    interface Coluna<T> {
+        void codificar(T item, LinhaCopy linha);
+    }
+}
@@ -0,0 +1,37 @@
+package com.dowglasmaia.migracaodadosjob.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Registra as métricas {@code executor.*} do Micrometer ({@link ExecutorServiceMetrics}) para cada
+ * {@link ThreadPoolTaskExecutor} do contexto, com o nome do bean na tag {@code name}: threads ativas, tarefas na fila,
+ * tamanho do pool e tarefas concluídas.
+ * <p>
+ * As métricas são registradas depois da inicialização do executor, quando o pool já existe, e o registro de métricas
+ * é obtido nesse momento, para não antecipar a sua criação durante o registro dos post-processors.
+ */
+public class ExecutoresMetricasPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public ExecutoresMetricasPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ThreadPoolTaskExecutor) {
+            MeterRegistry meterRegistry = registry.getIfAvailable();
+            if (meterRegistry != null) {
+                new ExecutorServiceMetrics(((ThreadPoolTaskExecutor) bean).getThreadPoolExecutor(), beanName, Tags.empty())
+                      .bindTo(meterRegistry);
+            }
+        }
+        return bean;
+    }
+}
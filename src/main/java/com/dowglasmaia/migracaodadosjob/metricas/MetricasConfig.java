@@ -0,0 +1,142 @@
+package com.dowglasmaia.migracaodadosjob.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração das métricas da migração: tempos de cada fase dos chunks, registros escritos e rejeitados, vazão
+ * e tempo das operações do repositório do job, expostos em um endpoint local no formato do Prometheus
+ * e resumidos em um arquivo JSON ao fim de cada execução do job.
+ */
+@Configuration
+public class MetricasConfig {
+
+    @Value("${app.migracao.metricas.habilitadas:true}")
+    private boolean habilitadas;
+
+    @Value("${app.migracao.metricas.endereco:127.0.0.1}")
+    private String endereco;
+
+    @Value("${app.migracao.metricas.porta:9464}")
+    private int porta;
+
+    @Value("${app.migracao.metricas.resumo.diretorio:files/metricas}")
+    private String diretorioResumo;
+
+    /**
+     * Cria o registro de métricas da aplicação, no formato do Prometheus. Também é adicionado ao registro global do Micrometer,
+     * onde o Spring Batch registra as suas métricas ({@code spring.batch.*}).
+     *
+     * @return Registro de métricas da aplicação.
+     */
+    @Bean(destroyMethod = "close")
+    public PrometheusMeterRegistry meterRegistry() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        Metrics.addRegistry(meterRegistry);
+        return meterRegistry;
+    }
+
+    /**
+     * Cria as métricas da migração, usadas pelos leitores, classificadores e listeners dos steps.
+     *
+     * @param meterRegistry Registro de métricas da aplicação.
+     * @return Métricas da migração.
+     */
+    @Bean
+    public MetricasMigracao metricasMigracao(MeterRegistry meterRegistry) {
+        return new MetricasMigracao(meterRegistry, habilitadas);
+    }
+
+    /**
+     * Cria o listener de métricas dos chunks do step de pessoas. É de escopo de step, então cada execução de step
+     * (inclusive cada partição) tem a sua própria instância.
+     *
+     * @param metricasMigracao Métricas da migração.
+     * @return Listener de métricas do step de pessoas.
+     */
+    @Bean
+    @StepScope
+    public MetricasStepListener metricasPessoaListener(@Qualifier("metricasMigracao") MetricasMigracao metricasMigracao) {
+        return new MetricasStepListener(MetricasMigracao.ETAPA_PESSOA, metricasMigracao);
+    }
+
+    /**
+     * Cria o listener de métricas dos chunks do step de dados bancários, com uma instância por execução de step.
+     *
+     * @param metricasMigracao Métricas da migração.
+     * @return Listener de métricas do step de dados bancários.
+     */
+    @Bean
+    @StepScope
+    public MetricasStepListener metricasDadosBancariosListener(@Qualifier("metricasMigracao") MetricasMigracao metricasMigracao) {
+        return new MetricasStepListener(MetricasMigracao.ETAPA_DADOS_BANCARIOS, metricasMigracao);
+    }
+
+    /**
+     * Cria o listener do job que grava o resumo JSON das métricas ao fim de cada execução.
+     *
+     * @param meterRegistry Registro de métricas da aplicação.
+     * @return JobExecutionListener do resumo de métricas.
+     */
+    @Bean
+    public JobExecutionListener resumoMetricasListener(MeterRegistry meterRegistry) {
+        return new ResumoMetricasListener(meterRegistry, habilitadas ? diretorioResumo : "");
+    }
+
+    /**
+     * Cria o endpoint local de coleta das métricas, iniciado com o contexto e encerrado com ele.
+     *
+     * @param meterRegistry Registro de métricas da aplicação.
+     * @return Servidor do endpoint de métricas.
+     */
+    @Bean(initMethod = "iniciar", destroyMethod = "parar")
+    public ServidorMetricas servidorMetricas(PrometheusMeterRegistry meterRegistry) {
+        return new ServidorMetricas(meterRegistry, endereco, habilitadas ? porta : 0);
+    }
+
+    /**
+     * Mantém o endpoint de métricas iniciado com o contexto na inicialização sob demanda
+     * ({@code spring.main.lazy-initialization}), já que nenhum outro bean depende dele.
+     *
+     * @return Filtro que exclui o servidor de métricas da inicialização sob demanda.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter servidorMetricasLazyExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(ServidorMetricas.class);
+    }
+
+    /**
+     * Registra o post-processor que mede as operações do repositório do job. É estático para ser criado
+     * antes dos demais beans desta configuração, sem antecipar a criação deles.
+     *
+     * @param metricasMigracao Métricas da migração, obtidas na primeira operação do repositório.
+     * @return Post-processor do repositório do job.
+     */
+    @Bean
+    public static RepositorioMetricasPostProcessor repositorioMetricasPostProcessor(
+          @Qualifier("metricasMigracao") ObjectProvider<MetricasMigracao> metricasMigracao
+    ) {
+        return new RepositorioMetricasPostProcessor(metricasMigracao);
+    }
+
+    /**
+     * Registra o post-processor que publica as métricas {@code executor.*} dos pools de threads do job.
+     *
+     * @param meterRegistry Registro de métricas, obtido na inicialização de cada executor.
+     * @return Post-processor dos executores.
+     */
+    @Bean
+    public static ExecutoresMetricasPostProcessor executoresMetricasPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ExecutoresMetricasPostProcessor(meterRegistry);
+    }
+}
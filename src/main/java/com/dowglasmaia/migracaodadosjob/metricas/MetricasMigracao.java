@@ -0,0 +1,301 @@
+package com.dowglasmaia.migracaodadosjob.metricas;
+
+import com.dowglasmaia.migracaodadosjob.reader.csv.LinhaCsv;
+import com.dowglasmaia.migracaodadosjob.reader.csv.MapeadorLinhaCsv;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.classify.Classifier;
+import org.springframework.validation.BindException;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas do caminho crítico da migração, registradas no {@link MeterRegistry} da aplicação.
+ * <p>
+ * A conversão das linhas e a classificação dos registros são medidas por registro, mas apenas acumuladas
+ * (em um {@link LongAdder} por etapa), porque registrar um {@link Timer} por registro custaria mais que a própria conversão.
+ * O {@link MetricasStepListener} drena os acumuladores a cada chunk e registra o total como uma amostra dos
+ * timers {@code migracao.chunk.conversao} e {@code migracao.chunk.classificacao}. Com partições da mesma etapa em paralelo,
+ * cada chunk drena também o tempo acumulado pelas outras partições: o total é exato, a distribuição por chunk é aproximada.
+ */
+public class MetricasMigracao {
+
+    public static final String ETAPA_PESSOA = "pessoa";
+    public static final String ETAPA_DADOS_BANCARIOS = "dados-bancarios";
+
+    public static final String PREFIXO = "migracao.";
+
+    private static final double[] PERCENTIS = {0.5, 0.95, 0.99};
+
+    /**
+     * Limites dos buckets dos histogramas, em microssegundos. São informados explicitamente, no lugar dos
+     * buckets gerados por {@code publishPercentileHistogram}, para manter poucas séries por timer.
+     */
+    private static final long[] LIMITES_CHUNK = {
+          1_000, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000,
+          1_000_000, 2_500_000, 5_000_000, 10_000_000, 30_000_000, 60_000_000, 300_000_000
+    };
+    private static final long[] LIMITES_REPOSITORIO = {
+          100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 1_000_000, 5_000_000, 30_000_000
+    };
+
+    private final MeterRegistry registry;
+    private final boolean habilitadas;
+    private final ConcurrentMap<String, Etapa> etapas = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry    Registro das métricas.
+     * @param habilitadas Se as métricas devem ser coletadas. Desabilitadas, os envoltórios devolvem o próprio delegado.
+     */
+    public MetricasMigracao(MeterRegistry registry, boolean habilitadas) {
+        this.registry = registry;
+        this.habilitadas = habilitadas;
+    }
+
+    public boolean isHabilitadas() {
+        return habilitadas;
+    }
+
+    /**
+     * Envolve um {@link FieldSetMapper} para acumular o tempo de conversão de cada linha.
+     *
+     * @param etapa    Etapa da migração.
+     * @param mapeador Mapeador das linhas.
+     * @return Mapeador medido, ou o próprio mapeador com as métricas desabilitadas.
+     */
+    public <T> FieldSetMapper<T> medirConversao(String etapa, FieldSetMapper<T> mapeador) {
+        if (!habilitadas) {
+            return mapeador;
+        }
+        LongAdder conversao = etapa(etapa).conversao;
+        return new FieldSetMapper<T>() {
+            @Override
+            public T mapFieldSet(FieldSet fieldSet) throws BindException {
+                long inicio = System.nanoTime();
+                try {
+                    return mapeador.mapFieldSet(fieldSet);
+                } finally {
+                    conversao.add(System.nanoTime() - inicio);
+                }
+            }
+        };
+    }
+
+    /**
+     * Envolve um {@link MapeadorLinhaCsv} para acumular o tempo de conversão de cada linha.
+     *
+     * @param etapa    Etapa da migração.
+     * @param mapeador Mapeador das linhas.
+     * @return Mapeador medido, ou o próprio mapeador com as métricas desabilitadas.
+     */
+    public <T> MapeadorLinhaCsv<T> medirConversao(String etapa, MapeadorLinhaCsv<T> mapeador) {
+        if (!habilitadas) {
+            return mapeador;
+        }
+        LongAdder conversao = etapa(etapa).conversao;
+        return new MapeadorLinhaCsv<T>() {
+            @Override
+            public T mapear(LinhaCsv linha) {
+                long inicio = System.nanoTime();
+                try {
+                    return mapeador.mapear(linha);
+                } finally {
+                    conversao.add(System.nanoTime() - inicio);
+                }
+            }
+        };
+    }
+
+    /**
+     * Envolve um {@link Classifier} para acumular o tempo de classificação de cada registro
+     * e contar os registros enviados ao destino de rejeitados em {@code migracao.registros.rejeitados}.
+     *
+     * @param etapa         Etapa da migração.
+     * @param classificador Classificador dos registros.
+     * @param rejeitado     Destino dos registros rejeitados.
+     * @param motivo        Motivo da rejeição, usado como tag do contador.
+     * @return Classificador medido, ou o próprio classificador com as métricas desabilitadas.
+     */
+    public <T, W> Classifier<T, W> medirClassificacao(String etapa, Classifier<T, W> classificador, W rejeitado, String motivo) {
+        if (!habilitadas) {
+            return classificador;
+        }
+        LongAdder classificacao = etapa(etapa).classificacao;
+        Counter rejeitados = rejeitados(etapa, motivo);
+        return new Classifier<T, W>() {
+            @Override
+            public W classify(T registro) {
+                long inicio = System.nanoTime();
+                W destino = classificador.classify(registro);
+                classificacao.add(System.nanoTime() - inicio);
+                if (destino == rejeitado) {
+                    rejeitados.increment();
+                }
+                return destino;
+            }
+        };
+    }
+
+    /**
+     * Soma registros recusados pelo banco durante a escrita e enviados ao arquivo de rejeitados
+     * em {@code migracao.registros.rejeitados}.
+     *
+     * @param etapa     Etapa da migração.
+     * @param motivo    Motivo da rejeição, usado como tag do contador.
+     * @param registros Quantidade de registros rejeitados.
+     */
+    public void contarRejeitados(String etapa, String motivo, int registros) {
+        if (habilitadas) {
+            rejeitados(etapa, motivo).increment(registros);
+        }
+    }
+
+    private Counter rejeitados(String etapa, String motivo) {
+        return Counter.builder(PREFIXO + "registros.rejeitados")
+              .description("Registros enviados ao arquivo de rejeitados em vez do banco")
+              .tag("etapa", etapa)
+              .tag("motivo", motivo)
+              .register(registry);
+    }
+
+    /**
+     * Cria, ou obtém, um timer de chunk da etapa, com histograma e percentis publicados.
+     *
+     * @param nome      Nome do timer, sem o prefixo {@code migracao.chunk.}.
+     * @param etapa     Etapa da migração.
+     * @param descricao Descrição do timer.
+     * @return Timer registrado.
+     */
+    Timer timerChunk(String nome, String etapa, String descricao) {
+        return Timer.builder(PREFIXO + "chunk." + nome)
+              .description(descricao)
+              .tag("etapa", etapa)
+              .publishPercentiles(PERCENTIS) // Percentis calculados no processo, também usados no resumo JSON
+              .serviceLevelObjectives(limites(LIMITES_CHUNK)) // Buckets para agregação no servidor de métricas
+              .distributionStatisticExpiry(Duration.ofDays(1)) // Percentis da execução inteira, não de uma janela recente
+              .distributionStatisticBufferLength(1)
+              .register(registry);
+    }
+
+    /**
+     * Cria, ou obtém, o timer das operações do repositório do job.
+     *
+     * @param operacao Método do {@link org.springframework.batch.core.repository.JobRepository}.
+     * @return Timer registrado.
+     */
+    Timer timerRepositorio(String operacao) {
+        return Timer.builder(PREFIXO + "repositorio")
+              .description("Operações do repositório do job (atualização de execuções e contextos)")
+              .tag("operacao", operacao)
+              .publishPercentiles(PERCENTIS)
+              .serviceLevelObjectives(limites(LIMITES_REPOSITORIO))
+              .distributionStatisticExpiry(Duration.ofDays(1))
+              .distributionStatisticBufferLength(1)
+              .register(registry);
+    }
+
+    /**
+     * Cria, ou obtém, um contador da etapa.
+     */
+    Counter contador(String nome, String etapa, String descricao) {
+        return Counter.builder(PREFIXO + nome)
+              .description(descricao)
+              .tag("etapa", etapa)
+              .register(registry);
+    }
+
+    /**
+     * @return Tempo de conversão acumulado pela etapa desde a última drenagem, em nanossegundos.
+     */
+    long drenarConversao(String etapa) {
+        return etapa(etapa).conversao.sumThenReset();
+    }
+
+    /**
+     * @return Tempo de classificação acumulado pela etapa desde a última drenagem, em nanossegundos.
+     */
+    long drenarClassificacao(String etapa) {
+        return etapa(etapa).classificacao.sumThenReset();
+    }
+
+    /**
+     * Marca o início de uma execução de step da etapa. A vazão é medida a partir do primeiro step iniciado.
+     */
+    void iniciarStep(String etapa) {
+        Etapa estado = etapa(etapa);
+        estado.inicio.compareAndSet(0, System.nanoTime());
+        if (estado.stepsAtivos.getAndIncrement() == 0) {
+            estado.fim = 0;
+        }
+    }
+
+    /**
+     * Marca o fim de uma execução de step da etapa. A vazão para de ser medida quando não há mais steps ativos.
+     */
+    void concluirStep(String etapa) {
+        Etapa estado = etapa(etapa);
+        if (estado.stepsAtivos.decrementAndGet() == 0) {
+            estado.fim = System.nanoTime();
+        }
+    }
+
+    /**
+     * Soma os registros escritos pela etapa, usados no cálculo da vazão.
+     */
+    void registrarEscritos(String etapa, int registros) {
+        etapa(etapa).registros.add(registros);
+    }
+
+    private static Duration[] limites(long[] micros) {
+        Duration[] limites = new Duration[micros.length];
+        for (int i = 0; i < micros.length; i++) {
+            limites[i] = Duration.ofNanos(micros[i] * 1000);
+        }
+        return limites;
+    }
+
+    private Etapa etapa(String nome) {
+        return etapas.computeIfAbsent(nome, this::criarEtapa);
+    }
+
+    private Etapa criarEtapa(String nome) {
+        Etapa etapa = new Etapa();
+        Gauge.builder(PREFIXO + "vazao", etapa, Etapa::registrosPorSegundo)
+              .description("Registros escritos por segundo desde o início da etapa")
+              .tag("etapa", nome)
+              .strongReference(true)
+              .register(registry);
+        return etapa;
+    }
+
+    /**
+     * Acumuladores de uma etapa, compartilhados entre as suas partições.
+     */
+    private static class Etapa {
+        private final LongAdder conversao = new LongAdder();
+        private final LongAdder classificacao = new LongAdder();
+        private final LongAdder registros = new LongAdder();
+        private final AtomicLong inicio = new AtomicLong();
+        private final AtomicInteger stepsAtivos = new AtomicInteger();
+        private volatile long fim;
+
+        private double registrosPorSegundo() {
+            long comeco = inicio.get();
+            if (comeco == 0) {
+                return 0;
+            }
+            long termino = fim != 0 ? fim : System.nanoTime();
+            double segundos = (termino - comeco) / 1e9;
+            return segundos > 0 ? registros.sum() / segundos : 0;
+        }
+    }
+}
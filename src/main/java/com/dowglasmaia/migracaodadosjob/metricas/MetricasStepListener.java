@@ -0,0 +1,124 @@
+package com.dowglasmaia.migracaodadosjob.metricas;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener que mede as fases de cada chunk de um step de migração:
+ * <ul>
+ *     <li>{@code migracao.chunk.leitura}: do início do chunk até a escrita, incluindo a conversão das linhas;</li>
+ *     <li>{@code migracao.chunk.conversao}: conversão das linhas em registros, acumulada pelos mapeadores medidos;</li>
+ *     <li>{@code migracao.chunk.classificacao}: classificação dos registros, acumulada pelos classificadores medidos;</li>
+ *     <li>{@code migracao.chunk.escrita}: escrita do chunk, incluindo a classificação;</li>
+ *     <li>{@code migracao.chunk.commit}: do fim da escrita até o fim do commit.</li>
+ * </ul>
+ * Cada execução de step, inclusive cada partição, tem a sua própria instância, então as medições não são compartilhadas entre threads.
+ */
+public class MetricasStepListener implements StepExecutionListener, ChunkListener, ItemWriteListener<Object> {
+
+    private final String etapa;
+    private final MetricasMigracao metricas;
+    private final Timer leitura;
+    private final Timer conversao;
+    private final Timer classificacao;
+    private final Timer escrita;
+    private final Timer commit;
+    private final Counter escritos;
+    private final Counter chunksFalhos;
+
+    private long inicioChunk;
+    private long inicioEscrita;
+    private long fimEscrita;
+    private int registros;
+
+    /**
+     * @param etapa    Etapa da migração, usada como tag das métricas.
+     * @param metricas Métricas da migração.
+     */
+    public MetricasStepListener(String etapa, MetricasMigracao metricas) {
+        this.etapa = etapa;
+        this.metricas = metricas;
+        this.leitura = metricas.timerChunk("leitura", etapa, "Leitura e conversão dos registros de um chunk");
+        this.conversao = metricas.timerChunk("conversao", etapa, "Conversão das linhas do arquivo em registros, por chunk");
+        this.classificacao = metricas.timerChunk("classificacao", etapa, "Classificação dos registros entre banco e rejeitados, por chunk");
+        this.escrita = metricas.timerChunk("escrita", etapa, "Escrita dos registros de um chunk");
+        this.commit = metricas.timerChunk("commit", etapa, "Commit da transação de um chunk");
+        this.escritos = metricas.contador("registros.escritos", etapa, "Registros escritos, no banco ou no arquivo de rejeitados");
+        this.chunksFalhos = metricas.contador("chunks.falhos", etapa, "Chunks desfeitos por erro");
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        if (metricas.isHabilitadas()) {
+            metricas.iniciarStep(etapa);
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (metricas.isHabilitadas()) {
+            metricas.concluirStep(etapa);
+        }
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        inicioChunk = System.nanoTime();
+        inicioEscrita = 0;
+        fimEscrita = 0;
+    }
+
+    @Override
+    public void beforeWrite(List<?> items) {
+        inicioEscrita = System.nanoTime();
+        registros = items.size();
+    }
+
+    @Override
+    public void afterWrite(List<?> items) {
+        fimEscrita = System.nanoTime();
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<?> items) {
+        // Registrado em afterChunkError
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        if (!metricas.isHabilitadas() || fimEscrita == 0) {
+            return; // Chunk vazio, ao fim do arquivo
+        }
+        long fim = System.nanoTime();
+        leitura.record(inicioEscrita - inicioChunk, TimeUnit.NANOSECONDS);
+        escrita.record(fimEscrita - inicioEscrita, TimeUnit.NANOSECONDS);
+        commit.record(fim - fimEscrita, TimeUnit.NANOSECONDS);
+        registrarAcumulado(conversao, metricas.drenarConversao(etapa));
+        registrarAcumulado(classificacao, metricas.drenarClassificacao(etapa));
+        escritos.increment(registros);
+        metricas.registrarEscritos(etapa, registros);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        if (metricas.isHabilitadas()) {
+            chunksFalhos.increment();
+        }
+    }
+
+    private static void registrarAcumulado(Timer timer, long nanos) {
+        if (nanos > 0) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
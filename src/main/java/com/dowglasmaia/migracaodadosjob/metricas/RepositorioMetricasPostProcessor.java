@@ -0,0 +1,119 @@
+package com.dowglasmaia.migracaodadosjob.metricas;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.configuration.annotation.BatchConfigurer;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envolve o {@link JobRepository} do {@link BatchConfigurer} em um proxy que mede cada operação no timer
+ * {@code migracao.repositorio}, com a operação como tag. As atualizações do repositório ocorrem a cada commit de chunk,
+ * dentro da transação, e entram no tempo de commit medido pelo {@link MetricasStepListener}.
+ * <p>
+ * O configurador é envolvido, e não o bean {@code jobRepository}, porque o {@code SimpleBatchConfiguration} cria o
+ * {@code StepBuilderFactory} e o {@code JobBuilderFactory} com o repositório do configurador, sem passar pelo bean.
+ * As métricas são obtidas na primeira operação, para não antecipar a criação do registro de métricas
+ * durante o registro dos post-processors.
+ */
+public class RepositorioMetricasPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MetricasMigracao> metricas;
+
+    public RepositorioMetricasPostProcessor(ObjectProvider<MetricasMigracao> metricas) {
+        this.metricas = metricas;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof BatchConfigurer)) {
+            return bean;
+        }
+        return new ConfiguradorMedido((BatchConfigurer) bean);
+    }
+
+    /**
+     * {@link BatchConfigurer} que devolve o repositório do configurador original envolvido pelo proxy de medição.
+     */
+    private class ConfiguradorMedido implements BatchConfigurer {
+
+        private final BatchConfigurer configurador;
+        private JobRepository repositorio;
+
+        private ConfiguradorMedido(BatchConfigurer configurador) {
+            this.configurador = configurador;
+        }
+
+        @Override
+        public synchronized JobRepository getJobRepository() throws Exception {
+            if (repositorio == null) {
+                repositorio = (JobRepository) Proxy.newProxyInstance(JobRepository.class.getClassLoader(),
+                      new Class<?>[]{JobRepository.class}, new RepositorioMedido(configurador.getJobRepository()));
+            }
+            return repositorio;
+        }
+
+        @Override
+        public PlatformTransactionManager getTransactionManager() throws Exception {
+            return configurador.getTransactionManager();
+        }
+
+        @Override
+        public JobLauncher getJobLauncher() throws Exception {
+            return configurador.getJobLauncher();
+        }
+
+        @Override
+        public JobExplorer getJobExplorer() throws Exception {
+            return configurador.getJobExplorer();
+        }
+    }
+
+    private class RepositorioMedido implements InvocationHandler {
+
+        private final JobRepository repositorio;
+        private final ConcurrentMap<Method, Timer> timers = new ConcurrentHashMap<>();
+
+        private RepositorioMedido(JobRepository repositorio) {
+            this.repositorio = repositorio;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] argumentos) throws Throwable {
+            if (metodo.getDeclaringClass() == Object.class) {
+                return metodo.invoke(repositorio, argumentos); // equals, hashCode e toString do repositório
+            }
+            MetricasMigracao metricasMigracao = metricas.getIfAvailable();
+            if (metricasMigracao == null || !metricasMigracao.isHabilitadas()) {
+                return invocar(metodo, argumentos);
+            }
+            long inicio = System.nanoTime();
+            try {
+                return invocar(metodo, argumentos);
+            } finally {
+                long duracao = System.nanoTime() - inicio;
+                timers.computeIfAbsent(metodo, m -> metricasMigracao.timerRepositorio(m.getName()))
+                      .record(duracao, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private Object invocar(Method metodo, Object[] argumentos) throws Throwable {
+            try {
+                return metodo.invoke(repositorio, argumentos);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
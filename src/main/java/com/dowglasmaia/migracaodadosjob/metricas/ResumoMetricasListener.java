@@ -0,0 +1,160 @@
+package com.dowglasmaia.migracaodadosjob.metricas;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener do job que grava, ao fim de cada execução, um resumo JSON em
+ * {@code <diretorio>/<job>_<jobExecutionId>.json}, para comparar execuções e encontrar regressões.
+ * <p>
+ * O resumo tem a duração e a vazão de cada step, calculadas pelas contagens do próprio step, e os timers,
+ * contadores e gauges da migração ({@code migracao.*}) e do Spring Batch ({@code spring.batch.*}),
+ * com tempos em milissegundos. As métricas são cumulativas desde o início do processo.
+ */
+public class ResumoMetricasListener extends JobExecutionListenerSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumoMetricasListener.class);
+
+    private static final String[] PREFIXOS = {MetricasMigracao.PREFIXO, "spring.batch."};
+
+    private final MeterRegistry registry;
+    private final Path diretorio;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * @param registry  Registro das métricas.
+     * @param diretorio Diretório dos resumos; vazio desabilita o resumo.
+     */
+    public ResumoMetricasListener(MeterRegistry registry, String diretorio) {
+        this.registry = registry;
+        this.diretorio = diretorio.isEmpty() ? null : Paths.get(diretorio);
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (diretorio == null) {
+            return;
+        }
+        Path arquivo = diretorio.resolve(jobExecution.getJobInstance().getJobName() + "_" + jobExecution.getId() + ".json");
+        try {
+            Files.createDirectories(diretorio);
+            objectMapper.writeValue(arquivo.toFile(), resumo(jobExecution));
+            log.info("Resumo de métricas gravado em {}", arquivo);
+        } catch (IOException e) {
+            log.warn("Falha ao gravar o resumo de métricas em {}", arquivo, e); // Não altera o resultado do job
+        }
+    }
+
+    private Map<String, Object> resumo(JobExecution jobExecution) {
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("job", jobExecution.getJobInstance().getJobName());
+        resumo.put("jobExecutionId", jobExecution.getId());
+        resumo.put("status", jobExecution.getStatus().toString());
+        resumo.put("parametros", jobExecution.getJobParameters().toString());
+        resumo.put("inicio", jobExecution.getStartTime() != null ? jobExecution.getStartTime().toInstant().toString() : null);
+        resumo.put("duracaoMs", duracaoMs(jobExecution.getStartTime(), jobExecution.getEndTime()));
+        List<Map<String, Object>> steps = new ArrayList<>();
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            steps.add(step(stepExecution));
+        }
+        resumo.put("steps", steps);
+        resumo.put("metricas", metricas());
+        return resumo;
+    }
+
+    private Map<String, Object> step(StepExecution stepExecution) {
+        long duracaoMs = duracaoMs(stepExecution.getStartTime(), stepExecution.getEndTime());
+        Map<String, Object> step = new LinkedHashMap<>();
+        step.put("nome", stepExecution.getStepName());
+        step.put("status", stepExecution.getStatus().toString());
+        step.put("lidos", stepExecution.getReadCount());
+        step.put("escritos", stepExecution.getWriteCount());
+        step.put("ignorados", stepExecution.getSkipCount());
+        step.put("commits", stepExecution.getCommitCount());
+        step.put("rollbacks", stepExecution.getRollbackCount());
+        step.put("duracaoMs", duracaoMs);
+        step.put("registrosPorSegundo", duracaoMs > 0 ? stepExecution.getWriteCount() * 1000.0 / duracaoMs : 0);
+        return step;
+    }
+
+    /**
+     * @return Métricas por nome, com uma entrada por combinação de tags.
+     */
+    private Map<String, List<Map<String, Object>>> metricas() {
+        Map<String, List<Map<String, Object>>> metricas = new TreeMap<>();
+        for (Meter meter : registry.getMeters()) {
+            String nome = meter.getId().getName();
+            if (!incluida(nome) || meter.getId().syntheticAssociation() != null) { // Percentis já incluídos nos timers
+                continue;
+            }
+            Map<String, Object> valores = new LinkedHashMap<>();
+            Map<String, String> tags = new TreeMap<>();
+            for (Tag tag : meter.getId().getTags()) {
+                tags.put(tag.getKey(), tag.getValue());
+            }
+            valores.put("tags", tags);
+            if (meter instanceof Timer) {
+                timer(((Timer) meter).takeSnapshot(), valores);
+            } else if (meter instanceof Counter) {
+                valores.put("total", ((Counter) meter).count());
+            } else if (meter instanceof Gauge) {
+                valores.put("valor", ((Gauge) meter).value());
+            } else {
+                continue;
+            }
+            metricas.computeIfAbsent(nome, n -> new ArrayList<>()).add(valores);
+        }
+        return metricas;
+    }
+
+    private static void timer(HistogramSnapshot snapshot, Map<String, Object> valores) {
+        valores.put("contagem", snapshot.count());
+        valores.put("totalMs", snapshot.total(TimeUnit.MILLISECONDS));
+        valores.put("mediaMs", snapshot.mean(TimeUnit.MILLISECONDS));
+        valores.put("maximoMs", snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentil : snapshot.percentileValues()) {
+            valores.put("p" + Math.round(percentil.percentile() * 100) + "Ms", percentil.value(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static boolean incluida(String nome) {
+        for (String prefixo : PREFIXOS) {
+            if (nome.startsWith(prefixo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long duracaoMs(Date inicio, Date fim) {
+        if (inicio == null) {
+            return 0;
+        }
+        return (fim != null ? fim.getTime() : System.currentTimeMillis()) - inicio.getTime();
+    }
+}
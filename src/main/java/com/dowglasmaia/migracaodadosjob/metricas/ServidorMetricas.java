@@ -0,0 +1,117 @@
+package com.dowglasmaia.migracaodadosjob.metricas;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Endpoint HTTP local de coleta das métricas no formato do Prometheus, em {@code /metrics},
+ * com o texto gerado pelo {@link PrometheusMeterRegistry#scrape()}.
+ * <p>
+ * Usa o servidor HTTP do JDK, já que a aplicação não tem servidor web, com todas as threads daemon
+ * para que o processo termine ao fim do job.
+ * Se a porta estiver ocupada, o job é executado sem o endpoint.
+ */
+public class ServidorMetricas {
+
+    private static final Logger log = LoggerFactory.getLogger(ServidorMetricas.class);
+
+    private final PrometheusMeterRegistry registry;
+    private final String endereco;
+    private final int porta;
+
+    private HttpServer servidor;
+    private ExecutorService executor;
+
+    /**
+     * @param registry Registro das métricas expostas.
+     * @param endereco Endereço de escuta.
+     * @param porta    Porta de escuta; 0 desabilita o endpoint.
+     */
+    public ServidorMetricas(PrometheusMeterRegistry registry, String endereco, int porta) {
+        this.registry = registry;
+        this.endereco = endereco;
+        this.porta = porta;
+    }
+
+    /**
+     * Inicia o servidor, se a porta foi configurada.
+     */
+    public void iniciar() {
+        if (porta <= 0) {
+            return;
+        }
+        try {
+            servidor = HttpServer.create(new InetSocketAddress(endereco, porta), 0);
+        } catch (IOException e) {
+            log.warn("Endpoint de métricas não iniciado em {}:{}: {}", endereco, porta, e.getMessage());
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(fabrica("metricas-http"));
+        servidor.createContext("/metrics", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange troca) throws IOException {
+                responder(troca);
+            }
+        });
+        servidor.setExecutor(executor);
+        Thread inicializadora = fabrica("metricas-http-inicio").newThread(servidor::start);
+        inicializadora.start(); // A thread de despacho do servidor herda a condição de daemon da thread que o inicia
+        try {
+            inicializadora.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Métricas disponíveis em http://{}:{}/metrics", endereco, servidor.getAddress().getPort());
+    }
+
+    /**
+     * Encerra o servidor, sem aguardar coletas em andamento.
+     */
+    public void parar() {
+        if (servidor != null) {
+            servidor.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory fabrica(String nome) {
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable tarefa) {
+                Thread thread = new Thread(tarefa, nome);
+                thread.setDaemon(true); // Não impede o encerramento da JVM ao fim do job
+                return thread;
+            }
+        };
+    }
+
+    private void responder(HttpExchange troca) throws IOException {
+        try {
+            if (!"GET".equals(troca.getRequestMethod())) {
+                troca.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] corpo = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            troca.getResponseHeaders().set("Content-Type", TextFormat.CONTENT_TYPE_004);
+            troca.sendResponseHeaders(200, corpo.length);
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(corpo);
+            }
+        } finally {
+            troca.close();
+        }
+    }
+}
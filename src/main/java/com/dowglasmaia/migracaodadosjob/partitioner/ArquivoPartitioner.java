@@ -0,0 +1,192 @@
+package com.dowglasmaia.migracaodadosjob.partitioner;
+
+import com.dowglasmaia.migracaodadosjob.delta.BaseImpressoes;
+import com.dowglasmaia.migracaodadosjob.delta.Impressao;
+import com.dowglasmaia.migracaodadosjob.delta.Segmento;
+import com.dowglasmaia.migracaodadosjob.reader.compressao.FormatoCompressao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link Partitioner} que divide um arquivo CSV em intervalos de bytes alinhados em quebras de linha.
+ * Cada intervalo gera uma partição com seu próprio {@link ExecutionContext}, contendo o caminho do arquivo,
+ * o byte inicial (inclusivo) e o byte final (exclusivo) que o worker deve ler.
+ * <p>
+ * Um arquivo compactado ({@code .gz} ou {@code .zst}) não pode ser lido a partir de um byte arbitrário,
+ * então gera uma única partição com o arquivo inteiro; o paralelismo fica na descompressão.
+ * Sem arquivo (uma execução da caixa de entrada que não recebeu este tipo de arquivo), gera uma única partição vazia.
+ * <p>
+ * No modo delta, o arquivo é dividido em segmentos de tamanho fixo, também alinhados em quebras de linha, em vez de
+ * {@code gridSize} partes: os cortes só dependem do conteúdo anterior a eles, então um segmento que não mudou
+ * tem o mesmo intervalo e a mesma {@link Impressao} da execução anterior e não gera partição.
+ * Cada segmento restante é uma partição, com o índice do segmento no contexto.
+ */
+public class ArquivoPartitioner implements Partitioner {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivoPartitioner.class);
+
+    public static final String ARQUIVO = "arquivo";
+    public static final String INICIO = "inicio";
+    public static final String FIM = "fim";
+    public static final String PARTICAO = "particao";
+    public static final String SEGMENTO = "segmento";
+
+    private static final int TAMANHO_BUFFER = 8192;
+    private static final int TAMANHO_BUFFER_IMPRESSAO = 1 << 20;
+
+    private final Resource recurso;
+    private final BaseImpressoes<?> base;
+    private final long tamanhoSegmento;
+
+    /**
+     * @param recurso Arquivo particionado, ou {@code null} quando a execução não tem este arquivo.
+     */
+    public ArquivoPartitioner(Resource recurso) {
+        this(recurso, null, 0);
+    }
+
+    /**
+     * @param recurso         Arquivo particionado, ou {@code null} quando a execução não tem este arquivo.
+     * @param base            Base de impressões do modo delta, ou {@code null} fora do modo delta.
+     * @param tamanhoSegmento Tamanho aproximado de cada segmento no modo delta, em bytes.
+     */
+    public ArquivoPartitioner(Resource recurso, BaseImpressoes<?> base, long tamanhoSegmento) {
+        this.recurso = recurso;
+        this.base = base;
+        this.tamanhoSegmento = tamanhoSegmento;
+    }
+
+    /**
+     * Divide o arquivo em até {@code gridSize} intervalos de tamanho aproximadamente igual.
+     * Intervalos vazios (arquivos pequenos ou linhas muito longas) são descartados; um arquivo vazio gera uma única
+     * partição vazia.
+     *
+     * @param gridSize Quantidade desejada de partições.
+     * @return Mapa com o nome de cada partição e o seu contexto de execução.
+     */
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> particoes = new LinkedHashMap<>();
+        if (recurso == null) {
+            particoes.put(PARTICAO + 0, contexto("", 0, 0, 0));
+            return particoes;
+        }
+        try {
+            File arquivo = recurso.getFile();
+            if (FormatoCompressao.detectar(arquivo.getName()).isCompactado()) {
+                log.info("Arquivo compactado {} processado em uma única partição", arquivo.getPath());
+                particoes.put(PARTICAO + 0, contexto(arquivo.getPath(), 0, Long.MAX_VALUE, 0));
+                return particoes;
+            }
+            long tamanho = arquivo.length();
+            try (FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ)) {
+                if (base != null) {
+                    return segmentar(arquivo, canal, tamanho);
+                }
+                long inicio = 0;
+                for (int i = 1; i <= gridSize && inicio < tamanho; i++) {
+                    long fim = i == gridSize ? tamanho : proximoInicioLinha(canal, tamanho * i / gridSize, tamanho);
+                    if (fim <= inicio) {
+                        continue;
+                    }
+                    int particao = particoes.size();
+                    particoes.put(PARTICAO + particao, contexto(arquivo.getPath(), inicio, fim, particao));
+                    inicio = fim;
+                }
+                if (particoes.isEmpty()) {
+                    particoes.put(PARTICAO + 0, contexto("", 0, 0, 0)); // Arquivo vazio: o step gerenciador precisa de ao menos uma partição
+                }
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Falha ao particionar o arquivo " + recurso.getDescription(), e);
+        }
+        return particoes;
+    }
+
+    /**
+     * Divide o arquivo em segmentos e gera uma partição para cada segmento diferente do de mesmo índice
+     * na execução anterior, ou igual a ele, mas com algum registro não gravado. Os segmentos, pulados ou não,
+     * são registrados na base de impressões.
+     */
+    private Map<String, ExecutionContext> segmentar(File arquivo, FileChannel canal, long tamanho) throws IOException {
+        Map<String, ExecutionContext> particoes = new LinkedHashMap<>();
+        List<Segmento> anteriores = base.segmentosAnteriores();
+        List<Segmento> segmentos = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER_IMPRESSAO);
+        long inicio = 0;
+        while (inicio < tamanho) {
+            int indice = segmentos.size();
+            long fim = proximoInicioLinha(canal, Math.min(inicio + tamanhoSegmento, tamanho), tamanho);
+            Segmento segmento = new Segmento(indice, inicio, fim, Impressao.trecho(canal, inicio, fim, buffer), false, false);
+            if (indice < anteriores.size() && segmento.igual(anteriores.get(indice)) && anteriores.get(indice).isCompleto()) {
+                segmento = new Segmento(indice, inicio, fim, segmento.getImpressao(), true, false);
+            } else {
+                ExecutionContext contexto = contexto(arquivo.getPath(), inicio, fim, indice);
+                contexto.putInt(SEGMENTO, indice);
+                particoes.put(PARTICAO + indice, contexto);
+            }
+            segmentos.add(segmento);
+            inicio = fim;
+        }
+        base.registrarSegmentos(segmentos);
+        log.info("Arquivo {}: {} de {} segmentos iguais aos da execução anterior, não lidos",
+              arquivo.getPath(), segmentos.size() - particoes.size(), segmentos.size());
+        if (particoes.isEmpty()) {
+            particoes.put(PARTICAO + 0, contexto("", 0, 0, 0)); // O step gerenciador precisa de ao menos uma partição
+        }
+        return particoes;
+    }
+
+    private static ExecutionContext contexto(String arquivo, long inicio, long fim, int particao) {
+        ExecutionContext contexto = new ExecutionContext();
+        contexto.putString(ARQUIVO, arquivo);
+        contexto.putLong(INICIO, inicio);
+        contexto.putLong(FIM, fim);
+        contexto.putInt(PARTICAO, particao);
+        return contexto;
+    }
+
+    /**
+     * Localiza o primeiro byte de linha a partir da posição informada.
+     *
+     * @param canal   Canal do arquivo.
+     * @param posicao Posição alvo do corte.
+     * @param tamanho Tamanho total do arquivo.
+     * @return Posição logo após a quebra de linha mais próxima, ou o tamanho do arquivo se não houver.
+     */
+    private long proximoInicioLinha(FileChannel canal, long posicao, long tamanho) throws IOException {
+        if (posicao <= 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_BUFFER);
+        long atual = posicao - 1; // Se o byte anterior já é uma quebra de linha, a posição é um início de linha
+        while (atual < tamanho) {
+            buffer.clear();
+            int lidos = canal.read(buffer, atual);
+            if (lidos <= 0) {
+                break;
+            }
+            for (int i = 0; i < lidos; i++) {
+                if (buffer.get(i) == '\n') {
+                    return atual + i + 1;
+                }
+            }
+            atual += lidos;
+        }
+        return tamanho;
+    }
+}
@@ -0,0 +1,105 @@
+package com.dowglasmaia.migracaodadosjob.partitioner;
+
+import com.dowglasmaia.migracaodadosjob.delta.BaseImpressoes;
+import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Configuração dos particionadores dos arquivos CSV.
+ * Cada particionador divide o seu arquivo em intervalos de bytes processados por workers independentes.
+ * Os particionadores são de escopo de step, então cada execução do job particiona o arquivo dos seus parâmetros
+ * ({@code arquivo.pessoas} e {@code arquivo.dados-bancarios}), ou o de {@code app.migracao.arquivos} quando não informado.
+ * No modo delta, os particionadores dividem os arquivos em segmentos de {@code app.migracao.delta.tamanho-segmento} bytes
+ * e pulam os iguais aos da execução anterior.
+ */
+@Configuration
+public class ArquivoPartitionerConfig {
+
+    @Value("${app.migracao.arquivos.pessoas:files/pessoas.csv}")
+    private String arquivoPessoas;
+
+    @Value("${app.migracao.arquivos.dados-bancarios:files/dados_bancarios.csv}")
+    private String arquivoDadosBancarios;
+
+    @Value("${app.migracao.delta.habilitado:false}")
+    private boolean deltaHabilitado;
+
+    @Value("${app.migracao.delta.tamanho-segmento:16777216}")
+    private long tamanhoSegmento;
+
+    /**
+     * Cria o {@link ArquivoPartitioner} do arquivo de pessoas.
+     *
+     * @param arquivoExecucao Caminho do arquivo informado nos parâmetros do job; vazio quando a execução não tem este arquivo.
+     * @param basePessoas     Base de impressões de pessoas, usada no modo delta.
+     * @return ArquivoPartitioner configurado para o arquivo de pessoas.
+     */
+    @Bean
+    @StepScope
+    public ArquivoPartitioner arquivoPessoaPartitioner(
+          @Value("#{jobParameters['arquivo.pessoas']}") String arquivoExecucao,
+          @Qualifier("basePessoas") BaseImpressoes<Pessoa> basePessoas
+    ) {
+        return particionador(arquivoExecucao != null ? arquivoExecucao : arquivoPessoas, basePessoas);
+    }
+
+    /**
+     * Cria o {@link ArquivoPartitioner} do arquivo de dados bancários.
+     *
+     * @param arquivoExecucao    Caminho do arquivo informado nos parâmetros do job; vazio quando a execução não tem este arquivo.
+     * @param baseDadosBancarios Base de impressões de dados bancários, usada no modo delta.
+     * @return ArquivoPartitioner configurado para o arquivo de dados bancários.
+     */
+    @Bean
+    @StepScope
+    public ArquivoPartitioner arquivoDadosBancarioPartitioner(
+          @Value("#{jobParameters['arquivo.dados-bancarios']}") String arquivoExecucao,
+          @Qualifier("baseDadosBancarios") BaseImpressoes<DadosBancario> baseDadosBancarios
+    ) {
+        return particionador(arquivoExecucao != null ? arquivoExecucao : arquivoDadosBancarios, baseDadosBancarios);
+    }
+
+    /**
+     * Cria o {@link ArquivoPartitioner} do arquivo de pessoas para a reconciliação, que lê o arquivo inteiro
+     * em {@code gridSize} partes mesmo no modo delta.
+     *
+     * @param arquivoExecucao Caminho do arquivo informado nos parâmetros do job; vazio quando a execução não tem este arquivo.
+     * @return ArquivoPartitioner configurado para o arquivo de pessoas.
+     */
+    @Bean
+    @StepScope
+    public ArquivoPartitioner reconciliacaoPessoaPartitioner(
+          @Value("#{jobParameters['arquivo.pessoas']}") String arquivoExecucao
+    ) {
+        return particionador(arquivoExecucao != null ? arquivoExecucao : arquivoPessoas, null);
+    }
+
+    /**
+     * Cria o {@link ArquivoPartitioner} do arquivo de dados bancários para a reconciliação, que lê o arquivo inteiro
+     * em {@code gridSize} partes mesmo no modo delta.
+     *
+     * @param arquivoExecucao Caminho do arquivo informado nos parâmetros do job; vazio quando a execução não tem este arquivo.
+     * @return ArquivoPartitioner configurado para o arquivo de dados bancários.
+     */
+    @Bean
+    @StepScope
+    public ArquivoPartitioner reconciliacaoDadosBancarioPartitioner(
+          @Value("#{jobParameters['arquivo.dados-bancarios']}") String arquivoExecucao
+    ) {
+        return particionador(arquivoExecucao != null ? arquivoExecucao : arquivoDadosBancarios, null);
+    }
+
+    private ArquivoPartitioner particionador(String caminho, BaseImpressoes<?> base) {
+        return new ArquivoPartitioner(
+              caminho.isEmpty() ? null : new FileSystemResource(caminho), // Caminho do arquivo CSV
+              deltaHabilitado ? base : null, // Segmenta o arquivo no modo delta, exceto na reconciliação
+              tamanhoSegmento // Tamanho aproximado de cada segmento
+        );
+    }
+}
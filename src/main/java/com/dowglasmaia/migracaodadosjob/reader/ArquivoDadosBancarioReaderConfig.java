@@ -1,33 +1,77 @@
 package com.dowglasmaia.migracaodadosjob.reader;
 
 import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
-import org.springframework.batch.item.file.FlatFileItemReader;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import com.dowglasmaia.migracaodadosjob.mapeamento.MapeamentoPropriedades;
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasMigracao;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.FileSystemResource;
 
 /**
  * Configuração do leitor de arquivo para objetos do tipo {@link DadosBancario}.
- * Lê os dados de um arquivo CSV e os converte em instâncias de {@link DadosBancario}.
+ * Lê os dados de um arquivo CSV e os converte em instâncias de {@link DadosBancario}, com o leitor criado pela
+ * {@link FabricaLeitorArquivo} conforme o modo de leitura configurado.
+ * O arquivo é configurado em {@code app.migracao.arquivos} e pode ser compactado ({@code .gz} ou {@code .zst}).
+ * Nos dois modos, os campos são gravados pelos setters gerados do {@link MapeamentoPropriedades}, na ordem das colunas.
  */
 @Configuration
 public class ArquivoDadosBancarioReaderConfig {
 
+    private static final String[] CAMPOS = {"pessoaId", "agencia", "conta", "banco", "id"};
+
+    private static final MapeamentoPropriedades<DadosBancario> MAPEAMENTO = MapeamentoPropriedades.de(DadosBancario.class);
+
+    private static final FabricaLeitorArquivo.Formato<DadosBancario> FORMATO = new FabricaLeitorArquivo.Formato<>(
+          MetricasMigracao.ETAPA_DADOS_BANCARIOS,
+          CAMPOS, // Nomes das colunas no CSV
+          MAPEAMENTO.mapeadorLinhaCsv(CAMPOS), // Converte os bytes da linha em DadosBancario
+          MAPEAMENTO.fieldSetMapper(CAMPOS) // Mapeia os campos, pelo índice, para a classe DadosBancario
+    );
+
+    @Value("${app.migracao.arquivos.dados-bancarios:files/dados_bancarios.csv}")
+    private String caminhoArquivo;
+
+    @Autowired
+    @Qualifier("fabricaLeitorArquivo")
+    private FabricaLeitorArquivo fabricaLeitorArquivo;
+
+    /**
+     * Cria o leitor do arquivo CSV para mapear os dados para objetos {@link DadosBancario}, conforme o modo de leitura configurado.
+     * O arquivo é o do parâmetro {@code arquivo.dados-bancarios} do job, quando informado, ou o de {@code app.migracao.arquivos}.
+     *
+     * @param arquivoExecucao Caminho do arquivo informado nos parâmetros do job; vazio quando a execução não tem este arquivo.
+     * @return ItemStreamReader configurado para ler dados bancários.
+     */
+    @Bean
+    @StepScope
+    public ItemStreamReader<DadosBancario> arquivoDadosBancarioReader(
+          @Value("#{jobParameters['arquivo.dados-bancarios']}") String arquivoExecucao
+    ) {
+        String caminho = arquivoExecucao != null ? arquivoExecucao : caminhoArquivo;
+        return fabricaLeitorArquivo.criar("arquivoDadosBancarioReader", caminho, 0, Long.MAX_VALUE, FORMATO); // Arquivo inteiro
+    }
+
     /**
-     * Cria um {@link FlatFileItemReader} para ler o arquivo CSV e mapear os dados para objetos {@link DadosBancario}.
+     * Cria o leitor que lê apenas o intervalo de bytes de uma partição do arquivo de dados bancários.
+     * O intervalo é informado pelo {@link com.dowglasmaia.migracaodadosjob.partitioner.ArquivoPartitioner}
+     * através do contexto de execução do step worker.
      *
-     * @return FlatFileItemReader configurado para ler dados bancários.
+     * @param arquivo Caminho do arquivo CSV particionado.
+     * @param inicio  Byte inicial da partição (inclusivo).
+     * @param fim     Byte final da partição (exclusivo).
+     * @return ItemStreamReader configurado para ler a partição.
      */
     @Bean
-    public FlatFileItemReader<DadosBancario> arquivoDadosBancarioReader() {
-        return new FlatFileItemReaderBuilder<DadosBancario>()
-              .name("arquivoDadosBancarioReader") // Nome do leitor para identificação
-              .resource(new FileSystemResource("files/dados_bancarios.csv")) // Caminho do arquivo CSV
-              .delimited()
-              .names("pessoaId", "agencia", "conta", "banco", "id") // Nomes das colunas no CSV
-              .addComment("--") // Define o caractere de comentário
-              .targetType(DadosBancario.class) // Mapeia diretamente para a classe DadosBancario
-              .build();
+    @StepScope
+    public ItemStreamReader<DadosBancario> arquivoDadosBancarioParticaoReader(
+          @Value("#{stepExecutionContext['arquivo']}") String arquivo,
+          @Value("#{stepExecutionContext['inicio']}") Long inicio,
+          @Value("#{stepExecutionContext['fim']}") Long fim
+    ) {
+        return fabricaLeitorArquivo.criar("arquivoDadosBancarioParticaoReader", arquivo, inicio, fim, FORMATO);
     }
 }
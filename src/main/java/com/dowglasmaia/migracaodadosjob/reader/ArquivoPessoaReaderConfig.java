@@ -1,40 +1,81 @@
 package com.dowglasmaia.migracaodadosjob.reader;
 
 import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
-import org.springframework.batch.item.file.FlatFileItemReader;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasMigracao;
+import com.dowglasmaia.migracaodadosjob.reader.csv.LinhaCsv;
+import com.dowglasmaia.migracaodadosjob.reader.csv.MapeadorLinhaCsv;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.file.mapping.FieldSetMapper;
 import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.validation.BindException;
 
-import java.util.Date;
-
 
 /**
  * Configuração do leitor de arquivo para objetos do tipo {@link Pessoa}.
- * Lê os dados de um arquivo CSV e os converte em instâncias de {@link Pessoa}.
+ * Lê os dados de um arquivo CSV e os converte em instâncias de {@link Pessoa}, com o leitor criado pela
+ * {@link FabricaLeitorArquivo} conforme o modo de leitura configurado.
+ * O arquivo é configurado em {@code app.migracao.arquivos} e pode ser compactado ({@code .gz} ou {@code .zst}).
+ * Nos dois modos a data de nascimento é convertida pelo {@link DataHoraParser}, compartilhado entre os leitores.
  */
 @Configuration
 public class ArquivoPessoaReaderConfig {
 
+    @Value("${app.migracao.arquivos.pessoas:files/pessoas.csv}")
+    private String caminhoArquivo;
+
+    @Autowired
+    @Qualifier("fabricaLeitorArquivo")
+    private FabricaLeitorArquivo fabricaLeitorArquivo;
+
+    private final DataHoraParser dataHoraParser = new DataHoraParser(4096);
+
+    private final FabricaLeitorArquivo.Formato<Pessoa> formato = new FabricaLeitorArquivo.Formato<>(
+          MetricasMigracao.ETAPA_PESSOA,
+          new String[]{"nome", "email", "dataNascimento", "idade", "id"}, // Nomes das colunas no CSV
+          mapeadorLinha(), // Converte os bytes da linha em Pessoa
+          fieldSetMapper() // Converte os campos da linha em Pessoa
+    );
+
+    /**
+     * Cria o leitor do arquivo CSV para mapear os dados para objetos {@link Pessoa}, conforme o modo de leitura configurado.
+     * O arquivo é o do parâmetro {@code arquivo.pessoas} do job, quando informado, ou o de {@code app.migracao.arquivos}.
+     *
+     * @param arquivoExecucao Caminho do arquivo informado nos parâmetros do job; vazio quando a execução não tem este arquivo.
+     * @return ItemStreamReader configurado para ler dados de pessoas.
+     */
+    @Bean
+    @StepScope
+    public ItemStreamReader<Pessoa> arquivoPessoaReader(
+          @Value("#{jobParameters['arquivo.pessoas']}") String arquivoExecucao
+    ) {
+        String caminho = arquivoExecucao != null ? arquivoExecucao : caminhoArquivo;
+        return fabricaLeitorArquivo.criar("arquivoPessoaReader", caminho, 0, Long.MAX_VALUE, formato); // Arquivo inteiro
+    }
+
     /**
-     * Cria um {@link FlatFileItemReader} para ler o arquivo CSV e mapear os dados para objetos {@link Pessoa}.
+     * Cria o leitor que lê apenas o intervalo de bytes de uma partição do arquivo de pessoas.
+     * O intervalo é informado pelo {@link com.dowglasmaia.migracaodadosjob.partitioner.ArquivoPartitioner}
+     * através do contexto de execução do step worker.
      *
-     * @return FlatFileItemReader configurado para ler dados de pessoas.
+     * @param arquivo Caminho do arquivo CSV particionado.
+     * @param inicio  Byte inicial da partição (inclusivo).
+     * @param fim     Byte final da partição (exclusivo).
+     * @return ItemStreamReader configurado para ler a partição.
      */
     @Bean
-    public FlatFileItemReader<Pessoa> arquivoPessoaReader() {
-        return new FlatFileItemReaderBuilder<Pessoa>()
-              .name("arquivoPessoaReader") // Nome do leitor para identificação
-              .resource(new FileSystemResource("files/pessoas.csv")) // Caminho do arquivo CSV
-              .delimited()
-              .names("nome", "email", "dataNascimento", "idade", "id") // Nomes das colunas no CSV
-              .addComment("--") // Define o caractere de comentário
-              .fieldSetMapper(fieldSetMapper()) // Define o mapeador de campos
-              .build();
+    @StepScope
+    public ItemStreamReader<Pessoa> arquivoPessoaParticaoReader(
+          @Value("#{stepExecutionContext['arquivo']}") String arquivo,
+          @Value("#{stepExecutionContext['inicio']}") Long inicio,
+          @Value("#{stepExecutionContext['fim']}") Long fim
+    ) {
+        return fabricaLeitorArquivo.criar("arquivoPessoaParticaoReader", arquivo, inicio, fim, formato);
     }
 
     /**
@@ -51,7 +92,27 @@ public class ArquivoPessoaReaderConfig {
                       .nome(fieldSet.readString("nome")) // Lê o campo 'nome' como string
                       .email(fieldSet.readString("email")) // Lê o campo 'email' como string
                       .idade(fieldSet.readInt("idade")) // Lê o campo 'idade' como inteiro
-                      .dataNascimento(new Date(fieldSet.readDate("dataNascimento", "yyyy-MM-dd HH:mm:ss").getTime())) // Lê o campo 'dataNascimento' como data
+                      .dataNascimento(dataHoraParser.parse(fieldSet.readString("dataNascimento"))) // Lê o campo 'dataNascimento' como data
+                      .build();
+            }
+        };
+    }
+
+    /**
+     * Cria um {@link MapeadorLinhaCsv} que converte os campos da linha, na ordem do CSV, em um objeto {@link Pessoa}.
+     *
+     * @return MapeadorLinhaCsv para mapear os campos do CSV para um objeto {@link Pessoa}.
+     */
+    private MapeadorLinhaCsv<Pessoa> mapeadorLinha() {
+        return new MapeadorLinhaCsv<Pessoa>() {
+            @Override
+            public Pessoa mapear(LinhaCsv linha) {
+                return Pessoa.builder()
+                      .nome(linha.texto(0)) // Lê o campo 'nome' como string
+                      .email(linha.texto(1)) // Lê o campo 'email' como string
+                      .dataNascimento(dataHoraParser.parse(linha, 2)) // Lê o campo 'dataNascimento' direto dos bytes
+                      .idade(linha.inteiro(3)) // Lê o campo 'idade' como inteiro
+                      .id(linha.inteiro(4)) // Lê o campo 'id' como inteiro
                       .build();
             }
         };
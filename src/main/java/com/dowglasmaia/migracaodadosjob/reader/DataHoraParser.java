@@ -0,0 +1,158 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+import com.dowglasmaia.migracaodadosjob.reader.csv.LinhaCsv;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+/**
+ * Conversor especializado para datas no layout fixo {@code yyyy-MM-dd HH:mm:ss}.
+ * Lê os 14 dígitos direto dos caracteres (ou dos bytes da {@link LinhaCsv}) e os compacta em um {@code long},
+ * que serve de chave para um cache de mapeamento direto dos valores vistos recentemente.
+ * Como datas de nascimento se repetem muito, a maioria das linhas não cria nenhum objeto.
+ * <p>
+ * É thread-safe: cada posição do cache guarda uma entrada imutável, trocada por inteiro.
+ * Diferente do {@link java.text.SimpleDateFormat} padrão, datas inexistentes (ex.: 2000-02-30) não são ajustadas
+ * para outra data: são convertidas em {@code null}, o que torna a {@link com.dowglasmaia.migracaodadosjob.dominio.Pessoa}
+ * inválida e a envia para o arquivo de pessoas inválidas, sem interromper o step.
+ */
+public class DataHoraParser {
+
+    private static final int TAMANHO_LAYOUT = 19;
+
+    private final Entrada[] cache;
+    private final int mascara;
+
+    /**
+     * @param tamanhoCache Quantidade de posições do cache, arredondada para a próxima potência de 2.
+     */
+    public DataHoraParser(int tamanhoCache) {
+        int tamanho = Integer.highestOneBit(Math.max(1, tamanhoCache - 1)) << 1;
+        this.cache = new Entrada[tamanho];
+        this.mascara = tamanho - 1;
+    }
+
+    /**
+     * Converte o texto no layout {@code yyyy-MM-dd HH:mm:ss}.
+     *
+     * @return Data e hora, ou {@code null} se o texto estiver vazio ou for uma data inexistente.
+     * @throws IllegalArgumentException se o texto não seguir o layout.
+     */
+    public LocalDateTime parse(CharSequence texto) {
+        if (texto == null) {
+            return null;
+        }
+        int inicio = 0;
+        int fim = texto.length();
+        while (inicio < fim && texto.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fim > inicio && texto.charAt(fim - 1) <= ' ') {
+            fim--;
+        }
+        if (inicio == fim) {
+            return null;
+        }
+        if (fim - inicio != TAMANHO_LAYOUT) {
+            throw invalida(texto);
+        }
+        long chave = 0;
+        for (int i = 0; i < TAMANHO_LAYOUT; i++) {
+            chave = acumular(chave, i, texto.charAt(inicio + i), texto);
+        }
+        return obter(chave);
+    }
+
+    /**
+     * Converte o campo da linha CSV no layout {@code yyyy-MM-dd HH:mm:ss}, sem criar a String do campo.
+     *
+     * @return Data e hora, ou {@code null} se o campo estiver vazio ou for uma data inexistente.
+     * @throws IllegalArgumentException se o campo não seguir o layout.
+     */
+    public LocalDateTime parse(LinhaCsv linha, int campo) {
+        int tamanho = linha.tamanho(campo);
+        if (tamanho == 0) {
+            return null;
+        }
+        if (tamanho != TAMANHO_LAYOUT) {
+            throw invalida(linha.texto(campo));
+        }
+        long chave = 0;
+        for (int i = 0; i < TAMANHO_LAYOUT; i++) {
+            char c = (char) linha.byteEm(campo, i);
+            if (!valido(i, c)) {
+                throw invalida(linha.texto(campo));
+            }
+            chave = digito(i) ? chave * 10 + (c - '0') : chave;
+        }
+        return obter(chave);
+    }
+
+    private long acumular(long chave, int posicao, char c, CharSequence texto) {
+        if (!valido(posicao, c)) {
+            throw invalida(texto);
+        }
+        return digito(posicao) ? chave * 10 + (c - '0') : chave;
+    }
+
+    /**
+     * Busca a chave no cache e, se não estiver lá, cria a data a partir dos dígitos compactados.
+     * Datas inexistentes também ficam no cache, com valor {@code null}.
+     */
+    private LocalDateTime obter(long chave) {
+        int indice = (int) (chave ^ (chave >>> 17) ^ (chave >>> 31)) & mascara;
+        Entrada entrada = cache[indice];
+        if (entrada != null && entrada.chave == chave) {
+            return entrada.valor;
+        }
+        LocalDateTime valor;
+        try {
+            valor = LocalDateTime.of(
+                  (int) (chave / 10_000_000_000L), // Ano
+                  (int) (chave / 100_000_000L % 100), // Mês
+                  (int) (chave / 1_000_000L % 100), // Dia
+                  (int) (chave / 10_000L % 100), // Hora
+                  (int) (chave / 100L % 100), // Minuto
+                  (int) (chave % 100) // Segundo
+            );
+        } catch (DateTimeException e) {
+            valor = null; // Data inexistente, como 2000-02-30
+        }
+        cache[indice] = new Entrada(chave, valor);
+        return valor;
+    }
+
+    private static boolean digito(int posicao) {
+        return posicao != 4 && posicao != 7 && posicao != 10 && posicao != 13 && posicao != 16;
+    }
+
+    private static boolean valido(int posicao, char c) {
+        switch (posicao) {
+            case 4:
+            case 7:
+                return c == '-';
+            case 10:
+                return c == ' ';
+            case 13:
+            case 16:
+                return c == ':';
+            default:
+                return c >= '0' && c <= '9';
+        }
+    }
+
+    private static IllegalArgumentException invalida(CharSequence texto) {
+        return new IllegalArgumentException("Data fora do layout yyyy-MM-dd HH:mm:ss: " + texto);
+    }
+
+    private static final class Entrada {
+
+        private final long chave;
+        private final LocalDateTime valor;
+
+        private Entrada(long chave, LocalDateTime valor) {
+            this.chave = chave;
+            this.valor = valor;
+        }
+    }
+}
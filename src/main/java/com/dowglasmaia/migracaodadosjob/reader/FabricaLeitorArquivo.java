@@ -0,0 +1,135 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasMigracao;
+import com.dowglasmaia.migracaodadosjob.reader.compressao.RecursoDescompactado;
+import com.dowglasmaia.migracaodadosjob.reader.csv.ArquivoCsvItemReaderBuilder;
+import com.dowglasmaia.migracaodadosjob.reader.csv.MapeadorLinhaCsv;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Cria os leitores dos arquivos CSV de entrada, do arquivo inteiro ou do intervalo de bytes de uma partição,
+ * com as configurações de leitura de {@code app.migracao.leitura} compartilhadas entre os arquivos.
+ * <p>
+ * O leitor é um {@link FlatFileItemReader}, envolvido por um {@link RetomadaPorPosicaoItemReader} para que o restart
+ * continue direto na posição salva, ou, no modo de leitura NIO, um
+ * {@link com.dowglasmaia.migracaodadosjob.reader.csv.ArquivoCsvItemReader}; nos dois modos, opcionalmente envolvido
+ * por um {@link LeituraAntecipadaItemReader}. Arquivos {@code .gz} e {@code .zst} são descompactados durante a leitura,
+ * em segundo plano, por um {@link RecursoDescompactado}, no executor de descompressão compartilhado entre os leitores.
+ */
+public class FabricaLeitorArquivo {
+
+    private final ModoLeitura modoLeitura;
+    private final int tamanhoBuffer;
+    private final boolean leituraAntecipada;
+    private final int tamanhoLote;
+    private final int profundidadeFila;
+    private final Executor descompressores;
+    private final int profundidadeFilaDescompressao;
+    private final MetricasMigracao metricas;
+
+    /**
+     * @param modoLeitura                   Modo de leitura dos arquivos.
+     * @param tamanhoBuffer                 Tamanho do buffer direto do modo NIO.
+     * @param leituraAntecipada             Se a conversão dos próximos registros ocorre enquanto o chunk atual é gravado.
+     * @param tamanhoLote                   Registros por lote da leitura antecipada.
+     * @param profundidadeFila              Lotes convertidos à frente na leitura antecipada.
+     * @param descompressores               Executor de descompressão compartilhado entre os leitores.
+     * @param profundidadeFilaDescompressao Lotes descompactados à frente da leitura.
+     * @param metricas                      Métricas da migração, onde o tempo de conversão é medido.
+     */
+    public FabricaLeitorArquivo(ModoLeitura modoLeitura, int tamanhoBuffer, boolean leituraAntecipada, int tamanhoLote,
+                                int profundidadeFila, Executor descompressores, int profundidadeFilaDescompressao,
+                                MetricasMigracao metricas) {
+        this.modoLeitura = modoLeitura;
+        this.tamanhoBuffer = tamanhoBuffer;
+        this.leituraAntecipada = leituraAntecipada;
+        this.tamanhoLote = tamanhoLote;
+        this.profundidadeFila = profundidadeFila;
+        this.descompressores = descompressores;
+        this.profundidadeFilaDescompressao = profundidadeFilaDescompressao;
+        this.metricas = metricas;
+    }
+
+    /**
+     * Cria o leitor do intervalo de bytes [inicio, fim) do arquivo, conforme o modo de leitura configurado.
+     *
+     * @param nome    Nome do leitor, também o prefixo da posição salva no contexto de execução.
+     * @param caminho Caminho do arquivo; vazio quando a execução ou a partição não tem este arquivo.
+     * @param inicio  Byte inicial (inclusivo).
+     * @param fim     Byte final (exclusivo); {@link Long#MAX_VALUE} para ler até o fim do arquivo.
+     * @param formato Colunas do arquivo e as suas conversões.
+     * @return ItemStreamReader configurado para ler o intervalo.
+     */
+    public <T> ItemStreamReader<T> criar(String nome, String caminho, long inicio, long fim, Formato<T> formato) {
+        if (caminho.isEmpty()) {
+            return new VazioItemReader<>(); // Execução ou partição sem este arquivo
+        }
+        if (modoLeitura == ModoLeitura.NIO) {
+            return antecipar(new ArquivoCsvItemReaderBuilder<T>()
+                  .name(nome) // Nome do leitor para identificação
+                  .resource(arquivo(caminho)) // Arquivo CSV, descompactado se necessário
+                  .intervalo(inicio, fim) // Intervalo de bytes do arquivo ou da partição
+                  .campos(formato.colunas.length) // Campos por linha
+                  .addComment("--") // Define o caractere de comentário
+                  .tamanhoBuffer(tamanhoBuffer) // Tamanho do buffer direto
+                  .mapeador(metricas.medirConversao(formato.etapa, formato.mapeadorLinha)) // Converte os bytes da linha, com o tempo medido
+                  .build());
+        }
+        FlatFileItemReader<T> leitor = new FlatFileItemReaderBuilder<T>()
+              .name(nome) // Nome do leitor para identificação
+              .delimited()
+              .names(formato.colunas) // Nomes das colunas no CSV
+              .addComment("--") // Define o caractere de comentário
+              .fieldSetMapper(metricas.medirConversao(formato.etapa, formato.fieldSetMapper)) // Mapeia os campos, com o tempo de conversão medido
+              .build();
+        return antecipar(new RetomadaPorPosicaoItemReader<>(
+              nome, // Prefixo da posição salva no contexto de execução
+              leitor, // Leitor das linhas do CSV
+              arquivo(caminho), inicio, fim // Arquivo e intervalo de bytes
+        ));
+    }
+
+    private Resource arquivo(String caminho) {
+        return RecursoDescompactado.de(new FileSystemResource(caminho), descompressores, profundidadeFilaDescompressao);
+    }
+
+    private <T> ItemStreamReader<T> antecipar(ItemStreamReader<T> leitor) {
+        if (!leituraAntecipada) {
+            return leitor;
+        }
+        return new LeituraAntecipadaItemReader<>("leituraAntecipada", leitor, tamanhoLote, profundidadeFila);
+    }
+
+    /**
+     * Colunas de um arquivo CSV e as conversões de uma linha no registro, uma para cada modo de leitura.
+     *
+     * @param <T> Tipo do registro.
+     */
+    public static final class Formato<T> {
+
+        private final String etapa;
+        private final String[] colunas;
+        private final MapeadorLinhaCsv<T> mapeadorLinha;
+        private final FieldSetMapper<T> fieldSetMapper;
+
+        /**
+         * @param etapa          Etapa da migração, usada nas métricas de conversão.
+         * @param colunas        Nomes das colunas, na ordem do arquivo.
+         * @param mapeadorLinha  Conversão da linha no modo NIO.
+         * @param fieldSetMapper Conversão da linha no modo {@link FlatFileItemReader}.
+         */
+        public Formato(String etapa, String[] colunas, MapeadorLinhaCsv<T> mapeadorLinha, FieldSetMapper<T> fieldSetMapper) {
+            this.etapa = etapa;
+            this.colunas = colunas;
+            this.mapeadorLinha = mapeadorLinha;
+            this.fieldSetMapper = fieldSetMapper;
+        }
+    }
+}
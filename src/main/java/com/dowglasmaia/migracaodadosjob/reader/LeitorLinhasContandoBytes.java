@@ -0,0 +1,104 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * {@link BufferedReader} que lê linhas direto dos bytes de um {@link InputStream} e conta os bytes consumidos,
+ * para que o {@link RetomadaPorPosicaoItemReader} saiba a posição no arquivo da próxima linha.
+ * Apenas {@link #readLine()} e {@link #close()} são suportados, que é o que o
+ * {@link org.springframework.batch.item.file.FlatFileItemReader} utiliza.
+ * <p>
+ * As quebras de linha {@code \n}, {@code \r\n} e {@code \r} são reconhecidas nos bytes, então a codificação
+ * deve ser compatível com ASCII (UTF-8, ISO-8859-1 etc.).
+ */
+class LeitorLinhasContandoBytes extends BufferedReader {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private final InputStream entrada;
+    private final Charset charset;
+    private final byte[] buffer = new byte[TAMANHO_BUFFER];
+    private int inicio;
+    private int fim;
+    private byte[] linhaParcial = new byte[256];
+    private long posicao;
+
+    LeitorLinhasContandoBytes(InputStream entrada, Charset charset) {
+        super(Reader.nullReader(), 1);
+        this.entrada = entrada;
+        this.charset = charset;
+    }
+
+    /**
+     * @return Quantidade de bytes consumidos, ou seja, a posição relativa ao início do stream da próxima linha.
+     */
+    long getPosicao() {
+        return posicao;
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        int tamanhoParcial = 0;
+        while (true) {
+            if (inicio == fim && !preencher()) {
+                return tamanhoParcial == 0 ? null : new String(linhaParcial, 0, tamanhoParcial, charset); // Última linha sem quebra
+            }
+            for (int i = inicio; i < fim; i++) {
+                byte b = buffer[i];
+                if (b == '\n' || b == '\r') {
+                    String linha;
+                    if (tamanhoParcial == 0) {
+                        linha = new String(buffer, inicio, i - inicio, charset); // Caso comum: linha inteira no buffer
+                    } else {
+                        anexar(tamanhoParcial, i - inicio);
+                        linha = new String(linhaParcial, 0, tamanhoParcial + i - inicio, charset);
+                    }
+                    posicao += i - inicio + 1;
+                    inicio = i + 1;
+                    if (b == '\r') {
+                        consumirQuebraAposRetorno();
+                    }
+                    return linha;
+                }
+            }
+            anexar(tamanhoParcial, fim - inicio); // A linha continua no próximo bloco
+            tamanhoParcial += fim - inicio;
+            posicao += fim - inicio;
+            inicio = fim;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+
+    private boolean preencher() throws IOException {
+        int lidos = entrada.read(buffer, 0, buffer.length);
+        inicio = 0;
+        fim = Math.max(lidos, 0);
+        return lidos > 0;
+    }
+
+    private void consumirQuebraAposRetorno() throws IOException {
+        if (inicio == fim && !preencher()) {
+            return;
+        }
+        if (buffer[inicio] == '\n') {
+            inicio++;
+            posicao++;
+        }
+    }
+
+    private void anexar(int tamanhoParcial, int quantidade) {
+        if (tamanhoParcial + quantidade > linhaParcial.length) {
+            linhaParcial = Arrays.copyOf(linhaParcial, Math.max(linhaParcial.length * 2, tamanhoParcial + quantidade));
+        }
+        System.arraycopy(buffer, inicio, linhaParcial, tamanhoParcial, quantidade);
+    }
+}
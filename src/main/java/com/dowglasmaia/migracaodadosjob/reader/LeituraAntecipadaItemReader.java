@@ -0,0 +1,176 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * {@link ItemStreamReader} que lê o leitor delegado em uma thread produtora, à frente do step.
+ * Enquanto o step grava e faz o commit de um chunk, a thread produtora já converte os próximos registros
+ * em lotes, guardados em uma fila limitada: quando a fila enche, a produtora bloqueia (backpressure).
+ * <p>
+ * Junto de cada lote a produtora guarda o estado do delegado logo após lê-lo. O {@link #update} grava
+ * no contexto o estado do último lote entregue por completo ao step, mais a quantidade de itens já entregues
+ * do lote seguinte. Como o step só chama {@code update} para itens do chunk que está sendo confirmado,
+ * o checkpoint nunca avança além do que foi gravado. No restart, o delegado é aberto nesse estado
+ * e os itens já entregues do lote seguinte são descartados.
+ *
+ * @param <T> Tipo do item lido.
+ */
+public class LeituraAntecipadaItemReader<T> extends ItemStreamSupport implements ItemStreamReader<T> {
+
+    private static final String CONSUMIDOS = "consumidos";
+
+    private final ItemStreamReader<T> delegate;
+    private final int tamanhoLote;
+    private final int profundidadeFila;
+
+    private BlockingQueue<Lote<T>> fila;
+    private Thread produtora;
+    private Lote<T> loteAtual;
+    private int indice;
+    private Map<String, Object> checkpoint;
+    private int consumidos;
+
+    /**
+     * @param nome             Nome usado como prefixo das chaves no contexto de execução.
+     * @param delegate         Leitor lido pela thread produtora.
+     * @param tamanhoLote      Quantidade de itens de cada lote da fila.
+     * @param profundidadeFila Quantidade máxima de lotes lidos à frente do step.
+     */
+    public LeituraAntecipadaItemReader(String nome, ItemStreamReader<T> delegate, int tamanhoLote, int profundidadeFila) {
+        setName(nome);
+        this.delegate = delegate;
+        this.tamanhoLote = tamanhoLote;
+        this.profundidadeFila = profundidadeFila;
+    }
+
+    /**
+     * Abre o delegado no último checkpoint, descarta os itens já entregues depois dele e inicia a thread produtora.
+     */
+    @Override
+    public void open(ExecutionContext executionContext) {
+        delegate.open(executionContext);
+        int descartar = executionContext.getInt(getExecutionContextKey(CONSUMIDOS), 0);
+        try {
+            for (int i = 0; i < descartar && delegate.read() != null; i++) {
+                // Itens já gravados antes da falha
+            }
+        } catch (Exception e) {
+            throw new ItemStreamException("Falha ao reposicionar o leitor " + getExecutionContextKey(""), e);
+        }
+        checkpoint = estadoDelegate();
+        consumidos = 0;
+        loteAtual = null;
+        indice = 0;
+        fila = new ArrayBlockingQueue<>(profundidadeFila);
+        produtora = new Thread(this::produzir, getExecutionContextKey("produtora"));
+        produtora.setDaemon(true);
+        produtora.start();
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        for (Map.Entry<String, Object> entrada : checkpoint.entrySet()) {
+            executionContext.put(entrada.getKey(), entrada.getValue());
+        }
+        executionContext.putInt(getExecutionContextKey(CONSUMIDOS), consumidos);
+    }
+
+    @Override
+    public void close() {
+        if (produtora != null) {
+            produtora.interrupt();
+            try {
+                produtora.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            produtora = null;
+        }
+        fila = null;
+        delegate.close();
+    }
+
+    /**
+     * Entrega o próximo item do lote atual, aguardando o próximo lote da fila quando necessário.
+     */
+    @Override
+    public T read() throws Exception {
+        while (loteAtual == null || indice == loteAtual.itens.size()) {
+            if (loteAtual != null) {
+                if (loteAtual.erro != null) {
+                    throw loteAtual.erro;
+                }
+                if (loteAtual.ultimo) {
+                    return null;
+                }
+                checkpoint = loteAtual.estado; // O lote foi entregue por completo
+                consumidos = 0;
+            }
+            loteAtual = fila.take();
+            indice = 0;
+        }
+        consumidos++;
+        return loteAtual.itens.get(indice++);
+    }
+
+    /**
+     * Laço da thread produtora: lê lotes do delegado até o fim dos dados, uma falha ou a interrupção pelo {@link #close}.
+     */
+    private void produzir() {
+        try {
+            boolean ultimo = false;
+            while (!ultimo && !Thread.currentThread().isInterrupted()) {
+                List<T> itens = new ArrayList<>(tamanhoLote);
+                Exception erro = null;
+                try {
+                    T item;
+                    while (itens.size() < tamanhoLote && (item = delegate.read()) != null) {
+                        itens.add(item);
+                    }
+                    ultimo = itens.size() < tamanhoLote;
+                } catch (Exception e) {
+                    erro = e;
+                    ultimo = true;
+                }
+                fila.put(new Lote<>(itens, estadoDelegate(), ultimo, erro));
+            }
+        } catch (InterruptedException e) {
+            // Encerrada pelo close
+        }
+    }
+
+    private Map<String, Object> estadoDelegate() {
+        ExecutionContext estado = new ExecutionContext();
+        delegate.update(estado);
+        Map<String, Object> valores = new HashMap<>();
+        for (Map.Entry<String, Object> entrada : estado.entrySet()) {
+            valores.put(entrada.getKey(), entrada.getValue());
+        }
+        return valores;
+    }
+
+    private static final class Lote<T> {
+
+        private final List<T> itens;
+        private final Map<String, Object> estado;
+        private final boolean ultimo;
+        private final Exception erro;
+
+        private Lote(List<T> itens, Map<String, Object> estado, boolean ultimo, Exception erro) {
+            this.itens = itens;
+            this.estado = estado;
+            this.ultimo = ultimo;
+            this.erro = erro;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasMigracao;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+
+/**
+ * Configuração da leitura dos arquivos de entrada ({@code app.migracao.leitura}), compartilhada entre os leitores
+ * de pessoas e de dados bancários.
+ */
+@Configuration
+public class LeituraConfig {
+
+    @Value("${app.migracao.leitura.modo:flatfile}")
+    private ModoLeitura modoLeitura;
+
+    @Value("${app.migracao.leitura.tamanho-buffer:4194304}")
+    private int tamanhoBuffer;
+
+    @Value("${app.migracao.leitura.antecipada.habilitada:false}")
+    private boolean leituraAntecipada;
+
+    @Value("${app.migracao.leitura.antecipada.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    @Value("${app.migracao.leitura.antecipada.profundidade-fila:10}")
+    private int profundidadeFila;
+
+    @Value("${app.migracao.leitura.descompressao.profundidade-fila:8}")
+    private int profundidadeFilaDescompressao;
+
+    /**
+     * Cria a fábrica dos leitores dos arquivos CSV, usada pelos leitores sequenciais e particionados.
+     *
+     * @param descompressaoTaskExecutor Executor de descompressão compartilhado entre os leitores.
+     * @param metricasMigracao          Métricas da migração.
+     * @return Fábrica de leitores.
+     */
+    @Bean
+    public FabricaLeitorArquivo fabricaLeitorArquivo(
+          @Qualifier("descompressaoTaskExecutor") TaskExecutor descompressaoTaskExecutor,
+          @Qualifier("metricasMigracao") MetricasMigracao metricasMigracao
+    ) {
+        return new FabricaLeitorArquivo(
+              modoLeitura, // FlatFileItemReader ou NIO
+              tamanhoBuffer, // Buffer direto do modo NIO
+              leituraAntecipada, tamanhoLote, profundidadeFila, // Conversão antecipada enquanto o chunk é gravado
+              descompressaoTaskExecutor, profundidadeFilaDescompressao, // Descompressão dos arquivos .gz e .zst
+              metricasMigracao
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+/**
+ * Modos de leitura dos arquivos CSV, selecionados em {@code app.migracao.leitura.modo}.
+ */
+public enum ModoLeitura {
+
+    /**
+     * {@link org.springframework.batch.item.file.FlatFileItemReader} com {@code DelimitedLineTokenizer}.
+     */
+    FLATFILE,
+
+    /**
+     * {@link com.dowglasmaia.migracaodadosjob.reader.csv.ArquivoCsvItemReader}, que converte os bytes direto no item.
+     */
+    NIO
+}
@@ -0,0 +1,124 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link Resource} que expõe apenas o intervalo de bytes [inicio, fim) de um arquivo.
+ * Permite que um {@link org.springframework.batch.item.file.FlatFileItemReader} leia somente a sua partição.
+ * Recursos que não são arquivos, como o conteúdo de um arquivo compactado, são posicionados descartando os bytes anteriores ao início.
+ */
+public class RecursoIntervaloBytes extends AbstractResource {
+
+    private final Resource recurso;
+    private final long inicio;
+    private final long fim;
+
+    public RecursoIntervaloBytes(Resource recurso, long inicio, long fim) {
+        this.recurso = recurso;
+        this.inicio = inicio;
+        this.fim = fim;
+    }
+
+    @Override
+    public boolean exists() {
+        return recurso.exists();
+    }
+
+    @Override
+    public String getDescription() {
+        return "intervalo [" + inicio + ", " + fim + ") de " + recurso.getDescription();
+    }
+
+    /**
+     * Abre o arquivo já posicionado no byte inicial e limita a leitura ao byte final do intervalo.
+     *
+     * @return InputStream restrito ao intervalo.
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        if (!recurso.isFile()) {
+            InputStream entrada = recurso.getInputStream();
+            pular(entrada, inicio);
+            return new IntervaloInputStream(entrada, fim - inicio);
+        }
+        FileChannel canal = FileChannel.open(recurso.getFile().toPath(), StandardOpenOption.READ);
+        canal.position(inicio);
+        return new IntervaloInputStream(Channels.newInputStream(canal), fim - inicio);
+    }
+
+    private static void pular(InputStream entrada, long quantidade) throws IOException {
+        long restante = quantidade;
+        while (restante > 0) {
+            long pulados = entrada.skip(restante);
+            if (pulados <= 0) {
+                if (entrada.read() < 0) {
+                    break; // Posição além do fim: o intervalo fica vazio
+                }
+                pulados = 1;
+            }
+            restante -= pulados;
+        }
+    }
+
+    /**
+     * InputStream que devolve fim de arquivo após consumir a quantidade de bytes do intervalo.
+     */
+    private static class IntervaloInputStream extends FilterInputStream {
+
+        private long restante;
+
+        IntervaloInputStream(InputStream in, long restante) {
+            super(in);
+            this.restante = restante;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (restante <= 0) {
+                return -1;
+            }
+            int lido = super.read();
+            if (lido >= 0) {
+                restante--;
+            }
+            return lido;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (restante <= 0) {
+                return -1;
+            }
+            int lidos = super.read(b, off, (int) Math.min(len, restante));
+            if (lidos > 0) {
+                restante -= lidos;
+            }
+            return lidos;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long pulados = super.skip(Math.min(n, restante));
+            restante -= pulados;
+            return pulados;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), restante);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.file.BufferedReaderFactory;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * {@link ItemStreamReader} que envolve um {@link FlatFileItemReader} para que o restart posicione o arquivo
+ * direto no byte da próxima linha, em vez de reler e descartar todas as linhas até a quantidade de itens salva.
+ * <p>
+ * As linhas são lidas pelo {@link LeitorLinhasContandoBytes}, que conta os bytes consumidos. O {@link #update} grava
+ * a posição absoluta no arquivo em {@code <nome>.posicao}, a mesma chave e o mesmo significado do modo de leitura NIO.
+ * No restart, o recurso do leitor é trocado por um {@link RecursoIntervaloBytes} iniciado nessa posição,
+ * e a contagem de itens do leitor continua de onde parou.
+ * Os números de linha das mensagens de erro passam a ser relativos à posição de retomada.
+ *
+ * @param <T> Tipo do item lido.
+ */
+public class RetomadaPorPosicaoItemReader<T> extends ItemStreamSupport implements ItemStreamReader<T> {
+
+    private static final String POSICAO = "posicao";
+
+    private final FlatFileItemReader<T> delegate;
+    private final Resource recurso;
+    private final long inicio;
+    private final long fim;
+
+    private LeitorLinhasContandoBytes leitor;
+    private long posicaoInicial;
+
+    /**
+     * @param nome     Nome usado como prefixo da chave da posição no contexto de execução.
+     * @param delegate Leitor configurado com o mapeamento das linhas. O recurso e a fábrica de leitores são definidos aqui.
+     * @param recurso  Arquivo lido.
+     * @param inicio   Byte inicial do intervalo lido (inclusivo).
+     * @param fim      Byte final do intervalo lido (exclusivo), ou {@link Long#MAX_VALUE} para ler até o fim.
+     */
+    public RetomadaPorPosicaoItemReader(String nome, FlatFileItemReader<T> delegate, Resource recurso, long inicio, long fim) {
+        setName(nome);
+        this.delegate = delegate;
+        this.recurso = recurso;
+        this.inicio = inicio;
+        this.fim = fim;
+        delegate.setBufferedReaderFactory(new BufferedReaderFactory() {
+            @Override
+            public BufferedReader create(Resource resource, String encoding) throws IOException {
+                leitor = new LeitorLinhasContandoBytes(resource.getInputStream(), Charset.forName(encoding));
+                return leitor;
+            }
+        });
+    }
+
+    /**
+     * Abre o leitor na posição salva. Sem posição salva (primeira execução, ou contexto de uma versão anterior),
+     * abre no início do intervalo e deixa o leitor delegado restaurar o seu próprio estado.
+     */
+    @Override
+    public void open(ExecutionContext executionContext) {
+        String chavePosicao = getExecutionContextKey(POSICAO);
+        if (!executionContext.containsKey(chavePosicao)) {
+            posicaoInicial = inicio;
+            delegate.setResource(inicio == 0 && fim == Long.MAX_VALUE ? recurso : new RecursoIntervaloBytes(recurso, inicio, fim));
+            delegate.open(executionContext);
+            return;
+        }
+        posicaoInicial = executionContext.getLong(chavePosicao);
+        delegate.setResource(new RecursoIntervaloBytes(recurso, posicaoInicial, fim));
+        String chaveContagem = delegate.getExecutionContextKey("read.count");
+        int itensLidos = executionContext.getInt(chaveContagem, 0);
+        delegate.open(new ExecutionContext()); // Contexto vazio: o leitor não relê as linhas já processadas
+        delegate.setCurrentItemCount(itensLidos);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        delegate.update(executionContext);
+        if (leitor != null) { // Sem leitor quando o arquivo não existe e o delegado não é estrito
+            executionContext.putLong(getExecutionContextKey(POSICAO), posicaoInicial + leitor.getPosicao());
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public T read() throws Exception {
+        return delegate.read();
+    }
+}
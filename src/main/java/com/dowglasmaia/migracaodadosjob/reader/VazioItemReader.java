@@ -0,0 +1,18 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+
+/**
+ * {@link ItemStreamReader} sem itens, usado no lugar do leitor de um arquivo que não faz parte da execução,
+ * por exemplo um lote da caixa de entrada que só recebeu o arquivo de pessoas.
+ *
+ * @param <T> Tipo do item lido.
+ */
+public class VazioItemReader<T> extends ItemStreamSupport implements ItemStreamReader<T> {
+
+    @Override
+    public T read() {
+        return null;
+    }
+}
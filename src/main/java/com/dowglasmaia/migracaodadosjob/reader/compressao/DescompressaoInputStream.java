@@ -0,0 +1,216 @@
+package com.dowglasmaia.migracaodadosjob.reader.compressao;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link InputStream} dos bytes descompactados de um arquivo, produzidos fora da thread que lê o stream.
+ * <p>
+ * Uma thread leitora lê os bytes compactados e delimita as unidades independentes do formato (membros BGZF ou frames zstd),
+ * agrupadas em lotes que são descompactados em paralelo pelo executor de descompressão, compartilhado entre os arquivos
+ * abertos. Os resultados entram, na ordem do
+ * arquivo, em uma fila limitada consumida pelo stream, então a descompressão ocorre enquanto o leitor do CSV converte
+ * as linhas anteriores. A partir da primeira unidade que não pode ser delimitada (gzip comum ou frame muito grande),
+ * a própria thread leitora descompacta o restante do arquivo sequencialmente, em blocos, na mesma fila.
+ * <p>
+ * A thread leitora é própria de cada stream, pois passa a maior parte do tempo bloqueada na fila: no executor compartilhado,
+ * ela ocuparia a thread de que os seus lotes precisam. Cada stream aberto usa, portanto, uma thread leitora, e no máximo
+ * {@code profundidadeFila + 1} lotes seus aguardam ou ocupam o executor.
+ * <p>
+ * {@link #skip(long)} descarta blocos já descompactados sem copiá-los, usado no restart para chegar à posição salva.
+ */
+class DescompressaoInputStream extends InputStream {
+
+    private static final int TAMANHO_LOTE = 1024 * 1024; // Bytes compactados mínimos de um lote paralelo
+    private static final int TAMANHO_MAXIMO_UNIDADE = 64 * 1024 * 1024; // Unidades maiores são descompactadas sequencialmente
+    private static final int TAMANHO_BLOCO = 1024 * 1024; // Bytes descompactados por bloco no modo sequencial
+    private static final Future<byte[]> FIM = CompletableFuture.completedFuture(new byte[0]);
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+
+    private final InputStream entrada;
+    private final FormatoCompressao formato;
+    private final String descricao;
+    private final BlockingQueue<Future<byte[]>> fila;
+    private final Executor descompressores;
+    private final Thread leitora;
+
+    private byte[] bloco = new byte[0];
+    private int posicaoBloco;
+    private boolean fim;
+
+    /**
+     * @param entrada          Bytes compactados. É fechada pela thread leitora ao terminar.
+     * @param formato          Formato de compressão da entrada.
+     * @param descricao        Descrição do arquivo, usada no nome das threads e nas mensagens de erro.
+     * @param descompressores  Executor compartilhado da descompressão paralela; sem ele, o arquivo é descompactado
+     *                         sequencialmente pela thread leitora.
+     * @param profundidadeFila Lotes ou blocos descompactados, ou em descompressão, à frente da leitura.
+     */
+    DescompressaoInputStream(InputStream entrada, FormatoCompressao formato, String descricao, Executor descompressores, int profundidadeFila) {
+        this.entrada = new BufferedInputStream(entrada, FormatoCompressao.TAMANHO_BUFFER);
+        this.formato = formato;
+        this.descricao = descricao;
+        this.fila = new ArrayBlockingQueue<>(profundidadeFila);
+        this.descompressores = descompressores;
+        this.leitora = new Thread(this::produzir, "descompressao-leitora-" + SEQUENCIA.incrementAndGet());
+        this.leitora.setDaemon(true);
+        this.leitora.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!disponivel()) {
+            return -1;
+        }
+        return bloco[posicaoBloco++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] destino, int deslocamento, int quantidade) throws IOException {
+        if (quantidade == 0) {
+            return 0;
+        }
+        if (!disponivel()) {
+            return -1;
+        }
+        int copiados = Math.min(quantidade, bloco.length - posicaoBloco);
+        System.arraycopy(bloco, posicaoBloco, destino, deslocamento, copiados);
+        posicaoBloco += copiados;
+        return copiados;
+    }
+
+    @Override
+    public long skip(long quantidade) throws IOException {
+        long pulados = 0;
+        while (pulados < quantidade && disponivel()) {
+            int n = (int) Math.min(quantidade - pulados, bloco.length - posicaoBloco);
+            posicaoBloco += n;
+            pulados += n;
+        }
+        return pulados;
+    }
+
+    @Override
+    public int available() {
+        return bloco.length - posicaoBloco;
+    }
+
+    /**
+     * Interrompe a thread leitora e cancela os lotes ainda na fila, liberando o executor compartilhado.
+     * A thread leitora fecha a entrada ao terminar.
+     */
+    @Override
+    public void close() {
+        fim = true;
+        leitora.interrupt();
+        cancelarPendentes();
+    }
+
+    private void cancelarPendentes() {
+        Future<byte[]> pendente;
+        while ((pendente = fila.poll()) != null) {
+            pendente.cancel(true);
+        }
+    }
+
+    /**
+     * Garante que o bloco atual tenha bytes a entregar, aguardando o próximo bloco da fila.
+     *
+     * @return {@code false} ao fim do arquivo.
+     */
+    private boolean disponivel() throws IOException {
+        while (posicaoBloco == bloco.length) {
+            if (fim) {
+                return false;
+            }
+            try {
+                Future<byte[]> proximo = fila.take();
+                if (proximo == FIM) {
+                    fim = true;
+                    return false;
+                }
+                bloco = proximo.get();
+                posicaoBloco = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Leitura de " + descricao + " interrompida");
+            } catch (ExecutionException e) {
+                throw new IOException("Falha ao descompactar " + descricao, e.getCause());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Corpo da thread leitora: envia os lotes delimitados para descompressão paralela e, a partir da primeira unidade
+     * não delimitável, descompacta o restante sequencialmente.
+     */
+    private void produzir() {
+        try (InputStream compactado = entrada) {
+            LoteCompactado lote = new LoteCompactado(2 * TAMANHO_LOTE);
+            FormatoCompressao.Unidade unidade = FormatoCompressao.Unidade.NAO_DELIMITAVEL;
+            if (descompressores != null) {
+                do {
+                    lote.iniciarUnidade();
+                    unidade = formato.delimitar(lote, compactado, TAMANHO_MAXIMO_UNIDADE);
+                    if (unidade == FormatoCompressao.Unidade.COMPLETA) {
+                        lote.concluirUnidade();
+                    }
+                    if (lote.tamanhoCompleto() >= TAMANHO_LOTE || (unidade != FormatoCompressao.Unidade.COMPLETA && lote.tamanhoCompleto() > 0)) {
+                        FutureTask<byte[]> tarefa = new FutureTask<>(descompactarLote(lote.retirarCompletas()));
+                        descompressores.execute(tarefa);
+                        fila.put(tarefa);
+                    }
+                } while (unidade == FormatoCompressao.Unidade.COMPLETA);
+            }
+            if (unidade == FormatoCompressao.Unidade.NAO_DELIMITAVEL) {
+                descompactarSequencialmente(new SequenceInputStream(lote.unidadeEmAndamento(), compactado));
+            }
+            fila.put(FIM);
+        } catch (InterruptedException e) {
+            cancelarPendentes(); // Stream fechado; descarta o lote colocado na fila durante o fechamento
+        } catch (Exception e) {
+            CompletableFuture<byte[]> falha = new CompletableFuture<>();
+            falha.completeExceptionally(e);
+            try {
+                fila.put(falha); // Entregue ao stream na posição em que a falha ocorreu
+            } catch (InterruptedException interrompida) {
+                Thread.currentThread().interrupt(); // Stream fechado
+            }
+        }
+    }
+
+    private void descompactarSequencialmente(InputStream compactado) throws IOException, InterruptedException {
+        try (InputStream descompactado = formato.descompactar(compactado)) {
+            byte[] bloco = descompactado.readNBytes(TAMANHO_BLOCO);
+            while (bloco.length > 0) {
+                fila.put(CompletableFuture.completedFuture(bloco));
+                bloco = descompactado.readNBytes(TAMANHO_BLOCO);
+            }
+        }
+    }
+
+    private Callable<byte[]> descompactarLote(byte[] compactado) {
+        return new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws IOException {
+                try (InputStream descompactado = formato.descompactar(new ByteArrayInputStream(compactado))) {
+                    return descompactado.readAllBytes();
+                }
+            }
+        };
+    }
+}
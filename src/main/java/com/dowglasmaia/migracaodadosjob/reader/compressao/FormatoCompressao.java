@@ -0,0 +1,206 @@
+package com.dowglasmaia.migracaodadosjob.reader.compressao;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Formatos de compressão dos arquivos de entrada, reconhecidos pela extensão do arquivo.
+ * <p>
+ * Além da descompressão sequencial, cada formato sabe delimitar as suas unidades independentes sem descompactá-las,
+ * quando o formato permite, para que sejam descompactadas em paralelo:
+ * membros gzip com o tamanho no campo extra {@code BC} (BGZF, gerado pelo {@code bgzip}) e frames zstd.
+ */
+public enum FormatoCompressao {
+
+    /**
+     * Arquivo sem compressão.
+     */
+    NENHUM {
+        @Override
+        public InputStream descompactar(InputStream entrada) {
+            return entrada;
+        }
+
+        @Override
+        Unidade delimitar(LoteCompactado lote, InputStream entrada, int tamanhoMaximo) {
+            return Unidade.NAO_DELIMITAVEL;
+        }
+    },
+
+    /**
+     * gzip ({@code .gz}), com um ou mais membros.
+     */
+    GZIP {
+        private static final int CABECALHO = 10;
+        private static final int FLAG_EXTRA = 0x04;
+
+        @Override
+        public InputStream descompactar(InputStream entrada) throws IOException {
+            return new GZIPInputStream(entrada, TAMANHO_BUFFER); // Lê os membros seguintes até o fim da entrada
+        }
+
+        /**
+         * Delimita um membro pelo subcampo {@code BC} do campo extra do cabeçalho, que guarda o tamanho do membro menos um.
+         */
+        @Override
+        Unidade delimitar(LoteCompactado lote, InputStream entrada, int tamanhoMaximo) throws IOException {
+            if (!lote.acrescentar(entrada, CABECALHO)) {
+                return Unidade.FIM;
+            }
+            if (lote.byteUnidade(0) != 0x1F || lote.byteUnidade(1) != 0x8B) {
+                throw new ZipException("Cabeçalho gzip inválido");
+            }
+            if ((lote.byteUnidade(3) & FLAG_EXTRA) == 0) {
+                return Unidade.NAO_DELIMITAVEL;
+            }
+            lote.exigir(entrada, 2);
+            int tamanhoExtra = (int) lote.inteiroUnidade(CABECALHO, 2);
+            lote.exigir(entrada, tamanhoExtra);
+            int subcampo = CABECALHO + 2;
+            while (subcampo + 4 <= CABECALHO + 2 + tamanhoExtra) {
+                int tamanhoSubcampo = (int) lote.inteiroUnidade(subcampo + 2, 2);
+                if (lote.byteUnidade(subcampo) == 'B' && lote.byteUnidade(subcampo + 1) == 'C' && tamanhoSubcampo == 2) {
+                    int tamanhoMembro = (int) lote.inteiroUnidade(subcampo + 4, 2) + 1;
+                    if (tamanhoMembro < lote.tamanhoUnidade()) {
+                        throw new ZipException("Tamanho de membro gzip inválido: " + tamanhoMembro);
+                    }
+                    lote.exigir(entrada, tamanhoMembro - lote.tamanhoUnidade());
+                    return Unidade.COMPLETA;
+                }
+                subcampo += 4 + tamanhoSubcampo;
+            }
+            return Unidade.NAO_DELIMITAVEL;
+        }
+    },
+
+    /**
+     * Zstandard ({@code .zst}), com um ou mais frames.
+     */
+    ZSTD {
+        private static final int MAGICO = 0xFD2FB528;
+        private static final int MAGICO_IGNORAVEL = 0x184D2A50; // Frames ignoráveis: 0x184D2A50 a 0x184D2A5F
+        private static final int TIPO_RLE = 1;
+        private static final int TIPO_RESERVADO = 3;
+
+        @Override
+        public InputStream descompactar(InputStream entrada) throws IOException {
+            return new ZstdInputStream(entrada); // Lê os frames seguintes até o fim da entrada
+        }
+
+        /**
+         * Delimita um frame percorrendo o cabeçalho e os cabeçalhos de bloco, que guardam o tamanho compactado de cada bloco.
+         */
+        @Override
+        Unidade delimitar(LoteCompactado lote, InputStream entrada, int tamanhoMaximo) throws IOException {
+            if (!lote.acrescentar(entrada, 4)) {
+                return Unidade.FIM;
+            }
+            int magico = (int) lote.inteiroUnidade(0, 4);
+            if ((magico & 0xFFFFFFF0) == MAGICO_IGNORAVEL) {
+                lote.exigir(entrada, 4);
+                long tamanho = lote.inteiroUnidade(4, 4);
+                if (tamanho > tamanhoMaximo) {
+                    throw new IOException("Frame zstd ignorável de " + tamanho + " bytes excede o limite de " + tamanhoMaximo + " bytes");
+                }
+                lote.exigir(entrada, (int) tamanho);
+                return Unidade.COMPLETA;
+            }
+            if (magico != MAGICO) {
+                throw new IOException("Cabeçalho zstd inválido");
+            }
+            lote.exigir(entrada, 1);
+            int descritor = lote.byteUnidade(4);
+            int flagTamanho = descritor >>> 6;
+            boolean segmentoUnico = (descritor & 0x20) != 0;
+            boolean checksum = (descritor & 0x04) != 0;
+            int flagDicionario = descritor & 0x03;
+            int bytesTamanho = flagTamanho == 0 ? (segmentoUnico ? 1 : 0) : 1 << flagTamanho;
+            int bytesDicionario = flagDicionario == 3 ? 4 : flagDicionario;
+            lote.exigir(entrada, (segmentoUnico ? 0 : 1) + bytesDicionario + bytesTamanho);
+            boolean ultimo;
+            do {
+                if (lote.tamanhoUnidade() > tamanhoMaximo) {
+                    return Unidade.NAO_DELIMITAVEL; // Frame grande demais para ser mantido em memória
+                }
+                int posicaoBloco = lote.tamanhoUnidade();
+                lote.exigir(entrada, 3);
+                int cabecalho = (int) lote.inteiroUnidade(posicaoBloco, 3);
+                ultimo = (cabecalho & 1) != 0;
+                int tipo = (cabecalho >>> 1) & 0x03;
+                if (tipo == TIPO_RESERVADO) {
+                    throw new IOException("Bloco zstd inválido");
+                }
+                lote.exigir(entrada, tipo == TIPO_RLE ? 1 : cabecalho >>> 3);
+            } while (!ultimo);
+            lote.exigir(entrada, checksum ? 4 : 0);
+            return Unidade.COMPLETA;
+        }
+    };
+
+    static final int TAMANHO_BUFFER = 64 * 1024;
+
+    /**
+     * Resultado da delimitação de uma unidade.
+     */
+    enum Unidade {
+        /**
+         * A unidade foi lida por completo para o lote.
+         */
+        COMPLETA,
+        /**
+         * A entrada terminou antes do início de uma nova unidade.
+         */
+        FIM,
+        /**
+         * A unidade não pode ser delimitada sem descompactá-la. Os bytes lidos ficam no lote como unidade em andamento.
+         */
+        NAO_DELIMITAVEL
+    }
+
+    /**
+     * Cria um stream que descompacta a entrada sequencialmente.
+     *
+     * @param entrada Bytes compactados.
+     * @return Stream dos bytes descompactados.
+     */
+    public abstract InputStream descompactar(InputStream entrada) throws IOException;
+
+    /**
+     * Lê a próxima unidade independente da entrada para o lote.
+     *
+     * @param lote          Lote que recebe os bytes lidos.
+     * @param entrada       Bytes compactados, posicionados no início de uma unidade.
+     * @param tamanhoMaximo Tamanho máximo de uma unidade mantida em memória.
+     * @return Resultado da delimitação.
+     */
+    abstract Unidade delimitar(LoteCompactado lote, InputStream entrada, int tamanhoMaximo) throws IOException;
+
+    /**
+     * @return Se o formato é compactado.
+     */
+    public boolean isCompactado() {
+        return this != NENHUM;
+    }
+
+    /**
+     * Reconhece o formato pela extensão do nome do arquivo: {@code .gz} ou {@code .zst}.
+     *
+     * @param nomeArquivo Nome ou caminho do arquivo.
+     * @return Formato do arquivo, ou {@link #NENHUM} para as demais extensões.
+     */
+    public static FormatoCompressao detectar(String nomeArquivo) {
+        String nome = nomeArquivo == null ? "" : nomeArquivo.toLowerCase(Locale.ROOT);
+        if (nome.endsWith(".gz")) {
+            return GZIP;
+        }
+        if (nome.endsWith(".zst")) {
+            return ZSTD;
+        }
+        return NENHUM;
+    }
+}
@@ -0,0 +1,124 @@
+package com.dowglasmaia.migracaodadosjob.reader.compressao;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Bytes compactados lidos da entrada e ainda não enviados para descompressão.
+ * Guarda unidades completas (membros gzip ou frames zstd) seguidas, opcionalmente, dos bytes já lidos da unidade em andamento.
+ */
+class LoteCompactado {
+
+    private byte[] dados;
+    private int tamanho;
+    private int completo; // Fim da última unidade completa
+    private int inicioUnidade; // Início da unidade em andamento
+
+    LoteCompactado(int capacidadeInicial) {
+        this.dados = new byte[capacidadeInicial];
+    }
+
+    /**
+     * Marca o início de uma nova unidade, logo após a última unidade completa.
+     */
+    void iniciarUnidade() {
+        inicioUnidade = tamanho;
+    }
+
+    /**
+     * Marca a unidade em andamento como completa.
+     */
+    void concluirUnidade() {
+        completo = tamanho;
+    }
+
+    /**
+     * Lê exatamente {@code quantidade} bytes da entrada e os acrescenta ao lote.
+     *
+     * @return {@code false} se a entrada terminou antes do primeiro byte.
+     * @throws EOFException Se a entrada terminou depois de ler parte dos bytes.
+     */
+    boolean acrescentar(InputStream entrada, int quantidade) throws IOException {
+        if (tamanho + quantidade > dados.length) {
+            dados = Arrays.copyOf(dados, Math.max(dados.length * 2, tamanho + quantidade));
+        }
+        int lidos = 0;
+        while (lidos < quantidade) {
+            int n = entrada.read(dados, tamanho + lidos, quantidade - lidos);
+            if (n < 0) {
+                if (lidos == 0) {
+                    return false;
+                }
+                throw new EOFException("Arquivo compactado truncado");
+            }
+            lidos += n;
+        }
+        tamanho += quantidade;
+        return true;
+    }
+
+    /**
+     * Como {@link #acrescentar}, mas trata o fim da entrada como arquivo truncado.
+     */
+    void exigir(InputStream entrada, int quantidade) throws IOException {
+        if (quantidade > 0 && !acrescentar(entrada, quantidade)) {
+            throw new EOFException("Arquivo compactado truncado");
+        }
+    }
+
+    /**
+     * @return Byte sem sinal na posição relativa ao início da unidade em andamento.
+     */
+    int byteUnidade(int posicao) {
+        return dados[inicioUnidade + posicao] & 0xFF;
+    }
+
+    /**
+     * @return Inteiro little-endian sem sinal de {@code bytes} bytes, na posição relativa ao início da unidade em andamento.
+     */
+    long inteiroUnidade(int posicao, int bytes) {
+        long valor = 0;
+        for (int i = bytes - 1; i >= 0; i--) {
+            valor = (valor << 8) | byteUnidade(posicao + i);
+        }
+        return valor;
+    }
+
+    /**
+     * @return Bytes já lidos da unidade em andamento.
+     */
+    int tamanhoUnidade() {
+        return tamanho - inicioUnidade;
+    }
+
+    /**
+     * @return Bytes das unidades completas.
+     */
+    int tamanhoCompleto() {
+        return completo;
+    }
+
+    /**
+     * Remove as unidades completas do lote e as devolve, mantendo a unidade em andamento.
+     *
+     * @return Cópia dos bytes das unidades completas.
+     */
+    byte[] retirarCompletas() {
+        byte[] completas = Arrays.copyOf(dados, completo);
+        System.arraycopy(dados, completo, dados, 0, tamanho - completo);
+        tamanho -= completo;
+        inicioUnidade -= completo;
+        completo = 0;
+        return completas;
+    }
+
+    /**
+     * @return Stream com os bytes da unidade em andamento, que ainda não foi delimitada.
+     */
+    InputStream unidadeEmAndamento() {
+        return new ByteArrayInputStream(dados, completo, tamanho - completo);
+    }
+}
@@ -0,0 +1,73 @@
+package com.dowglasmaia.migracaodadosjob.reader.compressao;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link Resource} com o conteúdo descompactado de um arquivo {@code .gz} ou {@code .zst}, lido sob demanda
+ * por um {@link DescompressaoInputStream}, sem gravar o arquivo descompactado em disco.
+ * <p>
+ * Não é um arquivo ({@link #isFile()} é {@code false}): os leitores posicionam o conteúdo descartando os bytes
+ * até a posição desejada, em vez de posicionar um canal do arquivo.
+ */
+public class RecursoDescompactado extends AbstractResource {
+
+    private final Resource recurso;
+    private final FormatoCompressao formato;
+    private final Executor descompressores;
+    private final int profundidadeFila;
+
+    public RecursoDescompactado(Resource recurso, FormatoCompressao formato, Executor descompressores, int profundidadeFila) {
+        this.recurso = recurso;
+        this.formato = formato;
+        this.descompressores = descompressores;
+        this.profundidadeFila = profundidadeFila;
+    }
+
+    /**
+     * Envolve o arquivo em um {@link RecursoDescompactado} quando a extensão indica um formato compactado.
+     *
+     * @param recurso          Arquivo de entrada.
+     * @param descompressores  Executor compartilhado da descompressão paralela, ou {@code null} para descompactar
+     *                         sequencialmente.
+     * @param profundidadeFila Blocos descompactados à frente da leitura.
+     * @return O próprio arquivo, se não for compactado, ou o recurso com o seu conteúdo descompactado.
+     */
+    public static Resource de(Resource recurso, Executor descompressores, int profundidadeFila) {
+        FormatoCompressao formato = FormatoCompressao.detectar(recurso.getFilename());
+        if (!formato.isCompactado()) {
+            return recurso;
+        }
+        return new RecursoDescompactado(recurso, formato, descompressores, profundidadeFila);
+    }
+
+    @Override
+    public boolean exists() {
+        return recurso.exists();
+    }
+
+    @Override
+    public String getFilename() {
+        return recurso.getFilename();
+    }
+
+    @Override
+    public String getDescription() {
+        return formato + " descompactado de " + recurso.getDescription();
+    }
+
+    /**
+     * Inicia a descompressão do arquivo em segundo plano.
+     *
+     * @return InputStream dos bytes descompactados, que deve ser fechado para encerrar a thread leitora e cancelar
+     * os lotes pendentes.
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new DescompressaoInputStream(recurso.getInputStream(), formato, recurso.getDescription(), descompressores, profundidadeFila);
+    }
+}
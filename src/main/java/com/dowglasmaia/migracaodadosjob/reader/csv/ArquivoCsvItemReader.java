@@ -0,0 +1,231 @@
+package com.dowglasmaia.migracaodadosjob.reader.csv;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Leitor de arquivos CSV baseado em NIO, alternativo ao {@link org.springframework.batch.item.file.FlatFileItemReader}.
+ * Lê o arquivo por um {@link FileChannel} em um buffer direto e entrega cada linha ao {@link MapeadorLinhaCsv}
+ * como uma {@link LinhaCsv} reutilizável, sem criar String, {@code FieldSet} ou tokens por linha.
+ * <p>
+ * O progresso é salvo como a posição em bytes da próxima linha, então o restart reposiciona o canal
+ * direto nessa posição, sem reler as linhas anteriores. Pode ler apenas um intervalo de bytes do arquivo,
+ * usado pelos workers do particionamento.
+ * Recursos que não são arquivos, como o conteúdo de um arquivo compactado, são lidos pelo seu InputStream
+ * e posicionados descartando os bytes anteriores à posição.
+ * <p>
+ * Não é thread-safe: cada step ou partição deve ter a sua própria instância.
+ *
+ * @param <T> Tipo do item produzido.
+ */
+public class ArquivoCsvItemReader<T> extends ItemStreamSupport implements ItemStreamReader<T> {
+
+    private static final String POSICAO = "posicao";
+
+    private final Resource recurso;
+    private final long inicio;
+    private final long fim;
+    private final int campos;
+    private final byte[] comentario;
+    private final int tamanhoBuffer;
+    private final MapeadorLinhaCsv<T> mapeador;
+    private final LinhaCsv linha;
+
+    private ReadableByteChannel canal;
+    private ByteBuffer buffer;
+    private long posicaoLeitura; // Posição no arquivo do próximo byte a ser lido pelo canal
+    private long posicao; // Posição no arquivo da próxima linha a ser entregue
+    private int varredura; // Índice do buffer até onde já se procurou a quebra de linha
+    private boolean fimArquivo;
+    private int numeroLinha;
+
+    ArquivoCsvItemReader(String nome, Resource recurso, long inicio, long fim, int campos, String comentario,
+                         int tamanhoBuffer, MapeadorLinhaCsv<T> mapeador) {
+        setName(nome);
+        this.recurso = recurso;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.campos = campos;
+        this.comentario = comentario == null ? new byte[0] : comentario.getBytes(StandardCharsets.UTF_8);
+        this.tamanhoBuffer = tamanhoBuffer;
+        this.mapeador = mapeador;
+        this.linha = new LinhaCsv(campos);
+    }
+
+    /**
+     * Abre o canal na posição salva no contexto de execução, ou no início do intervalo na primeira execução.
+     */
+    @Override
+    public void open(ExecutionContext executionContext) {
+        posicao = executionContext.containsKey(getExecutionContextKey(POSICAO))
+              ? executionContext.getLong(getExecutionContextKey(POSICAO))
+              : inicio;
+        try {
+            canal = abrirCanal(posicao);
+        } catch (IOException e) {
+            throw new ItemStreamException("Falha ao abrir o arquivo " + recurso.getDescription(), e);
+        }
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(tamanhoBuffer);
+        }
+        buffer.clear().flip();
+        posicaoLeitura = posicao;
+        varredura = 0;
+        fimArquivo = false;
+        numeroLinha = 0;
+    }
+
+    /**
+     * Abre o canal do arquivo na posição, ou descarta os bytes anteriores à posição quando o recurso não é um arquivo.
+     */
+    private ReadableByteChannel abrirCanal(long posicao) throws IOException {
+        if (recurso.isFile()) {
+            FileChannel arquivo = FileChannel.open(recurso.getFile().toPath(), StandardOpenOption.READ);
+            arquivo.position(posicao);
+            return arquivo;
+        }
+        InputStream entrada = recurso.getInputStream();
+        long restante = posicao;
+        while (restante > 0) {
+            long pulados = entrada.skip(restante);
+            if (pulados <= 0) {
+                if (entrada.read() < 0) {
+                    break; // Posição além do fim: não há mais linhas
+                }
+                pulados = 1;
+            }
+            restante -= pulados;
+        }
+        return Channels.newChannel(entrada);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(getExecutionContextKey(POSICAO), posicao);
+    }
+
+    @Override
+    public void close() {
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                throw new ItemStreamException("Falha ao fechar o arquivo " + recurso.getDescription(), e);
+            } finally {
+                canal = null;
+            }
+        }
+    }
+
+    /**
+     * Lê a próxima linha que não seja comentário nem vazia e a converte pelo mapeador.
+     *
+     * @return Item mapeado, ou {@code null} ao fim do intervalo.
+     */
+    @Override
+    public T read() throws Exception {
+        while (true) {
+            int quebra = proximaQuebraLinha();
+            if (quebra < 0) {
+                return null;
+            }
+            int inicioLinha = buffer.position();
+            int proximaLinha = quebra < buffer.limit() ? quebra + 1 : quebra;
+            buffer.position(proximaLinha);
+            varredura = proximaLinha;
+            posicao += proximaLinha - inicioLinha;
+            numeroLinha++;
+
+            int fimLinha = quebra > inicioLinha && buffer.get(quebra - 1) == '\r' ? quebra - 1 : quebra;
+            if (fimLinha == inicioLinha || comentario(inicioLinha, fimLinha)) {
+                continue;
+            }
+            int encontrados = linha.carregar(buffer, inicioLinha, fimLinha);
+            if (encontrados != campos) {
+                throw new FlatFileParseException("Quantidade de campos incorreta: esperados " + campos + ", encontrados " + encontrados,
+                      LinhaCsv.conteudo(buffer, inicioLinha, fimLinha), numeroLinha);
+            }
+            try {
+                return mapeador.mapear(linha);
+            } catch (RuntimeException e) {
+                throw new FlatFileParseException("Falha ao mapear a linha " + numeroLinha + " de " + recurso.getDescription(), e,
+                      LinhaCsv.conteudo(buffer, inicioLinha, fimLinha), numeroLinha);
+            }
+        }
+    }
+
+    /**
+     * Procura a próxima quebra de linha, recarregando o buffer quando necessário.
+     *
+     * @return Índice da quebra no buffer, o limite do buffer para a última linha sem quebra, ou -1 ao fim do intervalo.
+     */
+    private int proximaQuebraLinha() throws IOException {
+        while (true) {
+            int limite = buffer.limit();
+            for (int i = varredura; i < limite; i++) {
+                if (buffer.get(i) == '\n') {
+                    return i;
+                }
+            }
+            varredura = limite;
+            if (!recarregar()) {
+                return buffer.hasRemaining() ? buffer.limit() : -1;
+            }
+        }
+    }
+
+    /**
+     * Move a linha incompleta para o começo do buffer e lê mais bytes do canal, sem ultrapassar o fim do intervalo.
+     *
+     * @return {@code false} se não houver mais bytes a ler.
+     */
+    private boolean recarregar() throws IOException {
+        if (fimArquivo || posicaoLeitura >= fim) {
+            return false;
+        }
+        int pendente = buffer.remaining();
+        if (pendente == buffer.capacity()) {
+            throw new FlatFileParseException("Linha maior que o buffer de " + buffer.capacity() + " bytes",
+                  LinhaCsv.conteudo(buffer, 0, Math.min(buffer.limit(), 80)), numeroLinha + 1);
+        }
+        buffer.compact();
+        long restante = fim - posicaoLeitura;
+        if (restante < buffer.remaining()) {
+            buffer.limit(buffer.position() + (int) restante);
+        }
+        int lidos = canal.read(buffer);
+        buffer.flip();
+        varredura = pendente;
+        if (lidos < 0) {
+            fimArquivo = true;
+            return false;
+        }
+        posicaoLeitura += lidos;
+        return true;
+    }
+
+    private boolean comentario(int inicioLinha, int fimLinha) {
+        if (comentario.length == 0 || fimLinha - inicioLinha < comentario.length) {
+            return false;
+        }
+        for (int i = 0; i < comentario.length; i++) {
+            if (buffer.get(inicioLinha + i) != comentario[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+package com.dowglasmaia.migracaodadosjob.reader.csv;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+/**
+ * Builder do {@link ArquivoCsvItemReader}, no mesmo estilo do
+ * {@link org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder}.
+ *
+ * @param <T> Tipo do item produzido.
+ */
+public class ArquivoCsvItemReaderBuilder<T> {
+
+    private static final int TAMANHO_BUFFER_PADRAO = 4 * 1024 * 1024;
+
+    private String name;
+    private Resource resource;
+    private long inicio = 0;
+    private long fim = Long.MAX_VALUE;
+    private int campos;
+    private String comment;
+    private int tamanhoBuffer = TAMANHO_BUFFER_PADRAO;
+    private MapeadorLinhaCsv<T> mapeador;
+
+    /**
+     * @param name Nome usado como prefixo das chaves no contexto de execução.
+     */
+    public ArquivoCsvItemReaderBuilder<T> name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public ArquivoCsvItemReaderBuilder<T> resource(Resource resource) {
+        this.resource = resource;
+        return this;
+    }
+
+    /**
+     * Restringe a leitura ao intervalo de bytes [inicio, fim), que deve estar alinhado em quebras de linha.
+     */
+    public ArquivoCsvItemReaderBuilder<T> intervalo(long inicio, long fim) {
+        this.inicio = inicio;
+        this.fim = fim;
+        return this;
+    }
+
+    /**
+     * @param campos Quantidade de campos esperada em cada linha.
+     */
+    public ArquivoCsvItemReaderBuilder<T> campos(int campos) {
+        this.campos = campos;
+        return this;
+    }
+
+    /**
+     * @param comment Prefixo das linhas de comentário, que são ignoradas.
+     */
+    public ArquivoCsvItemReaderBuilder<T> addComment(String comment) {
+        this.comment = comment;
+        return this;
+    }
+
+    /**
+     * @param tamanhoBuffer Tamanho em bytes do buffer direto, que também é o tamanho máximo de uma linha.
+     */
+    public ArquivoCsvItemReaderBuilder<T> tamanhoBuffer(int tamanhoBuffer) {
+        this.tamanhoBuffer = tamanhoBuffer;
+        return this;
+    }
+
+    public ArquivoCsvItemReaderBuilder<T> mapeador(MapeadorLinhaCsv<T> mapeador) {
+        this.mapeador = mapeador;
+        return this;
+    }
+
+    public ArquivoCsvItemReader<T> build() {
+        Assert.hasText(name, "O nome do leitor é obrigatório.");
+        Assert.notNull(resource, "O recurso é obrigatório.");
+        Assert.isTrue(campos > 0, "A quantidade de campos deve ser maior que zero.");
+        Assert.isTrue(inicio >= 0 && inicio <= fim, "Intervalo de bytes inválido.");
+        Assert.isTrue(tamanhoBuffer > 0, "O tamanho do buffer deve ser maior que zero.");
+        Assert.notNull(mapeador, "O mapeador é obrigatório.");
+        return new ArquivoCsvItemReader<>(name, resource, inicio, fim, campos, comment, tamanhoBuffer, mapeador);
+    }
+}
@@ -0,0 +1,205 @@
+package com.dowglasmaia.migracaodadosjob.reader.csv;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Visão reutilizável de uma linha CSV dentro do buffer do {@link ArquivoCsvItemReader}.
+ * Guarda apenas as posições de cada campo, e os valores são convertidos direto dos bytes,
+ * sem criar uma String por linha nem um array de tokens.
+ * Os valores são lidos sem os espaços das extremidades, como faz o
+ * {@link org.springframework.batch.item.file.transform.FieldSet}.
+ */
+public final class LinhaCsv {
+
+    private static final byte DELIMITADOR = ',';
+    private static final byte ASPAS = '"';
+
+    private final int[] inicios;
+    private final int[] fins;
+    private final boolean[] comAspas;
+    private ByteBuffer buffer;
+    private int campos;
+    private byte[] temporario = new byte[256];
+
+    LinhaCsv(int maximoCampos) {
+        this.inicios = new int[maximoCampos];
+        this.fins = new int[maximoCampos];
+        this.comAspas = new boolean[maximoCampos];
+    }
+
+    /**
+     * Separa os campos da linha [inicio, fim) do buffer.
+     *
+     * @return Quantidade de campos encontrados.
+     */
+    int carregar(ByteBuffer buffer, int inicio, int fim) {
+        this.buffer = buffer;
+        this.campos = 0;
+        int atual = inicio;
+        while (true) {
+            if (campos == inicios.length) {
+                return campos + 1; // Mais campos do que o esperado, o leitor rejeita a linha
+            }
+            boolean aspas = atual < fim && buffer.get(atual) == ASPAS;
+            int fimCampo;
+            int proximo;
+            if (aspas) {
+                fimCampo = fimAspas(atual + 1, fim);
+                proximo = fimCampo + 1;
+                while (proximo < fim && buffer.get(proximo) != DELIMITADOR) {
+                    proximo++;
+                }
+                inicios[campos] = atual + 1;
+            } else {
+                fimCampo = atual;
+                while (fimCampo < fim && buffer.get(fimCampo) != DELIMITADOR) {
+                    fimCampo++;
+                }
+                proximo = fimCampo;
+                inicios[campos] = atual;
+            }
+            fins[campos] = fimCampo;
+            comAspas[campos] = aspas;
+            campos++;
+            if (proximo >= fim) {
+                return campos;
+            }
+            atual = proximo + 1;
+        }
+    }
+
+    public int quantidadeCampos() {
+        return campos;
+    }
+
+    /**
+     * @return {@code true} se o campo estiver vazio ou contiver apenas espaços.
+     */
+    public boolean vazio(int campo) {
+        return inicioSemEspacos(campo) >= fimSemEspacos(campo);
+    }
+
+    /**
+     * Converte o campo em inteiro sem criar objetos intermediários.
+     *
+     * @throws NumberFormatException se o campo não for um inteiro válido.
+     */
+    public int inteiro(int campo) {
+        int inicio = inicioSemEspacos(campo);
+        int fim = fimSemEspacos(campo);
+        if (inicio >= fim) {
+            throw new NumberFormatException("Campo " + campo + " vazio");
+        }
+        boolean negativo = false;
+        byte primeiro = buffer.get(inicio);
+        if (primeiro == '-' || primeiro == '+') {
+            negativo = primeiro == '-';
+            if (++inicio == fim) {
+                throw new NumberFormatException("Campo " + campo + " inválido: " + texto(campo));
+            }
+        }
+        long valor = 0;
+        for (int i = inicio; i < fim; i++) {
+            int digito = buffer.get(i) - '0';
+            if (digito < 0 || digito > 9) {
+                throw new NumberFormatException("Campo " + campo + " inválido: " + texto(campo));
+            }
+            valor = valor * 10 + digito;
+            if (valor > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("Campo " + campo + " fora do intervalo de int: " + texto(campo));
+            }
+        }
+        valor = negativo ? -valor : valor;
+        if (valor > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Campo " + campo + " fora do intervalo de int: " + texto(campo));
+        }
+        return (int) valor;
+    }
+
+    /**
+     * Decodifica o campo como texto UTF-8. Aspas duplicadas dentro de campos entre aspas são convertidas em uma só.
+     */
+    public String texto(int campo) {
+        int inicio = inicioSemEspacos(campo);
+        int fim = fimSemEspacos(campo);
+        int tamanho = fim - inicio;
+        if (tamanho <= 0) {
+            return "";
+        }
+        if (temporario.length < tamanho) {
+            temporario = new byte[Math.max(tamanho, temporario.length * 2)];
+        }
+        int copiados = 0;
+        for (int i = inicio; i < fim; i++) {
+            byte b = buffer.get(i);
+            temporario[copiados++] = b;
+            if (b == ASPAS && comAspas[campo] && i + 1 < fim && buffer.get(i + 1) == ASPAS) {
+                i++;
+            }
+        }
+        return new String(temporario, 0, copiados, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Dá acesso aos bytes do campo, sem espaços nas extremidades, para conversores especializados.
+     */
+    public byte byteEm(int campo, int deslocamento) {
+        return buffer.get(inicioSemEspacos(campo) + deslocamento);
+    }
+
+    public int tamanho(int campo) {
+        return Math.max(0, fimSemEspacos(campo) - inicioSemEspacos(campo));
+    }
+
+    private int fimAspas(int atual, int fim) {
+        while (atual < fim) {
+            if (buffer.get(atual) == ASPAS) {
+                if (atual + 1 < fim && buffer.get(atual + 1) == ASPAS) {
+                    atual += 2;
+                    continue;
+                }
+                return atual;
+            }
+            atual++;
+        }
+        return fim;
+    }
+
+    private int inicioSemEspacos(int campo) {
+        verificarCampo(campo);
+        int inicio = inicios[campo];
+        int fim = fins[campo];
+        while (inicio < fim && (buffer.get(inicio) & 0xFF) <= ' ') {
+            inicio++;
+        }
+        return inicio;
+    }
+
+    private int fimSemEspacos(int campo) {
+        verificarCampo(campo);
+        int inicio = inicios[campo];
+        int fim = fins[campo];
+        while (fim > inicio && (buffer.get(fim - 1) & 0xFF) <= ' ') {
+            fim--;
+        }
+        return fim;
+    }
+
+    private void verificarCampo(int campo) {
+        if (campo < 0 || campo >= campos) {
+            throw new IndexOutOfBoundsException("Campo " + campo + " inexistente, a linha possui " + campos + " campos");
+        }
+    }
+
+    /**
+     * @return Conteúdo da linha como texto, usado apenas em mensagens de erro.
+     */
+    static String conteudo(ByteBuffer buffer, int inicio, int fim) {
+        byte[] bytes = new byte[fim - inicio];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(inicio + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
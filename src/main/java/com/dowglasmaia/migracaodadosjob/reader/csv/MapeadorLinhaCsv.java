@@ -0,0 +1,12 @@
+package com.dowglasmaia.migracaodadosjob.reader.csv;
+
+/**
+ * Converte uma {@link LinhaCsv} em um item. A linha é reutilizada pelo leitor,
+ * então o mapeador não deve guardar referência a ela.
+ *
+ * @param <T> Tipo do item produzido.
+ */
+public interface MapeadorLinhaCsv<T> {
+
+    T mapear(LinhaCsv linha);
+}
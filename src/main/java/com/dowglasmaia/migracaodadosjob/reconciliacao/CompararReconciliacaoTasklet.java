@@ -0,0 +1,89 @@
+package com.dowglasmaia.migracaodadosjob.reconciliacao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Tasklet que compara os arquivos com as tabelas depois da carga, para cada tabela cujo arquivo está na execução.
+ * Com {@code falhar} habilitado, registros ausentes no banco ou divergentes falham o step, que pode ser repetido
+ * no restart sem reler os arquivos.
+ */
+public class CompararReconciliacaoTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(CompararReconciliacaoTasklet.class);
+
+    private final List<TabelaReconciliada<?>> tabelas;
+    private final DataSource dataSource;
+    private final Executor executor;
+    private final int consultas;
+    private final int largura;
+    private final boolean falhar;
+    private final JobExplorer jobExplorer;
+
+    /**
+     * @param tabelas     Reconciliações das tabelas migradas.
+     * @param dataSource  Fonte de dados das tabelas finais.
+     * @param executor    Executor das consultas paralelas.
+     * @param consultas   Quantidade de consultas de agregação paralelas por tabela.
+     * @param largura     Quantidade de ids de cada faixa.
+     * @param falhar      Se divergências de registros do arquivo falham o step.
+     * @param jobExplorer Consulta as execuções da instância do job, cujos rejeitados ficam fora da comparação.
+     */
+    public CompararReconciliacaoTasklet(List<TabelaReconciliada<?>> tabelas, DataSource dataSource, Executor executor,
+                                        int consultas, int largura, boolean falhar, JobExplorer jobExplorer) {
+        this.tabelas = tabelas;
+        this.dataSource = dataSource;
+        this.executor = executor;
+        this.consultas = consultas;
+        this.largura = largura;
+        this.falhar = falhar;
+        this.jobExplorer = jobExplorer;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws IOException, SQLException {
+        Map<String, Object> parametros = chunkContext.getStepContext().getJobParameters();
+        Object diretorio = parametros.get("diretorio.rejeitados");
+        Path rejeitados = Paths.get(diretorio != null ? diretorio.toString() : "files");
+        Set<Long> execucoes = new HashSet<>();
+        for (JobExecution execucao : jobExplorer.getJobExecutions(
+              chunkContext.getStepContext().getStepExecution().getJobExecution().getJobInstance())) {
+            execucoes.add(execucao.getId());
+        }
+
+        List<TabelaReconciliada.Resultado> falhas = new ArrayList<>();
+        for (TabelaReconciliada<?> tabela : tabelas) {
+            if (!tabela.temArquivo(parametros)) {
+                continue;
+            }
+            TabelaReconciliada.Resultado resultado = tabela.comparar(dataSource, executor, consultas, largura, rejeitados, execucoes);
+            tabela.fechar();
+            if (resultado.falhas() > 0) {
+                log.warn("Reconciliação divergente de {}", resultado);
+                falhas.add(resultado);
+            }
+        }
+        if (falhar && !falhas.isEmpty()) {
+            throw new IllegalStateException("Registros dos arquivos ausentes ou divergentes nas tabelas: " + falhas);
+        }
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -0,0 +1,36 @@
+package com.dowglasmaia.migracaodadosjob.reconciliacao;
+
+import java.util.Locale;
+
+/**
+ * Situação de um id divergente entre o arquivo e a tabela, encontrada na verificação linha a linha de uma faixa.
+ */
+public enum Divergencia {
+
+    /**
+     * O registro válido do arquivo não está na tabela nem nos arquivos de rejeitados.
+     */
+    AUSENTE_NO_BANCO,
+
+    /**
+     * A linha da tabela não está no arquivo, por exemplo de uma carga anterior.
+     */
+    SOMENTE_NO_BANCO,
+
+    /**
+     * O registro está nos dois lados, com campos diferentes.
+     */
+    DIVERGENTE,
+
+    /**
+     * O id aparece mais de uma vez no arquivo, com campos diferentes, e a tabela tem uma das versões.
+     */
+    DUPLICADO_NO_ARQUIVO;
+
+    /**
+     * @return Nome gravado no relatório de divergências.
+     */
+    public String getDescricao() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,94 @@
+package com.dowglasmaia.migracaodadosjob.reconciliacao;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Impressão de 64 bits de um registro que pode ser calculada igual dos dois lados da reconciliação: em Java, sobre
+ * o registro lido do arquivo, e no PostgreSQL, sobre a linha da tabela. É o início do MD5 dos campos convertidos
+ * em texto e separados por {@link #SEPARADOR}, lido como {@code bigint}:
+ * {@code ('x' || substr(md5(texto), 1, 16))::bit(64)::bigint}.
+ * <p>
+ * As somas das impressões de uma faixa de ids não dependem da ordem das linhas, então uma faixa igual nos dois lados
+ * tem a mesma quantidade e a mesma soma (módulo 2^64).
+ */
+public final class ImpressaoLinha {
+
+    /**
+     * Separador dos campos no texto do registro, o caractere de controle US (31).
+     */
+    public static final char SEPARADOR = '\u001f';
+
+    /**
+     * Formato das datas no texto do registro, igual ao {@code to_char(coluna, 'YYYY-MM-DD')} do PostgreSQL.
+     */
+    public static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("uuuu-MM-dd");
+
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 indisponível", e);
+        }
+    });
+
+    private ImpressaoLinha() {
+    }
+
+    /**
+     * @param texto Campos do registro, separados por {@link #SEPARADOR}.
+     * @return Os 8 primeiros bytes do MD5 do texto em UTF-8, como um {@code long} com sinal.
+     */
+    public static long de(CharSequence texto) {
+        byte[] md5 = MD5.get().digest(texto.toString().getBytes(StandardCharsets.UTF_8));
+        long impressao = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            impressao = impressao << 8 | (md5[i] & 0xff);
+        }
+        return impressao;
+    }
+
+    /**
+     * Acrescenta um campo ao texto do registro, depois do separador; {@code null} é um campo vazio,
+     * como o {@code coalesce} do SQL. O primeiro campo é acrescentado direto ao texto.
+     *
+     * @param texto Texto do registro, com os campos anteriores.
+     * @param campo Valor do campo.
+     * @return O próprio texto.
+     */
+    public static StringBuilder campo(StringBuilder texto, Object campo) {
+        texto.append(SEPARADOR);
+        if (campo instanceof LocalDate) {
+            return texto.append(FORMATO_DATA.format((LocalDate) campo));
+        }
+        return campo == null ? texto : texto.append(campo);
+    }
+
+    /**
+     * Monta a expressão SQL da impressão de uma linha.
+     *
+     * @param expressoes Expressões dos campos, na mesma ordem do texto montado em Java.
+     * @return Expressão {@code bigint} com a impressão da linha.
+     */
+    public static String sql(String... expressoes) {
+        StringBuilder texto = new StringBuilder();
+        for (String expressao : expressoes) {
+            if (texto.length() > 0) {
+                texto.append(" || chr(31) || ");
+            }
+            texto.append("coalesce((").append(expressao).append(")::text, '')");
+        }
+        return "('x' || substr(md5(" + texto + "), 1, 16))::bit(64)::bigint";
+    }
+
+    /**
+     * @param campo Coluna {@code date} ou {@code timestamp}.
+     * @return Expressão SQL da data da coluna no {@link #FORMATO_DATA}.
+     */
+    public static String data(String campo) {
+        return "to_char(" + campo + ", 'YYYY-MM-DD')";
+    }
+}
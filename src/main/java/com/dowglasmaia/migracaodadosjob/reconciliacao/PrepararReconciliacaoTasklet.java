@@ -0,0 +1,33 @@
+package com.dowglasmaia.migracaodadosjob.reconciliacao;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tasklet que inicia as reconciliações antes da leitura dos arquivos, descartando as impressões da execução anterior.
+ * No restart de um job cuja leitura falhou, este step já está concluído e as impressões gravadas são mantidas.
+ */
+public class PrepararReconciliacaoTasklet implements Tasklet {
+
+    private final List<TabelaReconciliada<?>> tabelas;
+
+    /**
+     * @param tabelas Reconciliações das tabelas migradas.
+     */
+    public PrepararReconciliacaoTasklet(List<TabelaReconciliada<?>> tabelas) {
+        this.tabelas = tabelas;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws IOException {
+        for (TabelaReconciliada<?> tabela : tabelas) {
+            tabela.iniciar();
+        }
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -0,0 +1,142 @@
+package com.dowglasmaia.migracaodadosjob.reconciliacao;
+
+import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import com.dowglasmaia.migracaodadosjob.entrada.TipoArquivo;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Configuração da reconciliação ({@code app.migracao.reconciliacao.habilitada}): ao fim do job, cada arquivo é relido
+ * em partições paralelas e comparado com a sua tabela por somas de {@link ImpressaoLinha} em faixas de ids,
+ * calculadas pelo próprio banco; só as faixas divergentes são comparadas linha a linha.
+ * As impressões usam {@code md5} e {@code to_char} do PostgreSQL.
+ */
+@Configuration
+public class ReconciliacaoConfig {
+
+    @Value("${app.migracao.reconciliacao.diretorio:files/reconciliacao}")
+    private String diretorio;
+
+    @Value("${app.migracao.arquivos.pessoas:files/pessoas.csv}")
+    private String arquivoPessoas;
+
+    @Value("${app.migracao.arquivos.dados-bancarios:files/dados_bancarios.csv}")
+    private String arquivoDadosBancarios;
+
+    /**
+     * Cria a reconciliação da tabela pessoa. As pessoas inválidas não são esperadas na tabela.
+     *
+     * @return Reconciliação de pessoas.
+     */
+    @Bean
+    public TabelaReconciliada<Pessoa> reconciliacaoPessoas() {
+        return new TabelaReconciliada<>(
+              "pessoa", // Nome do arquivo de impressões
+              "pessoa", // Tabela comparada com o arquivo
+              TipoArquivo.PESSOAS.getParametro(), arquivoPessoas, // Arquivo CSV da execução
+              Paths.get(diretorio), // Diretório das impressões
+              "pessoas_rejeitadas_banco.csv", // Recusados pelo banco, fora da comparação
+              null, // Pessoas não têm órfãos
+              "pessoas_divergentes.csv", // Relatório de divergências
+              new RegistroReconciliado<Pessoa>() {
+                  @Override
+                  public int id(Pessoa pessoa) {
+                      return pessoa.getId();
+                  }
+
+                  @Override
+                  public boolean esperado(Pessoa pessoa) {
+                      return pessoa.isValida();
+                  }
+
+                  @Override
+                  public CharSequence texto(Pessoa pessoa) {
+                      StringBuilder texto = new StringBuilder(96).append(pessoa.getId());
+                      ImpressaoLinha.campo(texto, pessoa.getNome());
+                      ImpressaoLinha.campo(texto, pessoa.getEmail());
+                      ImpressaoLinha.campo(texto, pessoa.getDataNascimento().toLocalDate()); // Só a data é gravada na tabela
+                      return ImpressaoLinha.campo(texto, pessoa.getIdade());
+                  }
+
+                  @Override
+                  public String[] colunas() {
+                      return new String[]{"id", "nome", "email", ImpressaoLinha.data("data_nascimento"), "idade"};
+                  }
+              }
+        );
+    }
+
+    /**
+     * Cria a reconciliação da tabela dados_bancarios. Os órfãos, com a integridade habilitada, não são esperados na tabela.
+     *
+     * @return Reconciliação de dados bancários.
+     */
+    @Bean
+    public TabelaReconciliada<DadosBancario> reconciliacaoDadosBancarios() {
+        return new TabelaReconciliada<>(
+              "dados_bancarios", // Nome do arquivo de impressões
+              "public.dados_bancarios", // Tabela comparada com o arquivo
+              TipoArquivo.DADOS_BANCARIOS.getParametro(), arquivoDadosBancarios, // Arquivo CSV da execução
+              Paths.get(diretorio), // Diretório das impressões
+              "dados_bancarios_rejeitados_banco.csv", // Recusados pelo banco, fora da comparação
+              "dados_bancarios_orfaos*.csv", // Órfãos da integridade, de todas as partições
+              "dados_bancarios_divergentes.csv", // Relatório de divergências
+              new RegistroReconciliado<DadosBancario>() {
+                  @Override
+                  public int id(DadosBancario dadosBancario) {
+                      return dadosBancario.getId();
+                  }
+
+                  @Override
+                  public boolean esperado(DadosBancario dadosBancario) {
+                      return true;
+                  }
+
+                  @Override
+                  public CharSequence texto(DadosBancario dadosBancario) {
+                      StringBuilder texto = new StringBuilder(48).append(dadosBancario.getId());
+                      ImpressaoLinha.campo(texto, dadosBancario.getPessoaId());
+                      ImpressaoLinha.campo(texto, dadosBancario.getAgencia());
+                      ImpressaoLinha.campo(texto, dadosBancario.getConta());
+                      return ImpressaoLinha.campo(texto, dadosBancario.getBanco());
+                  }
+
+                  @Override
+                  public String[] colunas() {
+                      return new String[]{"id", "pessoa_id", "agencia", "conta", "banco"};
+                  }
+              }
+        );
+    }
+
+    /**
+     * Cria o escritor dos steps de reconciliação de pessoas.
+     *
+     * @param reconciliacaoPessoas Reconciliação de pessoas.
+     * @return ReconciliacaoItemWriter de pessoas.
+     */
+    @Bean
+    public ReconciliacaoItemWriter<Pessoa> reconciliacaoPessoaWriter(
+          @Qualifier("reconciliacaoPessoas") TabelaReconciliada<Pessoa> reconciliacaoPessoas
+    ) {
+        return new ReconciliacaoItemWriter<>(reconciliacaoPessoas);
+    }
+
+    /**
+     * Cria o escritor dos steps de reconciliação de dados bancários.
+     *
+     * @param reconciliacaoDadosBancarios Reconciliação de dados bancários.
+     * @return ReconciliacaoItemWriter de dados bancários.
+     */
+    @Bean
+    public ReconciliacaoItemWriter<DadosBancario> reconciliacaoDadosBancarioWriter(
+          @Qualifier("reconciliacaoDadosBancarios") TabelaReconciliada<DadosBancario> reconciliacaoDadosBancarios
+    ) {
+        return new ReconciliacaoItemWriter<>(reconciliacaoDadosBancarios);
+    }
+}
@@ -0,0 +1,25 @@
+package com.dowglasmaia.migracaodadosjob.reconciliacao;
+
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.List;
+
+/**
+ * {@link ItemWriter} dos steps de reconciliação: não grava no banco, só registra a impressão de cada registro lido
+ * na {@link TabelaReconciliada}.
+ *
+ * @param <T> Tipo do registro.
+ */
+public class ReconciliacaoItemWriter<T> implements ItemWriter<T> {
+
+    private final TabelaReconciliada<T> tabela;
+
+    public ReconciliacaoItemWriter(TabelaReconciliada<T> tabela) {
+        this.tabela = tabela;
+    }
+
+    @Override
+    public void write(List<? extends T> items) {
+        tabela.lidos(items);
+    }
+}
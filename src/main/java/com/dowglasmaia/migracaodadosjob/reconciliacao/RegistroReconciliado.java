@@ -0,0 +1,32 @@
+package com.dowglasmaia.migracaodadosjob.reconciliacao;
+
+/**
+ * Descreve como um registro lido do arquivo é comparado com a linha da tabela na reconciliação.
+ *
+ * @param <T> Tipo do registro.
+ */
+public interface RegistroReconciliado<T> {
+
+    /**
+     * @param item Registro.
+     * @return Id do registro. Registros com id negativo não são reconciliados.
+     */
+    int id(T item);
+
+    /**
+     * @param item Registro.
+     * @return Se o registro deveria ter sido gravado na tabela; os inválidos vão para o arquivo de inválidos.
+     */
+    boolean esperado(T item);
+
+    /**
+     * @param item Registro.
+     * @return Campos do registro montados com {@link ImpressaoLinha#campo}, na ordem das colunas de {@link #colunas()}.
+     */
+    CharSequence texto(T item);
+
+    /**
+     * @return Expressões SQL das colunas da tabela, na ordem dos campos de {@link #texto}.
+     */
+    String[] colunas();
+}
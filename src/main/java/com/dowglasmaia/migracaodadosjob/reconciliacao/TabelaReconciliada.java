@@ -0,0 +1,515 @@
+package com.dowglasmaia.migracaodadosjob.reconciliacao;
+
+import com.dowglasmaia.migracaodadosjob.delta.ArquivoImpressoes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Reconciliação de uma tabela com o seu arquivo CSV, por somas de impressões em faixas de ids.
+ * <ol>
+ *     <li>Os steps de reconciliação leem o arquivo em partições paralelas e gravam a {@link ImpressaoLinha} de cada
+ *     registro esperado em um {@link ArquivoImpressoes} ({@code <nome>.impressoes}), endereçado pelo id.</li>
+ *     <li>{@link #comparar} soma as impressões do arquivo por faixa de ids, e o banco calcula as mesmas somas com
+ *     {@code GROUP BY id / largura}, em consultas paralelas sobre fatias dos ids.</li>
+ *     <li>Só as faixas com quantidade ou soma diferentes são verificadas linha a linha, com uma consulta por
+ *     intervalo de faixas divergentes; as divergências vão para {@code <diretorio.rejeitados>/<arquivoDivergencias>}.</li>
+ * </ol>
+ * Os ids dos arquivos de rejeitados da execução (recusados pelo banco e órfãos) não são esperados na tabela e ficam
+ * fora da comparação. Um id repetido no arquivo guarda a última impressão lida.
+ *
+ * @param <T> Tipo do registro.
+ */
+public class TabelaReconciliada<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(TabelaReconciliada.class);
+
+    private static final int TAMANHO_FETCH = 10000;
+
+    private final String nome;
+    private final String tabela;
+    private final String parametro;
+    private final String arquivoPadrao;
+    private final Path diretorio;
+    private final String arquivoRejeitadosBanco;
+    private final String padraoOrfaos;
+    private final String arquivoDivergencias;
+    private final RegistroReconciliado<T> registro;
+    private final String impressaoSql;
+
+    private final Set<Integer> duplicados = ConcurrentHashMap.newKeySet();
+
+    private volatile ArquivoImpressoes impressoes;
+
+    /**
+     * @param nome                   Nome da reconciliação, usado no nome do arquivo de impressões.
+     * @param tabela                 Tabela de destino.
+     * @param parametro              Parâmetro do job com o caminho do arquivo CSV da tabela.
+     * @param arquivoPadrao          Arquivo CSV usado quando o parâmetro não é informado.
+     * @param diretorio              Diretório do arquivo de impressões.
+     * @param arquivoRejeitadosBanco Arquivo dos registros recusados pelo banco, no diretório de rejeitados.
+     * @param padraoOrfaos           Padrão glob dos arquivos de órfãos no diretório de rejeitados, ou {@code null}.
+     * @param arquivoDivergencias    Relatório de divergências, no diretório de rejeitados.
+     * @param registro               Id, texto e colunas de cada registro.
+     */
+    public TabelaReconciliada(String nome, String tabela, String parametro, String arquivoPadrao, Path diretorio,
+                              String arquivoRejeitadosBanco, String padraoOrfaos, String arquivoDivergencias,
+                              RegistroReconciliado<T> registro) {
+        this.nome = nome;
+        this.tabela = tabela;
+        this.parametro = parametro;
+        this.arquivoPadrao = arquivoPadrao;
+        this.diretorio = diretorio;
+        this.arquivoRejeitadosBanco = arquivoRejeitadosBanco;
+        this.padraoOrfaos = padraoOrfaos;
+        this.arquivoDivergencias = arquivoDivergencias;
+        this.registro = registro;
+        this.impressaoSql = ImpressaoLinha.sql(registro.colunas());
+    }
+
+    /**
+     * @param parametros Parâmetros do job.
+     * @return Se a execução tem o arquivo desta tabela; uma execução da caixa de entrada recebe um tipo de arquivo por vez.
+     */
+    public boolean temArquivo(Map<String, Object> parametros) {
+        Object arquivo = parametros.get(parametro);
+        return !(arquivo != null ? arquivo.toString() : arquivoPadrao).isEmpty();
+    }
+
+    /**
+     * Inicia uma nova reconciliação, descartando as impressões da anterior.
+     */
+    public synchronized void iniciar() throws IOException {
+        fechar();
+        Files.createDirectories(diretorio);
+        Files.deleteIfExists(caminho());
+        duplicados.clear();
+        impressoes();
+    }
+
+    /**
+     * Grava a impressão dos registros lidos que deveriam estar na tabela. Um registro relido no restart de uma
+     * partição tem a mesma impressão; um id com impressões diferentes é marcado como duplicado no arquivo.
+     *
+     * @param itens Registros lidos do arquivo.
+     */
+    public void lidos(List<? extends T> itens) {
+        ArquivoImpressoes impressoes = impressoes();
+        for (T item : itens) {
+            int id = registro.id(item);
+            if (id < 0 || !registro.esperado(item)) {
+                continue;
+            }
+            long impressao = armazenavel(ImpressaoLinha.de(registro.texto(item)));
+            long anterior = impressoes.impressao(id);
+            if (anterior != ArquivoImpressoes.AUSENTE && anterior != impressao) {
+                duplicados.add(id);
+            }
+            impressoes.gravar(id, impressao);
+        }
+    }
+
+    /**
+     * Compara o arquivo com a tabela e grava o relatório de divergências.
+     *
+     * @param dataSource  Fonte de dados da tabela.
+     * @param executor    Executor das consultas paralelas.
+     * @param consultas   Quantidade de fatias de ids agregadas em paralelo no banco.
+     * @param largura     Quantidade de ids de cada faixa.
+     * @param rejeitados  Diretório de rejeitados da execução.
+     * @param execucoes   Execuções da instância do job, cujos recusados pelo banco ficam fora da comparação.
+     * @return Resultado da reconciliação.
+     */
+    public synchronized Resultado comparar(DataSource dataSource, Executor executor, int consultas, int largura,
+                                           Path rejeitados, Collection<Long> execucoes) throws IOException, SQLException {
+        long inicio = System.currentTimeMillis();
+        ArquivoImpressoes impressoes = impressoes();
+        BitSet ignorados = rejeitados(rejeitados, execucoes);
+        int limiteArquivo = impressoes.limite();
+        long limite = Math.max(limiteArquivo, maiorIdBanco(dataSource) + 1);
+        int faixas = (int) ((limite + largura - 1) / largura);
+
+        Resultado resultado = new Resultado(nome, faixas, largura);
+        resultado.ignorados = ignorados.cardinality();
+        long[] quantidadeArquivo = new long[faixas];
+        long[] somaArquivo = new long[faixas];
+        for (int id = 0; id < limiteArquivo; id++) {
+            long impressao = impressoes.impressao(id);
+            if (impressao != ArquivoImpressoes.AUSENTE && !ignorados.get(id)) {
+                quantidadeArquivo[id / largura]++;
+                somaArquivo[id / largura] += impressao;
+                resultado.registrosArquivo++;
+            }
+        }
+
+        long[] quantidadeBanco = new long[faixas];
+        long[] somaBanco = new long[faixas];
+        int fatias = Math.max(1, Math.min(consultas, faixas));
+        List<CompletableFuture<Void>> agregacoes = new ArrayList<>(fatias);
+        for (int fatia = 0; fatia < fatias; fatia++) {
+            int primeira = (int) ((long) faixas * fatia / fatias);
+            int ultima = (int) ((long) faixas * (fatia + 1) / fatias);
+            agregacoes.add(CompletableFuture.runAsync(() -> agregar(dataSource, ignorados, largura, primeira,
+                  ultima, quantidadeBanco, somaBanco), executor));
+        }
+        aguardar(agregacoes);
+
+        List<int[]> intervalos = new ArrayList<>();
+        for (int faixa = 0; faixa < faixas; faixa++) {
+            resultado.registrosBanco += quantidadeBanco[faixa];
+            if (quantidadeArquivo[faixa] == quantidadeBanco[faixa] && somaArquivo[faixa] == somaBanco[faixa]) {
+                continue;
+            }
+            resultado.faixasDivergentes++;
+            int[] ultimo = intervalos.isEmpty() ? null : intervalos.get(intervalos.size() - 1);
+            if (ultimo != null && ultimo[1] == faixa) {
+                ultimo[1] = faixa + 1; // Faixas divergentes consecutivas são verificadas na mesma consulta
+            } else {
+                intervalos.add(new int[]{faixa, faixa + 1});
+            }
+        }
+
+        List<CompletableFuture<List<long[]>>> verificacoes = new ArrayList<>(intervalos.size());
+        for (int[] intervalo : intervalos) {
+            long primeiroId = (long) intervalo[0] * largura;
+            long fimId = Math.min(limite, (long) intervalo[1] * largura);
+            verificacoes.add(CompletableFuture.supplyAsync(() -> verificar(dataSource, impressoes, ignorados,
+                  primeiroId, fimId), executor));
+        }
+        aguardar(verificacoes);
+        Path relatorio = rejeitados.resolve(arquivoDivergencias);
+        Files.deleteIfExists(relatorio);
+        for (CompletableFuture<List<long[]>> verificacao : verificacoes) {
+            for (long[] divergencia : verificacao.join()) {
+                resultado.contar(Divergencia.values()[(int) divergencia[1]]);
+            }
+        }
+        if (resultado.divergencias() > 0) {
+            try (BufferedWriter writer = Files.newBufferedWriter(relatorio, StandardCharsets.UTF_8)) {
+                writer.write("-- Estrutura: id,situacao");
+                writer.newLine();
+                for (CompletableFuture<List<long[]>> verificacao : verificacoes) {
+                    for (long[] divergencia : verificacao.join()) {
+                        writer.write(divergencia[0] + "," + Divergencia.values()[(int) divergencia[1]].getDescricao());
+                        writer.newLine();
+                    }
+                }
+            }
+        }
+        log.info("Reconciliação de {}: {} registros no arquivo e {} no banco em {} faixas de {} ids; {} faixas divergentes"
+                    + " verificadas linha a linha: {} ausentes no banco, {} somente no banco, {} divergentes,"
+                    + " {} duplicados no arquivo; {} rejeitados fora da comparação; {} ms",
+              nome, resultado.registrosArquivo, resultado.registrosBanco, faixas, largura, resultado.faixasDivergentes,
+              resultado.ausentesNoBanco, resultado.somenteNoBanco, resultado.divergentes, resultado.duplicadosDivergentes,
+              resultado.ignorados, System.currentTimeMillis() - inicio);
+        return resultado;
+    }
+
+    /**
+     * Fecha o arquivo de impressões, mantido em disco até a próxima reconciliação.
+     */
+    public synchronized void fechar() throws IOException {
+        if (impressoes != null) {
+            impressoes.close();
+            impressoes = null;
+        }
+    }
+
+    /**
+     * Soma as impressões das linhas das faixas {@code [primeira, ultima)}, com uma consulta agrupada por faixa.
+     * Os ids rejeitados ficam fora da soma, como do lado do arquivo.
+     */
+    private void agregar(DataSource dataSource, BitSet ignorados, int largura, int primeira, int ultima,
+                         long[] quantidades, long[] somas) {
+        String consulta = "SELECT id / ? AS faixa, count(*), sum(" + impressaoSql + ") FROM " + tabela
+              + " WHERE id >= ? AND id < ? AND NOT (id = ANY(?)) GROUP BY 1";
+        long primeiroId = (long) primeira * largura;
+        long fimId = (long) ultima * largura;
+        List<Integer> ignoradosFatia = new ArrayList<>();
+        for (int id = ignorados.nextSetBit((int) primeiroId); id >= 0 && id < fimId; id = ignorados.nextSetBit(id + 1)) {
+            ignoradosFatia.add(id);
+        }
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = conexao.prepareStatement(consulta)) {
+            statement.setInt(1, largura);
+            statement.setLong(2, primeiroId);
+            statement.setLong(3, fimId);
+            statement.setArray(4, conexao.createArrayOf("integer", ignoradosFatia.toArray()));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    int faixa = resultSet.getInt(1);
+                    quantidades[faixa] = resultSet.getLong(2);
+                    somas[faixa] = somaModulo64(resultSet.getBigDecimal(3));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao agregar as faixas " + primeira + " a " + ultima + " de " + tabela, e);
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+    }
+
+    /**
+     * Compara linha a linha os ids {@code [primeiroId, fimId)}, lendo as impressões da tabela por cursor.
+     *
+     * @return Pares {@code {id, ordinal da Divergencia}}, em ordem de id para os registros da tabela
+     * e depois para os ausentes no banco.
+     */
+    private List<long[]> verificar(DataSource dataSource, ArquivoImpressoes impressoes, BitSet ignorados,
+                                   long primeiroId, long fimId) {
+        List<long[]> divergencias = new ArrayList<>();
+        BitSet noBanco = new BitSet((int) (fimId - primeiroId));
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try {
+            boolean autoCommit = conexao.getAutoCommit();
+            conexao.setAutoCommit(false); // O PgJDBC só usa cursor (fetch size) fora do modo auto-commit
+            try (PreparedStatement statement = conexao.prepareStatement("SELECT id, " + impressaoSql + " FROM " + tabela
+                  + " WHERE id >= ? AND id < ? ORDER BY id")) {
+                statement.setFetchSize(TAMANHO_FETCH);
+                statement.setLong(1, primeiroId);
+                statement.setLong(2, fimId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        int id = resultSet.getInt(1);
+                        noBanco.set((int) (id - primeiroId));
+                        if (ignorados.get(id)) {
+                            continue;
+                        }
+                        long arquivo = impressoes.impressao(id);
+                        if (arquivo == ArquivoImpressoes.AUSENTE) {
+                            divergencias.add(new long[]{id, Divergencia.SOMENTE_NO_BANCO.ordinal()});
+                        } else if (arquivo != armazenavel(resultSet.getLong(2))) {
+                            Divergencia divergencia = duplicados.contains(id) ? Divergencia.DUPLICADO_NO_ARQUIVO : Divergencia.DIVERGENTE;
+                            divergencias.add(new long[]{id, divergencia.ordinal()});
+                        }
+                    }
+                }
+            } finally {
+                conexao.rollback();
+                conexao.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao verificar os ids " + primeiroId + " a " + fimId + " de " + tabela, e);
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+        int fimArquivo = (int) Math.min(fimId, impressoes.limite());
+        for (int id = (int) primeiroId; id < fimArquivo; id++) {
+            if (!noBanco.get((int) (id - primeiroId)) && !ignorados.get(id) && impressoes.impressao(id) != ArquivoImpressoes.AUSENTE) {
+                divergencias.add(new long[]{id, Divergencia.AUSENTE_NO_BANCO.ordinal()});
+            }
+        }
+        return divergencias;
+    }
+
+    private long maiorIdBanco(DataSource dataSource) throws SQLException {
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try (Statement statement = conexao.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT max(id) FROM " + tabela)) {
+            resultSet.next();
+            long maior = resultSet.getLong(1);
+            return resultSet.wasNull() ? -1 : maior;
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+    }
+
+    /**
+     * Lê os ids que não são esperados na tabela: os recusados pelo banco nas execuções da instância do job
+     * (linhas {@code execucao,id,...}) e os órfãos (linhas com o id na última coluna).
+     */
+    private BitSet rejeitados(Path rejeitados, Collection<Long> execucoes) throws IOException {
+        BitSet ids = new BitSet();
+        Path recusados = rejeitados.resolve(arquivoRejeitadosBanco);
+        if (Files.exists(recusados)) {
+            try (BufferedReader reader = Files.newBufferedReader(recusados, StandardCharsets.UTF_8)) {
+                for (String linha = reader.readLine(); linha != null; linha = reader.readLine()) {
+                    int primeira = linha.indexOf(',');
+                    int segunda = linha.indexOf(',', primeira + 1);
+                    if (primeira > 0 && segunda > primeira
+                          && execucoes.contains(Long.parseLong(linha.substring(0, primeira)))) {
+                        marcar(ids, linha.substring(primeira + 1, segunda));
+                    }
+                }
+            }
+        }
+        if (padraoOrfaos != null && Files.isDirectory(rejeitados)) {
+            try (DirectoryStream<Path> orfaos = Files.newDirectoryStream(rejeitados, padraoOrfaos)) {
+                for (Path arquivo : orfaos) {
+                    try (BufferedReader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+                        for (String linha = reader.readLine(); linha != null; linha = reader.readLine()) {
+                            marcar(ids, linha.substring(linha.lastIndexOf(',') + 1));
+                        }
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void marcar(BitSet ids, String id) {
+        try {
+            int valor = Integer.parseInt(id.trim());
+            if (valor >= 0) {
+                ids.set(valor);
+            }
+        } catch (NumberFormatException e) {
+            // Linha sem id numérico, como um cabeçalho
+        }
+    }
+
+    private static void aguardar(List<? extends CompletableFuture<?>> tarefas) throws SQLException {
+        try {
+            CompletableFuture.allOf(tarefas.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IllegalStateException && e.getCause().getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause().getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param soma Soma {@code numeric} das impressões, calculada pelo PostgreSQL sem overflow.
+     * @return Os 64 bits menos significativos da soma, iguais à soma dos {@code long} em Java, que dá a volta.
+     */
+    static long somaModulo64(BigDecimal soma) {
+        return soma.toBigInteger().longValue();
+    }
+
+    /**
+     * @return A impressão, fora dos valores reservados do {@link ArquivoImpressoes}.
+     */
+    private static long armazenavel(long impressao) {
+        return impressao == ArquivoImpressoes.AUSENTE || impressao == ArquivoImpressoes.VISTO ? impressao + 2 : impressao;
+    }
+
+    private ArquivoImpressoes impressoes() {
+        ArquivoImpressoes atual = impressoes;
+        if (atual == null) {
+            synchronized (this) {
+                if (impressoes == null) {
+                    try {
+                        Files.createDirectories(diretorio);
+                        impressoes = ArquivoImpressoes.gravar(caminho()); // Mantém as impressões já gravadas, no restart
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Falha ao abrir as impressões da reconciliação de " + nome, e);
+                    }
+                }
+                atual = impressoes;
+            }
+        }
+        return atual;
+    }
+
+    RegistroReconciliado<T> getRegistro() {
+        return registro;
+    }
+
+    private Path caminho() {
+        return diretorio.resolve(nome + ".impressoes");
+    }
+
+    /**
+     * Totais da reconciliação de uma tabela.
+     */
+    public static final class Resultado {
+
+        private final String nome;
+        private final int faixas;
+        private final int largura;
+        private long registrosArquivo;
+        private long registrosBanco;
+        private long faixasDivergentes;
+        private long ausentesNoBanco;
+        private long somenteNoBanco;
+        private long divergentes;
+        private long duplicadosDivergentes;
+        private long ignorados;
+
+        private Resultado(String nome, int faixas, int largura) {
+            this.nome = nome;
+            this.faixas = faixas;
+            this.largura = largura;
+        }
+
+        private void contar(Divergencia divergencia) {
+            switch (divergencia) {
+                case AUSENTE_NO_BANCO:
+                    ausentesNoBanco++;
+                    break;
+                case SOMENTE_NO_BANCO:
+                    somenteNoBanco++;
+                    break;
+                case DIVERGENTE:
+                    divergentes++;
+                    break;
+                default:
+                    duplicadosDivergentes++;
+            }
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public long getRegistrosArquivo() {
+            return registrosArquivo;
+        }
+
+        public long getRegistrosBanco() {
+            return registrosBanco;
+        }
+
+        public long getFaixasDivergentes() {
+            return faixasDivergentes;
+        }
+
+        /**
+         * @return Divergências de todas as situações.
+         */
+        public long divergencias() {
+            return ausentesNoBanco + somenteNoBanco + divergentes + duplicadosDivergentes;
+        }
+
+        /**
+         * @return Divergências que indicam um registro do arquivo que não chegou à tabela como foi lido.
+         */
+        public long falhas() {
+            return ausentesNoBanco + divergentes;
+        }
+
+        @Override
+        public String toString() {
+            return nome + ": " + ausentesNoBanco + " ausentes no banco, " + divergentes + " divergentes, "
+                  + somenteNoBanco + " somente no banco e " + duplicadosDivergentes + " duplicados no arquivo em "
+                  + faixasDivergentes + " de " + faixas + " faixas de " + largura + " ids";
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.dowglasmaia.migracaodadosjob.remoto;
+
+/**
+ * Partição publicada pelo gerenciador: identifica a execução de step já criada no repositório do job
+ * e o step worker que deve executá-la. O contexto da partição (arquivo e intervalo de bytes) é lido
+ * do próprio repositório pelo trabalhador.
+ */
+public final class DescritorParticao {
+
+    private final long jobExecutionId;
+    private final long stepExecutionId;
+    private final String nomeStep;
+
+    public DescritorParticao(long jobExecutionId, long stepExecutionId, String nomeStep) {
+        this.jobExecutionId = jobExecutionId;
+        this.stepExecutionId = stepExecutionId;
+        this.nomeStep = nomeStep;
+    }
+
+    public long getJobExecutionId() {
+        return jobExecutionId;
+    }
+
+    public long getStepExecutionId() {
+        return stepExecutionId;
+    }
+
+    public String getNomeStep() {
+        return nomeStep;
+    }
+
+    @Override
+    public String toString() {
+        return nomeStep + " (stepExecutionId=" + stepExecutionId + ", jobExecutionId=" + jobExecutionId + ")";
+    }
+}
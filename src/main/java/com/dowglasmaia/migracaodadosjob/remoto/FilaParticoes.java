@@ -0,0 +1,59 @@
+package com.dowglasmaia.migracaodadosjob.remoto;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transporte das partições entre o gerenciador, que as publica, e os trabalhadores, que as retiram para executar.
+ * O resultado de cada partição não passa pela fila: o trabalhador o grava no repositório do job,
+ * onde o gerenciador o consulta.
+ * <p>
+ * Enquanto executa uma partição, o trabalhador renova periodicamente o seu heartbeat. Uma partição sem heartbeat
+ * dentro do prazo é de um trabalhador que deixou de existir, e o gerenciador a recupera para registrá-la como falha.
+ */
+public interface FilaParticoes {
+
+    /**
+     * Publica uma partição para execução.
+     */
+    void publicar(DescritorParticao descritor);
+
+    /**
+     * Retira a próxima partição pendente de um dos steps informados. Cada partição é entregue a um único trabalhador.
+     *
+     * @param nomesSteps  Steps worker que o trabalhador sabe executar.
+     * @param trabalhador Identificação do trabalhador, para diagnóstico.
+     * @return Partição retirada, ou {@code null} se não houver partição pendente.
+     */
+    DescritorParticao retirar(Collection<String> nomesSteps, String trabalhador);
+
+    /**
+     * Renova o heartbeat das partições em execução pelo trabalhador.
+     *
+     * @param descritores Partições retiradas e ainda não concluídas.
+     */
+    void renovar(Collection<DescritorParticao> descritores);
+
+    /**
+     * Retira da execução as partições de um step cujo heartbeat não foi renovado dentro do prazo.
+     * Cada partição expirada é devolvida a um único chamador e não é mais renovada nem concluída pelo trabalhador.
+     *
+     * @param jobExecutionId Execução do job.
+     * @param nomeStep       Step worker das partições.
+     * @param prazoMs        Tempo máximo desde o último heartbeat.
+     * @return Partições expiradas.
+     */
+    List<DescritorParticao> expirar(long jobExecutionId, String nomeStep, long prazoMs);
+
+    /**
+     * Registra o fim da execução de uma partição retirada.
+     */
+    void concluir(DescritorParticao descritor);
+
+    /**
+     * Remove as partições ainda não retiradas de uma execução do job, quando o gerenciador desiste de aguardá-las.
+     *
+     * @return Quantidade de partições removidas.
+     */
+    int descartarPendentes(long jobExecutionId);
+}
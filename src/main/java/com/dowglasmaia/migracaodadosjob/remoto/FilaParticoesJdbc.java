@@ -0,0 +1,188 @@
+package com.dowglasmaia.migracaodadosjob.remoto;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link FilaParticoes} em uma tabela do banco do repositório do job, sem depender de um broker de mensagens.
+ * <p>
+ * Cada trabalhador retira uma partição com um único {@code UPDATE ... RETURNING} sobre a linha pendente mais antiga,
+ * selecionada com {@code FOR UPDATE SKIP LOCKED}: trabalhadores concorrentes nunca recebem a mesma partição
+ * e não esperam pelo bloqueio uns dos outros. As linhas concluídas ficam na tabela, com o trabalhador
+ * e os horários de cada partição, para diagnóstico.
+ * <p>
+ * O heartbeat é a coluna {@code heartbeat_em}, atualizada pelo trabalhador com o horário do banco, então o prazo
+ * não depende do relógio das máquinas. Uma partição expirada passa ao estado {@code EXPIRADA}, que o trabalhador
+ * não renova nem conclui.
+ */
+public class FilaParticoesJdbc implements FilaParticoes, InitializingBean {
+
+    private static final String TABELA = "migracao_fila_particao";
+
+    private final DataSource dataSource;
+
+    /**
+     * @param dataSource Fonte de dados do repositório do job, compartilhada por gerenciador e trabalhadores.
+     */
+    public FilaParticoesJdbc(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Cria a tabela da fila, se ainda não existir.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        executar("CREATE TABLE IF NOT EXISTS " + TABELA + " ("
+              + "id BIGSERIAL PRIMARY KEY, "
+              + "job_execution_id BIGINT NOT NULL, "
+              + "step_execution_id BIGINT NOT NULL, "
+              + "nome_step VARCHAR(100) NOT NULL, "
+              + "estado VARCHAR(10) NOT NULL, " // PENDENTE, EXECUTANDO, CONCLUIDA ou EXPIRADA
+              + "trabalhador VARCHAR(200), "
+              + "publicada_em TIMESTAMP NOT NULL DEFAULT now(), "
+              + "retirada_em TIMESTAMP, "
+              + "heartbeat_em TIMESTAMP, "
+              + "concluida_em TIMESTAMP)");
+        executar("ALTER TABLE " + TABELA + " ADD COLUMN IF NOT EXISTS heartbeat_em TIMESTAMP"); // Tabelas criadas antes do heartbeat
+        executar("CREATE INDEX IF NOT EXISTS " + TABELA + "_pendentes ON " + TABELA + " (id) WHERE estado = 'PENDENTE'");
+    }
+
+    @Override
+    public void publicar(DescritorParticao descritor) {
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = conexao.prepareStatement("INSERT INTO " + TABELA
+              + " (job_execution_id, step_execution_id, nome_step, estado) VALUES (?, ?, ?, 'PENDENTE')")) {
+            ps.setLong(1, descritor.getJobExecutionId());
+            ps.setLong(2, descritor.getStepExecutionId());
+            ps.setString(3, descritor.getNomeStep());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Falha ao publicar a partição " + descritor, e);
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+    }
+
+    @Override
+    public DescritorParticao retirar(Collection<String> nomesSteps, String trabalhador) {
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = conexao.prepareStatement("UPDATE " + TABELA
+              + " SET estado = 'EXECUTANDO', trabalhador = ?, retirada_em = now(), heartbeat_em = now()"
+              + " WHERE id = (SELECT id FROM " + TABELA + " WHERE estado = 'PENDENTE' AND nome_step = ANY (?)"
+              + " ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED)"
+              + " RETURNING job_execution_id, step_execution_id, nome_step")) {
+            Array nomes = conexao.createArrayOf("varchar", nomesSteps.toArray());
+            ps.setString(1, trabalhador);
+            ps.setArray(2, nomes);
+            try (ResultSet resultSet = ps.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                return new DescritorParticao(resultSet.getLong(1), resultSet.getLong(2), resultSet.getString(3));
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Falha ao retirar uma partição da fila", e);
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+    }
+
+    @Override
+    public void renovar(Collection<DescritorParticao> descritores) {
+        if (descritores.isEmpty()) {
+            return;
+        }
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = conexao.prepareStatement("UPDATE " + TABELA
+              + " SET heartbeat_em = now() WHERE step_execution_id = ANY (?) AND estado = 'EXECUTANDO'")) {
+            Long[] ids = new Long[descritores.size()];
+            int i = 0;
+            for (DescritorParticao descritor : descritores) {
+                ids[i++] = descritor.getStepExecutionId();
+            }
+            ps.setArray(1, conexao.createArrayOf("bigint", ids));
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Falha ao renovar o heartbeat das partições", e);
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+    }
+
+    @Override
+    public List<DescritorParticao> expirar(long jobExecutionId, String nomeStep, long prazoMs) {
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = conexao.prepareStatement("UPDATE " + TABELA
+              + " SET estado = 'EXPIRADA', concluida_em = now()"
+              + " WHERE job_execution_id = ? AND nome_step = ? AND estado = 'EXECUTANDO'"
+              + " AND heartbeat_em < now() - CAST(? AS DOUBLE PRECISION) * INTERVAL '1 millisecond'"
+              + " RETURNING job_execution_id, step_execution_id, nome_step")) {
+            ps.setLong(1, jobExecutionId);
+            ps.setString(2, nomeStep);
+            ps.setLong(3, prazoMs);
+            List<DescritorParticao> expiradas = new ArrayList<>();
+            try (ResultSet resultSet = ps.executeQuery()) {
+                while (resultSet.next()) {
+                    expiradas.add(new DescritorParticao(resultSet.getLong(1), resultSet.getLong(2), resultSet.getString(3)));
+                }
+            }
+            return expiradas;
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Falha ao expirar as partições sem heartbeat", e);
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+    }
+
+    @Override
+    public void concluir(DescritorParticao descritor) {
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = conexao.prepareStatement("UPDATE " + TABELA
+              + " SET estado = 'CONCLUIDA', concluida_em = now() WHERE step_execution_id = ? AND estado = 'EXECUTANDO'")) {
+            ps.setLong(1, descritor.getStepExecutionId());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Falha ao concluir a partição " + descritor, e);
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+    }
+
+    @Override
+    public int descartarPendentes(long jobExecutionId) {
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement ps = conexao.prepareStatement("DELETE FROM " + TABELA
+              + " WHERE job_execution_id = ? AND estado = 'PENDENTE'")) {
+            ps.setLong(1, jobExecutionId);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Falha ao descartar as partições pendentes", e);
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+    }
+
+    private void executar(String sql) {
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try (Statement statement = conexao.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Falha ao criar a tabela " + TABELA, e);
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.dowglasmaia.migracaodadosjob.remoto;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * {@link FilaParticoes} em memória, para o gerenciador e os trabalhadores na mesma JVM.
+ * Substitui a fila JDBC em desenvolvimento e testes, com o mesmo fluxo de publicação, retirada e consulta
+ * dos resultados no repositório do job.
+ * Não há heartbeat: o gerenciador e os trabalhadores estão na mesma JVM, então um não sobrevive ao outro.
+ */
+public class FilaParticoesLocal implements FilaParticoes {
+
+    private final LinkedList<DescritorParticao> pendentes = new LinkedList<>();
+
+    @Override
+    public synchronized void publicar(DescritorParticao descritor) {
+        pendentes.addLast(descritor);
+    }
+
+    @Override
+    public synchronized DescritorParticao retirar(Collection<String> nomesSteps, String trabalhador) {
+        Iterator<DescritorParticao> iterador = pendentes.iterator();
+        while (iterador.hasNext()) {
+            DescritorParticao descritor = iterador.next();
+            if (nomesSteps.contains(descritor.getNomeStep())) {
+                iterador.remove();
+                return descritor;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void renovar(Collection<DescritorParticao> descritores) {
+        // Os trabalhadores estão na mesma JVM do gerenciador
+    }
+
+    @Override
+    public List<DescritorParticao> expirar(long jobExecutionId, String nomeStep, long prazoMs) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void concluir(DescritorParticao descritor) {
+        // A partição já saiu da fila ao ser retirada
+    }
+
+    @Override
+    public synchronized int descartarPendentes(long jobExecutionId) {
+        int descartadas = 0;
+        Iterator<DescritorParticao> iterador = pendentes.iterator();
+        while (iterador.hasNext()) {
+            if (iterador.next().getJobExecutionId() == jobExecutionId) {
+                iterador.remove();
+                descartadas++;
+            }
+        }
+        return descartadas;
+    }
+}
@@ -0,0 +1,17 @@
+package com.dowglasmaia.migracaodadosjob.remoto;
+
+/**
+ * Papel da JVM no particionamento remoto, selecionado em {@code app.migracao.particionamento.remoto.papel}.
+ */
+public enum PapelParticionamento {
+
+    /**
+     * Executa o job e publica as partições dos steps particionados.
+     */
+    GERENCIADOR,
+
+    /**
+     * Não executa o job: apenas retira e executa partições publicadas pelo gerenciador.
+     */
+    TRABALHADOR
+}
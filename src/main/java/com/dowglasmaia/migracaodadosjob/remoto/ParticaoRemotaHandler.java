@@ -0,0 +1,122 @@
+package com.dowglasmaia.migracaodadosjob.remoto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link PartitionHandler} do gerenciador do particionamento remoto.
+ * <p>
+ * As execuções das partições são criadas no repositório do job pelo {@link StepExecutionSplitter}, como no
+ * particionamento local, e publicadas na {@link FilaParticoes}. Os trabalhadores, em qualquer JVM ligada ao mesmo
+ * repositório, retiram e executam as partições e gravam o resultado no próprio repositório, que o gerenciador consulta
+ * a cada intervalo até que nenhuma partição esteja em execução.
+ * <p>
+ * A cada consulta, as partições cujo trabalhador deixou de renovar o heartbeat dentro de {@code prazoHeartbeatMs}
+ * são retiradas da fila e registradas como {@link BatchStatus#FAILED}, então o step falha e o restart do job
+ * as executa de novo. Se o trabalhador ainda estiver vivo, a sua próxima gravação da partição é recusada
+ * pelo controle de versão do repositório.
+ */
+public class ParticaoRemotaHandler implements PartitionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticaoRemotaHandler.class);
+
+    private final FilaParticoes fila;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final String nomeStepWorker;
+    private final int gridSize;
+    private final long intervaloMs;
+    private final long tempoLimiteMs;
+    private final long prazoHeartbeatMs;
+
+    /**
+     * @param fila             Transporte das partições.
+     * @param jobExplorer      Consulta do repositório do job, onde os trabalhadores gravam os resultados.
+     * @param jobRepository    Repositório onde as partições de trabalhadores sem heartbeat são registradas como falha.
+     * @param nomeStepWorker   Step worker executado pelos trabalhadores para cada partição.
+     * @param gridSize         Quantidade de partições.
+     * @param intervaloMs      Intervalo entre as consultas do resultado das partições.
+     * @param tempoLimiteMs    Tempo máximo de espera pelas partições; 0 aguarda indefinidamente.
+     * @param prazoHeartbeatMs Tempo máximo desde o último heartbeat de uma partição em execução.
+     */
+    public ParticaoRemotaHandler(FilaParticoes fila, JobExplorer jobExplorer, JobRepository jobRepository, String nomeStepWorker,
+                                 int gridSize, long intervaloMs, long tempoLimiteMs, long prazoHeartbeatMs) {
+        this.fila = fila;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.nomeStepWorker = nomeStepWorker;
+        this.gridSize = gridSize;
+        this.intervaloMs = intervaloMs;
+        this.tempoLimiteMs = tempoLimiteMs;
+        this.prazoHeartbeatMs = prazoHeartbeatMs;
+    }
+
+    @Override
+    public Collection<StepExecution> handle(StepExecutionSplitter stepSplitter, StepExecution managerStepExecution) throws Exception {
+        Set<StepExecution> particoes = stepSplitter.split(managerStepExecution, gridSize);
+        long jobExecutionId = managerStepExecution.getJobExecutionId();
+        for (StepExecution particao : particoes) {
+            fila.publicar(new DescritorParticao(jobExecutionId, particao.getId(), nomeStepWorker));
+        }
+        log.info("{} partições de {} publicadas para os trabalhadores", particoes.size(), nomeStepWorker);
+        long limite = tempoLimiteMs > 0 ? System.currentTimeMillis() + tempoLimiteMs : Long.MAX_VALUE;
+        while (true) {
+            for (DescritorParticao expirada : fila.expirar(jobExecutionId, nomeStepWorker, prazoHeartbeatMs)) {
+                falhar(expirada);
+            }
+            List<StepExecution> resultados = new ArrayList<>(particoes.size());
+            boolean emExecucao = false;
+            for (StepExecution particao : particoes) {
+                StepExecution atual = jobExplorer.getStepExecution(jobExecutionId, particao.getId());
+                emExecucao |= emExecucao(atual.getStatus());
+                resultados.add(atual);
+            }
+            if (!emExecucao) {
+                return resultados;
+            }
+            if (System.currentTimeMillis() > limite) {
+                int descartadas = fila.descartarPendentes(jobExecutionId);
+                throw new TimeoutException("Partições de " + nomeStepWorker + " não concluídas em " + tempoLimiteMs
+                      + " ms (" + descartadas + " ainda não retiradas por nenhum trabalhador)");
+            }
+            Thread.sleep(intervaloMs);
+        }
+    }
+
+    /**
+     * Registra como falha a partição de um trabalhador sem heartbeat, se ela ainda não tiver terminado.
+     */
+    private void falhar(DescritorParticao descritor) {
+        StepExecution particao = jobExplorer.getStepExecution(descritor.getJobExecutionId(), descritor.getStepExecutionId());
+        if (particao == null || !emExecucao(particao.getStatus())) {
+            return; // O trabalhador gravou o resultado antes de expirar
+        }
+        String motivo = "Trabalhador sem heartbeat há mais de " + prazoHeartbeatMs + " ms";
+        log.warn("Partição {} registrada como falha: {}", descritor, motivo);
+        particao.setStatus(BatchStatus.FAILED);
+        particao.setExitStatus(ExitStatus.FAILED.addExitDescription(motivo));
+        particao.setEndTime(new Date());
+        jobRepository.update(particao);
+    }
+
+    /**
+     * Partições recém-criadas ficam em {@link BatchStatus#STARTING} até que um trabalhador as inicie.
+     */
+    private static boolean emExecucao(BatchStatus status) {
+        return status.isRunning() || status == BatchStatus.STOPPING;
+    }
+}
@@ -0,0 +1,164 @@
+package com.dowglasmaia.migracaodadosjob.remoto;
+
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuração do particionamento remoto ({@code app.migracao.particionamento.remoto.habilitado}), usado pelos
+ * steps particionados no lugar das partições locais: o gerenciador publica as partições em uma {@link FilaParticoes}
+ * e JVMs trabalhadoras, ligadas ao mesmo repositório do job, as executam.
+ * <p>
+ * Por padrão a JVM gerenciadora também executa partições, então cada JVM trabalhadora adicionada soma o seu
+ * pool de partições ao do gerenciador.
+ */
+@Configuration
+public class ParticionamentoRemotoConfig {
+
+    @Value("${app.migracao.particionamento.remoto.habilitado:false}")
+    private boolean habilitado;
+
+    @Value("${app.migracao.particionamento.remoto.papel:gerenciador}")
+    private PapelParticionamento papel;
+
+    @Value("${app.migracao.particionamento.remoto.transporte:jdbc}")
+    private TransporteParticoes transporte;
+
+    @Value("${app.migracao.particionamento.remoto.trabalhador-no-gerenciador:true}")
+    private boolean trabalhadorNoGerenciador;
+
+    @Value("${app.migracao.particionamento.remoto.intervalo-ms:500}")
+    private long intervaloMs;
+
+    @Value("${app.migracao.particionamento.remoto.tempo-limite-ms:14400000}")
+    private long tempoLimiteMs;
+
+    @Value("${app.migracao.particionamento.remoto.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    @Value("${app.migracao.particionamento.remoto.prazo-heartbeat-ms:60000}")
+    private long prazoHeartbeatMs;
+
+    @Value("${app.migracao.particionamento.remoto.ocioso-maximo-ms:0}")
+    private long ociosoMaximoMs;
+
+    @Value("${app.migracao.particionamento.grid-size:4}")
+    private int gridSize;
+
+    /**
+     * Cria o transporte das partições configurado. Com o particionamento remoto desabilitado, a fila local
+     * evita criar a tabela da fila JDBC sem necessidade.
+     *
+     * @param dataSource Fonte de dados do repositório do job, onde fica a tabela da fila JDBC.
+     * @return Fila de partições.
+     */
+    @Bean
+    public FilaParticoes filaParticoes(@Qualifier("springDataSource") DataSource dataSource) {
+        if (!habilitado || transporte == TransporteParticoes.LOCAL) {
+            return new FilaParticoesLocal();
+        }
+        return new FilaParticoesJdbc(dataSource);
+    }
+
+    /**
+     * Cria o {@link PartitionHandler} remoto do step de pessoas.
+     *
+     * @param filaParticoes Fila de partições.
+     * @param jobExplorer   Consulta do repositório do job.
+     * @param jobRepository Repositório do job.
+     * @return PartitionHandler que publica as partições de {@code migrarPessoaWorkerStep}.
+     */
+    @Bean
+    public PartitionHandler pessoaParticaoRemotaHandler(
+          @Qualifier("filaParticoes") FilaParticoes filaParticoes,
+          JobExplorer jobExplorer,
+          JobRepository jobRepository
+    ) {
+        return new ParticaoRemotaHandler(filaParticoes, jobExplorer, jobRepository, "migrarPessoaWorkerStep", gridSize,
+              intervaloMs, tempoLimiteMs, prazoHeartbeatMs);
+    }
+
+    /**
+     * Cria o {@link PartitionHandler} remoto do step de dados bancários.
+     *
+     * @param filaParticoes Fila de partições.
+     * @param jobExplorer   Consulta do repositório do job.
+     * @param jobRepository Repositório do job.
+     * @return PartitionHandler que publica as partições de {@code migrarDadosBancariosWorkerStep}.
+     */
+    @Bean
+    public PartitionHandler dadosBancariosParticaoRemotaHandler(
+          @Qualifier("filaParticoes") FilaParticoes filaParticoes,
+          JobExplorer jobExplorer,
+          JobRepository jobRepository
+    ) {
+        return new ParticaoRemotaHandler(filaParticoes, jobExplorer, jobRepository, "migrarDadosBancariosWorkerStep", gridSize,
+              intervaloMs, tempoLimiteMs, prazoHeartbeatMs);
+    }
+
+    /**
+     * Cria o trabalhador que executa as partições nesta JVM. Fica habilitado nas JVMs trabalhadoras e no gerenciador,
+     * exceto com {@code trabalhador-no-gerenciador: false} e o transporte JDBC, já que a fila local só é consumida
+     * na própria JVM.
+     *
+     * @param filaParticoes                  Fila de partições.
+     * @param jobExplorer                    Consulta do repositório do job.
+     * @param jobRepository                  Repositório do job.
+     * @param migrarPessoaWorkerStep         Step worker de pessoas.
+     * @param migrarDadosBancariosWorkerStep Step worker de dados bancários.
+     * @param particaoTaskExecutor           Executor das partições, que limita as partições simultâneas desta JVM.
+     * @return Trabalhador das partições.
+     */
+    @Bean(initMethod = "iniciar", destroyMethod = "parar")
+    public TrabalhadorParticoes trabalhadorParticoes(
+          @Qualifier("filaParticoes") FilaParticoes filaParticoes,
+          JobExplorer jobExplorer,
+          JobRepository jobRepository,
+          @Qualifier("migrarPessoaWorkerStep") Step migrarPessoaWorkerStep,
+          @Qualifier("migrarDadosBancariosWorkerStep") Step migrarDadosBancariosWorkerStep,
+          @Qualifier("particaoTaskExecutor") ThreadPoolTaskExecutor particaoTaskExecutor
+    ) {
+        Map<String, Step> steps = new LinkedHashMap<>();
+        steps.put(migrarPessoaWorkerStep.getName(), migrarPessoaWorkerStep);
+        steps.put(migrarDadosBancariosWorkerStep.getName(), migrarDadosBancariosWorkerStep);
+        boolean executaParticoes = habilitado && (papel == PapelParticionamento.TRABALHADOR
+              || trabalhadorNoGerenciador || transporte == TransporteParticoes.LOCAL);
+        return new TrabalhadorParticoes(
+              filaParticoes, jobExplorer, jobRepository, steps,
+              particaoTaskExecutor, // Executa as partições retiradas da fila
+              executaParticoes ? particaoTaskExecutor.getMaxPoolSize() : 0, // Uma partição por thread do executor
+              intervaloMs, ociosoMaximoMs, heartbeatMs
+        );
+    }
+
+    /**
+     * Mantém a JVM trabalhadora em execução enquanto o trabalhador consulta a fila. Nas JVMs trabalhadoras
+     * o job não é executado ({@code spring.batch.job.enabled: false}, no profile {@code trabalhador}).
+     *
+     * @param trabalhadorParticoes Trabalhador das partições.
+     * @return ApplicationRunner que aguarda o fim do trabalhador.
+     */
+    @Bean
+    public ApplicationRunner trabalhadorParticoesRunner(@Qualifier("trabalhadorParticoes") TrabalhadorParticoes trabalhadorParticoes) {
+        return new ApplicationRunner() {
+            @Override
+            public void run(ApplicationArguments args) throws Exception {
+                if (habilitado && papel == PapelParticionamento.TRABALHADOR) {
+                    trabalhadorParticoes.aguardar();
+                }
+            }
+        };
+    }
+}
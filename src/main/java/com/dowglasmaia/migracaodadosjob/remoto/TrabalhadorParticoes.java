@@ -0,0 +1,199 @@
+package com.dowglasmaia.migracaodadosjob.remoto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.core.task.TaskExecutor;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trabalhador do particionamento remoto: retira partições da {@link FilaParticoes} e executa o step worker
+ * correspondente sobre a execução de step criada pelo gerenciador, como o {@code StepExecutionRequestHandler}
+ * do Spring Batch Integration.
+ * <p>
+ * Retira no máximo uma partição por permissão disponível, então nunca acumula mais partições do que consegue
+ * executar em paralelo e as demais ficam na fila para outros trabalhadores. As partições são executadas no
+ * executor informado, limitado pelas conexões dos pools, e o resultado de cada uma é gravado no repositório
+ * do job pelo próprio step.
+ * <p>
+ * A mesma thread que consulta a fila renova, a cada {@code heartbeatMs}, o heartbeat das partições em execução.
+ * Se a JVM do trabalhador terminar, o heartbeat para e o gerenciador registra as partições como falha.
+ */
+public class TrabalhadorParticoes {
+
+    private static final Logger log = LoggerFactory.getLogger(TrabalhadorParticoes.class);
+
+    private final FilaParticoes fila;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final Map<String, Step> steps;
+    private final TaskExecutor executor;
+    private final Semaphore permissoes;
+    private final int concorrencia;
+    private final long intervaloMs;
+    private final long ociosoMaximoMs;
+    private final long heartbeatMs;
+    private final String identificacao;
+    private final Set<DescritorParticao> emExecucao = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ativo;
+    private Thread thread;
+
+    /**
+     * @param fila           Transporte das partições.
+     * @param jobExplorer    Consulta das execuções de step criadas pelo gerenciador.
+     * @param jobRepository  Repositório onde as partições com falha fora do step são registradas.
+     * @param steps          Steps worker por nome.
+     * @param executor       Executor das partições.
+     * @param concorrencia   Partições executadas ao mesmo tempo, no máximo o tamanho do executor; 0 desabilita o trabalhador.
+     * @param intervaloMs    Intervalo entre as consultas à fila quando não há partição pendente.
+     * @param ociosoMaximoMs Tempo sem partições após o qual o trabalhador termina; 0 executa até o fim da JVM.
+     * @param heartbeatMs    Intervalo entre as renovações do heartbeat das partições em execução.
+     */
+    public TrabalhadorParticoes(FilaParticoes fila, JobExplorer jobExplorer, JobRepository jobRepository,
+                                Map<String, Step> steps, TaskExecutor executor, int concorrencia,
+                                long intervaloMs, long ociosoMaximoMs, long heartbeatMs) {
+        this.fila = fila;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.steps = steps;
+        this.executor = executor;
+        this.concorrencia = concorrencia;
+        this.permissoes = new Semaphore(concorrencia);
+        this.intervaloMs = intervaloMs;
+        this.ociosoMaximoMs = ociosoMaximoMs;
+        this.heartbeatMs = heartbeatMs;
+        this.identificacao = ManagementFactory.getRuntimeMXBean().getName(); // pid@host
+    }
+
+    /**
+     * Inicia a consulta à fila em uma thread daemon, se o trabalhador estiver habilitado.
+     */
+    public synchronized void iniciar() {
+        if (concorrencia <= 0) {
+            return;
+        }
+        ativo = true;
+        thread = new Thread(this::consultar, "trabalhador-particoes");
+        thread.setDaemon(true); // Na JVM do gerenciador, não impede o encerramento ao fim do job
+        thread.start();
+        log.info("Trabalhador {} aguardando partições de {}, {} por vez", identificacao, steps.keySet(), concorrencia);
+    }
+
+    /**
+     * Bloqueia até que o trabalhador termine por ociosidade, mantendo viva a JVM de um trabalhador dedicado.
+     */
+    public void aguardar() throws InterruptedException {
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Interrompe a consulta à fila. As partições em execução continuam até o fim.
+     */
+    public synchronized void parar() {
+        ativo = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void consultar() {
+        long ultimaAtividade = System.currentTimeMillis();
+        long ultimoHeartbeat = System.currentTimeMillis();
+        try {
+            while (ativo) {
+                if (System.currentTimeMillis() - ultimoHeartbeat >= heartbeatMs) {
+                    renovar();
+                    ultimoHeartbeat = System.currentTimeMillis();
+                }
+                if (!permissoes.tryAcquire(intervaloMs, TimeUnit.MILLISECONDS)) {
+                    continue; // Todas as threads ocupadas: aguarda sem deixar de renovar o heartbeat
+                }
+                DescritorParticao descritor;
+                try {
+                    descritor = fila.retirar(steps.keySet(), identificacao);
+                } catch (RuntimeException e) {
+                    permissoes.release();
+                    log.warn("Falha ao consultar a fila de partições: {}", e.getMessage());
+                    Thread.sleep(intervaloMs);
+                    continue;
+                }
+                if (descritor == null) {
+                    boolean ocioso = permissoes.availablePermits() == concorrencia - 1; // Nenhuma outra partição em execução
+                    permissoes.release();
+                    if (!ocioso) {
+                        ultimaAtividade = System.currentTimeMillis();
+                    } else if (ociosoMaximoMs > 0 && System.currentTimeMillis() - ultimaAtividade > ociosoMaximoMs) {
+                        log.info("Trabalhador {} encerrado após {} ms sem partições", identificacao, ociosoMaximoMs);
+                        return;
+                    }
+                    Thread.sleep(intervaloMs);
+                    continue;
+                }
+                ultimaAtividade = System.currentTimeMillis();
+                emExecucao.add(descritor);
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            executar(descritor);
+                        } finally {
+                            emExecucao.remove(descritor);
+                            permissoes.release();
+                        }
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Renova o heartbeat das partições em execução. Uma falha é só registrada: o heartbeat seguinte tenta de novo,
+     * e as partições só expiram se as falhas durarem mais que o prazo do gerenciador.
+     */
+    private void renovar() {
+        try {
+            fila.renovar(new ArrayList<>(emExecucao)); // Cópia: as partições podem terminar durante a renovação
+        } catch (RuntimeException e) {
+            log.warn("Falha ao renovar o heartbeat das partições: {}", e.getMessage());
+        }
+    }
+
+    private void executar(DescritorParticao descritor) {
+        StepExecution stepExecution = jobExplorer.getStepExecution(descritor.getJobExecutionId(), descritor.getStepExecutionId());
+        if (stepExecution == null) {
+            log.warn("Partição {} não encontrada no repositório do job", descritor);
+            fila.concluir(descritor);
+            return;
+        }
+        log.info("Executando a partição {} ({})", stepExecution.getStepName(), descritor);
+        try {
+            steps.get(descritor.getNomeStep()).execute(stepExecution);
+        } catch (JobInterruptedException e) {
+            stepExecution.setStatus(BatchStatus.STOPPED);
+            jobRepository.update(stepExecution);
+        } catch (Throwable e) {
+            stepExecution.addFailureException(e); // Falha fora do step, que não chegou a registrar o resultado
+            stepExecution.setStatus(BatchStatus.FAILED);
+            jobRepository.update(stepExecution);
+        } finally {
+            fila.concluir(descritor);
+        }
+    }
+}
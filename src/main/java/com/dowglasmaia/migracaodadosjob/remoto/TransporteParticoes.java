@@ -0,0 +1,17 @@
+package com.dowglasmaia.migracaodadosjob.remoto;
+
+/**
+ * Transporte das partições do particionamento remoto, selecionado em {@code app.migracao.particionamento.remoto.transporte}.
+ */
+public enum TransporteParticoes {
+
+    /**
+     * {@link FilaParticoesJdbc}: tabela no banco do repositório do job, compartilhada entre JVMs.
+     */
+    JDBC,
+
+    /**
+     * {@link FilaParticoesLocal}: fila em memória, com as partições executadas na própria JVM do gerenciador.
+     */
+    LOCAL
+}
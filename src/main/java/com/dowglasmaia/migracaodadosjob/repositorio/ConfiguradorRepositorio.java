@@ -0,0 +1,90 @@
+package com.dowglasmaia.migracaodadosjob.repositorio;
+
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.batch.BasicBatchConfigurer;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+
+/**
+ * {@link org.springframework.batch.core.configuration.annotation.BatchConfigurer} do job, que cria o repositório
+ * com a durabilidade de {@link ModoRepositorio}. No modo {@link ModoRepositorio#COMPLETO} é o configurador padrão
+ * do Spring Boot.
+ * <p>
+ * No modo {@link ModoRepositorio#MEMORIA}, o repositório é o JDBC do Spring Batch sobre um banco H2 em memória,
+ * exclusivo do contexto e descartado com ele, no lugar do {@code MapJobRepositoryFactoryBean}, que está depreciado
+ * e não é adequado a jobs com split e partições em paralelo.
+ */
+public class ConfiguradorRepositorio extends BasicBatchConfigurer implements DisposableBean {
+
+    private static final String SCHEMA_H2 = "org/springframework/batch/core/schema-h2.sql";
+
+    private final ModoRepositorio modo;
+    private final int aCadaChunks;
+    private final long intervaloMs;
+    private final EmbeddedDatabase bancoMemoria;
+
+    /**
+     * @param properties                    Propriedades {@code spring.batch}.
+     * @param dataSource                    Fonte de dados do repositório JDBC, exceto no modo memória.
+     * @param transactionManagerCustomizers Customizações do gerenciador de transações.
+     * @param modo                          Durabilidade do repositório.
+     * @param aCadaChunks                   Chunks por gravação do progresso, nos modos coalescido e memória.
+     * @param intervaloMs                   Intervalo máximo entre as gravações do progresso, nos modos coalescido e memória.
+     */
+    public ConfiguradorRepositorio(BatchProperties properties, DataSource dataSource,
+                                   TransactionManagerCustomizers transactionManagerCustomizers,
+                                   ModoRepositorio modo, int aCadaChunks, long intervaloMs) {
+        this(properties, dataSource, transactionManagerCustomizers, modo, aCadaChunks, intervaloMs,
+              modo == ModoRepositorio.MEMORIA ? criarBancoMemoria() : null);
+    }
+
+    private ConfiguradorRepositorio(BatchProperties properties, DataSource dataSource,
+                                    TransactionManagerCustomizers transactionManagerCustomizers,
+                                    ModoRepositorio modo, int aCadaChunks, long intervaloMs, EmbeddedDatabase bancoMemoria) {
+        super(properties, bancoMemoria != null ? bancoMemoria : dataSource, transactionManagerCustomizers);
+        this.modo = modo;
+        this.aCadaChunks = aCadaChunks;
+        this.intervaloMs = intervaloMs;
+        this.bancoMemoria = bancoMemoria;
+    }
+
+    /**
+     * Cria o banco H2 em memória do modo memória, com o schema do Spring Batch. O nome único evita que dois contextos
+     * na mesma JVM compartilhem o banco. Os commits de chunk abrem transação nesse banco, e não no springDataSource.
+     */
+    private static EmbeddedDatabase criarBancoMemoria() {
+        return new EmbeddedDatabaseBuilder()
+              .setType(EmbeddedDatabaseType.H2)
+              .generateUniqueName(true)
+              .addScript(SCHEMA_H2)
+              .build();
+    }
+
+    @Override
+    protected JobRepository createJobRepository() throws Exception {
+        switch (modo) {
+            case MEMORIA:
+                // Nenhuma gravação é recuperável, então o progresso também é agrupado, evitando a cópia do contexto a cada chunk
+            case COALESCIDO:
+                return new RepositorioCoalescido(super.createJobRepository(), aCadaChunks, intervaloMs);
+            default:
+                return super.createJobRepository();
+        }
+    }
+
+    /**
+     * Descarta o banco em memória do modo memória com o contexto.
+     */
+    @Override
+    public void destroy() {
+        if (bancoMemoria != null) {
+            bancoMemoria.shutdown();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.dowglasmaia.migracaodadosjob.repositorio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.repository.dao.AbstractJdbcBatchMetadataDao;
+import org.springframework.boot.autoconfigure.batch.BatchDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Inicializador do schema do repositório do job que, com {@code somenteSeAusente}, só executa o script do
+ * Spring Batch quando a tabela {@code BATCH_JOB_INSTANCE} ainda não existe. Com {@code initialize-schema: always},
+ * o inicializador do Spring Boot executa todos os comandos do script a cada inicialização e ignora os erros das
+ * tabelas e sequências já existentes.
+ */
+public class InicializadorSchemaRepositorio extends BatchDataSourceScriptDatabaseInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(InicializadorSchemaRepositorio.class);
+
+    private final DataSource dataSource;
+    private final BatchProperties.Jdbc properties;
+    private final boolean somenteSeAusente;
+
+    /**
+     * @param dataSource       Fonte de dados do repositório do job.
+     * @param properties       Propriedades {@code spring.batch.jdbc}.
+     * @param somenteSeAusente Não executa o script quando o schema já existe.
+     */
+    public InicializadorSchemaRepositorio(DataSource dataSource, BatchProperties.Jdbc properties, boolean somenteSeAusente) {
+        super(dataSource, properties);
+        this.dataSource = dataSource;
+        this.properties = properties;
+        this.somenteSeAusente = somenteSeAusente;
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        if (somenteSeAusente && properties.getInitializeSchema() != DatabaseInitializationMode.NEVER && schemaExistente()) {
+            log.info("Schema do repositório do job já existente: script de inicialização ignorado");
+            return false;
+        }
+        return super.initializeDatabase();
+    }
+
+    private boolean schemaExistente() {
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        try {
+            DatabaseMetaData metaData = conexao.getMetaData();
+            String prefixo = properties.getTablePrefix() != null ? properties.getTablePrefix() : AbstractJdbcBatchMetadataDao.DEFAULT_TABLE_PREFIX;
+            String tabela = prefixo + "JOB_INSTANCE";
+            if (metaData.storesLowerCaseIdentifiers()) {
+                tabela = tabela.toLowerCase(Locale.ROOT);
+            } else if (metaData.storesUpperCaseIdentifiers()) {
+                tabela = tabela.toUpperCase(Locale.ROOT);
+            }
+            try (ResultSet tabelas = metaData.getTables(null, null, tabela, new String[]{"TABLE"})) {
+                return tabelas.next();
+            }
+        } catch (SQLException e) {
+            log.warn("Não foi possível verificar o schema do repositório do job; o script será executado", e);
+            return false;
+        } finally {
+            DataSourceUtils.releaseConnection(conexao, dataSource);
+        }
+    }
+}
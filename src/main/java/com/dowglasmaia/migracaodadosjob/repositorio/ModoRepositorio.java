@@ -0,0 +1,28 @@
+package com.dowglasmaia.migracaodadosjob.repositorio;
+
+/**
+ * Durabilidade do repositório do job, selecionada em {@code app.migracao.repositorio.modo}.
+ * Define o que um restart consegue recuperar depois de uma queda da JVM.
+ */
+public enum ModoRepositorio {
+
+    /**
+     * Repositório JDBC no springDataSource, com o progresso de cada step gravado em todo commit de chunk.
+     * O restart retoma a partir do último chunk confirmado.
+     */
+    COMPLETO,
+
+    /**
+     * Repositório JDBC com o progresso dos steps gravado a cada N chunks ou a cada intervalo, pelo
+     * {@link RepositorioCoalescido}. Início, fim e falha dos steps continuam gravados na hora. Após uma queda da JVM,
+     * o restart regrava os chunks da última janela, então depende de escrita idempotente.
+     */
+    COALESCIDO,
+
+    /**
+     * Repositório em memória, sem transação no springDataSource. Nada é gravado: não há restart nem
+     * consulta às execuções fora da JVM. Para execuções descartáveis. O progresso dos steps também é agrupado
+     * pelo {@link RepositorioCoalescido}, evitando a cópia do contexto de execução a cada chunk.
+     */
+    MEMORIA
+}
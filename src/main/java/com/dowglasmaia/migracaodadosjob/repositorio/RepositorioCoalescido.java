@@ -0,0 +1,172 @@
+package com.dowglasmaia.migracaodadosjob.repositorio;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link JobRepository} que agrupa as gravações de progresso dos steps. A cada commit de chunk, o {@code TaskletStep}
+ * grava o contexto de execução ({@code BATCH_STEP_EXECUTION_CONTEXT}) e as contagens do step
+ * ({@code BATCH_STEP_EXECUTION}); aqui as duas gravações só chegam ao repositório a cada {@code aCadaChunks} chunks
+ * ou a cada {@code intervaloMs}, o que vier primeiro, sempre juntas, para que contagens e posição de retomada
+ * continuem coerentes entre si.
+ * <p>
+ * Só é adiada a gravação de um step em andamento ({@link BatchStatus#STARTED}) que já foi gravado uma vez nesta JVM.
+ * A primeira gravação de cada step, as de término, falha ou parada e todas as do job passam direto, então o restart
+ * após uma falha tratada e a consulta das partições remotas continuam exatos. Após uma queda da JVM, o restart retoma
+ * da última gravação e regrava os chunks da janela. O pedido de parada do job, verificado pelo repositório a cada
+ * gravação do step, também só é percebido na gravação seguinte.
+ */
+public class RepositorioCoalescido implements JobRepository {
+
+    private final JobRepository repositorio;
+    private final int aCadaChunks;
+    private final long intervaloNanos;
+    private final Map<Long, Janela> janelas = new ConcurrentHashMap<>();
+
+    /**
+     * @param repositorio Repositório que recebe as gravações.
+     * @param aCadaChunks Chunks por gravação do progresso; 0 desconsidera a quantidade.
+     * @param intervaloMs Intervalo máximo entre as gravações do progresso; 0 desconsidera o tempo.
+     */
+    public RepositorioCoalescido(JobRepository repositorio, int aCadaChunks, long intervaloMs) {
+        if (aCadaChunks <= 0 && intervaloMs <= 0) {
+            throw new IllegalArgumentException("Informe a quantidade de chunks ou o intervalo entre as gravações do progresso");
+        }
+        this.repositorio = repositorio;
+        this.aCadaChunks = aCadaChunks;
+        this.intervaloNanos = intervaloMs * 1_000_000L;
+    }
+
+    @Override
+    public void update(StepExecution stepExecution) {
+        if (!emAndamento(stepExecution)) {
+            gravar(stepExecution, janelas.remove(stepExecution.getId()));
+            return;
+        }
+        Janela janela = janelas.get(stepExecution.getId());
+        if (janela == null) {
+            repositorio.update(stepExecution); // Primeira gravação do step nesta JVM
+            janelas.put(stepExecution.getId(), new Janela());
+            return;
+        }
+        janela.chunks++;
+        if (janela.vencida()) {
+            gravar(stepExecution, janela);
+            janela.reiniciar();
+        }
+    }
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+        Janela janela = janelas.get(stepExecution.getId());
+        if (janela != null && emAndamento(stepExecution)) {
+            janela.contextoPendente = true; // Gravado junto com o próximo update do step
+            return;
+        }
+        repositorio.updateExecutionContext(stepExecution);
+        if (janela != null) {
+            janela.contextoPendente = false;
+        }
+    }
+
+    private void gravar(StepExecution stepExecution, Janela janela) {
+        if (janela != null && janela.contextoPendente) {
+            repositorio.updateExecutionContext(stepExecution);
+        }
+        repositorio.update(stepExecution);
+    }
+
+    private static boolean emAndamento(StepExecution stepExecution) {
+        return stepExecution.getStatus() == BatchStatus.STARTED
+              && stepExecution.getEndTime() == null
+              && !stepExecution.isTerminateOnly();
+    }
+
+    @Override
+    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return repositorio.isJobInstanceExists(jobName, jobParameters);
+    }
+
+    @Override
+    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        return repositorio.createJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public JobExecution createJobExecution(JobInstance jobInstance, JobParameters jobParameters, String jobConfigurationLocation) {
+        return repositorio.createJobExecution(jobInstance, jobParameters, jobConfigurationLocation);
+    }
+
+    @Override
+    public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+          throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+        return repositorio.createJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void update(JobExecution jobExecution) {
+        repositorio.update(jobExecution);
+    }
+
+    @Override
+    public void add(StepExecution stepExecution) {
+        repositorio.add(stepExecution);
+    }
+
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        repositorio.addAll(stepExecutions);
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+        repositorio.updateExecutionContext(jobExecution);
+    }
+
+    @Override
+    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        return repositorio.getLastStepExecution(jobInstance, stepName);
+    }
+
+    @Override
+    public int getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return repositorio.getStepExecutionCount(jobInstance, stepName);
+    }
+
+    @Override
+    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        return repositorio.getLastJobExecution(jobName, jobParameters);
+    }
+
+    /**
+     * Gravações adiadas de um step em andamento. Cada step é executado por uma única thread.
+     */
+    private class Janela {
+
+        private int chunks;
+        private long inicio = System.nanoTime();
+        private boolean contextoPendente;
+
+        private boolean vencida() {
+            return (aCadaChunks > 0 && chunks >= aCadaChunks)
+                  || (intervaloNanos > 0 && System.nanoTime() - inicio >= intervaloNanos);
+        }
+
+        private void reiniciar() {
+            chunks = 0;
+            inicio = System.nanoTime();
+            contextoPendente = false;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.dowglasmaia.migracaodadosjob.repositorio;
+
+import com.dowglasmaia.migracaodadosjob.remoto.TransporteParticoes;
+import com.dowglasmaia.migracaodadosjob.writer.ModoCarga;
+import com.dowglasmaia.migracaodadosjob.writer.ModoConflito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.configuration.annotation.BatchConfigurer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.batch.BatchDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuração do repositório do job. A durabilidade é sempre a declarada em {@code app.migracao.repositorio.modo}
+ * e registrada no log na inicialização, com o que um restart consegue recuperar em cada modo.
+ * <p>
+ * Substitui o configurador do Spring Boot, que só é criado na ausência de outro {@link BatchConfigurer},
+ * e o inicializador do schema, que só é criado na ausência de outro {@link BatchDataSourceScriptDatabaseInitializer}.
+ * O {@code RepositorioMetricasPostProcessor} continua medindo as operações do repositório criado aqui.
+ */
+@Configuration
+public class RepositorioConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(RepositorioConfig.class);
+
+    @Value("${app.migracao.repositorio.modo:completo}")
+    private ModoRepositorio modo;
+
+    @Value("${app.migracao.repositorio.coalescido.a-cada-chunks:10}")
+    private int aCadaChunks;
+
+    @Value("${app.migracao.repositorio.coalescido.intervalo-ms:5000}")
+    private long intervaloMs;
+
+    @Value("${app.migracao.repositorio.schema.somente-se-ausente:false}")
+    private boolean schemaSomenteSeAusente;
+
+    @Value("${app.migracao.escrita.conflito:falhar}")
+    private ModoConflito modoConflito;
+
+    @Value("${app.migracao.carga.modo:direta}")
+    private ModoCarga modoCarga;
+
+    @Value("${app.migracao.particionamento.remoto.habilitado:false}")
+    private boolean particionamentoRemoto;
+
+    @Value("${app.migracao.particionamento.remoto.transporte:jdbc}")
+    private TransporteParticoes transporteParticoes;
+
+    /**
+     * Cria o configurador do Spring Batch com o repositório do modo configurado.
+     *
+     * @param properties                    Propriedades {@code spring.batch}.
+     * @param dataSource                    Fonte de dados do repositório do job.
+     * @param transactionManagerCustomizers Customizações do gerenciador de transações, se houver.
+     * @return BatchConfigurer do job.
+     */
+    @Bean
+    public BatchConfigurer batchConfigurer(
+          BatchProperties properties,
+          @Qualifier("springDataSource") DataSource dataSource,
+          ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers
+    ) {
+        validar();
+        return new ConfiguradorRepositorio(properties, dataSource, transactionManagerCustomizers.getIfAvailable(),
+              modo, aCadaChunks, intervaloMs);
+    }
+
+    /**
+     * Cria o inicializador do schema do repositório do job, que segue {@code spring.batch.initialize-schema}
+     * e, com {@code app.migracao.repositorio.schema.somente-se-ausente}, não executa o script quando o schema já existe.
+     *
+     * @param properties Propriedades {@code spring.batch}.
+     * @param dataSource Fonte de dados do repositório do job.
+     * @return Inicializador do schema do repositório.
+     */
+    @Bean
+    public BatchDataSourceScriptDatabaseInitializer batchDataSourceInitializer(
+          BatchProperties properties,
+          @Qualifier("springDataSource") DataSource dataSource
+    ) {
+        return new InicializadorSchemaRepositorio(dataSource, properties.getJdbc(), schemaSomenteSeAusente);
+    }
+
+    private void validar() {
+        switch (modo) {
+            case MEMORIA:
+                if (particionamentoRemoto && transporteParticoes == TransporteParticoes.JDBC) {
+                    throw new IllegalStateException("O repositório em memória não é compartilhado com os trabalhadores"
+                          + " do particionamento remoto; use o transporte local ou o repositório completo");
+                }
+                log.warn("Repositório do job em memória (H2 descartado com o contexto): nenhuma execução é gravada e não há restart");
+                break;
+            case COALESCIDO:
+                if (modoConflito == ModoConflito.FALHAR && modoCarga == ModoCarga.DIRETA) {
+                    throw new IllegalStateException("Com o repositório coalescido, os chunks regravados no restart"
+                          + " violam a chave primária com a escrita conflito=falhar e a carga direta;"
+                          + " use conflito ignorar ou atualizar, ou a carga por staging");
+                }
+                log.warn("Repositório do job coalescido: progresso dos steps gravado a cada {} chunks ou {} ms;"
+                      + " após uma queda da JVM, o restart regrava os chunks da última janela", aCadaChunks, intervaloMs);
+                break;
+            default:
+                log.info("Repositório do job completo: progresso dos steps gravado a cada chunk");
+        }
+    }
+}
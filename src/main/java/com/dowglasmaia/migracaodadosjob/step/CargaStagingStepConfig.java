@@ -0,0 +1,65 @@
+package com.dowglasmaia.migracaodadosjob.step;
+
+import com.dowglasmaia.migracaodadosjob.carga.PrepararStagingTasklet;
+import com.dowglasmaia.migracaodadosjob.carga.PromoverStagingTasklet;
+import com.dowglasmaia.migracaodadosjob.carga.TabelaStaging;
+import com.dowglasmaia.migracaodadosjob.writer.ModoConflito;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Configuração dos steps da carga por staging ({@code app.migracao.carga.modo: staging}): o primeiro step do job
+ * recria as tabelas de staging, em que os steps de migração gravam, e o último promove os registros
+ * para as tabelas finais.
+ */
+@Configuration
+public class CargaStagingStepConfig {
+
+    private static final List<TabelaStaging> TABELAS = Arrays.asList(
+          new TabelaStaging("pessoa", "id", "id", "nome", "email", "data_nascimento", "idade"),
+          new TabelaStaging("public.dados_bancarios", "id", "id", "pessoa_id", "agencia", "conta", "banco")
+    );
+
+    @Autowired
+    private StepBuilderFactory stepBuilderFactory;
+
+    @Value("${app.migracao.escrita.conflito:falhar}")
+    private ModoConflito modoConflito;
+
+    /**
+     * Define o step que recria as tabelas de staging, sem índices, antes da migração.
+     *
+     * @param dataSource Fonte de dados das tabelas finais.
+     * @return Step de preparação das tabelas de staging.
+     */
+    @Bean
+    public Step prepararStagingStep(@Qualifier("appDataSource") DataSource dataSource) {
+        return stepBuilderFactory
+              .get("prepararStagingStep") // Nome do step
+              .tasklet(new PrepararStagingTasklet(dataSource, TABELAS)) // Recria as tabelas UNLOGGED de staging
+              .build();
+    }
+
+    /**
+     * Define o step que promove os registros das tabelas de staging para as tabelas finais, descartando ids repetidos.
+     *
+     * @param dataSource Fonte de dados das tabelas finais.
+     * @return Step de promoção das tabelas de staging.
+     */
+    @Bean
+    public Step promoverStagingStep(@Qualifier("appDataSource") DataSource dataSource) {
+        return stepBuilderFactory
+              .get("promoverStagingStep") // Nome do step
+              .tasklet(new PromoverStagingTasklet(dataSource, TABELAS, modoConflito)) // INSERT ... SELECT de cada staging, em uma única transação
+              .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.dowglasmaia.migracaodadosjob.step;
+
+import com.dowglasmaia.migracaodadosjob.delta.BaseImpressoes;
+import com.dowglasmaia.migracaodadosjob.delta.ConcluirDeltaTasklet;
+import com.dowglasmaia.migracaodadosjob.delta.PrepararDeltaTasklet;
+import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Configuração dos steps do modo delta ({@code app.migracao.delta.habilitado}): o primeiro step do job inicia
+ * as bases de impressões, preenchidas pelos steps de migração, e o último exclui os ids ausentes dos arquivos
+ * e substitui as impressões da execução anterior.
+ */
+@Configuration
+public class DeltaStepConfig {
+
+    @Autowired
+    private StepBuilderFactory stepBuilderFactory;
+
+    @Autowired
+    @Qualifier("basePessoas")
+    private BaseImpressoes<Pessoa> basePessoas;
+
+    @Autowired
+    @Qualifier("baseDadosBancarios")
+    private BaseImpressoes<DadosBancario> baseDadosBancarios;
+
+    @Value("${app.migracao.delta.excluir-ausentes:true}")
+    private boolean excluirAusentes;
+
+    /**
+     * Define o step que inicia as bases de impressões antes da migração.
+     *
+     * @return Step de preparação do modo delta.
+     */
+    @Bean
+    public Step prepararDeltaStep() {
+        return stepBuilderFactory
+              .get("prepararDeltaStep") // Nome do step
+              .tasklet(new PrepararDeltaTasklet(bases())) // Descarta as impressões de uma execução não concluída
+              .build();
+    }
+
+    /**
+     * Define o step que conclui as bases de impressões depois da migração.
+     *
+     * @param dataSource Fonte de dados das tabelas finais.
+     * @return Step de conclusão do modo delta.
+     */
+    @Bean
+    public Step concluirDeltaStep(@Qualifier("appDataSource") DataSource dataSource) {
+        return stepBuilderFactory
+              .get("concluirDeltaStep") // Nome do step
+              .tasklet(new ConcluirDeltaTasklet(bases(), dataSource, excluirAusentes)) // Exclui os ausentes e substitui as impressões
+              .build();
+    }
+
+    private List<BaseImpressoes<?>> bases() {
+        return Arrays.asList(basePessoas, baseDadosBancarios);
+    }
+}
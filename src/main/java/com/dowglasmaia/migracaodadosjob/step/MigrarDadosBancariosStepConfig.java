@@ -1,19 +1,33 @@
 package com.dowglasmaia.migracaodadosjob.step;
 
 import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasStepListener;
+import com.dowglasmaia.migracaodadosjob.partitioner.ArquivoPartitioner;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.support.ClassifierCompositeItemWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
 
 /**
  * Configuração do step de migração de dados bancários.
  * Define o processamento de leitura de um arquivo CSV e gravação no banco de dados.
+ * Quando o particionamento está habilitado, o step passa a ser um gerenciador que distribui
+ * intervalos de bytes do arquivo entre workers executados em paralelo.
+ * Com o particionamento remoto, as partições são executadas por trabalhadores em outras JVMs.
+ * Com a integridade habilitada, os registros cuja pessoa não foi gravada vão para o arquivo de órfãos.
+ * No modo delta, os registros iguais aos da execução anterior são descartados antes da escrita.
  */
 @EnableBatchProcessing
 @Configuration
@@ -22,23 +36,127 @@ public class MigrarDadosBancariosStepConfig {
     @Autowired
     private StepBuilderFactory stepBuilderFactory;
 
+    @Value("${app.migracao.particionamento.habilitado:false}")
+    private boolean particionamentoHabilitado;
+
+    @Value("${app.migracao.particionamento.grid-size:4}")
+    private int gridSize;
+
+    @Value("${app.migracao.particionamento.remoto.habilitado:false}")
+    private boolean particionamentoRemoto;
+
+    @Value("${app.migracao.integridade.habilitada:false}")
+    private boolean integridadeHabilitada;
+
+    @Value("${app.migracao.delta.habilitado:false}")
+    private boolean deltaHabilitado;
+
+    @Autowired
+    private TamanhoChunkAdaptativo tamanhoChunkAdaptativo;
+
+    @Autowired
+    @Qualifier("dadosBancarioDeltaProcessor")
+    private ItemProcessor<DadosBancario, DadosBancario> dadosBancarioDeltaProcessor;
+
+    @Autowired
+    @Qualifier("metricasDadosBancariosListener")
+    private MetricasStepListener metricasDadosBancariosListener;
+
+    @Autowired
+    @Qualifier("particaoTaskExecutor")
+    private TaskExecutor particaoTaskExecutor;
+
+    @Autowired
+    @Qualifier("dadosBancariosParticaoRemotaHandler")
+    private PartitionHandler dadosBancariosParticaoRemotaHandler;
+
+    @Autowired
+    @Qualifier("indicePessoasParticaoListener")
+    private StepExecutionListener indicePessoasParticaoListener;
+
+    @Autowired
+    @Qualifier("consultaIndicePessoasListener")
+    private StepExecutionListener consultaIndicePessoasListener;
+
     /**
      * Define o step para migrar dados bancários de um arquivo CSV para um banco de dados.
      *
      * @param arquivoDadosBancarioReader Leitor de dados do arquivo CSV.
      * @param bancoDadosBancarioWriter Gravador de dados para o banco de dados.
+     * @param dadosBancarioClassifierCompositeItemWriter Classificador que separa os órfãos, usado com a integridade habilitada.
+     * @param arquivoDadosBancarioOrfaosWriter Gravador de dados órfãos para um arquivo plano.
+     * @param arquivoDadosBancarioPartitioner Particionador do arquivo CSV, usado quando o particionamento está habilitado.
+     * @param migrarDadosBancariosWorkerStep Step worker que processa cada partição.
      * @return Step configurado para migração de dados bancários.
      */
     @Bean
     public Step migrarDadosBancariosStep(
           @Qualifier("arquivoDadosBancarioReader") ItemReader<DadosBancario> arquivoDadosBancarioReader,
-          @Qualifier("bancoDadosBancarioWriter") ItemWriter<DadosBancario> bancoDadosBancarioWriter
+          @Qualifier("bancoDadosBancarioWriter") ItemWriter<DadosBancario> bancoDadosBancarioWriter,
+          @Qualifier("dadosBancarioClassifierCompositeItemWriter") ClassifierCompositeItemWriter<DadosBancario> dadosBancarioClassifierCompositeItemWriter,
+          @Qualifier("arquivoDadosBancarioOrfaosWriter") FlatFileItemWriter<DadosBancario> arquivoDadosBancarioOrfaosWriter,
+          @Qualifier("arquivoDadosBancarioPartitioner") ArquivoPartitioner arquivoDadosBancarioPartitioner,
+          @Qualifier("migrarDadosBancariosWorkerStep") Step migrarDadosBancariosWorkerStep
     ) {
+        if (particionamentoHabilitado && particionamentoRemoto) {
+            return stepBuilderFactory
+                  .get("migrarDadosBancariosStep") // Nome do step gerenciador
+                  .listener(consultaIndicePessoasListener) // Garante o índice de pessoas carregado, com a integridade habilitada
+                  .partitioner("migrarDadosBancariosWorkerStep", arquivoDadosBancarioPartitioner) // Divide o arquivo em intervalos de bytes
+                  .partitionHandler(dadosBancariosParticaoRemotaHandler) // Publica as partições para os trabalhadores remotos
+                  .build();
+        }
+        if (particionamentoHabilitado) {
+            return stepBuilderFactory
+                  .get("migrarDadosBancariosStep") // Nome do step gerenciador
+                  .listener(consultaIndicePessoasListener) // Garante o índice de pessoas carregado, com a integridade habilitada
+                  .partitioner("migrarDadosBancariosWorkerStep", arquivoDadosBancarioPartitioner) // Divide o arquivo em intervalos de bytes
+                  .step(migrarDadosBancariosWorkerStep) // Step executado para cada partição
+                  .gridSize(gridSize) // Quantidade de partições
+                  .taskExecutor(particaoTaskExecutor) // Executa as partições em paralelo, limitado pelas conexões disponíveis
+                  .build();
+        }
         return stepBuilderFactory
               .get("migrarDadosBancariosStep") // Nome do step
-              .<DadosBancario, DadosBancario>chunk(10000) // Configura o chunk size
+              .listener(consultaIndicePessoasListener) // Garante o índice de pessoas carregado, com a integridade habilitada
+              .<DadosBancario, DadosBancario>chunk(tamanhoChunkAdaptativo) // Configura o chunk size, fixo ou adaptativo
               .reader(arquivoDadosBancarioReader) // Define o leitor de dados
-              .writer(bancoDadosBancarioWriter) // Define o gravador de dados
+              .processor(deltaHabilitado ? dadosBancarioDeltaProcessor : null) // Descarta os registros iguais aos da execução anterior, no modo delta
+              .writer(integridadeHabilitada ? dadosBancarioClassifierCompositeItemWriter : bancoDadosBancarioWriter) // Define o gravador de dados
+              .stream(arquivoDadosBancarioOrfaosWriter) // Adiciona fluxo do escritor de órfãos
+              .listener((StepExecutionListener) tamanhoChunkAdaptativo) // Registra as medições da política de chunk
+              .listener((StepExecutionListener) metricasDadosBancariosListener) // Registra as métricas dos chunks
+              .build();
+    }
+
+    /**
+     * Define o step worker que migra uma partição do arquivo de dados bancários.
+     * O leitor é de escopo de step, então cada partição guarda o seu progresso no próprio contexto de execução,
+     * permitindo reiniciar apenas a partição que falhou.
+     *
+     * @param arquivoDadosBancarioParticaoReader Leitor do intervalo de bytes da partição.
+     * @param bancoDadosBancarioWriter Gravador de dados para o banco de dados.
+     * @param dadosBancarioClassifierParticaoWriter Classificador da partição que separa os órfãos, usado com a integridade habilitada.
+     * @param arquivoDadosBancarioOrfaosParticaoWriter Gravador de dados órfãos da partição.
+     * @return Step worker configurado para migração de uma partição de dados bancários.
+     */
+    @Bean
+    public Step migrarDadosBancariosWorkerStep(
+          @Qualifier("arquivoDadosBancarioParticaoReader") ItemReader<DadosBancario> arquivoDadosBancarioParticaoReader,
+          @Qualifier("bancoDadosBancarioWriter") ItemWriter<DadosBancario> bancoDadosBancarioWriter,
+          @Qualifier("dadosBancarioClassifierParticaoWriter") ClassifierCompositeItemWriter<DadosBancario> dadosBancarioClassifierParticaoWriter,
+          @Qualifier("arquivoDadosBancarioOrfaosParticaoWriter") FlatFileItemWriter<DadosBancario> arquivoDadosBancarioOrfaosParticaoWriter
+    ) {
+        return stepBuilderFactory
+              .get("migrarDadosBancariosWorkerStep") // Nome do step worker
+              .listener(indicePessoasParticaoListener) // Carrega o índice de pessoas na JVM do trabalhador remoto
+              .<DadosBancario, DadosBancario>chunk(tamanhoChunkAdaptativo) // Configura o chunk size, fixo ou adaptativo
+              .reader(arquivoDadosBancarioParticaoReader) // Define o leitor da partição
+              .processor(deltaHabilitado ? dadosBancarioDeltaProcessor : null) // Descarta os registros iguais aos da execução anterior, no modo delta
+              .writer(integridadeHabilitada ? dadosBancarioClassifierParticaoWriter : bancoDadosBancarioWriter) // Define o gravador de dados
+              .stream(arquivoDadosBancarioOrfaosParticaoWriter) // Adiciona fluxo do escritor de órfãos da partição
+              .listener((StepExecutionListener) tamanhoChunkAdaptativo) // Registra as medições da política de chunk
+              .listener((StepExecutionListener) metricasDadosBancariosListener) // Registra as métricas dos chunks
               .build();
     }
 }
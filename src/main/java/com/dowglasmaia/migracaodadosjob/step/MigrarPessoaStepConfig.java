@@ -1,21 +1,32 @@
 package com.dowglasmaia.migracaodadosjob.step;
 
 import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasStepListener;
+import com.dowglasmaia.migracaodadosjob.partitioner.ArquivoPartitioner;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.FlatFileItemWriter;
 import org.springframework.batch.item.support.ClassifierCompositeItemWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
 
 /**
  * Configuração do step de migração de dados de pessoas.
  * Define o processamento de leitura de um arquivo CSV e escrita em diferentes destinos.
+ * Quando o particionamento está habilitado, o step passa a ser um gerenciador que distribui
+ * intervalos de bytes do arquivo entre workers executados em paralelo.
+ * Com o particionamento remoto, as partições são executadas por trabalhadores em outras JVMs.
+ * No modo delta, os registros iguais aos da execução anterior são descartados antes da escrita.
  */
 @EnableBatchProcessing
 @Configuration
@@ -24,6 +35,41 @@ public class MigrarPessoaStepConfig {
     @Autowired
     private StepBuilderFactory stepBuilderFactory;
 
+    @Value("${app.migracao.particionamento.habilitado:false}")
+    private boolean particionamentoHabilitado;
+
+    @Value("${app.migracao.particionamento.grid-size:4}")
+    private int gridSize;
+
+    @Value("${app.migracao.particionamento.remoto.habilitado:false}")
+    private boolean particionamentoRemoto;
+
+    @Value("${app.migracao.delta.habilitado:false}")
+    private boolean deltaHabilitado;
+
+    @Autowired
+    private TamanhoChunkAdaptativo tamanhoChunkAdaptativo;
+
+    @Autowired
+    @Qualifier("pessoaDeltaProcessor")
+    private ItemProcessor<Pessoa, Pessoa> pessoaDeltaProcessor;
+
+    @Autowired
+    @Qualifier("metricasPessoaListener")
+    private MetricasStepListener metricasPessoaListener;
+
+    @Autowired
+    @Qualifier("particaoTaskExecutor")
+    private TaskExecutor particaoTaskExecutor;
+
+    @Autowired
+    @Qualifier("pessoaParticaoRemotaHandler")
+    private PartitionHandler pessoaParticaoRemotaHandler;
+
+    @Autowired
+    @Qualifier("cargaIndicePessoasListener")
+    private StepExecutionListener cargaIndicePessoasListener;
+
     /**
      * Define o step para migrar dados de pessoas de um arquivo CSV.
      *
@@ -31,21 +77,75 @@ public class MigrarPessoaStepConfig {
      * @param bancoPessoaWriter Gravador de dados para o banco de dados.
      * @param pessoaClassifierCompositeItemWriter Classificador que direciona os dados para o escritor apropriado.
      * @param arquivoPessoaFlatFileItemReader Gravador de dados para um arquivo plano.
+     * @param arquivoPessoaPartitioner Particionador do arquivo CSV, usado quando o particionamento está habilitado.
+     * @param migrarPessoaWorkerStep Step worker que processa cada partição.
      * @return Step configurado para migração de dados de pessoas.
      */
     @Bean
     public Step migrarPessoaStep(
           @Qualifier("arquivoPessoaReader") ItemReader<Pessoa> arquivoPessoaReader,
           @Qualifier("bancoPessoaWriter") ItemWriter<Pessoa> bancoPessoaWriter,
-          ClassifierCompositeItemWriter<Pessoa> pessoaClassifierCompositeItemWriter,
-          FlatFileItemWriter<Pessoa> arquivoPessoaFlatFileItemReader
+          @Qualifier("pessoaClassifierCompositeItemWriter") ClassifierCompositeItemWriter<Pessoa> pessoaClassifierCompositeItemWriter,
+          @Qualifier("arquivoPessoaFlatFileItemReader") FlatFileItemWriter<Pessoa> arquivoPessoaFlatFileItemReader,
+          @Qualifier("arquivoPessoaPartitioner") ArquivoPartitioner arquivoPessoaPartitioner,
+          @Qualifier("migrarPessoaWorkerStep") Step migrarPessoaWorkerStep
     ) {
+        if (particionamentoHabilitado && particionamentoRemoto) {
+            return stepBuilderFactory
+                  .get("migrarPessoaStep") // Nome do step gerenciador
+                  .listener(cargaIndicePessoasListener) // Mantém o índice de pessoas gravadas, com a integridade habilitada
+                  .partitioner("migrarPessoaWorkerStep", arquivoPessoaPartitioner) // Divide o arquivo em intervalos de bytes
+                  .partitionHandler(pessoaParticaoRemotaHandler) // Publica as partições para os trabalhadores remotos
+                  .build();
+        }
+        if (particionamentoHabilitado) {
+            return stepBuilderFactory
+                  .get("migrarPessoaStep") // Nome do step gerenciador
+                  .listener(cargaIndicePessoasListener) // Mantém o índice de pessoas gravadas, com a integridade habilitada
+                  .partitioner("migrarPessoaWorkerStep", arquivoPessoaPartitioner) // Divide o arquivo em intervalos de bytes
+                  .step(migrarPessoaWorkerStep) // Step executado para cada partição
+                  .gridSize(gridSize) // Quantidade de partições
+                  .taskExecutor(particaoTaskExecutor) // Executa as partições em paralelo, limitado pelas conexões disponíveis
+                  .build();
+        }
         return stepBuilderFactory
               .get("migrarPessoaStep") // Nome do step
-              .<Pessoa, Pessoa>chunk(10000) // Configura o chunk size
+              .listener(cargaIndicePessoasListener) // Mantém o índice de pessoas gravadas, com a integridade habilitada
+              .<Pessoa, Pessoa>chunk(tamanhoChunkAdaptativo) // Configura o chunk size, fixo ou adaptativo
               .reader(arquivoPessoaReader) // Define o leitor de dados
+              .processor(deltaHabilitado ? pessoaDeltaProcessor : null) // Descarta os registros iguais aos da execução anterior, no modo delta
               .writer(pessoaClassifierCompositeItemWriter) // Define o gravador de dados, com classificação
               .stream(arquivoPessoaFlatFileItemReader) // Adiciona fluxo do escritor de arquivo
+              .listener((StepExecutionListener) tamanhoChunkAdaptativo) // Registra as medições da política de chunk
+              .listener((StepExecutionListener) metricasPessoaListener) // Registra as métricas dos chunks
+              .build();
+    }
+
+    /**
+     * Define o step worker que migra uma partição do arquivo de pessoas.
+     * Leitor e gravador de inválidos são de escopo de step, então cada partição tem a sua própria instância
+     * e guarda o seu progresso no próprio contexto de execução, permitindo reiniciar apenas a partição que falhou.
+     *
+     * @param arquivoPessoaParticaoReader Leitor do intervalo de bytes da partição.
+     * @param pessoaClassifierParticaoWriter Classificador que direciona os dados da partição para o escritor apropriado.
+     * @param arquivoPessoaInvalidasParticaoWriter Gravador de dados inválidos da partição.
+     * @return Step worker configurado para migração de uma partição de pessoas.
+     */
+    @Bean
+    public Step migrarPessoaWorkerStep(
+          @Qualifier("arquivoPessoaParticaoReader") ItemReader<Pessoa> arquivoPessoaParticaoReader,
+          @Qualifier("pessoaClassifierParticaoWriter") ClassifierCompositeItemWriter<Pessoa> pessoaClassifierParticaoWriter,
+          @Qualifier("arquivoPessoaInvalidasParticaoWriter") FlatFileItemWriter<Pessoa> arquivoPessoaInvalidasParticaoWriter
+    ) {
+        return stepBuilderFactory
+              .get("migrarPessoaWorkerStep") // Nome do step worker
+              .<Pessoa, Pessoa>chunk(tamanhoChunkAdaptativo) // Configura o chunk size, fixo ou adaptativo
+              .reader(arquivoPessoaParticaoReader) // Define o leitor da partição
+              .processor(deltaHabilitado ? pessoaDeltaProcessor : null) // Descarta os registros iguais aos da execução anterior, no modo delta
+              .writer(pessoaClassifierParticaoWriter) // Define o gravador de dados, com classificação
+              .stream(arquivoPessoaInvalidasParticaoWriter) // Adiciona fluxo do escritor de arquivo da partição
+              .listener((StepExecutionListener) tamanhoChunkAdaptativo) // Registra as medições da política de chunk
+              .listener((StepExecutionListener) metricasPessoaListener) // Registra as métricas dos chunks
               .build();
     }
-}
\ No newline at end of file
+}
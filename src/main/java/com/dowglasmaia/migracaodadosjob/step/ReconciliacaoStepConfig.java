@@ -0,0 +1,182 @@
+package com.dowglasmaia.migracaodadosjob.step;
+
+import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import com.dowglasmaia.migracaodadosjob.partitioner.ArquivoPartitioner;
+import com.dowglasmaia.migracaodadosjob.reconciliacao.CompararReconciliacaoTasklet;
+import com.dowglasmaia.migracaodadosjob.reconciliacao.PrepararReconciliacaoTasklet;
+import com.dowglasmaia.migracaodadosjob.reconciliacao.ReconciliacaoItemWriter;
+import com.dowglasmaia.migracaodadosjob.reconciliacao.TabelaReconciliada;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Configuração dos steps da reconciliação ({@code app.migracao.reconciliacao.habilitada}), executados depois da carga:
+ * o primeiro descarta as impressões da execução anterior, os steps particionados releem cada arquivo com os leitores
+ * de partição da migração e o último compara as impressões com as tabelas.
+ * As partições e as consultas ao banco usam o {@code particaoTaskExecutor}, ocioso depois da carga.
+ */
+@Configuration
+public class ReconciliacaoStepConfig {
+
+    @Autowired
+    private StepBuilderFactory stepBuilderFactory;
+
+    @Autowired
+    @Qualifier("reconciliacaoPessoas")
+    private TabelaReconciliada<Pessoa> reconciliacaoPessoas;
+
+    @Autowired
+    @Qualifier("reconciliacaoDadosBancarios")
+    private TabelaReconciliada<DadosBancario> reconciliacaoDadosBancarios;
+
+    @Autowired
+    @Qualifier("particaoTaskExecutor")
+    private ThreadPoolTaskExecutor particaoTaskExecutor;
+
+    @Value("${app.migracao.reconciliacao.grid-size:4}")
+    private int gridSize;
+
+    @Value("${app.migracao.reconciliacao.tamanho-faixa:1000}")
+    private int tamanhoFaixa;
+
+    @Value("${app.migracao.reconciliacao.falhar:false}")
+    private boolean falhar;
+
+    @Value("${app.migracao.chunk.tamanho:10000}")
+    private int tamanhoChunk;
+
+    /**
+     * Define o step que inicia as reconciliações.
+     *
+     * @return Step de preparação da reconciliação.
+     */
+    @Bean
+    public Step prepararReconciliacaoStep() {
+        return stepBuilderFactory
+              .get("prepararReconciliacaoStep") // Nome do step
+              .tasklet(new PrepararReconciliacaoTasklet(tabelas())) // Descarta as impressões da reconciliação anterior
+              .build();
+    }
+
+    /**
+     * Define o step gerenciador que relê o arquivo de pessoas em partições paralelas.
+     *
+     * @param reconciliacaoPessoaPartitioner Particionador do arquivo de pessoas.
+     * @param reconciliarPessoaWorkerStep    Step worker que lê cada partição.
+     * @return Step de leitura do arquivo de pessoas para a reconciliação.
+     */
+    @Bean
+    public Step reconciliarPessoaStep(
+          @Qualifier("reconciliacaoPessoaPartitioner") ArquivoPartitioner reconciliacaoPessoaPartitioner,
+          @Qualifier("reconciliarPessoaWorkerStep") Step reconciliarPessoaWorkerStep
+    ) {
+        return stepBuilderFactory
+              .get("reconciliarPessoaStep") // Nome do step gerenciador
+              .partitioner("reconciliarPessoaWorkerStep", reconciliacaoPessoaPartitioner) // Divide o arquivo em intervalos de bytes
+              .step(reconciliarPessoaWorkerStep) // Step executado para cada partição
+              .gridSize(gridSize) // Quantidade de partições
+              .taskExecutor(particaoTaskExecutor) // Executa as partições em paralelo
+              .build();
+    }
+
+    /**
+     * Define o step worker que registra as impressões de uma partição do arquivo de pessoas.
+     *
+     * @param arquivoPessoaParticaoReader Leitor do intervalo de bytes da partição, o mesmo da migração.
+     * @param reconciliacaoPessoaWriter   Escritor que registra as impressões.
+     * @return Step worker de reconciliação de pessoas.
+     */
+    @Bean
+    public Step reconciliarPessoaWorkerStep(
+          @Qualifier("arquivoPessoaParticaoReader") ItemReader<Pessoa> arquivoPessoaParticaoReader,
+          @Qualifier("reconciliacaoPessoaWriter") ReconciliacaoItemWriter<Pessoa> reconciliacaoPessoaWriter
+    ) {
+        return stepBuilderFactory
+              .get("reconciliarPessoaWorkerStep") // Nome do step worker
+              .<Pessoa, Pessoa>chunk(tamanhoChunk) // Chunk fixo: não há escrita no banco para adaptar
+              .reader(arquivoPessoaParticaoReader) // Define o leitor da partição
+              .writer(reconciliacaoPessoaWriter) // Registra a impressão de cada pessoa válida
+              .build();
+    }
+
+    /**
+     * Define o step gerenciador que relê o arquivo de dados bancários em partições paralelas.
+     *
+     * @param reconciliacaoDadosBancarioPartitioner Particionador do arquivo de dados bancários.
+     * @param reconciliarDadosBancariosWorkerStep   Step worker que lê cada partição.
+     * @return Step de leitura do arquivo de dados bancários para a reconciliação.
+     */
+    @Bean
+    public Step reconciliarDadosBancariosStep(
+          @Qualifier("reconciliacaoDadosBancarioPartitioner") ArquivoPartitioner reconciliacaoDadosBancarioPartitioner,
+          @Qualifier("reconciliarDadosBancariosWorkerStep") Step reconciliarDadosBancariosWorkerStep
+    ) {
+        return stepBuilderFactory
+              .get("reconciliarDadosBancariosStep") // Nome do step gerenciador
+              .partitioner("reconciliarDadosBancariosWorkerStep", reconciliacaoDadosBancarioPartitioner) // Divide o arquivo em intervalos de bytes
+              .step(reconciliarDadosBancariosWorkerStep) // Step executado para cada partição
+              .gridSize(gridSize) // Quantidade de partições
+              .taskExecutor(particaoTaskExecutor) // Executa as partições em paralelo
+              .build();
+    }
+
+    /**
+     * Define o step worker que registra as impressões de uma partição do arquivo de dados bancários.
+     *
+     * @param arquivoDadosBancarioParticaoReader Leitor do intervalo de bytes da partição, o mesmo da migração.
+     * @param reconciliacaoDadosBancarioWriter   Escritor que registra as impressões.
+     * @return Step worker de reconciliação de dados bancários.
+     */
+    @Bean
+    public Step reconciliarDadosBancariosWorkerStep(
+          @Qualifier("arquivoDadosBancarioParticaoReader") ItemReader<DadosBancario> arquivoDadosBancarioParticaoReader,
+          @Qualifier("reconciliacaoDadosBancarioWriter") ReconciliacaoItemWriter<DadosBancario> reconciliacaoDadosBancarioWriter
+    ) {
+        return stepBuilderFactory
+              .get("reconciliarDadosBancariosWorkerStep") // Nome do step worker
+              .<DadosBancario, DadosBancario>chunk(tamanhoChunk) // Chunk fixo: não há escrita no banco para adaptar
+              .reader(arquivoDadosBancarioParticaoReader) // Define o leitor da partição
+              .writer(reconciliacaoDadosBancarioWriter) // Registra a impressão de cada registro
+              .build();
+    }
+
+    /**
+     * Define o step que compara as impressões dos arquivos com as tabelas.
+     *
+     * @param dataSource  Fonte de dados das tabelas finais.
+     * @param jobExplorer Consulta as execuções da instância do job.
+     * @return Step de comparação da reconciliação.
+     */
+    @Bean
+    public Step compararReconciliacaoStep(@Qualifier("appDataSource") DataSource dataSource, JobExplorer jobExplorer) {
+        return stepBuilderFactory
+              .get("compararReconciliacaoStep") // Nome do step
+              .tasklet(new CompararReconciliacaoTasklet(
+                    tabelas(), // Reconciliações das tabelas
+                    dataSource, // Banco das tabelas finais
+                    particaoTaskExecutor, // Executa as consultas em paralelo
+                    particaoTaskExecutor.getCorePoolSize(), // Uma consulta de agregação por thread, limitadas pelas conexões
+                    tamanhoFaixa, // Ids por faixa
+                    falhar, // Falha o step com registros ausentes ou divergentes
+                    jobExplorer // Execuções cujos rejeitados ficam fora da comparação
+              ))
+              .build();
+    }
+
+    private List<TabelaReconciliada<?>> tabelas() {
+        return Arrays.asList(reconciliacaoPessoas, reconciliacaoDadosBancarios);
+    }
+}
@@ -0,0 +1,186 @@
+package com.dowglasmaia.migracaodadosjob.step;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+import java.util.List;
+
+/**
+ * Política de conclusão de chunk cujo tamanho se ajusta, entre um mínimo e um máximo, conforme a execução.
+ * <p>
+ * Após cada commit, o tempo de escrita e commit do chunk é comparado com a latência alvo: se o chunk demorou
+ * mais que o alvo, o próximo é reduzido; se demorou menos, é aumentado (no máximo pela metade ou pelo dobro a cada chunk).
+ * O tamanho também é limitado pela memória estimada do chunk retido: o menor crescimento do heap por registro
+ * observado durante a leitura de um chunk. O heap é compartilhado com os demais steps em execução e inclui
+ * objetos temporários, então a estimativa é conservadora.
+ * <p>
+ * O tamanho atual e o histórico de ajustes ficam no contexto de execução do step, e um restart
+ * continua a partir do último tamanho escolhido.
+ */
+public class TamanhoChunkAdaptativo extends SimpleCompletionPolicy
+      implements StepExecutionListener, ChunkListener, ItemWriteListener<Object> {
+
+    private static final Logger log = LoggerFactory.getLogger(TamanhoChunkAdaptativo.class);
+
+    public static final String TAMANHO = "tamanhoChunk.atual";
+    public static final String HISTORICO = "tamanhoChunk.historico";
+    public static final String LATENCIA_MEDIA = "tamanhoChunk.latenciaMediaMs";
+    public static final String BYTES_POR_REGISTRO = "tamanhoChunk.bytesPorRegistro";
+
+    private static final int MAXIMO_HISTORICO = 64;
+    private static final double PESO_MEDIA = 0.3;
+
+    private final int tamanhoInicial;
+    private final boolean adaptativo;
+    private final int minimo;
+    private final int maximo;
+    private final long latenciaAlvoMs;
+    private final long memoriaMaxima;
+
+    private StepExecution stepExecution;
+    private long memoriaInicioChunk;
+    private long inicioEscrita;
+    private int itensEscritos;
+    private double latenciaMediaMs;
+    private double bytesPorRegistro;
+    private String historico;
+    private int ultimoRegistrado;
+
+    /**
+     * @param tamanhoInicial  Tamanho do primeiro chunk (e de todos, quando não adaptativo).
+     * @param adaptativo      Se o tamanho deve ser ajustado durante a execução.
+     * @param minimo          Menor tamanho de chunk permitido.
+     * @param maximo          Maior tamanho de chunk permitido.
+     * @param latenciaAlvoMs  Tempo desejado de escrita e commit de cada chunk, em milissegundos.
+     * @param memoriaMaxima   Memória máxima estimada de um chunk retido, em bytes.
+     */
+    public TamanhoChunkAdaptativo(int tamanhoInicial, boolean adaptativo, int minimo, int maximo,
+                                  long latenciaAlvoMs, long memoriaMaxima) {
+        super(tamanhoInicial);
+        this.tamanhoInicial = tamanhoInicial;
+        this.adaptativo = adaptativo;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.latenciaAlvoMs = latenciaAlvoMs;
+        this.memoriaMaxima = memoriaMaxima;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.stepExecution = stepExecution;
+        ExecutionContext contexto = stepExecution.getExecutionContext();
+        int tamanho = tamanhoInicial;
+        if (adaptativo && contexto.containsKey(TAMANHO)) {
+            tamanho = limitar(contexto.getInt(TAMANHO)); // Restart continua do último tamanho escolhido
+        }
+        historico = contexto.getString(HISTORICO, "");
+        ultimoRegistrado = contexto.getInt(TAMANHO, 0);
+        setChunkSize(tamanho);
+        registrar(tamanho);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        log.info("Step {}: tamanho de chunk final {}, latência média {} ms, histórico [{}]",
+              stepExecution.getStepName(), getChunkSize(), Math.round(latenciaMediaMs), historico);
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        memoriaInicioChunk = memoriaUsada();
+        inicioEscrita = 0;
+    }
+
+    @Override
+    public void beforeWrite(List<?> items) {
+        itensEscritos = items.size();
+        long crescimento = memoriaUsada() - memoriaInicioChunk;
+        if (crescimento > 0 && itensEscritos > 0) { // Uma coleta durante a leitura invalida a amostra
+            double amostra = (double) crescimento / itensEscritos;
+            bytesPorRegistro = bytesPorRegistro == 0 ? amostra : Math.min(bytesPorRegistro, amostra);
+        }
+        inicioEscrita = System.nanoTime();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        if (inicioEscrita == 0) {
+            return; // Chunk sem itens: fim dos dados
+        }
+        double latenciaMs = (System.nanoTime() - inicioEscrita) / 1_000_000.0;
+        latenciaMediaMs = media(latenciaMediaMs, latenciaMs);
+        if (adaptativo) {
+            ajustar(latenciaMs);
+        }
+        registrar(getChunkSize());
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        inicioEscrita = 0;
+    }
+
+    @Override
+    public void afterWrite(List<?> items) {
+    }
+
+    @Override
+    public void onWriteError(Exception exception, List<?> items) {
+    }
+
+    /**
+     * Calcula o próximo tamanho pela latência por registro do chunk confirmado e pela memória estimada por registro.
+     */
+    private void ajustar(double latenciaMs) {
+        int atual = getChunkSize();
+        long ideal = Math.round(itensEscritos * latenciaAlvoMs / Math.max(latenciaMs, 1.0));
+        long novo = Math.max(atual / 2, Math.min(ideal, atual * 2L));
+        if (bytesPorRegistro > 0) {
+            novo = Math.min(novo, (long) (memoriaMaxima / bytesPorRegistro));
+        }
+        int limitado = limitar(novo);
+        if (Math.abs(limitado - atual) * 10L > atual) { // Ignora variações menores que 10%
+            setChunkSize(limitado);
+        }
+    }
+
+    private int limitar(long tamanho) {
+        return (int) Math.max(minimo, Math.min(maximo, tamanho));
+    }
+
+    /**
+     * Guarda o tamanho atual e as medições no contexto de execução do step, persistido junto com o próximo commit.
+     */
+    private void registrar(int tamanho) {
+        if (tamanho != ultimoRegistrado) {
+            historico = historico.isEmpty() ? String.valueOf(tamanho) : historico + "," + tamanho;
+            if (historico.split(",").length > MAXIMO_HISTORICO) {
+                historico = historico.substring(historico.indexOf(',') + 1);
+            }
+            ultimoRegistrado = tamanho;
+        }
+        ExecutionContext contexto = stepExecution.getExecutionContext();
+        contexto.putInt(TAMANHO, tamanho);
+        contexto.putString(HISTORICO, historico);
+        contexto.putLong(LATENCIA_MEDIA, Math.round(latenciaMediaMs));
+        contexto.putLong(BYTES_POR_REGISTRO, Math.round(bytesPorRegistro));
+    }
+
+    private static double media(double media, double amostra) {
+        return media == 0 ? amostra : media + PESO_MEDIA * (amostra - media);
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,45 @@
+package com.dowglasmaia.migracaodadosjob.step;
+
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração da política de tamanho de chunk usada pelos steps de migração.
+ * Por padrão o tamanho é fixo; com o modo adaptativo habilitado ele é ajustado pela latência de escrita e commit.
+ */
+@Configuration
+public class TamanhoChunkConfig {
+
+    @Value("${app.migracao.chunk.tamanho:10000}")
+    private int tamanho;
+
+    @Value("${app.migracao.chunk.adaptativo.habilitado:false}")
+    private boolean adaptativo;
+
+    @Value("${app.migracao.chunk.adaptativo.minimo:1000}")
+    private int minimo;
+
+    @Value("${app.migracao.chunk.adaptativo.maximo:50000}")
+    private int maximo;
+
+    @Value("${app.migracao.chunk.adaptativo.latencia-alvo-ms:1000}")
+    private long latenciaAlvoMs;
+
+    @Value("${app.migracao.chunk.adaptativo.memoria-maxima-percentual:10}")
+    private int memoriaMaximaPercentual;
+
+    /**
+     * Cria a política de tamanho de chunk. É de escopo de step, então cada execução de step
+     * (inclusive cada partição) tem a sua própria instância e as suas próprias medições.
+     *
+     * @return Política de conclusão de chunk, também registrada como listener do step.
+     */
+    @Bean
+    @StepScope
+    public TamanhoChunkAdaptativo tamanhoChunkAdaptativo() {
+        long memoriaMaxima = Runtime.getRuntime().maxMemory() / 100 * memoriaMaximaPercentual;
+        return new TamanhoChunkAdaptativo(tamanho, adaptativo, minimo, maximo, latenciaAlvoMs, memoriaMaxima);
+    }
+}
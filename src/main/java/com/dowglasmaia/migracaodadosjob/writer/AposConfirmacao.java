@@ -0,0 +1,35 @@
+package com.dowglasmaia.migracaodadosjob.writer;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Adia para depois da confirmação da transação em curso o que os escritores registram fora do banco após gravar
+ * (impressões do delta, ids do índice de pessoas). Uma escrita bem-sucedida ainda pode ser desfeita com a transação:
+ * no {@link BissecaoItemWriter}, as metades gravadas sob um savepoint são desfeitas se o limite de rejeitados
+ * for atingido depois. O registro só é executado se a transação for confirmada, e é descartado se ela for desfeita.
+ */
+public final class AposConfirmacao {
+
+    private AposConfirmacao() {
+    }
+
+    /**
+     * Executa o registro na confirmação da transação em curso, ou imediatamente se não houver transação com
+     * sincronização ativa.
+     *
+     * @param registro Registro dos itens gravados.
+     */
+    public static void executar(Runnable registro) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            registro.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                registro.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.dowglasmaia.migracaodadosjob.writer;
+
+import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração do gravador de arquivo para registros órfãos de {@link DadosBancario}, cuja pessoa não foi gravada no banco.
+ * Os registros são gravados com todas as colunas, na ordem do arquivo de entrada, para que possam ser reprocessados.
+ * O arquivo é removido ao fim do step se nenhum órfão for encontrado.
+ */
+@Configuration
+public class ArquivoDadosBancarioOrfaosWriterConfig {
+
+    private static final String[] COLUNAS = {"pessoaId", "agencia", "conta", "banco", "id"}; // Mesmas colunas do arquivo de entrada
+
+    /**
+     * Cria um {@link FlatFileItemWriter} para gravar dados bancários órfãos em um arquivo CSV.
+     *
+     * @param diretorio Diretório do arquivo, informado no parâmetro {@code diretorio.rejeitados} do job ou {@code files}.
+     * @return FlatFileItemWriter configurado para gravar dados bancários órfãos.
+     */
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<DadosBancario> arquivoDadosBancarioOrfaosWriter(
+          @Value("#{jobParameters['diretorio.rejeitados'] ?: 'files'}") String diretorio
+    ) {
+        return ArquivoRejeitados.gravador("arquivoDadosBancarioOrfaosWriter", diretorio, "dados_bancarios_orfaos", null,
+              true, COLUNAS); // Removido se não houver órfãos
+    }
+
+    /**
+     * Cria um {@link FlatFileItemWriter} para gravar os dados bancários órfãos de uma partição.
+     * O arquivo é o da partição ({@link ArquivoRejeitados}).
+     *
+     * @param particao  Número da partição informado pelo contexto de execução do step worker.
+     * @param diretorio Diretório do arquivo, informado no parâmetro {@code diretorio.rejeitados} do job ou {@code files}.
+     * @return FlatFileItemWriter configurado para gravar dados bancários órfãos da partição.
+     */
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<DadosBancario> arquivoDadosBancarioOrfaosParticaoWriter(
+          @Value("#{stepExecutionContext['particao']}") Integer particao,
+          @Value("#{jobParameters['diretorio.rejeitados'] ?: 'files'}") String diretorio
+    ) {
+        return ArquivoRejeitados.gravador("arquivoDadosBancarioOrfaosParticaoWriter", diretorio, "dados_bancarios_orfaos", particao,
+              true, COLUNAS); // Removido se não houver órfãos
+    }
+}
@@ -1,11 +1,11 @@
 package com.dowglasmaia.migracaodadosjob.writer;
 
 import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.file.FlatFileItemWriter;
-import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.FileSystemResource;
 
 /**
  * Configuração do gravador de arquivo para registros inválidos de {@link Pessoa}.
@@ -17,16 +17,34 @@ public class ArquivoPessoaInvalidasWriterConfig {
     /**
      * Cria um {@link FlatFileItemWriter} para gravar dados inválidos de {@link Pessoa} em um arquivo CSV.
      *
+     * @param diretorio Diretório do arquivo, informado no parâmetro {@code diretorio.rejeitados} do job ou {@code files}.
      * @return FlatFileItemWriter configurado para gravar dados inválidos de pessoas.
      */
     @Bean
-    public FlatFileItemWriter<Pessoa> arquivoPessoaFlatFileItemReader() {
-        return new FlatFileItemWriterBuilder<Pessoa>()
-              .name("arquivoPessoaFlatFileItemReader") // Nome do gravador para identificação
-              .resource(new FileSystemResource("files/pessoas_invalidas.csv")) // Caminho do arquivo CSV
-              .delimited()
-              .names("id") // Nome das colunas no CSV, por exemplo, 'id'
-              .build();
+    @StepScope
+    public FlatFileItemWriter<Pessoa> arquivoPessoaFlatFileItemReader(
+          @Value("#{jobParameters['diretorio.rejeitados'] ?: 'files'}") String diretorio
+    ) {
+        return ArquivoRejeitados.gravador("arquivoPessoaFlatFileItemReader", diretorio, "pessoas_invalidas", null,
+              false, "id");
+    }
+
+    /**
+     * Cria um {@link FlatFileItemWriter} para gravar os dados inválidos de uma partição do arquivo de pessoas,
+     * em um arquivo da partição ({@link ArquivoRejeitados}).
+     *
+     * @param particao  Número da partição informado pelo contexto de execução do step worker.
+     * @param diretorio Diretório do arquivo, informado no parâmetro {@code diretorio.rejeitados} do job ou {@code files}.
+     * @return FlatFileItemWriter configurado para gravar dados inválidos da partição.
+     */
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<Pessoa> arquivoPessoaInvalidasParticaoWriter(
+          @Value("#{stepExecutionContext['particao']}") Integer particao,
+          @Value("#{jobParameters['diretorio.rejeitados'] ?: 'files'}") String diretorio
+    ) {
+        return ArquivoRejeitados.gravador("arquivoPessoaInvalidasParticaoWriter", diretorio, "pessoas_invalidas", particao,
+              false, "id");
     }
 
 }
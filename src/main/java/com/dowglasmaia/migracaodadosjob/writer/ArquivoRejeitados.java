@@ -0,0 +1,39 @@
+package com.dowglasmaia.migracaodadosjob.writer;
+
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.file.builder.FlatFileItemWriterBuilder;
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Cria os gravadores CSV dos registros rejeitados pela validação (pessoas inválidas, dados bancários órfãos),
+ * no diretório de rejeitados do job.
+ * <p>
+ * No step particionado, cada partição grava o seu próprio arquivo, com o número da partição no nome, pois o
+ * {@link FlatFileItemWriter} guarda estado de posição para restart e não pode ser compartilhado entre as partições.
+ */
+final class ArquivoRejeitados {
+
+    private ArquivoRejeitados() {
+    }
+
+    /**
+     * @param nome           Nome do gravador para identificação.
+     * @param diretorio      Diretório do arquivo, informado no parâmetro {@code diretorio.rejeitados} do job ou {@code files}.
+     * @param arquivo        Nome do arquivo, sem a extensão {@code .csv}.
+     * @param particao       Número da partição, acrescentado ao nome do arquivo; {@code null} no step sem partições.
+     * @param removerSeVazio Se o arquivo é removido ao fim do step quando nenhum registro foi gravado.
+     * @param colunas        Propriedades gravadas, na ordem das colunas.
+     * @return FlatFileItemWriter do arquivo de rejeitados.
+     */
+    static <T> FlatFileItemWriter<T> gravador(String nome, String diretorio, String arquivo, Integer particao,
+                                              boolean removerSeVazio, String... colunas) {
+        String sufixo = particao != null ? "_" + particao : "";
+        return new FlatFileItemWriterBuilder<T>()
+              .name(nome) // Nome do gravador para identificação
+              .resource(new FileSystemResource(diretorio + "/" + arquivo + sufixo + ".csv")) // Arquivo CSV, um por partição
+              .shouldDeleteIfEmpty(removerSeVazio)
+              .delimited()
+              .names(colunas) // Nomes das colunas no CSV
+              .build();
+    }
+}
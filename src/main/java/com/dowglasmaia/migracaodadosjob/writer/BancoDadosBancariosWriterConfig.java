@@ -1,40 +1,112 @@
 package com.dowglasmaia.migracaodadosjob.writer;
 
+import com.dowglasmaia.migracaodadosjob.delta.BaseImpressoes;
+import com.dowglasmaia.migracaodadosjob.delta.DeltaItemWriter;
 import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
-import org.springframework.batch.item.database.ItemPreparedStatementSetter;
+import com.dowglasmaia.migracaodadosjob.mapeamento.MapeamentoPropriedades;
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasMigracao;
+import com.dowglasmaia.migracaodadosjob.writer.copy.CopyItemWriter;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.JdbcBatchItemWriter;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 
 import javax.sql.DataSource;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 
 /**
  * Configuração do escritor para dados bancários no banco de dados.
- * Utiliza {@link JdbcBatchItemWriter} para inserir registros de {@link DadosBancario} no banco de dados.
+ * Utiliza {@link JdbcBatchItemWriter} para inserir registros de {@link DadosBancario} no banco de dados,
+ * ou {@link CopyItemWriter} quando o modo de escrita configurado é um dos modos COPY.
+ * O tratamento de registros já existentes segue o {@link ModoConflito} configurado.
+ * No {@link ModoCarga#STAGING}, a escrita é feita na tabela de staging, sem cláusula de conflito.
+ * Os parâmetros do INSERT e as colunas do COPY são lidos pelos acessores gerados do {@link MapeamentoPropriedades}.
+ * Com o isolamento de falhas habilitado, o {@link BissecaoItemWriter} envia os dados bancários recusados pelo banco
+ * para {@code dados_bancarios_rejeitados_banco.csv} em vez de falhar o chunk.
+ * No modo delta, o {@link DeltaItemWriter} registra a impressão dos dados bancários gravados.
  */
 @Configuration
 public class BancoDadosBancariosWriterConfig {
 
+    private static final String[] COLUNAS = {"id", "pessoa_id", "agencia", "conta", "banco"};
+
+    private static final String[] PROPRIEDADES = {"id", "pessoaId", "agencia", "conta", "banco"};
+
+    private static final MapeamentoPropriedades<DadosBancario> MAPEAMENTO = MapeamentoPropriedades.de(DadosBancario.class);
+
+    @Value("${app.migracao.escrita.dados-bancarios:jdbc}")
+    private ModoEscrita modoEscrita;
+
+    @Value("${app.migracao.escrita.conflito:falhar}")
+    private ModoConflito modoConflito;
+
+    @Value("${app.migracao.carga.modo:direta}")
+    private ModoCarga modoCarga;
+
+    @Value("${app.migracao.delta.habilitado:false}")
+    private boolean deltaHabilitado;
+
+    @Value("${app.migracao.escrita.isolamento.habilitado:false}")
+    private boolean isolamentoHabilitado;
+
+    @Value("${app.migracao.escrita.isolamento.limite-por-chunk:1000}")
+    private int limitePorChunk;
+
+    @Autowired
+    @Qualifier("metricasMigracao")
+    private MetricasMigracao metricasMigracao;
+
     /**
-     * Cria um {@link JdbcBatchItemWriter} para gravar dados bancários em um banco de dados.
+     * Cria o escritor para gravar dados bancários em um banco de dados, conforme o modo de escrita configurado.
      *
-     * @param dataSource Fonte de dados (DataSource) a ser utilizada pelo escritor.
-     * @return JdbcBatchItemWriter configurado para inserir dados bancários.
+     * @param dataSource         Fonte de dados (DataSource) a ser utilizada pelo escritor.
+     * @param baseDadosBancarios Base de impressões de dados bancários, usada no modo delta.
+     * @return ItemWriter configurado para inserir dados bancários.
      */
     @Bean
-    public JdbcBatchItemWriter<DadosBancario> bancoDadosBancarioWriter(
-          @Qualifier("appDataSource") DataSource dataSource
+    public ItemWriter<DadosBancario> bancoDadosBancarioWriter(
+          @Qualifier("appDataSource") DataSource dataSource,
+          @Qualifier("baseDadosBancarios") BaseImpressoes<DadosBancario> baseDadosBancarios
     ) {
+        ItemWriter<DadosBancario> writer = criarWriter(dataSource);
+        if (deltaHabilitado) {
+            writer = new DeltaItemWriter<>(writer, baseDadosBancarios);
+        }
+        if (isolamentoHabilitado) {
+            return new BissecaoItemWriter<>(
+                  writer, // Escritor do banco, com as impressões no modo delta
+                  new DataSourceTransactionManager(dataSource), // Uma transação por chunk, com um savepoint por escrita e metade reescrita
+                  DadosBancario::getId, // Identificador gravado no arquivo de rejeitados
+                  "dados_bancarios_rejeitados_banco.csv", // Arquivo de rejeitados, no diretório de rejeitados do job
+                  limitePorChunk, // Acima desse número de rejeitados, o chunk falha
+                  metricasMigracao, MetricasMigracao.ETAPA_DADOS_BANCARIOS
+            );
+        }
+        return writer;
+    }
+
+    private ItemWriter<DadosBancario> criarWriter(DataSource dataSource) {
+        if (modoEscrita.isCopy()) {
+            return new CopyItemWriter<>(
+                  dataSource, // Define a fonte de dados a ser utilizada
+                  modoCarga.tabela("public.dados_bancarios"), // Tabela de destino, ou a sua staging
+                  COLUNAS, // Colunas na ordem do codificador
+                  modoEscrita.getFormatoCopy(), // Formato texto ou binário
+                  MAPEAMENTO.codificadorCopy(PROPRIEDADES), // Grava os campos de DadosBancario no buffer do COPY
+                  "id", // Chave primária, sem repetição na inserção a partir da tabela temporária
+                  modoCarga.clausula(modoConflito, "id", COLUNAS) // Cláusula ON CONFLICT, aplicada via tabela temporária
+            );
+        }
         return new JdbcBatchItemWriterBuilder<DadosBancario>()
               .dataSource(dataSource) // Define a fonte de dados a ser utilizada
-              .sql("INSERT INTO public.dados_bancarios (id, pessoa_id, agencia, conta, banco) VALUES (:id, :pessoaId, :agencia, :conta, :banco);") // SQL de inserção
-              .beanMapped() // Mapeia os campos do objeto DadosBancario diretamente para os parâmetros SQL
+              .sql("INSERT INTO " + modoCarga.tabela("public.dados_bancarios") + " (id, pessoa_id, agencia, conta, banco) VALUES (?, ?, ?, ?, ?)"
+                    + modoCarga.clausula(modoConflito, "id", COLUNAS)) // SQL de inserção, com a cláusula de conflito
+              .itemPreparedStatementSetter(MAPEAMENTO.preparedStatementSetter(PROPRIEDADES)) // Define os parâmetros pelos acessores gerados, na ordem das colunas
+              .assertUpdates(modoConflito.isVerificaAtualizacoes()) // DO NOTHING não afeta registros existentes
               .build();
     }
-    
-
 }
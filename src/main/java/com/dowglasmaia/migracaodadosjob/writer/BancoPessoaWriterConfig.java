@@ -1,39 +1,122 @@
 package com.dowglasmaia.migracaodadosjob.writer;
 
+import com.dowglasmaia.migracaodadosjob.delta.BaseImpressoes;
+import com.dowglasmaia.migracaodadosjob.delta.DeltaItemWriter;
 import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import com.dowglasmaia.migracaodadosjob.integridade.IndiceIds;
+import com.dowglasmaia.migracaodadosjob.integridade.IndicePessoaItemWriter;
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasMigracao;
+import com.dowglasmaia.migracaodadosjob.writer.copy.CodificadorCopy;
+import com.dowglasmaia.migracaodadosjob.writer.copy.CopyItemWriter;
+import com.dowglasmaia.migracaodadosjob.writer.copy.LinhaCopy;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.database.ItemPreparedStatementSetter;
 import org.springframework.batch.item.database.JdbcBatchItemWriter;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 
 import javax.sql.DataSource;
-import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 /**
  * Configuração do escritor para entidade Pessoa no banco de dados.
- * Utiliza {@link JdbcBatchItemWriter} para inserir registros de {@link Pessoa} no banco de dados.
+ * Utiliza {@link JdbcBatchItemWriter} para inserir registros de {@link Pessoa} no banco de dados,
+ * ou {@link CopyItemWriter} quando o modo de escrita configurado é um dos modos COPY.
+ * O tratamento de registros já existentes segue o {@link ModoConflito} configurado.
+ * No {@link ModoCarga#STAGING}, a escrita é feita na tabela de staging, sem cláusula de conflito.
+ * Com a integridade habilitada, o escritor é envolvido por um {@link IndicePessoaItemWriter}, que inclui os ids gravados no índice de pessoas.
+ * Com o isolamento de falhas habilitado, o {@link BissecaoItemWriter} envia as pessoas recusadas pelo banco
+ * para {@code pessoas_rejeitadas_banco.csv} em vez de falhar o chunk; só os ids gravados entram no índice.
+ * No modo delta, o {@link DeltaItemWriter} registra a impressão das pessoas gravadas.
  */
 @Configuration
 public class BancoPessoaWriterConfig {
 
+    private static final String[] COLUNAS = {"id", "nome", "email", "data_nascimento", "idade"};
+
+    @Value("${app.migracao.escrita.pessoa:jdbc}")
+    private ModoEscrita modoEscrita;
+
+    @Value("${app.migracao.escrita.conflito:falhar}")
+    private ModoConflito modoConflito;
+
+    @Value("${app.migracao.carga.modo:direta}")
+    private ModoCarga modoCarga;
+
+    @Value("${app.migracao.integridade.habilitada:false}")
+    private boolean integridadeHabilitada;
+
+    @Value("${app.migracao.delta.habilitado:false}")
+    private boolean deltaHabilitado;
+
+    @Value("${app.migracao.escrita.isolamento.habilitado:false}")
+    private boolean isolamentoHabilitado;
+
+    @Value("${app.migracao.escrita.isolamento.limite-por-chunk:1000}")
+    private int limitePorChunk;
+
+    @Autowired
+    @Qualifier("metricasMigracao")
+    private MetricasMigracao metricasMigracao;
+
     /**
-     * Cria um {@link JdbcBatchItemWriter} para gravar dados de Pessoa em um banco de dados.
+     * Cria o escritor para gravar dados de Pessoa em um banco de dados, conforme o modo de escrita configurado.
      *
-     * @param dataSource Fonte de dados (DataSource) a ser utilizada pelo escritor.
-     * @return JdbcBatchItemWriter configurado para inserir dados de Pessoa.
+     * @param dataSource    Fonte de dados (DataSource) a ser utilizada pelo escritor.
+     * @param indicePessoas Índice dos ids de pessoas gravadas, preenchido com a integridade habilitada.
+     * @param basePessoas   Base de impressões de pessoas, usada no modo delta.
+     * @return ItemWriter configurado para inserir dados de Pessoa.
      */
     @Bean
-    public JdbcBatchItemWriter<Pessoa> bancoPessoaWriter(
-          @Qualifier("appDataSource") DataSource dataSource
+    public ItemWriter<Pessoa> bancoPessoaWriter(
+          @Qualifier("appDataSource") DataSource dataSource,
+          @Qualifier("indicePessoas") IndiceIds indicePessoas,
+          @Qualifier("basePessoas") BaseImpressoes<Pessoa> basePessoas
     ) {
+        ItemWriter<Pessoa> writer = criarWriter(dataSource);
+        if (deltaHabilitado) {
+            writer = new DeltaItemWriter<>(writer, basePessoas);
+        }
+        if (integridadeHabilitada) {
+            writer = new IndicePessoaItemWriter(writer, indicePessoas);
+        }
+        if (isolamentoHabilitado) {
+            return new BissecaoItemWriter<>(
+                  writer, // Escritor do banco, com o índice de pessoas e as impressões quando habilitados
+                  new DataSourceTransactionManager(dataSource), // Uma transação por chunk, com um savepoint por escrita e metade reescrita
+                  Pessoa::getId, // Identificador gravado no arquivo de rejeitados
+                  "pessoas_rejeitadas_banco.csv", // Arquivo de rejeitados, no diretório de rejeitados do job
+                  limitePorChunk, // Acima desse número de rejeitados, o chunk falha
+                  metricasMigracao, MetricasMigracao.ETAPA_PESSOA
+            );
+        }
+        return writer;
+    }
+
+    private ItemWriter<Pessoa> criarWriter(DataSource dataSource) {
+        if (modoEscrita.isCopy()) {
+            return new CopyItemWriter<>(
+                  dataSource, // Define a fonte de dados a ser utilizada
+                  modoCarga.tabela("pessoa"), // Tabela de destino, ou a sua staging
+                  COLUNAS, // Colunas na ordem do codificador
+                  modoEscrita.getFormatoCopy(), // Formato texto ou binário
+                  codificadorCopy(), // Grava os campos de Pessoa no buffer do COPY
+                  "id", // Chave primária, sem repetição na inserção a partir da tabela temporária
+                  modoCarga.clausula(modoConflito, "id", COLUNAS) // Cláusula ON CONFLICT, aplicada via tabela temporária
+            );
+        }
         return new JdbcBatchItemWriterBuilder<Pessoa>()
               .dataSource(dataSource) // Define a fonte de dados a ser utilizada
-              .sql("INSERT INTO pessoa (id, nome, email, data_nascimento, idade) VALUES (?,?,?,?,?)") // SQL de inserção
+              .sql("INSERT INTO " + modoCarga.tabela("pessoa") + " (id, nome, email, data_nascimento, idade) VALUES (?,?,?,?,?)"
+                    + modoCarga.clausula(modoConflito, "id", COLUNAS)) // SQL de inserção, com a cláusula de conflito
               .itemPreparedStatementSetter(preparedStatementSetter()) // Configura o preparador de declarações
+              .assertUpdates(modoConflito.isVerificaAtualizacoes()) // DO NOTHING não afeta registros existentes
               .build();
     }
 
@@ -49,9 +132,28 @@ public class BancoPessoaWriterConfig {
                 ps.setInt(1, pessoa.getId()); // Define o valor do parâmetro 1 (id)
                 ps.setString(2, pessoa.getNome()); // Define o valor do parâmetro 2 (nome)
                 ps.setString(3, pessoa.getEmail()); // Define o valor do parâmetro 3 (email)
-                ps.setDate(4, new Date(pessoa.getDataNascimento().getTime())); // Define o valor do parâmetro 4 (data_nascimento)
+                ps.setObject(4, pessoa.getDataNascimento().toLocalDate()); // Define o valor do parâmetro 4 (data_nascimento), sem criar objetos
                 ps.setInt(5, pessoa.getIdade()); // Define o valor do parâmetro 5 (idade)
             }
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Cria um {@link CodificadorCopy} que grava os campos de Pessoa na ordem das colunas do COPY.
+     * A data de nascimento é truncada para o dia, como no modo JDBC.
+     *
+     * @return CodificadorCopy para Pessoa.
+     */
+    private CodificadorCopy<Pessoa> codificadorCopy() {
+        return new CodificadorCopy<Pessoa>() {
+            @Override
+            public void codificar(Pessoa pessoa, LinhaCopy linha) {
+                linha.inteiro(pessoa.getId()); // Coluna id
+                linha.texto(pessoa.getNome()); // Coluna nome
+                linha.texto(pessoa.getEmail()); // Coluna email
+                linha.timestamp(pessoa.getDataNascimento().toLocalDate()); // Coluna data_nascimento
+                linha.inteiro(pessoa.getIdade()); // Coluna idade
+            }
+        };
+    }
+}
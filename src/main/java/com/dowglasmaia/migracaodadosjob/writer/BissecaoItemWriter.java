@@ -0,0 +1,197 @@
+package com.dowglasmaia.migracaodadosjob.writer;
+
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasMigracao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * {@link ItemWriter} que isola os registros recusados pelo banco em vez de falhar o chunk inteiro.
+ * <p>
+ * Quando a escrita do chunk falha por violação de integridade (chave duplicada, valor maior que a coluna,
+ * tipo inválido), o chunk é dividido ao meio e cada metade é escrita novamente, recursivamente, até restarem
+ * os registros que falham sozinhos. Com k registros inválidos em um chunk de n, são O(k log n) escritas,
+ * contra as n escritas individuais da varredura do step tolerante a falhas do Spring Batch.
+ * Os registros recusados vão para o arquivo de rejeitados com o erro do banco, e os demais são gravados.
+ * <p>
+ * Todas as escritas de um chunk, inclusive a do chunk inteiro, são feitas em uma única transação no {@code appDataSource},
+ * com um savepoint por tentativa: uma tentativa que falha é desfeita até o seu savepoint, sem desfazer as metades já
+ * gravadas, e a transação só é confirmada no fim. Se o limite de rejeitados for atingido, ou outra falha
+ * (conexão, SQL inválido) ocorrer no meio da divisão, a transação inteira é desfeita e o chunk falha sem ter gravado
+ * nada, então o restart reescreve o chunk do início. O arquivo de rejeitados só é gravado depois da confirmação,
+ * e os registros dos escritores envolvidos ({@link AposConfirmacao}) só são publicados por ela.
+ *
+ * @param <T> Tipo do item gravado.
+ */
+public class BissecaoItemWriter<T> implements ItemWriter<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(BissecaoItemWriter.class);
+
+    private final ItemWriter<T> delegate;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionDefinition transacao;
+    private final Function<? super T, ?> identificador;
+    private final String arquivo;
+    private final int limitePorChunk;
+    private final MetricasMigracao metricas;
+    private final String etapa;
+
+    /**
+     * @param delegate           Escritor do banco, que obtém a conexão por {@code DataSourceUtils}.
+     * @param transactionManager Gerenciador de transações do DataSource do escritor.
+     * @param identificador      Extrai o identificador gravado no arquivo de rejeitados.
+     * @param arquivo            Nome do arquivo de rejeitados, criado no diretório do parâmetro {@code diretorio.rejeitados}
+     *                           do job ou em {@code files}.
+     * @param limitePorChunk     Registros rejeitados em um chunk acima dos quais o chunk falha com o erro original.
+     * @param metricas           Métricas da migração, onde os rejeitados são contados.
+     * @param etapa              Etapa da migração, usada nas métricas.
+     */
+    public BissecaoItemWriter(ItemWriter<T> delegate, PlatformTransactionManager transactionManager,
+                              Function<? super T, ?> identificador, String arquivo, int limitePorChunk,
+                              MetricasMigracao metricas, String etapa) {
+        this.delegate = delegate;
+        this.transactionManager = transactionManager;
+        this.transacao = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.identificador = identificador;
+        this.arquivo = arquivo;
+        this.limitePorChunk = limitePorChunk;
+        this.metricas = metricas;
+        this.etapa = etapa;
+    }
+
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        TransactionStatus status = transactionManager.getTransaction(transacao);
+        List<Rejeicao> rejeicoes = new ArrayList<>();
+        int[] escritas = {1};
+        long inicio = System.nanoTime();
+        try {
+            try {
+                escrever(items, status);
+            } catch (DataIntegrityViolationException falha) {
+                isolar(items, falha, rejeicoes, escritas, falha, status);
+            }
+        } catch (Exception | Error e) {
+            transactionManager.rollback(status);
+            throw e;
+        }
+        transactionManager.commit(status);
+        if (!rejeicoes.isEmpty()) {
+            rejeitar(rejeicoes);
+            log.warn("Chunk de {} registros de {} recusado pelo banco: {} registro(s) rejeitado(s) em {} escritas e {} ms",
+                  items.size(), etapa, rejeicoes.size(), escritas[0], (System.nanoTime() - inicio) / 1_000_000);
+        }
+    }
+
+    /**
+     * Escreve cada metade da lista que falhou, dividindo de novo as metades que também falham.
+     * Um registro que falha sozinho é rejeitado.
+     */
+    private void isolar(List<? extends T> itens, DataIntegrityViolationException falha, List<Rejeicao> rejeicoes,
+                        int[] escritas, DataIntegrityViolationException original, TransactionStatus status) throws Exception {
+        if (itens.size() == 1) {
+            if (rejeicoes.size() >= limitePorChunk) {
+                throw original; // Falha sistemática, por exemplo um arquivo inteiro já carregado
+            }
+            rejeicoes.add(new Rejeicao(identificador.apply(itens.get(0)), falha));
+            return;
+        }
+        int meio = itens.size() / 2;
+        List<List<? extends T>> metades = new ArrayList<>(2);
+        metades.add(itens.subList(0, meio));
+        metades.add(itens.subList(meio, itens.size()));
+        for (List<? extends T> metade : metades) {
+            escritas[0]++;
+            try {
+                escrever(metade, status);
+            } catch (DataIntegrityViolationException e) {
+                isolar(metade, e, rejeicoes, escritas, original, status);
+            }
+        }
+    }
+
+    /**
+     * Escreve os itens depois de um savepoint da transação do chunk. Uma violação de integridade desfaz só esta escrita,
+     * até o savepoint; as demais falhas são propagadas e desfazem a transação inteira.
+     */
+    private void escrever(List<? extends T> itens, TransactionStatus status) throws Exception {
+        Object savepoint = status.createSavepoint();
+        try {
+            delegate.write(itens);
+        } catch (DataIntegrityViolationException e) {
+            status.rollbackToSavepoint(savepoint);
+            throw e;
+        }
+        status.releaseSavepoint(savepoint);
+    }
+
+    /**
+     * Acrescenta os rejeitados ao arquivo, uma linha {@code execucao,id,estado_sql,"mensagem"} por registro.
+     * O arquivo é compartilhado pelas partições do step, então a gravação é sincronizada, e acumula as execuções.
+     */
+    private synchronized void rejeitar(List<Rejeicao> rejeicoes) throws IOException {
+        StepContext contexto = StepSynchronizationManager.getContext();
+        Object diretorio = contexto != null ? contexto.getJobParameters().get("diretorio.rejeitados") : null;
+        Object execucao = contexto != null ? contexto.getStepExecution().getJobExecutionId() : "";
+        Path caminho = Paths.get(diretorio != null ? diretorio.toString() : "files", arquivo);
+        try (BufferedWriter writer = Files.newBufferedWriter(caminho, StandardCharsets.UTF_8,
+              StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Rejeicao rejeicao : rejeicoes) {
+                writer.write(execucao + "," + rejeicao.id + "," + rejeicao.estadoSql + ",\""
+                      + rejeicao.mensagem.replace("\"", "\"\"") + "\"");
+                writer.newLine();
+            }
+        }
+        metricas.contarRejeitados(etapa, "banco", rejeicoes.size());
+    }
+
+    /**
+     * Registro recusado pelo banco e o erro que o recusou.
+     */
+    private static final class Rejeicao {
+
+        private final Object id;
+        private final String estadoSql;
+        private final String mensagem;
+
+        private Rejeicao(Object id, DataIntegrityViolationException falha) {
+            SQLException erro = erroSql(falha);
+            this.id = id;
+            this.estadoSql = erro != null && erro.getSQLState() != null ? erro.getSQLState() : "";
+            String mensagem = erro != null ? erro.getMessage() : falha.getMostSpecificCause().getMessage();
+            this.mensagem = mensagem == null ? "" : mensagem.replaceAll("\\s+", " ").trim();
+        }
+
+        /**
+         * @return Erro do banco. Em um lote JDBC, o PgJDBC encadeia o erro do servidor ao {@code BatchUpdateException}.
+         */
+        private static SQLException erroSql(DataIntegrityViolationException falha) {
+            for (Throwable causa = falha; causa != null; causa = causa.getCause()) {
+                if (causa instanceof SQLException) {
+                    SQLException erro = (SQLException) causa;
+                    return erro.getNextException() != null ? erro.getNextException() : erro;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.dowglasmaia.migracaodadosjob.writer;
+
+import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import com.dowglasmaia.migracaodadosjob.integridade.IndiceIds;
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasMigracao;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.support.ClassifierCompositeItemWriter;
+import org.springframework.batch.item.support.builder.ClassifierCompositeItemWriterBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.classify.Classifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração do escritor classificador para entidade DadosBancario, usado com a integridade habilitada.
+ * Utiliza {@link ClassifierCompositeItemWriter} para gravar no banco apenas os registros de {@link DadosBancario}
+ * cuja pessoa está no índice de pessoas gravadas, e os demais no arquivo de órfãos.
+ */
+@Configuration
+public class DadosBancarioClassifierWriterConfig {
+
+    @Autowired
+    @Qualifier("metricasMigracao")
+    private MetricasMigracao metricasMigracao;
+
+    /**
+     * Cria um {@link ClassifierCompositeItemWriter} para separar dados bancários válidos e órfãos.
+     *
+     * @param bancoDadosBancarioWriter         Escritor de banco de dados para dados bancários com pessoa.
+     * @param arquivoDadosBancarioOrfaosWriter Escritor de arquivo plano para dados bancários órfãos.
+     * @param indicePessoas                    Índice dos ids de pessoas gravadas.
+     * @return ClassifierCompositeItemWriter configurado para direcionar dados bancários.
+     */
+    @Bean
+    public ClassifierCompositeItemWriter<DadosBancario> dadosBancarioClassifierCompositeItemWriter(
+          @Qualifier("bancoDadosBancarioWriter") ItemWriter<DadosBancario> bancoDadosBancarioWriter,
+          @Qualifier("arquivoDadosBancarioOrfaosWriter") FlatFileItemWriter<DadosBancario> arquivoDadosBancarioOrfaosWriter,
+          @Qualifier("indicePessoas") IndiceIds indicePessoas
+    ) {
+        return new ClassifierCompositeItemWriterBuilder<DadosBancario>()
+              .classifier(classifier(bancoDadosBancarioWriter, arquivoDadosBancarioOrfaosWriter, indicePessoas)) // Define o classificador
+              .build();
+    }
+
+    /**
+     * Cria um {@link ClassifierCompositeItemWriter} para uma partição do arquivo de dados bancários.
+     * O escritor de banco de dados é compartilhado entre as partições, e os órfãos vão para o arquivo da própria partição.
+     *
+     * @param bancoDadosBancarioWriter                 Escritor de banco de dados para dados bancários com pessoa.
+     * @param arquivoDadosBancarioOrfaosParticaoWriter Escritor de arquivo plano da partição para dados bancários órfãos.
+     * @param indicePessoas                            Índice dos ids de pessoas gravadas.
+     * @return ClassifierCompositeItemWriter configurado para direcionar dados bancários da partição.
+     */
+    @Bean
+    @StepScope
+    public ClassifierCompositeItemWriter<DadosBancario> dadosBancarioClassifierParticaoWriter(
+          @Qualifier("bancoDadosBancarioWriter") ItemWriter<DadosBancario> bancoDadosBancarioWriter,
+          @Qualifier("arquivoDadosBancarioOrfaosParticaoWriter") FlatFileItemWriter<DadosBancario> arquivoDadosBancarioOrfaosParticaoWriter,
+          @Qualifier("indicePessoas") IndiceIds indicePessoas
+    ) {
+        return new ClassifierCompositeItemWriterBuilder<DadosBancario>()
+              .classifier(classifier(bancoDadosBancarioWriter, arquivoDadosBancarioOrfaosParticaoWriter, indicePessoas)) // Define o classificador
+              .build();
+    }
+
+    /**
+     * Cria um classificador {@link Classifier} que consulta o índice de pessoas para cada registro.
+     *
+     * @param bancoDadosBancarioWriter         Escritor de banco de dados para dados bancários com pessoa.
+     * @param arquivoDadosBancarioOrfaosWriter Escritor de arquivo plano para dados bancários órfãos.
+     * @param indicePessoas                    Índice dos ids de pessoas gravadas.
+     * @return Classifier configurado para classificar os dados bancários, com o tempo e os órfãos medidos.
+     */
+    private Classifier<DadosBancario, ItemWriter<? super DadosBancario>> classifier(
+          ItemWriter<DadosBancario> bancoDadosBancarioWriter,
+          FlatFileItemWriter<DadosBancario> arquivoDadosBancarioOrfaosWriter,
+          IndiceIds indicePessoas
+    ) {
+        Classifier<DadosBancario, ItemWriter<? super DadosBancario>> classificador = new Classifier<DadosBancario, ItemWriter<? super DadosBancario>>() {
+            @Override
+            public ItemWriter<? super DadosBancario> classify(DadosBancario dadosBancario) {
+                if (indicePessoas.contem(dadosBancario.getPessoaId())) {
+                    return bancoDadosBancarioWriter; // A pessoa foi gravada: grava no banco
+                } else {
+                    return arquivoDadosBancarioOrfaosWriter; // Pessoa inexistente ou inválida: grava no arquivo de órfãos
+                }
+            }
+        };
+        return metricasMigracao.medirClassificacao(MetricasMigracao.ETAPA_DADOS_BANCARIOS, classificador, arquivoDadosBancarioOrfaosWriter, "orfao"); // Mede a classificação e conta os rejeitados
+    }
+}
@@ -0,0 +1,41 @@
+package com.dowglasmaia.migracaodadosjob.writer;
+
+/**
+ * Destino da escrita dos steps de migração, selecionado em {@code app.migracao.carga.modo}.
+ */
+public enum ModoCarga {
+
+    /**
+     * Escrita direta nas tabelas finais, com a chave primária verificada a cada registro.
+     */
+    DIRETA,
+
+    /**
+     * Escrita em tabelas {@code UNLOGGED} de staging, sem índices, criadas no início do job. Ao fim do job,
+     * os dados são promovidos para as tabelas finais com um único {@code INSERT ... SELECT} por tabela.
+     */
+    STAGING;
+
+    public static final String SUFIXO_STAGING = "_staging";
+
+    /**
+     * @param destino Tabela final.
+     * @return Tabela em que os writers gravam: a própria tabela final ou a sua tabela de staging.
+     */
+    public String tabela(String destino) {
+        return this == STAGING ? destino + SUFIXO_STAGING : destino;
+    }
+
+    /**
+     * Monta a cláusula {@code ON CONFLICT} da escrita dos chunks. Na staging, que não tem chave primária,
+     * o conflito é tratado apenas na promoção.
+     *
+     * @param modoConflito Modo de conflito configurado.
+     * @param chave        Coluna da chave primária.
+     * @param colunas      Colunas inseridas, incluindo a chave.
+     * @return Cláusula iniciada por espaço, ou vazia.
+     */
+    public String clausula(ModoConflito modoConflito, String chave, String[] colunas) {
+        return this == STAGING ? "" : modoConflito.clausula(chave, colunas);
+    }
+}
@@ -0,0 +1,57 @@
+package com.dowglasmaia.migracaodadosjob.writer;
+
+import java.util.StringJoiner;
+
+/**
+ * Tratamento de registros já existentes no destino, selecionado em {@code app.migracao.escrita.conflito}.
+ * Com {@link #IGNORAR} ou {@link #ATUALIZAR}, a escrita é idempotente e o job pode ser executado novamente
+ * após uma falha sem violar a chave primária.
+ */
+public enum ModoConflito {
+
+    /**
+     * INSERT simples: um registro existente viola a chave primária e falha o chunk.
+     */
+    FALHAR,
+
+    /**
+     * {@code ON CONFLICT (chave) DO NOTHING}: mantém o registro existente.
+     */
+    IGNORAR,
+
+    /**
+     * {@code ON CONFLICT (chave) DO UPDATE}: substitui as demais colunas do registro existente.
+     */
+    ATUALIZAR;
+
+    /**
+     * Monta a cláusula {@code ON CONFLICT} a ser anexada ao INSERT.
+     *
+     * @param chave   Coluna da chave primária.
+     * @param colunas Colunas inseridas, incluindo a chave.
+     * @return Cláusula iniciada por espaço, ou vazia no modo {@link #FALHAR}.
+     */
+    public String clausula(String chave, String[] colunas) {
+        switch (this) {
+            case IGNORAR:
+                return " ON CONFLICT (" + chave + ") DO NOTHING";
+            case ATUALIZAR:
+                StringJoiner atribuicoes = new StringJoiner(", ");
+                for (String coluna : colunas) {
+                    if (!coluna.equals(chave)) {
+                        atribuicoes.add(coluna + " = EXCLUDED." + coluna);
+                    }
+                }
+                return " ON CONFLICT (" + chave + ") DO UPDATE SET " + atribuicoes;
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * @return Se cada INSERT deve afetar exatamente um registro. No modo {@link #IGNORAR}, um registro existente não é afetado.
+     */
+    public boolean isVerificaAtualizacoes() {
+        return this != IGNORAR;
+    }
+}
@@ -0,0 +1,38 @@
+package com.dowglasmaia.migracaodadosjob.writer;
+
+import com.dowglasmaia.migracaodadosjob.writer.copy.FormatoCopy;
+
+/**
+ * Modos de escrita dos registros no banco de dados, selecionados por step em {@code app.migracao.escrita}.
+ */
+public enum ModoEscrita {
+
+    /**
+     * INSERT em lote via {@link org.springframework.batch.item.database.JdbcBatchItemWriter}.
+     */
+    JDBC(null),
+
+    /**
+     * {@code COPY ... FROM STDIN} no formato texto.
+     */
+    COPY_TEXTO(FormatoCopy.TEXTO),
+
+    /**
+     * {@code COPY ... FROM STDIN} no formato binário.
+     */
+    COPY_BINARIO(FormatoCopy.BINARIO);
+
+    private final FormatoCopy formatoCopy;
+
+    ModoEscrita(FormatoCopy formatoCopy) {
+        this.formatoCopy = formatoCopy;
+    }
+
+    public boolean isCopy() {
+        return formatoCopy != null;
+    }
+
+    public FormatoCopy getFormatoCopy() {
+        return formatoCopy;
+    }
+}
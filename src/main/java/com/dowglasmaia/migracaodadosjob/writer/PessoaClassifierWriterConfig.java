@@ -1,11 +1,14 @@
 package com.dowglasmaia.migracaodadosjob.writer;
 
 import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasMigracao;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.database.JdbcBatchItemWriter;
 import org.springframework.batch.item.file.FlatFileItemWriter;
 import org.springframework.batch.item.support.ClassifierCompositeItemWriter;
 import org.springframework.batch.item.support.builder.ClassifierCompositeItemWriterBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.classify.Classifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,17 +20,40 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class PessoaClassifierWriterConfig {
 
+    @Autowired
+    @Qualifier("metricasMigracao")
+    private MetricasMigracao metricasMigracao;
+
     /**
      * Cria um {@link ClassifierCompositeItemWriter} para classificar e direcionar dados de {@link Pessoa} para diferentes escritores.
      *
-     * @param pessoaJdbcBatchItemWriter   Escritor JDBC para dados válidos de Pessoa.
+     * @param pessoaJdbcBatchItemWriter   Escritor de banco de dados para dados válidos de Pessoa.
      * @param pessoaFlatFileItemWriter    Escritor de arquivo plano para dados inválidos de Pessoa.
      * @return ClassifierCompositeItemWriter configurado para direcionar dados de Pessoa.
      */
     @Bean
     public ClassifierCompositeItemWriter<Pessoa> pessoaClassifierCompositeItemWriter(
-          JdbcBatchItemWriter<Pessoa> pessoaJdbcBatchItemWriter,
-          FlatFileItemWriter<Pessoa> pessoaFlatFileItemWriter
+          @Qualifier("bancoPessoaWriter") ItemWriter<Pessoa> pessoaJdbcBatchItemWriter,
+          @Qualifier("arquivoPessoaFlatFileItemReader") FlatFileItemWriter<Pessoa> pessoaFlatFileItemWriter
+    ) {
+        return new ClassifierCompositeItemWriterBuilder<Pessoa>()
+              .classifier(classifier(pessoaJdbcBatchItemWriter, pessoaFlatFileItemWriter)) // Define o classificador
+              .build();
+    }
+
+    /**
+     * Cria um {@link ClassifierCompositeItemWriter} para uma partição do arquivo de pessoas.
+     * O escritor de banco de dados é compartilhado entre as partições, e os inválidos vão para o arquivo da própria partição.
+     *
+     * @param pessoaJdbcBatchItemWriter   Escritor de banco de dados para dados válidos de Pessoa.
+     * @param pessoaFlatFileItemWriter    Escritor de arquivo plano da partição para dados inválidos de Pessoa.
+     * @return ClassifierCompositeItemWriter configurado para direcionar dados de Pessoa da partição.
+     */
+    @Bean
+    @StepScope
+    public ClassifierCompositeItemWriter<Pessoa> pessoaClassifierParticaoWriter(
+          @Qualifier("bancoPessoaWriter") ItemWriter<Pessoa> pessoaJdbcBatchItemWriter,
+          @Qualifier("arquivoPessoaInvalidasParticaoWriter") FlatFileItemWriter<Pessoa> pessoaFlatFileItemWriter
     ) {
         return new ClassifierCompositeItemWriterBuilder<Pessoa>()
               .classifier(classifier(pessoaJdbcBatchItemWriter, pessoaFlatFileItemWriter)) // Define o classificador
@@ -37,23 +63,24 @@ public class PessoaClassifierWriterConfig {
     /**
      * Cria um classificador {@link Classifier} para decidir qual escritor usar com base nos dados de Pessoa.
      *
-     * @param pessoaJdbcBatchItemWriter   Escritor JDBC para dados válidos de Pessoa.
+     * @param pessoaJdbcBatchItemWriter   Escritor de banco de dados para dados válidos de Pessoa.
      * @param pessoaFlatFileItemWriter    Escritor de arquivo plano para dados inválidos de Pessoa.
-     * @return Classifier configurado para classificar os dados de Pessoa.
+     * @return Classifier configurado para classificar os dados de Pessoa, com o tempo e os inválidos medidos.
      */
     private Classifier<Pessoa, ItemWriter<? super Pessoa>> classifier(
-          JdbcBatchItemWriter<Pessoa> pessoaJdbcBatchItemWriter,
+          ItemWriter<Pessoa> pessoaJdbcBatchItemWriter,
           FlatFileItemWriter<Pessoa> pessoaFlatFileItemWriter
     ) {
-        return new Classifier<Pessoa, ItemWriter<? super Pessoa>>() {
+        Classifier<Pessoa, ItemWriter<? super Pessoa>> classificador = new Classifier<Pessoa, ItemWriter<? super Pessoa>>() {
             @Override
             public ItemWriter<? super Pessoa> classify(Pessoa pessoa) {
                 if (pessoa.isValida()) {
-                    return pessoaJdbcBatchItemWriter; // Usa o escritor JDBC para pessoas válidas
+                    return pessoaJdbcBatchItemWriter; // Usa o escritor de banco de dados para pessoas válidas
                 } else {
                     return pessoaFlatFileItemWriter; // Usa o escritor de arquivo para pessoas inválidas
                 }
             }
         };
+        return metricasMigracao.medirClassificacao(MetricasMigracao.ETAPA_PESSOA, classificador, pessoaFlatFileItemWriter, "invalida"); // Mede a classificação e conta os rejeitados
     }
 }
\ No newline at end of file
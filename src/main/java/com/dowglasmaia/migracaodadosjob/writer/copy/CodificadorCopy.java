@@ -0,0 +1,11 @@
+package com.dowglasmaia.migracaodadosjob.writer.copy;
+
+/**
+ * Grava os campos de um item em uma {@link LinhaCopy}, na mesma ordem das colunas do comando COPY.
+ *
+ * @param <T> Tipo do item gravado.
+ */
+public interface CodificadorCopy<T> {
+
+    void codificar(T item, LinhaCopy linha);
+}
@@ -0,0 +1,160 @@
+package com.dowglasmaia.migracaodadosjob.writer.copy;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * {@link ItemWriter} que envia cada chunk ao PostgreSQL com um único {@code COPY ... FROM STDIN},
+ * usando o {@link org.postgresql.copy.CopyManager} do driver PgJDBC.
+ * A conexão é obtida por {@link DataSourceUtils}, da mesma forma que o
+ * {@link org.springframework.batch.item.database.JdbcBatchItemWriter}, então o comportamento transacional do chunk é o mesmo.
+ * <p>
+ * Com uma cláusula de conflito ({@code ON CONFLICT ...}), que o COPY não aceita, o chunk é copiado para uma tabela
+ * temporária da sessão, com a mesma estrutura da tabela de destino e esvaziada antes de cada chunk,
+ * e inserido no destino com {@code INSERT ... SELECT} e a cláusula. O {@code SELECT DISTINCT ON (chave)} mantém só a última
+ * linha de cada chave do chunk, já que o {@code ON CONFLICT DO UPDATE} não pode afetar o mesmo registro duas vezes
+ * em um comando.
+ *
+ * @param <T> Tipo do item gravado.
+ */
+public class CopyItemWriter<T> implements ItemWriter<T>, InitializingBean {
+
+    private static final int BYTES_POR_ITEM_ESTIMADOS = 96;
+
+    private final DataSource dataSource;
+    private final String tabela;
+    private final String[] colunas;
+    private final FormatoCopy formato;
+    private final CodificadorCopy<T> codificador;
+    private final String sql;
+    private final String sqlTabelaTemporaria;
+    private final String sqlLimpeza;
+    private final String sqlInsercao;
+    private final SQLExceptionTranslator exceptionTranslator;
+
+    public CopyItemWriter(DataSource dataSource, String tabela, String[] colunas, FormatoCopy formato, CodificadorCopy<T> codificador) {
+        this(dataSource, tabela, colunas, formato, codificador, null, "");
+    }
+
+    /**
+     * @param chave            Coluna da chave primária, usada para descartar as linhas repetidas do chunk antes da inserção.
+     * @param clausulaConflito Cláusula {@code ON CONFLICT} anexada à inserção a partir da tabela temporária, ou vazia para copiar direto no destino.
+     */
+    public CopyItemWriter(DataSource dataSource, String tabela, String[] colunas, FormatoCopy formato, CodificadorCopy<T> codificador,
+                          String chave, String clausulaConflito) {
+        this.dataSource = dataSource;
+        this.tabela = tabela;
+        this.colunas = colunas;
+        this.formato = formato;
+        this.codificador = codificador;
+        String listaColunas = String.join(", ", colunas);
+        String destinoCopy = tabela;
+        if (clausulaConflito.isEmpty()) {
+            this.sqlTabelaTemporaria = null;
+            this.sqlLimpeza = null;
+            this.sqlInsercao = null;
+        } else {
+            destinoCopy = "copy_" + tabela.substring(tabela.lastIndexOf('.') + 1);
+            this.sqlTabelaTemporaria = "CREATE TEMPORARY TABLE IF NOT EXISTS " + destinoCopy
+                  + " (LIKE " + tabela + " INCLUDING DEFAULTS)";
+            this.sqlLimpeza = "TRUNCATE " + destinoCopy;
+            Assert.hasText(chave, "A chave é obrigatória com a cláusula de conflito.");
+            this.sqlInsercao = "INSERT INTO " + tabela + " (" + listaColunas + ")"
+                  + " SELECT DISTINCT ON (" + chave + ") " + listaColunas + " FROM " + destinoCopy
+                  + " ORDER BY " + chave + ", ctid DESC" // A última linha do chunk de cada chave
+                  + clausulaConflito;
+        }
+        this.sql = "COPY " + destinoCopy + " (" + listaColunas + ") FROM STDIN" + formato.novaLinha(0, colunas.length).opcoes();
+        this.exceptionTranslator = new SQLErrorCodeSQLExceptionTranslator(dataSource);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(dataSource, "O DataSource é obrigatório.");
+        Assert.hasText(tabela, "A tabela é obrigatória.");
+        Assert.notEmpty(colunas, "As colunas são obrigatórias.");
+        Assert.notNull(codificador, "O codificador é obrigatório.");
+    }
+
+    /**
+     * Codifica todos os itens do chunk em memória e os envia em um único comando COPY.
+     *
+     * @param items Itens do chunk.
+     */
+    @Override
+    public void write(List<? extends T> items) throws Exception {
+        if (items.isEmpty()) {
+            return;
+        }
+        LinhaCopy linha = formato.novaLinha(items.size() * BYTES_POR_ITEM_ESTIMADOS, colunas.length);
+        for (T item : items) {
+            linha.iniciarLinha();
+            codificador.codificar(item, linha);
+            linha.finalizarLinha();
+        }
+        linha.finalizar();
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            if (sqlTabelaTemporaria != null) {
+                executar(connection, "CREATE TEMPORARY TABLE", sqlTabelaTemporaria);
+                executar(connection, "TRUNCATE", sqlLimpeza);
+            }
+            long registros = copiar(connection, linha);
+            if (registros != items.size()) {
+                throw new IncorrectUpdateSemanticsDataAccessException(
+                      "O COPY em " + tabela + " gravou " + registros + " registros, esperados " + items.size());
+            }
+            if (sqlInsercao != null) {
+                executar(connection, "INSERT ... SELECT", sqlInsercao);
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Envia as linhas codificadas em um comando COPY.
+     *
+     * @return Registros gravados pelo COPY.
+     */
+    private long copiar(Connection connection, LinhaCopy linha) {
+        try {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            try {
+                copyIn.writeToCopy(linha.getBuffer(), 0, linha.getTamanho());
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            throw exceptionTranslator.translate("COPY", sql, e);
+        }
+    }
+
+    /**
+     * Executa um comando auxiliar do COPY, traduzindo a falha com o próprio comando, e não com o do COPY.
+     */
+    private void executar(Connection connection, String tarefa, String sql) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw exceptionTranslator.translate(tarefa, sql, e);
+        }
+    }
+}
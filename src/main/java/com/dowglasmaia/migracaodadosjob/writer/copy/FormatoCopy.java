@@ -0,0 +1,21 @@
+package com.dowglasmaia.migracaodadosjob.writer.copy;
+
+/**
+ * Formatos suportados pelo comando {@code COPY ... FROM STDIN}.
+ */
+public enum FormatoCopy {
+
+    TEXTO,
+    BINARIO;
+
+    /**
+     * Cria o buffer correspondente ao formato.
+     *
+     * @param capacidadeInicial Capacidade inicial do buffer, em bytes.
+     * @param colunas           Quantidade de colunas de cada registro.
+     * @return LinhaCopy no formato.
+     */
+    public LinhaCopy novaLinha(int capacidadeInicial, int colunas) {
+        return this == BINARIO ? LinhaCopy.binario(capacidadeInicial, colunas) : LinhaCopy.texto(capacidadeInicial);
+    }
+}
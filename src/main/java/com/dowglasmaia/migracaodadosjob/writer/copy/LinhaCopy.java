@@ -0,0 +1,365 @@
+package com.dowglasmaia.migracaodadosjob.writer.copy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Buffer de bytes no formato esperado pelo comando {@code COPY ... FROM STDIN} do PostgreSQL.
+ * O {@link CodificadorCopy} grava os campos de cada registro pelos mesmos métodos,
+ * independentemente de o formato ser texto ou binário.
+ */
+public abstract class LinhaCopy {
+
+    protected byte[] buffer;
+    protected int tamanho;
+
+    protected LinhaCopy(int capacidadeInicial) {
+        this.buffer = new byte[Math.max(capacidadeInicial, 1024)];
+    }
+
+    /**
+     * Cria um buffer no formato texto (campos separados por tabulação e linhas por quebra de linha).
+     *
+     * @param capacidadeInicial Capacidade inicial do buffer, em bytes.
+     * @return LinhaCopy no formato texto.
+     */
+    public static LinhaCopy texto(int capacidadeInicial) {
+        return new Texto(capacidadeInicial);
+    }
+
+    /**
+     * Cria um buffer no formato binário do PostgreSQL.
+     *
+     * @param capacidadeInicial Capacidade inicial do buffer, em bytes.
+     * @param colunas           Quantidade de colunas de cada registro.
+     * @return LinhaCopy no formato binário.
+     */
+    public static LinhaCopy binario(int capacidadeInicial, int colunas) {
+        return new Binario(capacidadeInicial, colunas);
+    }
+
+    /**
+     * @return Opções do comando COPY correspondentes ao formato.
+     */
+    public abstract String opcoes();
+
+    public abstract void iniciarLinha();
+
+    public abstract void finalizarLinha();
+
+    public abstract void inteiro(int valor);
+
+    public abstract void texto(String valor);
+
+    public abstract void timestamp(LocalDateTime valor);
+
+    /**
+     * Grava a data como timestamp à meia-noite.
+     */
+    public abstract void timestamp(LocalDate valor);
+
+    public abstract void nulo();
+
+    /**
+     * Finaliza o conteúdo, gravando o rodapé do formato quando houver.
+     */
+    public abstract void finalizar();
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    protected void garantirCapacidade(int adicional) {
+        if (tamanho + adicional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, tamanho + adicional));
+        }
+    }
+
+    protected void escreverByte(int valor) {
+        garantirCapacidade(1);
+        buffer[tamanho++] = (byte) valor;
+    }
+
+    /**
+     * Formato texto: campos separados por tabulação, nulos como {@code \N} e caracteres especiais escapados.
+     */
+    private static class Texto extends LinhaCopy {
+
+        private boolean primeiroCampo;
+
+        Texto(int capacidadeInicial) {
+            super(capacidadeInicial);
+        }
+
+        @Override
+        public String opcoes() {
+            return "";
+        }
+
+        @Override
+        public void iniciarLinha() {
+            primeiroCampo = true;
+        }
+
+        @Override
+        public void finalizarLinha() {
+            escreverByte('\n');
+        }
+
+        @Override
+        public void inteiro(int valor) {
+            separar();
+            garantirCapacidade(11);
+            long restante = valor;
+            if (restante < 0) {
+                buffer[tamanho++] = '-';
+                restante = -restante;
+            }
+            int inicio = tamanho;
+            do {
+                buffer[tamanho++] = (byte) ('0' + restante % 10);
+                restante /= 10;
+            } while (restante > 0);
+            inverter(inicio, tamanho - 1);
+        }
+
+        @Override
+        public void texto(String valor) {
+            separar();
+            if (valor == null) {
+                escreverNulo();
+                return;
+            }
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c >= 0x80) {
+                    escreverUtf8(valor.substring(i)); // Bytes multibyte do UTF-8 nunca colidem com os caracteres escapados
+                    return;
+                }
+                escreverAscii(c);
+            }
+        }
+
+        @Override
+        public void timestamp(LocalDateTime valor) {
+            separar();
+            if (valor == null) {
+                escreverNulo();
+                return;
+            }
+            garantirCapacidade(19);
+            data(valor.getYear(), valor.getMonthValue(), valor.getDayOfMonth());
+            buffer[tamanho++] = ' ';
+            digitos(valor.getHour(), 2);
+            buffer[tamanho++] = ':';
+            digitos(valor.getMinute(), 2);
+            buffer[tamanho++] = ':';
+            digitos(valor.getSecond(), 2);
+        }
+
+        @Override
+        public void timestamp(LocalDate valor) {
+            separar();
+            if (valor == null) {
+                escreverNulo();
+                return;
+            }
+            garantirCapacidade(10);
+            data(valor.getYear(), valor.getMonthValue(), valor.getDayOfMonth());
+        }
+
+        @Override
+        public void nulo() {
+            separar();
+            escreverNulo();
+        }
+
+        @Override
+        public void finalizar() {
+            // O formato texto não possui rodapé
+        }
+
+        private void separar() {
+            if (primeiroCampo) {
+                primeiroCampo = false;
+            } else {
+                escreverByte('\t');
+            }
+        }
+
+        private void escreverNulo() {
+            garantirCapacidade(2);
+            buffer[tamanho++] = '\\';
+            buffer[tamanho++] = 'N';
+        }
+
+        private void escreverUtf8(String valor) {
+            for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+                escreverAscii((char) (b & 0xFF));
+            }
+        }
+
+        private void escreverAscii(char c) {
+            garantirCapacidade(2);
+            switch (c) {
+                case '\\':
+                    buffer[tamanho++] = '\\';
+                    buffer[tamanho++] = '\\';
+                    break;
+                case '\t':
+                    buffer[tamanho++] = '\\';
+                    buffer[tamanho++] = 't';
+                    break;
+                case '\n':
+                    buffer[tamanho++] = '\\';
+                    buffer[tamanho++] = 'n';
+                    break;
+                case '\r':
+                    buffer[tamanho++] = '\\';
+                    buffer[tamanho++] = 'r';
+                    break;
+                default:
+                    buffer[tamanho++] = (byte) c;
+            }
+        }
+
+        private void data(int ano, int mes, int dia) {
+            digitos(ano, 4);
+            buffer[tamanho++] = '-';
+            digitos(mes, 2);
+            buffer[tamanho++] = '-';
+            digitos(dia, 2);
+        }
+
+        private void digitos(int valor, int quantidade) {
+            for (int i = tamanho + quantidade - 1; i >= tamanho; i--) {
+                buffer[i] = (byte) ('0' + valor % 10);
+                valor /= 10;
+            }
+            tamanho += quantidade;
+        }
+
+        private void inverter(int inicio, int fim) {
+            while (inicio < fim) {
+                byte temp = buffer[inicio];
+                buffer[inicio++] = buffer[fim];
+                buffer[fim--] = temp;
+            }
+        }
+    }
+
+    /**
+     * Formato binário: cabeçalho {@code PGCOPY}, cada campo precedido do seu tamanho e rodapé {@code -1}.
+     * Timestamps são gravados como microssegundos desde 2000-01-01, o formato da coluna {@code timestamp}.
+     */
+    private static class Binario extends LinhaCopy {
+
+        private static final byte[] CABECALHO = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+        private static final long EPOCA_POSTGRES_SEGUNDOS = 946_684_800L;
+        private static final long EPOCA_POSTGRES_DIAS = 10_957L;
+        private static final long MICROSSEGUNDOS_POR_DIA = 86_400_000_000L;
+
+        private final int colunas;
+
+        Binario(int capacidadeInicial, int colunas) {
+            super(capacidadeInicial);
+            this.colunas = colunas;
+            garantirCapacidade(CABECALHO.length + 8);
+            System.arraycopy(CABECALHO, 0, buffer, 0, CABECALHO.length);
+            tamanho = CABECALHO.length;
+            escreverInt(0); // Flags
+            escreverInt(0); // Tamanho da extensão do cabeçalho
+        }
+
+        @Override
+        public String opcoes() {
+            return " (FORMAT binary)";
+        }
+
+        @Override
+        public void iniciarLinha() {
+            escreverShort(colunas);
+        }
+
+        @Override
+        public void finalizarLinha() {
+            // No formato binário o fim do registro é determinado pela quantidade de campos
+        }
+
+        @Override
+        public void inteiro(int valor) {
+            escreverInt(4);
+            escreverInt(valor);
+        }
+
+        @Override
+        public void texto(String valor) {
+            if (valor == null) {
+                nulo();
+                return;
+            }
+            byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+            escreverInt(bytes.length);
+            garantirCapacidade(bytes.length);
+            System.arraycopy(bytes, 0, buffer, tamanho, bytes.length);
+            tamanho += bytes.length;
+        }
+
+        @Override
+        public void timestamp(LocalDateTime valor) {
+            if (valor == null) {
+                nulo();
+                return;
+            }
+            long segundos = valor.toEpochSecond(ZoneOffset.UTC) - EPOCA_POSTGRES_SEGUNDOS;
+            escreverInt(8);
+            escreverLong(segundos * 1_000_000L + valor.getNano() / 1_000);
+        }
+
+        @Override
+        public void timestamp(LocalDate valor) {
+            if (valor == null) {
+                nulo();
+                return;
+            }
+            escreverInt(8);
+            escreverLong((valor.toEpochDay() - EPOCA_POSTGRES_DIAS) * MICROSSEGUNDOS_POR_DIA);
+        }
+
+        @Override
+        public void nulo() {
+            escreverInt(-1);
+        }
+
+        @Override
+        public void finalizar() {
+            escreverShort(-1);
+        }
+
+        private void escreverShort(int valor) {
+            garantirCapacidade(2);
+            buffer[tamanho++] = (byte) (valor >>> 8);
+            buffer[tamanho++] = (byte) valor;
+        }
+
+        private void escreverInt(int valor) {
+            garantirCapacidade(4);
+            buffer[tamanho++] = (byte) (valor >>> 24);
+            buffer[tamanho++] = (byte) (valor >>> 16);
+            buffer[tamanho++] = (byte) (valor >>> 8);
+            buffer[tamanho++] = (byte) valor;
+        }
+
+        private void escreverLong(long valor) {
+            escreverInt((int) (valor >>> 32));
+            escreverInt((int) valor);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.dowglasmaia.migracaodadosjob.carga;
+
+import com.dowglasmaia.migracaodadosjob.writer.ModoCarga;
+import com.dowglasmaia.migracaodadosjob.writer.ModoConflito;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Promoção contra um PostgreSQL, pois {@code DISTINCT ON}, {@code ctid} e o catálogo {@code pg_constraint}
+ * não existem no H2. Roda com {@code -Dteste.postgres.url=jdbc:postgresql://host/banco?user=...&password=...};
+ * cada teste cria tabelas com nomes próprios, removidas ao final.
+ */
+class PromoverStagingTaskletTest {
+
+    private final String prefixo = "teste_promover_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    private final List<String> tabelas = new ArrayList<>();
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void conectar() {
+        String url = System.getProperty("teste.postgres.url");
+        assumeTrue(url != null, "Informe -Dteste.postgres.url para testar a promoção no PostgreSQL");
+        dataSource = new DriverManagerDataSource(url);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void removerTabelas() {
+        if (jdbcTemplate != null) {
+            for (String tabela : tabelas) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + ModoCarga.STAGING.tabela(tabela));
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + tabela + " CASCADE");
+            }
+        }
+    }
+
+    @Test
+    void tabelaVaziaRecebeAUltimaLinhaDeCadaIdComChaveEIndicesRecriados() throws Exception {
+        TabelaStaging pessoa = criar("pessoa");
+        gravarStaging(pessoa, 1, "Ana", 2, "Bia", 1, "Ana Maria"); // O id 1 gravado de novo após um restart
+
+        StepContribution contribuicao = promover(ModoConflito.FALHAR, pessoa);
+
+        assertEquals(Arrays.asList("1:Ana Maria", "2:Bia"), registros(pessoa));
+        assertEquals(2, contribuicao.getWriteCount());
+        assertEquals(1, contribuicao.getFilterCount());
+        assertEquals(Arrays.asList(prefixo + "_pessoa_nome_idx", prefixo + "_pessoa_pkey"), indices(pessoa)); // Recriados
+        assertFalse(existe(pessoa.getStaging()));
+    }
+
+    @Test
+    void tabelaComRegistrosMantemOsIndicesESegueOModoDeConflito() throws Exception {
+        TabelaStaging pessoa = criar("pessoa");
+        jdbcTemplate.update("INSERT INTO " + pessoa.getDestino() + " (id, nome) VALUES (1, 'Ana'), (3, 'Carla')");
+        String oidIndice = oidIndice(prefixo + "_pessoa_nome_idx");
+        gravarStaging(pessoa, 1, "Ana Maria", 2, "Bia");
+
+        StepContribution contribuicao = promover(ModoConflito.ATUALIZAR, pessoa);
+
+        assertEquals(Arrays.asList("1:Ana Maria", "2:Bia", "3:Carla"), registros(pessoa));
+        assertEquals(2, contribuicao.getWriteCount());
+        assertEquals(oidIndice, oidIndice(prefixo + "_pessoa_nome_idx")); // O mesmo índice, não recriado
+    }
+
+    @Test
+    void tabelaReferenciadaPorChaveEstrangeiraMantemOsIndices() throws Exception {
+        TabelaStaging pessoa = criar("pessoa");
+        jdbcTemplate.execute("CREATE TABLE " + tabela("conta") + " (id INT PRIMARY KEY, pessoa_id INT REFERENCES " + pessoa.getDestino() + ")");
+        String oidIndice = oidIndice(prefixo + "_pessoa_pkey");
+        gravarStaging(pessoa, 1, "Ana");
+
+        promover(ModoConflito.FALHAR, pessoa);
+
+        assertEquals(Collections.singletonList("1:Ana"), registros(pessoa));
+        assertEquals(oidIndice, oidIndice(prefixo + "_pessoa_pkey"));
+    }
+
+    @Test
+    void falhaEmUmaTabelaDesfazAPromocaoEAsRemocoesDeIndicesDasDemais() throws Exception {
+        TabelaStaging pessoa = criar("pessoa");
+        TabelaStaging dados = criar("dados");
+        gravarStaging(pessoa, 1, "Ana", 2, "Bia");
+        jdbcTemplate.update("INSERT INTO " + dados.getDestino() + " (id, nome) VALUES (1, 'existente')");
+        gravarStaging(dados, 1, "repetido"); // Viola a chave primária com o modo FALHAR
+
+        assertThrows(SQLException.class, () -> promover(ModoConflito.FALHAR, pessoa, dados));
+
+        assertTrue(registros(pessoa).isEmpty()); // A promoção de pessoa foi desfeita com a de dados
+        assertEquals(Arrays.asList(prefixo + "_pessoa_nome_idx", prefixo + "_pessoa_pkey"), indices(pessoa));
+        assertTrue(existe(pessoa.getStaging())); // A staging continua lá para uma nova execução
+        assertEquals(Collections.singletonList("1:existente"), registros(dados));
+    }
+
+    /**
+     * Cria a tabela final, com chave primária e um índice, e a sua staging, sem nenhum dos dois.
+     */
+    private TabelaStaging criar(String nome) {
+        String destino = tabela(nome);
+        jdbcTemplate.execute("CREATE TABLE " + destino + " (id INT PRIMARY KEY, nome VARCHAR(50))");
+        jdbcTemplate.execute("CREATE INDEX " + destino + "_nome_idx ON " + destino + " (nome)");
+        TabelaStaging tabela = new TabelaStaging(destino, "id", "id", "nome");
+        jdbcTemplate.execute("CREATE TABLE " + tabela.getStaging() + " (id INT, nome VARCHAR(50))");
+        return tabela;
+    }
+
+    private String tabela(String nome) {
+        String tabela = prefixo + "_" + nome;
+        tabelas.add(0, tabela); // Removidas na ordem inversa, as referências antes das referenciadas
+        return tabela;
+    }
+
+    /**
+     * Grava na staging os pares id e nome, um INSERT por linha, na ordem informada.
+     */
+    private void gravarStaging(TabelaStaging tabela, Object... idsENomes) {
+        for (int i = 0; i < idsENomes.length; i += 2) {
+            jdbcTemplate.update("INSERT INTO " + tabela.getStaging() + " (id, nome) VALUES (?, ?)", idsENomes[i], idsENomes[i + 1]);
+        }
+    }
+
+    private StepContribution promover(ModoConflito modoConflito, TabelaStaging... tabelas) throws SQLException {
+        StepContribution contribuicao = new StepContribution(new StepExecution("promoverStagingStep", new JobExecution(1L)));
+        new PromoverStagingTasklet(dataSource, Arrays.asList(tabelas), modoConflito).execute(contribuicao, null);
+        return contribuicao;
+    }
+
+    private List<String> registros(TabelaStaging tabela) {
+        return jdbcTemplate.queryForList("SELECT id || ':' || nome FROM " + tabela.getDestino() + " ORDER BY id", String.class);
+    }
+
+    private List<String> indices(TabelaStaging tabela) {
+        return jdbcTemplate.queryForList("SELECT indexname FROM pg_indexes WHERE tablename = ? ORDER BY indexname",
+              String.class, tabela.getDestino());
+    }
+
+    private String oidIndice(String nome) {
+        return jdbcTemplate.queryForObject("SELECT ?::regclass::oid::text", String.class, nome);
+    }
+
+    private boolean existe(String tabela) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, tabela);
+    }
+}
@@ -0,0 +1,85 @@
+package com.dowglasmaia.migracaodadosjob.delta;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ArquivoImpressoesTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void arquivoInexistenteEConsultadoComoVazio() throws Exception {
+        Path caminho = diretorio.resolve("pessoa.impressoes");
+
+        try (ArquivoImpressoes impressoes = ArquivoImpressoes.consultar(caminho)) {
+            assertEquals(ArquivoImpressoes.AUSENTE, impressoes.impressao(0));
+            assertEquals(-1, impressoes.segmento(0));
+            assertEquals(0, impressoes.limite());
+        }
+        assertFalse(Files.exists(caminho));
+    }
+
+    @Test
+    void gravaEConsultaImpressaoESegmentoNasBordasDasPaginas() throws Exception {
+        Path caminho = diretorio.resolve("pessoa.impressoes");
+        int[] ids = {0, 1, (1 << 20) - 1, 1 << 20, 3 << 20};
+
+        try (ArquivoImpressoes impressoes = ArquivoImpressoes.gravar(caminho)) {
+            for (int id : ids) {
+                impressoes.gravar(id, 1000L + id, id % 7);
+            }
+            impressoes.gravar(5, ArquivoImpressoes.VISTO, -1);
+
+            assertEquals(1001L, impressoes.impressao(1));
+            assertEquals(1, impressoes.segmento(1));
+            assertEquals(ArquivoImpressoes.VISTO, impressoes.impressao(5));
+            assertEquals(-1, impressoes.segmento(5)); // Sem segmento, arquivo não segmentado
+            assertEquals(ArquivoImpressoes.AUSENTE, impressoes.impressao(2));
+            assertEquals((3 << 20) + 1, impressoes.limite());
+            impressoes.forcar();
+        }
+
+        try (ArquivoImpressoes impressoes = ArquivoImpressoes.consultar(caminho)) {
+            for (int id : ids) {
+                assertEquals(1000L + id, impressoes.impressao(id), "id " + id);
+                assertEquals(id % 7, impressoes.segmento(id), "id " + id);
+            }
+            assertEquals(ArquivoImpressoes.AUSENTE, impressoes.impressao(2 << 20)); // Página nunca gravada
+            assertEquals(ArquivoImpressoes.AUSENTE, impressoes.impressao(Integer.MAX_VALUE)); // Além do fim do arquivo
+            assertEquals(-1, impressoes.segmento(Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void gravarSemSegmentoMantemOSegmentoLido() throws Exception {
+        try (ArquivoImpressoes impressoes = ArquivoImpressoes.gravar(diretorio.resolve("pessoa.impressoes"))) {
+            impressoes.gravar(42, ArquivoImpressoes.VISTO, 3); // Lido pelo processador
+            impressoes.gravar(42, 987654321L); // Gravado no banco pelo escritor
+
+            assertEquals(987654321L, impressoes.impressao(42));
+            assertEquals(3, impressoes.segmento(42));
+        }
+    }
+
+    @Test
+    void reaberturaParaGravacaoMantemOsIdsGravados() throws Exception {
+        Path caminho = diretorio.resolve("pessoa.impressoes.novo");
+        try (ArquivoImpressoes impressoes = ArquivoImpressoes.gravar(caminho)) {
+            impressoes.gravar(10, 77L, 0);
+        }
+
+        try (ArquivoImpressoes impressoes = ArquivoImpressoes.gravar(caminho)) { // Restart da execução
+            assertEquals(77L, impressoes.impressao(10));
+            assertEquals(0, impressoes.segmento(10));
+            impressoes.gravar(11, 78L, 0);
+            assertEquals(78L, impressoes.impressao(11));
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.dowglasmaia.migracaodadosjob.delta;
+
+import com.dowglasmaia.migracaodadosjob.partitioner.ArquivoPartitioner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BaseImpressoesTest {
+
+    private static final long TAMANHO_SEGMENTO = 8; // Duas linhas de 4 bytes por segmento
+
+    @TempDir
+    Path diretorio;
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final Connection conexao = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+
+    @Test
+    void segmentoIgualECompletoEPuladoEOsSeusIdsSaoCopiados() throws Exception {
+        Path arquivo = csv("1;a", "2;b", "3;c", "4;d");
+        BaseImpressoes<Registro> base = base();
+
+        executar(base, arquivo, Collections.emptySet());
+        assertEquals(Arrays.asList(true, true), completos(base));
+
+        base.iniciar();
+        Map<String, ExecutionContext> particoes = new ArquivoPartitioner(new FileSystemResource(arquivo), base, TAMANHO_SEGMENTO)
+              .partition(1);
+        assertEquals(1, particoes.size());
+        assertEquals("", particoes.values().iterator().next().getString(ArquivoPartitioner.ARQUIVO)); // Nada a ler
+        base.concluir(dataSource, true);
+
+        ArquivoImpressoes anterior = base.anterior();
+        for (int id = 1; id <= 4; id++) {
+            assertEquals(new Registro(id, String.valueOf((char) ('a' + id - 1))).impressao(), anterior.impressao(id), "id " + id);
+            assertEquals((id - 1) / 2, anterior.segmento(id), "id " + id);
+        }
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    void segmentoComRegistroNaoGravadoERelidoEOReenvia() throws Exception {
+        Path arquivo = csv("1;a", "2;b", "3;c", "4;d");
+        BaseImpressoes<Registro> base = base();
+
+        executar(base, arquivo, Collections.singleton(3)); // 3 recusado pelo banco
+        assertEquals(ArquivoImpressoes.VISTO, base.anterior().impressao(3));
+        assertEquals(Arrays.asList(true, false), completos(base));
+
+        List<Registro> enviados = executar(base, arquivo, Collections.emptySet());
+
+        assertEquals(Collections.singletonList(3), ids(enviados)); // Só o segmento 1 é lido, e só o 3 é enviado
+        assertEquals(new Registro(3, "c").impressao(), base.anterior().impressao(3));
+        assertEquals(new Registro(1, "a").impressao(), base.anterior().impressao(1)); // Copiado do segmento pulado
+        assertEquals(Arrays.asList(true, true), completos(base));
+    }
+
+    @Test
+    void segmentoAlteradoERelido() throws Exception {
+        BaseImpressoes<Registro> base = base();
+        executar(base, csv("1;a", "2;b", "3;c", "4;d"), Collections.emptySet());
+
+        List<Registro> enviados = executar(base, csv("1;a", "2;x", "3;c", "4;d"), Collections.emptySet());
+
+        assertEquals(Collections.singletonList(2), ids(enviados));
+        assertEquals(new Registro(2, "x").impressao(), base.anterior().impressao(2));
+        assertEquals(new Registro(4, "d").impressao(), base.anterior().impressao(4));
+    }
+
+    @Test
+    void segmentosDeUmaBaseSemOIndicadorDeCompletoSaoRelidos() throws Exception {
+        Path arquivo = csv("1;a", "2;b", "3;c", "4;d");
+        BaseImpressoes<Registro> base = base();
+        executar(base, arquivo, Collections.emptySet());
+        List<String> linhas = new ArrayList<>();
+        for (String linha : Files.readAllLines(diretorio.resolve("pessoa.segmentos"))) {
+            linhas.add(linha.substring(0, linha.lastIndexOf(';'))); // Formato anterior, sem o último campo
+        }
+        Files.write(diretorio.resolve("pessoa.segmentos"), linhas);
+
+        base.iniciar();
+        Map<String, ExecutionContext> particoes = new ArquivoPartitioner(new FileSystemResource(arquivo), base, TAMANHO_SEGMENTO)
+              .partition(1);
+
+        assertEquals(2, particoes.size());
+    }
+
+    @Test
+    void excluiDaTabelaOsIdsGravadosQueSairamDoArquivo() throws Exception {
+        when(dataSource.getConnection()).thenReturn(conexao);
+        when(conexao.prepareStatement(anyString())).thenReturn(statement);
+        when(conexao.createArrayOf(eq("integer"), any())).thenReturn(mock(Array.class));
+        when(statement.executeUpdate()).thenReturn(1);
+        BaseImpressoes<Registro> base = base();
+        ler(base, Arrays.asList(new Registro(1, "a"), new Registro(2, "b"), new Registro(3, "c")), Collections.singleton(3));
+        base.concluir(dataSource, true);
+
+        ler(base, Collections.singletonList(new Registro(1, "a")), Collections.emptySet()); // 2 e 3 saíram do arquivo
+        base.concluir(dataSource, true);
+
+        ArgumentCaptor<Object[]> ids = ArgumentCaptor.forClass(Object[].class);
+        verify(conexao).prepareStatement("DELETE FROM pessoa WHERE id = ANY(?)");
+        verify(conexao).createArrayOf(eq("integer"), ids.capture());
+        assertArrayEquals(new Object[]{2}, ids.getValue()); // O 3 nunca foi gravado no banco
+        assertFalse(Files.exists(diretorio.resolve("pessoa.impressoes.novo")));
+        assertEquals(ArquivoImpressoes.AUSENTE, base.anterior().impressao(2));
+    }
+
+    @Test
+    void semExcluirAusentesMantemATabela() throws Exception {
+        BaseImpressoes<Registro> base = base();
+        ler(base, Arrays.asList(new Registro(1, "a"), new Registro(2, "b")), Collections.emptySet());
+        base.concluir(dataSource, false);
+
+        ler(base, Collections.singletonList(new Registro(1, "a")), Collections.emptySet());
+        base.concluir(dataSource, false);
+
+        verify(dataSource, never()).getConnection();
+        assertEquals(ArquivoImpressoes.AUSENTE, base.anterior().impressao(2));
+    }
+
+    @Test
+    void concluirRepetidoNoRestartNaoAlteraABase() throws Exception {
+        BaseImpressoes<Registro> base = base();
+        ler(base, Collections.singletonList(new Registro(1, "a")), Collections.emptySet());
+        base.concluir(dataSource, true);
+
+        base.concluir(dataSource, true);
+
+        assertEquals(new Registro(1, "a").impressao(), base.anterior().impressao(1));
+        assertTrue(Files.exists(diretorio.resolve("pessoa.impressoes")));
+    }
+
+    private BaseImpressoes<Registro> base() {
+        return new BaseImpressoes<>("pessoa", "pessoa", "pessoaFile", "", diretorio, new ImpressaoRegistro<Registro>() {
+            @Override
+            public int id(Registro item) {
+                return item.id;
+            }
+
+            @Override
+            public long impressao(Registro item) {
+                return item.impressao();
+            }
+        });
+    }
+
+    private Path csv(String... linhas) throws Exception {
+        Path arquivo = diretorio.resolve("pessoas.csv");
+        Files.write(arquivo, (String.join("\n", linhas) + "\n").getBytes(StandardCharsets.UTF_8));
+        return arquivo;
+    }
+
+    /**
+     * Uma execução do job no modo delta particionado: segmenta o arquivo, lê cada partição como o processador
+     * e o escritor do delta e conclui a base.
+     *
+     * @return Registros enviados ao banco.
+     */
+    private List<Registro> executar(BaseImpressoes<Registro> base, Path arquivo, Set<Integer> recusados) throws Exception {
+        base.iniciar();
+        byte[] bytes = Files.readAllBytes(arquivo);
+        List<Registro> enviados = new ArrayList<>();
+        for (ExecutionContext contexto : new ArquivoPartitioner(new FileSystemResource(arquivo), base, TAMANHO_SEGMENTO)
+              .partition(1).values()) {
+            if (contexto.getString(ArquivoPartitioner.ARQUIVO).isEmpty()) {
+                continue;
+            }
+            int segmento = contexto.getInt(ArquivoPartitioner.SEGMENTO);
+            String trecho = new String(bytes, (int) contexto.getLong(ArquivoPartitioner.INICIO),
+                  (int) (contexto.getLong(ArquivoPartitioner.FIM) - contexto.getLong(ArquivoPartitioner.INICIO)),
+                  StandardCharsets.UTF_8);
+            for (String linha : trecho.split("\n")) {
+                String[] campos = linha.split(";");
+                Registro registro = new Registro(Integer.parseInt(campos[0]), campos[1]);
+                if (!base.inalterado(registro, segmento)) {
+                    enviados.add(registro);
+                    if (!recusados.contains(registro.id)) {
+                        base.gravados(Collections.singletonList(registro));
+                    }
+                }
+            }
+        }
+        base.concluir(dataSource, true);
+        return enviados;
+    }
+
+    /**
+     * Uma execução do job no modo delta sem particionamento, sem concluir a base.
+     */
+    private static void ler(BaseImpressoes<Registro> base, List<Registro> registros, Set<Integer> recusados) throws Exception {
+        base.iniciar();
+        for (Registro registro : registros) {
+            if (!base.inalterado(registro, -1) && !recusados.contains(registro.id)) {
+                base.gravados(Collections.singletonList(registro));
+            }
+        }
+    }
+
+    private static List<Boolean> completos(BaseImpressoes<Registro> base) throws Exception {
+        List<Boolean> completos = new ArrayList<>();
+        for (Segmento segmento : base.segmentosAnteriores()) {
+            completos.add(segmento.isCompleto());
+        }
+        return completos;
+    }
+
+    private static List<Integer> ids(List<Registro> registros) {
+        List<Integer> ids = new ArrayList<>();
+        for (Registro registro : registros) {
+            ids.add(registro.id);
+        }
+        return ids;
+    }
+
+    private static final class Registro {
+
+        private final int id;
+        private final String valor;
+
+        Registro(int id, String valor) {
+            this.id = id;
+            this.valor = valor;
+        }
+
+        long impressao() {
+            return Impressao.finalizar(Impressao.com(Impressao.com(Impressao.SEMENTE, id), valor));
+        }
+    }
+}
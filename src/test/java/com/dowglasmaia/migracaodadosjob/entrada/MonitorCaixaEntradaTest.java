@@ -0,0 +1,251 @@
+package com.dowglasmaia.migracaodadosjob.entrada;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class MonitorCaixaEntradaTest {
+
+    private static final long ESTABILIDADE_MS = 200;
+
+    @TempDir
+    Path diretorio;
+
+    private final Job job = mock(Job.class);
+
+    /**
+     * Execuções do job, na ordem, com os parâmetros e o instante de cada uma.
+     */
+    private final List<Execucao> execucoes = new CopyOnWriteArrayList<>();
+
+    private MonitorCaixaEntrada monitor;
+
+    @AfterEach
+    void parar() throws InterruptedException {
+        if (monitor != null) {
+            monitor.parar();
+        }
+    }
+
+    @Test
+    void arquivoSoEProcessadoDepoisDeFicarEstavel() throws Exception {
+        iniciar(concluir(), 3, 100, 5000);
+        Path arquivo = entrada().resolve("pessoas.csv");
+        Files.write(arquivo, "1;Ana\n".getBytes(StandardCharsets.UTF_8));
+        Thread.sleep(ESTABILIDADE_MS / 2);
+        Files.write(arquivo, "2;Bia\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND); // Ainda sendo copiado
+        long alterado = System.currentTimeMillis();
+
+        aguardarAte(() -> !execucoes.isEmpty());
+
+        assertTrue(execucoes.get(0).instante - alterado >= ESTABILIDADE_MS,
+              "processado " + (execucoes.get(0).instante - alterado) + " ms após a última alteração");
+        Thread.sleep(100);
+        assertEquals(1, execucoes.size());
+    }
+
+    @Test
+    void caminhoEVersaoIdentificamOLoteEOArquivoConcluidoEArquivado() throws Exception {
+        iniciar(concluir(), 3, 100, 5000);
+        Path arquivo = gravar("pessoas.csv", "1;Ana\n");
+        String versao = Files.size(arquivo) + "-" + Files.getLastModifiedTime(arquivo).toMillis();
+
+        aguardarAte(() -> !Files.exists(arquivo));
+
+        JobParameters parametros = execucoes.get(0).parametros;
+        assertEquals(arquivo.toString(), parametros.getString("arquivo.pessoas"));
+        assertEquals("", parametros.getString("arquivo.dados-bancarios"));
+        assertEquals(versao, parametros.getString("arquivo.versao"));
+        assertTrue(parametros.getParameters().get("arquivo.versao").isIdentifying());
+        assertFalse(parametros.getParameters().get("diretorio.rejeitados").isIdentifying()); // Não muda a instância do job
+        Path lote = unicoSubdiretorio(arquivados());
+        assertEquals(lote.toString(), parametros.getString("diretorio.rejeitados"));
+        assertTrue(lote.getFileName().toString().startsWith("pessoas.csv_"));
+        assertTrue(Files.exists(lote.resolve("pessoas.csv")));
+
+        gravar("pessoas.csv", "1;Ana\n2;Bia\n"); // Mesmo nome, outro conteúdo: outro lote
+        aguardarAte(() -> execucoes.size() == 2);
+
+        assertEquals(arquivo.toString(), execucoes.get(1).parametros.getString("arquivo.pessoas"));
+        assertNotEquals(versao, execucoes.get(1).parametros.getString("arquivo.versao"));
+    }
+
+    @Test
+    void arquivoJaConcluidoEArquivadoSemNovaCarga() throws Exception {
+        iniciar(parametros -> {
+            throw new JobInstanceAlreadyCompleteException("A job instance already exists and is complete");
+        }, 3, 100, 5000);
+        Path arquivo = gravar("dados_bancarios.csv", "1;1;1;1;1\n");
+
+        aguardarAte(() -> !Files.exists(arquivo));
+
+        assertEquals(1, execucoes.size());
+        assertEquals(arquivo.toString(), execucoes.get(0).parametros.getString("arquivo.dados-bancarios"));
+        assertTrue(Files.exists(unicoSubdiretorio(arquivados()).resolve("dados_bancarios.csv")));
+        assertTrue(vazio(erros()));
+    }
+
+    @Test
+    void loteComFalhaEReexecutadoComEsperaCrescenteEMovidoParaErros() throws Exception {
+        iniciar(parametros -> execucao(BatchStatus.FAILED), 3, 100, 5000);
+        Path arquivo = gravar("pessoas.csv", "1;Ana\n");
+
+        aguardarAte(() -> !Files.exists(arquivo));
+
+        assertEquals(3, execucoes.size());
+        for (Execucao execucao : execucoes) {
+            assertEquals(execucoes.get(0).parametros.getParameters().toString(), execucao.parametros.getParameters().toString());
+        }
+        long primeiraEspera = execucoes.get(1).instante - execucoes.get(0).instante;
+        long segundaEspera = execucoes.get(2).instante - execucoes.get(1).instante;
+        assertTrue(primeiraEspera >= 100, "primeira espera " + primeiraEspera + " ms");
+        assertTrue(segundaEspera >= 200, "segunda espera " + segundaEspera + " ms"); // Dobrada na segunda falha
+        assertTrue(Files.exists(unicoSubdiretorio(erros()).resolve("pessoas.csv")));
+    }
+
+    @Test
+    void pararAguardaOLoteEmExecucao() throws Exception {
+        iniciar(parametros -> {
+            Thread.sleep(300);
+            return execucao(BatchStatus.COMPLETED);
+        }, 3, 100, 5000);
+        Path arquivo = gravar("pessoas.csv", "1;Ana\n");
+        aguardarAte(() -> !execucoes.isEmpty());
+
+        monitor.parar();
+
+        assertFalse(Files.exists(arquivo)); // O lote terminou e foi arquivado antes do fim do monitoramento
+        assertTrue(Files.exists(unicoSubdiretorio(arquivados()).resolve("pessoas.csv")));
+    }
+
+    @Test
+    void pararInterrompeOLoteDepoisDoTempoDeEncerramentoSemContarTentativa() throws Exception {
+        List<Boolean> interrompidos = new CopyOnWriteArrayList<>();
+        iniciar(parametros -> {
+            try {
+                Thread.sleep(10_000);
+                return execucao(BatchStatus.COMPLETED);
+            } catch (InterruptedException e) {
+                interrompidos.add(true);
+                return execucao(BatchStatus.STOPPED); // Como o step interrompido
+            }
+        }, 1, 100, 100);
+        Path arquivo = gravar("pessoas.csv", "1;Ana\n");
+        aguardarAte(() -> !execucoes.isEmpty());
+
+        long inicio = System.currentTimeMillis();
+        monitor.parar();
+
+        assertTrue(System.currentTimeMillis() - inicio < 5000);
+        assertEquals(1, interrompidos.size());
+        assertTrue(Files.exists(arquivo)); // Com uma só tentativa, uma falha o moveria para erros
+        assertTrue(vazio(erros()));
+    }
+
+    private void iniciar(Lancamento lancamento, int tentativas, long esperaTentativaMs, long encerramentoMs) throws IOException {
+        JobLauncher jobLauncher = (job, parametros) -> {
+            execucoes.add(new Execucao(parametros, System.currentTimeMillis()));
+            return lancamento.executar(parametros);
+        };
+        Map<TipoArquivo, PathMatcher> padroes = new EnumMap<>(TipoArquivo.class);
+        padroes.put(TipoArquivo.PESSOAS, FileSystems.getDefault().getPathMatcher("glob:pessoas*.csv"));
+        padroes.put(TipoArquivo.DADOS_BANCARIOS, FileSystems.getDefault().getPathMatcher("glob:dados_bancarios*.csv"));
+        monitor = new MonitorCaixaEntrada(jobLauncher, job, entrada(), arquivados(), erros(), padroes,
+              20, ESTABILIDADE_MS, tentativas, esperaTentativaMs, encerramentoMs);
+        monitor.iniciar();
+    }
+
+    private static Lancamento concluir() {
+        return parametros -> execucao(BatchStatus.COMPLETED);
+    }
+
+    private static JobExecution execucao(BatchStatus status) {
+        JobExecution execucao = new JobExecution(1L);
+        execucao.setStatus(status);
+        return execucao;
+    }
+
+    private Path gravar(String nome, String conteudo) throws IOException {
+        return Files.write(entrada().resolve(nome), conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path entrada() {
+        return diretorio.resolve("entrada");
+    }
+
+    private Path arquivados() {
+        return diretorio.resolve("arquivados");
+    }
+
+    private Path erros() {
+        return diretorio.resolve("erros");
+    }
+
+    private static Path unicoSubdiretorio(Path pai) throws IOException {
+        try (Stream<Path> filhos = Files.list(pai)) {
+            List<Path> subdiretorios = filhos.collect(Collectors.toList());
+            assertEquals(1, subdiretorios.size(), subdiretorios.toString());
+            return subdiretorios.get(0);
+        }
+    }
+
+    private static boolean vazio(Path diretorio) throws IOException {
+        try (Stream<Path> filhos = Files.list(diretorio)) {
+            return !filhos.findAny().isPresent();
+        }
+    }
+
+    private static void aguardarAte(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!condicao.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "tempo esgotado");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Resultado do job para os parâmetros recebidos.
+     */
+    private interface Lancamento {
+
+        JobExecution executar(JobParameters parametros) throws Exception;
+    }
+
+    private static final class Execucao {
+
+        private final JobParameters parametros;
+        private final long instante;
+
+        private Execucao(JobParameters parametros, long instante) {
+            this.parametros = parametros;
+            this.instante = instante;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.dowglasmaia.migracaodadosjob.integridade;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceIdsTest {
+
+    @Test
+    void incluiEConsultaIdsNasBordasDasPalavrasESegmentos() {
+        IndiceIds indice = new IndiceIds();
+        int[] ids = {0, 63, 64, (1 << 20) - 1, 1 << 20, Integer.MAX_VALUE, Integer.MIN_VALUE, -1};
+        for (int id : ids) {
+            indice.adicionar(id);
+        }
+
+        for (int id : ids) {
+            assertTrue(indice.contem(id), "id " + id);
+        }
+        assertFalse(indice.contem(1));
+        assertFalse(indice.contem(62));
+        assertFalse(indice.contem(65));
+        assertFalse(indice.contem((1 << 20) + 1));
+        assertFalse(indice.contem(-2));
+        assertFalse(indice.contem(12_345_678)); // Segmento nunca alocado
+        assertEquals(ids.length, indice.quantidade());
+    }
+
+    @Test
+    void idRepetidoContaUmaVez() {
+        IndiceIds indice = new IndiceIds();
+        indice.adicionar(42);
+        indice.adicionar(42);
+
+        assertEquals(1, indice.quantidade());
+    }
+
+    @Test
+    void limparRemoveOsIdsEOEstadoCompleto() {
+        IndiceIds indice = new IndiceIds();
+        indice.adicionar(7);
+        indice.setCompleto(true);
+
+        indice.limpar();
+
+        assertFalse(indice.contem(7));
+        assertFalse(indice.isCompleto());
+        assertEquals(0, indice.quantidade());
+    }
+
+    @Test
+    void inclusaoConcorrenteNaoPerdeIds() throws Exception {
+        IndiceIds indice = new IndiceIds();
+        int threads = 8;
+        int porThread = 200_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int deslocamento = t;
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < porThread; i++) {
+                        indice.adicionar(i * threads + deslocamento); // Threads intercaladas nas mesmas palavras
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals((long) threads * porThread, indice.quantidade());
+        for (int id = 0; id < threads * porThread; id++) {
+            assertTrue(indice.contem(id), "id " + id);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.dowglasmaia.migracaodadosjob.mapeamento;
+
+import com.dowglasmaia.migracaodadosjob.writer.copy.FormatoCopy;
+import com.dowglasmaia.migracaodadosjob.writer.copy.LinhaCopy;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.batch.item.file.transform.DefaultFieldSet;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class MapeamentoPropriedadesTest {
+
+    private static final MapeamentoPropriedades<Registro> MAPEAMENTO = MapeamentoPropriedades.de(Registro.class);
+
+    private final PreparedStatement ps = mock(PreparedStatement.class);
+
+    @Test
+    void defineOsParametrosNaOrdemPeloTipoDaPropriedade() throws Exception {
+        Registro registro = registro();
+
+        MAPEAMENTO.preparedStatementSetter("id", "total", "fator", "nome", "nascimento", "cadastro")
+              .setValues(registro, ps);
+
+        InOrder ordem = inOrder(ps);
+        ordem.verify(ps).setInt(1, 7);
+        ordem.verify(ps).setLong(2, 1L << 40);
+        ordem.verify(ps).setDouble(3, 0.5);
+        ordem.verify(ps).setString(4, "Ana");
+        ordem.verify(ps).setObject(5, LocalDate.of(2000, 1, 2));
+        ordem.verify(ps).setObject(6, LocalDateTime.of(2020, 3, 4, 5, 6, 7));
+        verifyNoMoreInteractions(ps);
+    }
+
+    @Test
+    void defineNuloComOTipoSqlDaPropriedade() throws Exception {
+        MAPEAMENTO.preparedStatementSetter("nome", "nascimento", "cadastro").setValues(new Registro(), ps);
+
+        InOrder ordem = inOrder(ps);
+        ordem.verify(ps).setNull(1, Types.VARCHAR);
+        ordem.verify(ps).setNull(2, Types.DATE);
+        ordem.verify(ps).setNull(3, Types.TIMESTAMP);
+        verifyNoMoreInteractions(ps);
+    }
+
+    @Test
+    void mesmaPropriedadeEmParametrosDiferentes() throws Exception {
+        MAPEAMENTO.preparedStatementSetter("id", "id").setValues(registro(), ps);
+
+        InOrder ordem = inOrder(ps);
+        ordem.verify(ps).setInt(1, 7);
+        ordem.verify(ps).setInt(2, 7);
+    }
+
+    @Test
+    void propagaAExcecaoDoDriver() throws Exception {
+        SQLException erro = new SQLException("coluna inválida");
+        doThrow(erro).when(ps).setInt(1, 7);
+
+        SQLException lancada = assertThrows(SQLException.class,
+              () -> MAPEAMENTO.preparedStatementSetter("id").setValues(registro(), ps));
+
+        assertSame(erro, lancada);
+    }
+
+    @Test
+    void leOsTokensDoFieldSetPeloIndice() throws Exception {
+        Registro registro = MAPEAMENTO.fieldSetMapper("nome", "id", "total", "fator", "nascimento", "cadastro", "ativo")
+              .mapFieldSet(new DefaultFieldSet(new String[]{"Ana", "7", "1099511627776", "0.5", "2000-01-02",
+                    "2020-03-04T05:06:07", "true"}));
+
+        assertEquals(7, registro.getId());
+        assertEquals(1L << 40, registro.getTotal());
+        assertEquals(0.5, registro.getFator());
+        assertEquals("Ana", registro.getNome());
+        assertEquals(LocalDate.of(2000, 1, 2), registro.getNascimento());
+        assertEquals(LocalDateTime.of(2020, 3, 4, 5, 6, 7), registro.getCadastro());
+        assertTrue(registro.isAtivo());
+    }
+
+    @Test
+    void dataVaziaDoFieldSetENula() throws Exception {
+        Registro registro = MAPEAMENTO.fieldSetMapper("nascimento", "cadastro")
+              .mapFieldSet(new DefaultFieldSet(new String[]{"", ""}));
+
+        assertNull(registro.getNascimento());
+        assertNull(registro.getCadastro());
+    }
+
+    @Test
+    void codificaAsColunasDoCopy() {
+        LinhaCopy linha = FormatoCopy.TEXTO.novaLinha(0, 4);
+        Registro registro = registro();
+        registro.setNome(null);
+
+        linha.iniciarLinha();
+        MAPEAMENTO.codificadorCopy("id", "nome", "nascimento", "cadastro").codificar(registro, linha);
+        linha.finalizarLinha();
+
+        assertEquals("7\t\\N\t2000-01-02\t2020-03-04 05:06:07\n",
+              new String(linha.getBuffer(), 0, linha.getTamanho(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void propriedadeInexistenteFalhaAoCriarOMapeador() {
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+              () -> MAPEAMENTO.preparedStatementSetter("id", "inexistente"));
+
+        assertTrue(erro.getMessage().contains("inexistente"), erro.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> MAPEAMENTO.fieldSetMapper("inexistente"));
+        assertThrows(IllegalArgumentException.class, () -> MAPEAMENTO.codificadorCopy("inexistente"));
+    }
+
+    @Test
+    void tipoNaoSuportadoOuSemAcessorFalhaAoCriarOMapeador() {
+        assertThrows(IllegalArgumentException.class, () -> MAPEAMENTO.mapeadorLinhaCsv("nascimento"));
+        assertThrows(IllegalArgumentException.class, () -> MAPEAMENTO.codificadorCopy("fator"));
+        assertThrows(IllegalArgumentException.class, () -> MAPEAMENTO.fieldSetMapper("calculado")); // Sem setter
+    }
+
+    @Test
+    void mapeamentoDaClasseECompartilhado() {
+        assertSame(MAPEAMENTO, MapeamentoPropriedades.de(Registro.class));
+    }
+
+    private static Registro registro() {
+        Registro registro = new Registro();
+        registro.setId(7);
+        registro.setTotal(1L << 40);
+        registro.setFator(0.5);
+        registro.setNome("Ana");
+        registro.setNascimento(LocalDate.of(2000, 1, 2));
+        registro.setCadastro(LocalDateTime.of(2020, 3, 4, 5, 6, 7));
+        return registro;
+    }
+
+    public static class Registro {
+
+        private int id;
+        private long total;
+        private double fator;
+        private String nome;
+        private LocalDate nascimento;
+        private LocalDateTime cadastro;
+        private boolean ativo;
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+
+        public double getFator() {
+            return fator;
+        }
+
+        public void setFator(double fator) {
+            this.fator = fator;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public void setNome(String nome) {
+            this.nome = nome;
+        }
+
+        public LocalDate getNascimento() {
+            return nascimento;
+        }
+
+        public void setNascimento(LocalDate nascimento) {
+            this.nascimento = nascimento;
+        }
+
+        public LocalDateTime getCadastro() {
+            return cadastro;
+        }
+
+        public void setCadastro(LocalDateTime cadastro) {
+            this.cadastro = cadastro;
+        }
+
+        public boolean isAtivo() {
+            return ativo;
+        }
+
+        public void setAtivo(boolean ativo) {
+            this.ativo = ativo;
+        }
+
+        public String getCalculado() {
+            return nome + id;
+        }
+    }
+}
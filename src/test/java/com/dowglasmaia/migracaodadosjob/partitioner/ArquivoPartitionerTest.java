@@ -0,0 +1,175 @@
+package com.dowglasmaia.migracaodadosjob.partitioner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArquivoPartitionerTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void intervalosContiguosCobremCadaLinhaUmaVez() throws Exception {
+        List<String> linhas = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            linhas.add("linha " + i + ";" + "x".repeat(i % 17));
+        }
+        String conteudo = String.join("\n", linhas) + "\n";
+        for (int gridSize = 1; gridSize <= 12; gridSize++) {
+            Map<String, ExecutionContext> particoes = particionar(conteudo, gridSize);
+
+            assertEquals(Math.min(gridSize, linhas.size()), particoes.size(), "gridSize " + gridSize);
+            assertEquals(linhas, linhasDasParticoes(conteudo, particoes), "gridSize " + gridSize);
+        }
+    }
+
+    @Test
+    void gridSizeMaiorQueAQuantidadeDeLinhas() throws Exception {
+        String conteudo = "a;1\nb;2\nc;3\n";
+
+        Map<String, ExecutionContext> particoes = particionar(conteudo, 10);
+
+        assertTrue(particoes.size() <= 3, "partições: " + particoes.size());
+        assertEquals(Arrays.asList("a;1", "b;2", "c;3"), linhasDasParticoes(conteudo, particoes));
+        int particao = 0;
+        for (ExecutionContext contexto : particoes.values()) {
+            assertTrue(contexto.getLong(ArquivoPartitioner.FIM) > contexto.getLong(ArquivoPartitioner.INICIO)); // Sem intervalos vazios
+            assertEquals(particao++, contexto.getInt(ArquivoPartitioner.PARTICAO));
+        }
+    }
+
+    @Test
+    void corteCaiLogoDepoisDeUmaQuebraCrlf() throws Exception {
+        String conteudo = "aaaa\r\nbbbb\r\ncccc\r\ndddd\r\n"; // Cortes em 6, 12 e 18: bytes logo após um \n
+        for (int gridSize = 1; gridSize <= 8; gridSize++) {
+            Map<String, ExecutionContext> particoes = particionar(conteudo, gridSize);
+
+            assertEquals(Arrays.asList("aaaa", "bbbb", "cccc", "dddd"), linhasDasParticoes(conteudo, particoes),
+                  "gridSize " + gridSize);
+        }
+        assertEquals(Arrays.asList(0L, 12L, 24L), limites(particionar(conteudo, 2)));
+    }
+
+    @Test
+    void corteNoMeioDeUmaQuebraCrlfAvancaAteOFimDaQuebra() throws Exception {
+        String conteudo = "aaa\r\nbbb\r\n"; // O alvo do corte, byte 5, é o início da segunda linha; o byte 4 é o \n
+
+        assertEquals(Arrays.asList(0L, 5L, 10L), limites(particionar(conteudo, 2)));
+        assertEquals(Arrays.asList("aaa", "bbb"), linhasDasParticoes(conteudo, particionar(conteudo, 2)));
+        String deslocado = "aaaa\r\nbb\r\n"; // O alvo do corte, byte 5, é o \n do \r\n
+        assertEquals(Arrays.asList(0L, 6L, 10L), limites(particionar(deslocado, 2)));
+    }
+
+    @Test
+    void arquivoSemQuebraNoFim() throws Exception {
+        String conteudo = "a;1\nbb;2\nccc;3";
+        for (int gridSize = 1; gridSize <= 6; gridSize++) {
+            Map<String, ExecutionContext> particoes = particionar(conteudo, gridSize);
+
+            assertEquals(Arrays.asList("a;1", "bb;2", "ccc;3"), linhasDasParticoes(conteudo, particoes), "gridSize " + gridSize);
+        }
+    }
+
+    @Test
+    void arquivoComUmaUnicaLinhaLongaGeraUmaParticao() throws Exception {
+        String conteudo = "x".repeat(1000) + "\n";
+
+        Map<String, ExecutionContext> particoes = particionar(conteudo, 4);
+
+        assertEquals(1, particoes.size());
+        assertEquals(Arrays.asList(0L, 1001L), limites(particoes));
+    }
+
+    @Test
+    void arquivoVazioGeraUmaParticaoVazia() throws Exception {
+        Map<String, ExecutionContext> particoes = particionar("", 4);
+
+        assertEquals(1, particoes.size());
+        assertEquals("", particoes.get(ArquivoPartitioner.PARTICAO + 0).getString(ArquivoPartitioner.ARQUIVO));
+        assertEquals(Collections.emptyList(), linhasDasParticoes("", particoes));
+    }
+
+    @Test
+    void semArquivoGeraUmaParticaoVazia() {
+        Map<String, ExecutionContext> particoes = new ArquivoPartitioner(null).partition(4);
+
+        assertEquals(1, particoes.size());
+        ExecutionContext contexto = particoes.get(ArquivoPartitioner.PARTICAO + 0);
+        assertEquals("", contexto.getString(ArquivoPartitioner.ARQUIVO));
+        assertEquals(0L, contexto.getLong(ArquivoPartitioner.FIM));
+    }
+
+    @Test
+    void arquivoCompactadoGeraUmaParticaoComOArquivoInteiro() throws Exception {
+        Path arquivo = diretorio.resolve("pessoas.csv.gz");
+        Files.write(arquivo, new byte[100]);
+
+        Map<String, ExecutionContext> particoes = new ArquivoPartitioner(new FileSystemResource(arquivo)).partition(4);
+
+        assertEquals(1, particoes.size());
+        assertEquals(0L, particoes.get(ArquivoPartitioner.PARTICAO + 0).getLong(ArquivoPartitioner.INICIO));
+        assertEquals(Long.MAX_VALUE, particoes.get(ArquivoPartitioner.PARTICAO + 0).getLong(ArquivoPartitioner.FIM));
+    }
+
+    private Map<String, ExecutionContext> particionar(String conteudo, int gridSize) throws Exception {
+        Path arquivo = diretorio.resolve("pessoas.csv");
+        Files.write(arquivo, conteudo.getBytes(StandardCharsets.UTF_8));
+        return new ArquivoPartitioner(new FileSystemResource(arquivo)).partition(gridSize);
+    }
+
+    /**
+     * @return Início de cada partição e o fim da última, verificando que cada partição começa onde a anterior termina.
+     */
+    private static List<Long> limites(Map<String, ExecutionContext> particoes) {
+        List<Long> limites = new ArrayList<>();
+        for (ExecutionContext contexto : particoes.values()) {
+            if (!limites.isEmpty()) {
+                assertEquals(limites.get(limites.size() - 1).longValue(), contexto.getLong(ArquivoPartitioner.INICIO), "intervalos contíguos");
+                limites.remove(limites.size() - 1);
+            }
+            limites.add(contexto.getLong(ArquivoPartitioner.INICIO));
+            limites.add(contexto.getLong(ArquivoPartitioner.FIM));
+        }
+        return limites;
+    }
+
+    /**
+     * @return Linhas de todas as partições, em ordem, verificando que os intervalos são contíguos, cobrem o arquivo
+     * inteiro e só começam em inícios de linha.
+     */
+    private static List<String> linhasDasParticoes(String conteudo, Map<String, ExecutionContext> particoes) {
+        byte[] bytes = conteudo.getBytes(StandardCharsets.UTF_8);
+        List<Long> limites = limites(particoes);
+        if (bytes.length > 0) {
+            assertEquals(0L, limites.get(0).longValue());
+            assertEquals(bytes.length, limites.get(limites.size() - 1).longValue());
+        }
+        List<String> linhas = new ArrayList<>();
+        for (ExecutionContext contexto : particoes.values()) {
+            int inicio = (int) contexto.getLong(ArquivoPartitioner.INICIO);
+            int fim = (int) contexto.getLong(ArquivoPartitioner.FIM);
+            assertTrue(inicio == 0 || bytes[inicio - 1] == '\n', "início de linha em " + inicio);
+            String trecho = new String(bytes, inicio, fim - inicio, StandardCharsets.UTF_8);
+            for (String linha : trecho.split("\r?\n")) {
+                if (!linha.isEmpty()) {
+                    linhas.add(linha);
+                }
+            }
+        }
+        return linhas;
+    }
+}
@@ -0,0 +1,89 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+import com.dowglasmaia.migracaodadosjob.reader.csv.ArquivoCsvItemReader;
+import com.dowglasmaia.migracaodadosjob.reader.csv.ArquivoCsvItemReaderBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DataHoraParserTest {
+
+    private final DataHoraParser parser = new DataHoraParser(16);
+
+    @Test
+    void converteLayoutFixo() {
+        assertEquals(LocalDateTime.of(1987, 3, 9, 7, 5, 42), parser.parse("1987-03-09 07:05:42"));
+        assertEquals(LocalDateTime.of(2000, 2, 29, 23, 59, 59), parser.parse("  2000-02-29 23:59:59\t"));
+    }
+
+    @Test
+    void textoVazioENulo() {
+        assertNull(parser.parse(null));
+        assertNull(parser.parse(""));
+        assertNull(parser.parse("   "));
+    }
+
+    @Test
+    void dataInexistenteViraNulo() {
+        assertNull(parser.parse("2000-02-30 10:00:00"));
+        assertNull(parser.parse("1999-02-29 10:00:00"));
+        assertNull(parser.parse("2000-13-01 10:00:00"));
+        assertNull(parser.parse("2000-01-01 24:00:00"));
+        assertNull(parser.parse("2000-02-30 10:00:00")); // Também vindo do cache
+    }
+
+    @Test
+    void rejeitaTextoForaDoLayout() {
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("2000-01-01"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("2000/01/01 10:00:00"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("2000-01-01T10:00:00"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("2000-0a-01 10:00:00"));
+    }
+
+    @Test
+    void reutilizaValoresDoCache() {
+        LocalDateTime primeira = parser.parse("1990-05-17 00:00:00");
+
+        assertSame(primeira, parser.parse("1990-05-17 00:00:00"));
+    }
+
+    @Test
+    void cacheComColisoesDevolveOValorCorreto() {
+        DataHoraParser pequeno = new DataHoraParser(1);
+
+        for (int dia = 1; dia <= 28; dia++) {
+            String texto = String.format("2021-02-%02d 12:00:00", dia);
+            assertEquals(LocalDateTime.of(2021, 2, dia, 12, 0), pequeno.parse(texto));
+            assertEquals(LocalDateTime.of(2021, 2, 1, 12, 0), pequeno.parse("2021-02-01 12:00:00"));
+        }
+    }
+
+    @Test
+    void converteCampoDaLinhaCsv() throws Exception {
+        byte[] conteudo = ("1, 1987-03-09 07:05:42 \n2,\n3,2000-02-30 10:00:00\n4,09/03/1987\n").getBytes(StandardCharsets.UTF_8);
+        ArquivoCsvItemReader<LocalDateTime> leitor = new ArquivoCsvItemReaderBuilder<LocalDateTime>()
+              .name("datas")
+              .resource(new ByteArrayResource(conteudo))
+              .campos(2)
+              .mapeador(linha -> parser.parse(linha, 1))
+              .build();
+        leitor.open(new ExecutionContext());
+
+        assertEquals(LocalDateTime.of(1987, 3, 9, 7, 5, 42), leitor.read());
+        assertNull(leitor.read());
+        assertNull(leitor.read());
+        FlatFileParseException erro = assertThrows(FlatFileParseException.class, leitor::read);
+        assertInstanceOf(IllegalArgumentException.class, erro.getCause());
+        leitor.close();
+    }
+}
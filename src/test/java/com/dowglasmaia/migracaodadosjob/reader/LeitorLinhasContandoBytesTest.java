@@ -0,0 +1,109 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LeitorLinhasContandoBytesTest {
+
+    @Test
+    void reconheceLfCrlfECrEContaOsBytesDeCadaQuebra() throws Exception {
+        for (int bloco : new int[]{1, 2, 3, 1024}) { // Quebras divididas entre leituras do stream
+            LeitorLinhasContandoBytes leitor = leitor("a\nb\r\nc\rd", bloco);
+
+            assertEquals("a", leitor.readLine());
+            assertEquals(2, leitor.getPosicao());
+            assertEquals("b", leitor.readLine());
+            assertEquals(5, leitor.getPosicao(), "bloco " + bloco);
+            assertEquals("c", leitor.readLine());
+            assertEquals(7, leitor.getPosicao());
+            assertEquals("d", leitor.readLine()); // Última linha sem quebra
+            assertEquals(8, leitor.getPosicao());
+            assertNull(leitor.readLine());
+            assertEquals(8, leitor.getPosicao());
+        }
+    }
+
+    @Test
+    void linhasVazias() throws Exception {
+        LeitorLinhasContandoBytes leitor = leitor("\n\r\n\r", 1);
+
+        assertEquals(Arrays.asList("", "", ""), lerTodas(leitor));
+        assertEquals(4, leitor.getPosicao());
+    }
+
+    @Test
+    void caracteresMultibyteDivididosEntreLeituras() throws Exception {
+        String conteudo = "João;ção\r\n日本;€\nfim";
+        for (int bloco : new int[]{1, 2, 3, 5}) {
+            LeitorLinhasContandoBytes leitor = leitor(conteudo, bloco);
+
+            assertEquals("João;ção", leitor.readLine(), "bloco " + bloco);
+            assertEquals("João;ção\r\n".getBytes(StandardCharsets.UTF_8).length, leitor.getPosicao());
+            assertEquals("日本;€", leitor.readLine(), "bloco " + bloco);
+            assertEquals("fim", leitor.readLine());
+            assertEquals(conteudo.getBytes(StandardCharsets.UTF_8).length, leitor.getPosicao());
+        }
+    }
+
+    @Test
+    void linhaMaiorQueOBuffer() throws Exception {
+        String longa = String.join("", Collections.nCopies(70_000, "ã"));
+        LeitorLinhasContandoBytes leitor = leitor(longa + "\nfim\n", 4096);
+
+        assertEquals(longa, leitor.readLine());
+        assertEquals(140_001, leitor.getPosicao());
+        assertEquals("fim", leitor.readLine());
+        assertNull(leitor.readLine());
+        assertEquals(140_005, leitor.getPosicao());
+    }
+
+    @Test
+    void streamVazio() throws Exception {
+        LeitorLinhasContandoBytes leitor = leitor("", 1);
+
+        assertNull(leitor.readLine());
+        assertEquals(0, leitor.getPosicao());
+    }
+
+    private static LeitorLinhasContandoBytes leitor(String conteudo, int bloco) {
+        return new LeitorLinhasContandoBytes(new EntradaEmBlocos(conteudo.getBytes(StandardCharsets.UTF_8), bloco),
+              StandardCharsets.UTF_8);
+    }
+
+    private static List<String> lerTodas(LeitorLinhasContandoBytes leitor) throws IOException {
+        List<String> linhas = new ArrayList<>();
+        String linha;
+        while ((linha = leitor.readLine()) != null) {
+            linhas.add(linha);
+        }
+        return linhas;
+    }
+
+    /**
+     * Stream que devolve no máximo {@code bloco} bytes por leitura, como um arquivo compactado ou um socket.
+     */
+    private static class EntradaEmBlocos extends ByteArrayInputStream {
+
+        private final int bloco;
+
+        EntradaEmBlocos(byte[] bytes, int bloco) {
+            super(bytes);
+            this.bloco = bloco;
+        }
+
+        @Override
+        public synchronized int read(byte[] destino, int deslocamento, int tamanho) {
+            return super.read(destino, deslocamento, Math.min(tamanho, bloco));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+import com.dowglasmaia.migracaodadosjob.reader.csv.ArquivoCsvItemReaderBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LeituraAntecipadaItemReaderTest {
+
+    private static final int TOTAL = 23;
+
+    @Test
+    void entregaTodosOsItensNaOrdem() throws Exception {
+        LeituraAntecipadaItemReader<Integer> leitor = leitor(numeros(TOTAL));
+        leitor.open(new ExecutionContext());
+
+        assertEquals(intervalo(1, TOTAL), lerTudo(leitor));
+        leitor.close();
+    }
+
+    @Test
+    void reiniciaNoMeioDeUmLoteSemRepetirNemPerderItens() throws Exception {
+        ExecutionContext contexto = new ExecutionContext();
+        LeituraAntecipadaItemReader<Integer> primeiro = leitor(numeros(TOTAL));
+        primeiro.open(contexto);
+        ler(primeiro, 7);
+        primeiro.update(contexto); // Commit do chunk com os itens 1 a 7
+        ler(primeiro, 3); // Itens lidos após o commit e perdidos na falha
+        primeiro.close();
+
+        LeituraAntecipadaItemReader<Integer> segundo = leitor(numeros(TOTAL));
+        segundo.open(contexto);
+
+        assertEquals(intervalo(8, TOTAL), lerTudo(segundo));
+        segundo.close();
+    }
+
+    @Test
+    void reiniciaNoFimExatoDeUmLote() throws Exception {
+        ExecutionContext contexto = new ExecutionContext();
+        LeituraAntecipadaItemReader<Integer> primeiro = leitor(numeros(TOTAL));
+        primeiro.open(contexto);
+        ler(primeiro, 10);
+        primeiro.update(contexto);
+        primeiro.close();
+
+        LeituraAntecipadaItemReader<Integer> segundo = leitor(numeros(TOTAL));
+        segundo.open(contexto);
+        ler(segundo, 4);
+        segundo.update(contexto); // Segundo restart, a partir de um checkpoint já reposicionado
+        segundo.close();
+
+        LeituraAntecipadaItemReader<Integer> terceiro = leitor(numeros(TOTAL));
+        terceiro.open(contexto);
+
+        assertEquals(intervalo(15, TOTAL), lerTudo(terceiro));
+        terceiro.close();
+    }
+
+    @Test
+    void falhaDoDelegadoChegaAoStepDepoisDosItensAnteriores() throws Exception {
+        LeituraAntecipadaItemReader<Integer> leitor = leitor("1\n2\n3\nx\n5\n");
+        leitor.open(new ExecutionContext());
+
+        assertEquals(intervalo(1, 3), ler(leitor, 3));
+        assertThrows(FlatFileParseException.class, leitor::read);
+        leitor.close();
+    }
+
+    private static LeituraAntecipadaItemReader<Integer> leitor(String conteudo) {
+        return new LeituraAntecipadaItemReader<>("antecipada",
+              new ArquivoCsvItemReaderBuilder<Integer>()
+                    .name("numeros")
+                    .resource(new ByteArrayResource(conteudo.getBytes(StandardCharsets.UTF_8)))
+                    .campos(1)
+                    .mapeador(linha -> linha.inteiro(0))
+                    .build(),
+              5, 2);
+    }
+
+    private static String numeros(int quantidade) {
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = 1; i <= quantidade; i++) {
+            conteudo.append(i).append('\n');
+        }
+        return conteudo.toString();
+    }
+
+    private static List<Integer> intervalo(int inicio, int fim) {
+        List<Integer> numeros = new ArrayList<>();
+        for (int i = inicio; i <= fim; i++) {
+            numeros.add(i);
+        }
+        return numeros;
+    }
+
+    private static List<Integer> ler(LeituraAntecipadaItemReader<Integer> leitor, int quantidade) throws Exception {
+        List<Integer> itens = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            itens.add(leitor.read());
+        }
+        return itens;
+    }
+
+    private static List<Integer> lerTudo(LeituraAntecipadaItemReader<Integer> leitor) throws Exception {
+        List<Integer> itens = new ArrayList<>();
+        Integer item;
+        while ((item = leitor.read()) != null) {
+            itens.add(item);
+        }
+        assertNull(leitor.read());
+        return itens;
+    }
+}
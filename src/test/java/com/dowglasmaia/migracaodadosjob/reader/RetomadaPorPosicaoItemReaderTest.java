@@ -0,0 +1,147 @@
+package com.dowglasmaia.migracaodadosjob.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.mapping.PassThroughLineMapper;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RetomadaPorPosicaoItemReaderTest {
+
+    private static final List<String> LINHAS = Arrays.asList("primeira", "segunda ção", "terceira 日本", "quarta", "quinta €");
+
+    /**
+     * Quebras {@code \r\n} e {@code \n} misturadas, caracteres de 2, 3 bytes e última linha sem quebra.
+     */
+    private static final String CONTEUDO = "primeira\r\nsegunda ção\nterceira 日本\r\nquarta\nquinta €";
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void restartEmQualquerLinhaNaoRepeteNemPerdeLinhas() throws Exception {
+        Path arquivo = arquivo();
+        for (int lidas = 0; lidas <= LINHAS.size(); lidas++) {
+            ExecutionContext contexto = new ExecutionContext();
+            RetomadaPorPosicaoItemReader<String> primeiro = leitor(arquivo, 0, Long.MAX_VALUE);
+            primeiro.open(contexto);
+            List<String> linhas = ler(primeiro, lidas);
+            primeiro.update(contexto);
+            primeiro.close(); // Falha depois do commit do chunk
+
+            RetomadaPorPosicaoItemReader<String> retomado = leitor(arquivo, 0, Long.MAX_VALUE);
+            retomado.open(contexto);
+            linhas.addAll(ler(retomado, Integer.MAX_VALUE));
+            retomado.update(contexto);
+            retomado.close();
+
+            assertEquals(LINHAS, linhas, "restart após " + lidas + " linhas");
+            assertEquals(CONTEUDO.getBytes(StandardCharsets.UTF_8).length, contexto.getLong("retomada.posicao"));
+            assertEquals(LINHAS.size(), contexto.getInt("linhas.read.count"));
+        }
+    }
+
+    @Test
+    void posicaoSalvaEOByteAbsolutoDaProximaLinha() throws Exception {
+        Path arquivo = arquivo();
+        long inicio = bytes("primeira\r\n");
+        ExecutionContext contexto = new ExecutionContext();
+        RetomadaPorPosicaoItemReader<String> leitor = leitor(arquivo, inicio, Long.MAX_VALUE);
+        leitor.open(contexto);
+
+        assertEquals(Arrays.asList("segunda ção", "terceira 日本"), ler(leitor, 2));
+        leitor.update(contexto);
+        leitor.close();
+
+        assertEquals(bytes("primeira\r\nsegunda ção\nterceira 日本\r\n"), contexto.getLong("retomada.posicao"));
+    }
+
+    @Test
+    void restartNoFimDoIntervaloNaoLeNada() throws Exception {
+        Path arquivo = arquivo();
+        long inicio = bytes("primeira\r\n");
+        long fim = bytes("primeira\r\nsegunda ção\nterceira 日本\r\n"); // Limite de partição, logo após uma quebra
+        ExecutionContext contexto = new ExecutionContext();
+        RetomadaPorPosicaoItemReader<String> primeiro = leitor(arquivo, inicio, fim);
+        primeiro.open(contexto);
+        assertEquals(Arrays.asList("segunda ção", "terceira 日本"), ler(primeiro, Integer.MAX_VALUE));
+        primeiro.update(contexto);
+        primeiro.close();
+        assertEquals(fim, contexto.getLong("retomada.posicao"));
+
+        RetomadaPorPosicaoItemReader<String> retomado = leitor(arquivo, inicio, fim);
+        retomado.open(contexto);
+
+        assertNull(retomado.read());
+        retomado.close();
+    }
+
+    @Test
+    void restartNoInicioDoIntervaloLeOIntervaloInteiro() throws Exception {
+        Path arquivo = arquivo();
+        long inicio = bytes("primeira\r\nsegunda ção\n");
+        ExecutionContext contexto = new ExecutionContext();
+        RetomadaPorPosicaoItemReader<String> primeiro = leitor(arquivo, inicio, Long.MAX_VALUE);
+        primeiro.open(contexto);
+        primeiro.update(contexto); // Nenhum chunk concluído antes da falha
+        primeiro.close();
+        assertEquals(inicio, contexto.getLong("retomada.posicao"));
+
+        RetomadaPorPosicaoItemReader<String> retomado = leitor(arquivo, inicio, Long.MAX_VALUE);
+        retomado.open(contexto);
+
+        assertEquals(LINHAS.subList(2, 5), ler(retomado, Integer.MAX_VALUE));
+        retomado.close();
+    }
+
+    @Test
+    void contextoSemPosicaoRestauraPelaContagemDeItens() throws Exception {
+        ExecutionContext contexto = new ExecutionContext();
+        contexto.putInt("linhas.read.count", 2); // Contexto de uma versão sem a posição
+        RetomadaPorPosicaoItemReader<String> leitor = leitor(arquivo(), 0, Long.MAX_VALUE);
+        leitor.open(contexto);
+
+        assertEquals(LINHAS.subList(2, 5), ler(leitor, Integer.MAX_VALUE));
+        leitor.close();
+    }
+
+    private Path arquivo() throws Exception {
+        Path arquivo = diretorio.resolve("linhas.csv");
+        Files.write(arquivo, CONTEUDO.getBytes(StandardCharsets.UTF_8));
+        return arquivo;
+    }
+
+    private static RetomadaPorPosicaoItemReader<String> leitor(Path arquivo, long inicio, long fim) {
+        FlatFileItemReader<String> delegate = new FlatFileItemReaderBuilder<String>()
+              .name("linhas")
+              .encoding(StandardCharsets.UTF_8.name())
+              .lineMapper(new PassThroughLineMapper())
+              .build();
+        return new RetomadaPorPosicaoItemReader<>("retomada", delegate, new FileSystemResource(arquivo), inicio, fim);
+    }
+
+    private static List<String> ler(RetomadaPorPosicaoItemReader<String> leitor, int quantidade) throws Exception {
+        List<String> linhas = new ArrayList<>();
+        String linha;
+        while (linhas.size() < quantidade && (linha = leitor.read()) != null) {
+            linhas.add(linha);
+        }
+        return linhas;
+    }
+
+    private static long bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
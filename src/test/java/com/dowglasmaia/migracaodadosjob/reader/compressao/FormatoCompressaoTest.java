@@ -0,0 +1,350 @@
+package com.dowglasmaia.migracaodadosjob.reader.compressao;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FormatoCompressaoTest {
+
+    private static final int TAMANHO_MAXIMO = 64 * 1024 * 1024;
+
+    @Test
+    void detectaOFormatoPelaExtensao() {
+        assertEquals(FormatoCompressao.GZIP, FormatoCompressao.detectar("files/pessoas.csv.gz"));
+        assertEquals(FormatoCompressao.ZSTD, FormatoCompressao.detectar("PESSOAS.CSV.ZST"));
+        assertEquals(FormatoCompressao.NENHUM, FormatoCompressao.detectar("pessoas.csv"));
+        assertEquals(FormatoCompressao.NENHUM, FormatoCompressao.detectar(null));
+    }
+
+    @Test
+    void bgzfDelimitaCadaMembro() throws IOException {
+        List<byte[]> membros = List.of(membroBgzf(csv(1, 2000)), membroBgzf(csv(2001, 10)), membroBgzf(new byte[0]));
+
+        assertEquals(tamanhos(membros), delimitar(FormatoCompressao.GZIP, concatenar(membros)));
+    }
+
+    @Test
+    void gzipSemCampoBcNaoEDelimitavel() throws IOException {
+        LoteCompactado lote = new LoteCompactado(16);
+        lote.iniciarUnidade();
+
+        FormatoCompressao.Unidade unidade = FormatoCompressao.GZIP.delimitar(lote, new ByteArrayInputStream(gzip(csv(1, 100))), TAMANHO_MAXIMO);
+
+        assertEquals(FormatoCompressao.Unidade.NAO_DELIMITAVEL, unidade);
+    }
+
+    @Test
+    void zstdDelimitaCadaFrame() throws IOException {
+        List<byte[]> frames = List.of(
+              Zstd.compress(csv(1, 5000), 3),
+              zstdComChecksum(csv(5001, 3000)),
+              frameBruto(aleatorio(300_000, 1)), // Vários blocos sem compressão
+              frameRle((byte) 'a', 1000),
+              frameIgnoravel(new byte[]{1, 2, 3}),
+              Zstd.compress(aleatorio(200_000, 2), 3));
+
+        assertEquals(tamanhos(frames), delimitar(FormatoCompressao.ZSTD, concatenar(frames)));
+    }
+
+    @Test
+    void zstdFrameMaiorQueOLimiteNaoEDelimitavel() throws IOException {
+        LoteCompactado lote = new LoteCompactado(16);
+        lote.iniciarUnidade();
+
+        FormatoCompressao.Unidade unidade = FormatoCompressao.ZSTD.delimitar(lote,
+              new ByteArrayInputStream(frameBruto(aleatorio(300_000, 3))), 1000);
+
+        assertEquals(FormatoCompressao.Unidade.NAO_DELIMITAVEL, unidade);
+    }
+
+    @Test
+    void unidadeTruncadaFalha() {
+        byte[] membro = membroBgzf(csv(1, 100));
+        byte[] frame = frameBruto(aleatorio(1000, 4));
+
+        assertThrows(EOFException.class, () -> delimitar(FormatoCompressao.GZIP, Arrays.copyOf(membro, membro.length - 3)));
+        assertThrows(EOFException.class, () -> delimitar(FormatoCompressao.ZSTD, Arrays.copyOf(frame, frame.length - 3)));
+    }
+
+    @Test
+    void frameIgnoravelMaiorQueOLimiteFalhaComOTamanho() {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        littleEndian(frame, 0x184D2A50L, 4);
+        littleEndian(frame, 0xFFFFFFFFL, 4); // Negativo se convertido para int
+
+        IOException erro = assertThrows(IOException.class, () -> delimitar(FormatoCompressao.ZSTD, frame.toByteArray()));
+
+        assertTrue(erro.getMessage().contains("4294967295"), erro.getMessage());
+    }
+
+    @Test
+    void cabecalhoInvalidoFalha() {
+        byte[] texto = csv(1, 10);
+
+        assertThrows(IOException.class, () -> delimitar(FormatoCompressao.GZIP, texto));
+        assertThrows(IOException.class, () -> delimitar(FormatoCompressao.ZSTD, texto));
+    }
+
+    @Test
+    void descompressaoParalelaDeBgzfMantemAOrdem() throws IOException {
+        byte[] original = aleatorio(3 * 1024 * 1024, 5); // Incompressível: vários lotes de 1 MiB
+        List<byte[]> membros = new ArrayList<>();
+        for (int inicio = 0; inicio < original.length; inicio += 60_000) {
+            membros.add(membroBgzf(Arrays.copyOfRange(original, inicio, Math.min(inicio + 60_000, original.length))));
+        }
+
+        assertArrayEquals(original, descompactar(FormatoCompressao.GZIP, concatenar(membros), 4));
+        assertArrayEquals(original, descompactar(FormatoCompressao.GZIP, concatenar(membros), 0));
+    }
+
+    @Test
+    void gzipComumDepoisDeMembrosBgzfContinuaSequencialmente() throws IOException {
+        byte[] inicio = aleatorio(1_500_000, 6);
+        byte[] fim = csv(1, 20_000);
+        List<byte[]> partes = new ArrayList<>();
+        for (int i = 0; i < inicio.length; i += 60_000) {
+            partes.add(membroBgzf(Arrays.copyOfRange(inicio, i, Math.min(i + 60_000, inicio.length))));
+        }
+        partes.add(gzip(fim));
+
+        assertArrayEquals(concatenar(List.of(inicio, fim)), descompactar(FormatoCompressao.GZIP, concatenar(partes), 4));
+    }
+
+    @Test
+    void descompressaoParalelaDeZstdMantemAOrdem() throws IOException {
+        List<byte[]> conteudos = new ArrayList<>();
+        List<byte[]> frames = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            byte[] conteudo = i % 2 == 0 ? aleatorio(400_000, 10 + i) : csv(i * 10_000, 10_000);
+            conteudos.add(conteudo);
+            frames.add(i % 3 == 0 ? frameBruto(conteudo) : Zstd.compress(conteudo, 3));
+        }
+        frames.add(frameIgnoravel(new byte[16]));
+
+        assertArrayEquals(concatenar(conteudos), descompactar(FormatoCompressao.ZSTD, concatenar(frames), 4));
+    }
+
+    @Test
+    void skipDescartaBytesDescompactados() throws IOException {
+        byte[] original = csv(1, 50_000);
+        List<byte[]> membros = new ArrayList<>();
+        for (int inicio = 0; inicio < original.length; inicio += 60_000) {
+            membros.add(membroBgzf(Arrays.copyOfRange(original, inicio, Math.min(inicio + 60_000, original.length))));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (InputStream entrada = new DescompressaoInputStream(new ByteArrayInputStream(concatenar(membros)),
+              FormatoCompressao.GZIP, "teste", executor, 2)) {
+            long pulados = 0;
+            while (pulados < 700_000) {
+                pulados += entrada.skip(700_000 - pulados);
+            }
+            assertArrayEquals(Arrays.copyOfRange(original, 700_000, original.length), entrada.readAllBytes());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void arquivosCompartilhamOExecutorSemEncerraLo() throws Exception {
+        byte[] original = aleatorio(3 * 1024 * 1024, 7);
+        List<byte[]> membros = new ArrayList<>();
+        for (int inicio = 0; inicio < original.length; inicio += 60_000) {
+            membros.add(membroBgzf(Arrays.copyOfRange(original, inicio, Math.min(inicio + 60_000, original.length))));
+        }
+        byte[] compactado = concatenar(membros);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            InputStream primeiro = new DescompressaoInputStream(new ByteArrayInputStream(compactado), FormatoCompressao.GZIP, "primeiro", executor, 2);
+            InputStream segundo = new DescompressaoInputStream(new ByteArrayInputStream(compactado), FormatoCompressao.GZIP, "segundo", executor, 2);
+            primeiro.read(new byte[1000]);
+            primeiro.close(); // Abandonado no meio: os lotes pendentes são cancelados
+
+            assertArrayEquals(original, segundo.readAllBytes());
+            segundo.close();
+            assertFalse(executor.isShutdown());
+            try (InputStream terceiro = new DescompressaoInputStream(new ByteArrayInputStream(compactado), FormatoCompressao.GZIP, "terceiro", executor, 2)) {
+                assertArrayEquals(original, terceiro.readAllBytes());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Integer> delimitar(FormatoCompressao formato, byte[] compactado) throws IOException {
+        InputStream entrada = new ByteArrayInputStream(compactado);
+        LoteCompactado lote = new LoteCompactado(1024);
+        List<Integer> tamanhos = new ArrayList<>();
+        while (true) {
+            lote.iniciarUnidade();
+            FormatoCompressao.Unidade unidade = formato.delimitar(lote, entrada, TAMANHO_MAXIMO);
+            if (unidade == FormatoCompressao.Unidade.FIM) {
+                return tamanhos;
+            }
+            if (unidade != FormatoCompressao.Unidade.COMPLETA) {
+                throw new IOException("Unidade não delimitada: " + unidade);
+            }
+            tamanhos.add(lote.tamanhoUnidade());
+            lote.concluirUnidade();
+        }
+    }
+
+    /**
+     * @param threads Threads do executor de descompressão; com 0, o arquivo é descompactado sequencialmente.
+     */
+    private static byte[] descompactar(FormatoCompressao formato, byte[] compactado, int threads) throws IOException {
+        ExecutorService executor = threads > 0 ? Executors.newFixedThreadPool(threads) : null;
+        try (InputStream entrada = new DescompressaoInputStream(new ByteArrayInputStream(compactado), formato, "teste", executor, 2)) {
+            return entrada.readAllBytes();
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Membro gzip com o subcampo BC no campo extra, como o gerado pelo bgzip.
+     */
+    private static byte[] membroBgzf(byte[] conteudo) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(conteudo);
+        deflater.finish();
+        byte[] comprimido = new byte[conteudo.length + 1024];
+        int tamanhoComprimido = 0;
+        while (!deflater.finished()) {
+            tamanhoComprimido += deflater.deflate(comprimido, tamanhoComprimido, comprimido.length - tamanhoComprimido);
+        }
+        deflater.end();
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+
+        ByteArrayOutputStream membro = new ByteArrayOutputStream();
+        membro.writeBytes(new byte[]{0x1F, (byte) 0x8B, 8, 4, 0, 0, 0, 0, 0, (byte) 0xFF});
+        littleEndian(membro, 6, 2); // Tamanho do campo extra
+        membro.writeBytes(new byte[]{'B', 'C'});
+        littleEndian(membro, 2, 2);
+        littleEndian(membro, 12 + 6 + tamanhoComprimido + 8 - 1, 2); // Tamanho do membro menos um
+        membro.write(comprimido, 0, tamanhoComprimido);
+        littleEndian(membro, crc.getValue(), 4);
+        littleEndian(membro, conteudo.length, 4);
+        return membro.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] conteudo) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(conteudo);
+        }
+        return saida.toByteArray();
+    }
+
+    private static byte[] zstdComChecksum(byte[] conteudo) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (ZstdOutputStream zstd = new ZstdOutputStream(saida)) {
+            zstd.setChecksum(true);
+            zstd.write(conteudo);
+        }
+        return saida.toByteArray();
+    }
+
+    /**
+     * Frame zstd com blocos sem compressão de até 128 KiB, com descritor de janela e sem tamanho do conteúdo.
+     */
+    private static byte[] frameBruto(byte[] conteudo) {
+        ByteArrayOutputStream frame = cabecalhoFrame();
+        int inicio = 0;
+        do {
+            int tamanho = Math.min(128 * 1024, conteudo.length - inicio);
+            boolean ultimo = inicio + tamanho == conteudo.length;
+            littleEndian(frame, ((long) tamanho << 3) | (ultimo ? 1 : 0), 3); // Bloco do tipo 0, sem compressão
+            frame.write(conteudo, inicio, tamanho);
+            inicio += tamanho;
+        } while (inicio < conteudo.length);
+        return frame.toByteArray();
+    }
+
+    /**
+     * Frame zstd com um único bloco RLE: um byte repetido.
+     */
+    private static byte[] frameRle(byte valor, int repeticoes) {
+        ByteArrayOutputStream frame = cabecalhoFrame();
+        littleEndian(frame, ((long) repeticoes << 3) | (1 << 1) | 1, 3);
+        frame.write(valor);
+        return frame.toByteArray();
+    }
+
+    private static ByteArrayOutputStream cabecalhoFrame() {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        littleEndian(frame, 0xFD2FB528L, 4);
+        frame.write(0x00); // Descritor: sem tamanho do conteúdo, sem checksum, sem dicionário
+        frame.write(7 << 3); // Janela de 128 KiB
+        return frame;
+    }
+
+    private static byte[] frameIgnoravel(byte[] conteudo) {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        littleEndian(frame, 0x184D2A53L, 4);
+        littleEndian(frame, conteudo.length, 4);
+        frame.writeBytes(conteudo);
+        return frame.toByteArray();
+    }
+
+    private static void littleEndian(ByteArrayOutputStream saida, long valor, int bytes) {
+        for (int i = 0; i < bytes; i++) {
+            saida.write((int) (valor >>> (8 * i)));
+        }
+    }
+
+    private static byte[] csv(int primeiro, int quantidade) {
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = primeiro; i < primeiro + quantidade; i++) {
+            conteudo.append(i).append(",Pessoa ").append(i).append(",pessoa").append(i).append("@email.com,1990-01-01 00:00:00\n");
+        }
+        return conteudo.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] aleatorio(int tamanho, long semente) {
+        byte[] dados = new byte[tamanho];
+        new Random(semente).nextBytes(dados);
+        return dados;
+    }
+
+    private static List<Integer> tamanhos(List<byte[]> partes) {
+        List<Integer> tamanhos = new ArrayList<>();
+        for (byte[] parte : partes) {
+            tamanhos.add(parte.length);
+        }
+        return tamanhos;
+    }
+
+    private static byte[] concatenar(List<byte[]> partes) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        for (byte[] parte : partes) {
+            saida.writeBytes(parte);
+        }
+        return saida.toByteArray();
+    }
+}
@@ -0,0 +1,164 @@
+package com.dowglasmaia.migracaodadosjob.reader.csv;
+
+import com.dowglasmaia.migracaodadosjob.partitioner.ArquivoPartitioner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArquivoCsvItemReaderTest {
+
+    private static final MapeadorLinhaCsv<String> MAPEADOR = linha -> linha.inteiro(0) + ":" + linha.texto(1);
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void ignoraComentariosLinhasVaziasEQuebrasCrLf() throws Exception {
+        Resource arquivo = arquivo("# cabeçalho\r\n1, Ana \r\n\r\n\n2,Bruno\n#3,Comentado\n3,Caio");
+
+        ArquivoCsvItemReader<String> leitor = leitor(arquivo).build();
+        leitor.open(new ExecutionContext());
+
+        assertEquals(List.of("1:Ana", "2:Bruno", "3:Caio"), lerTudo(leitor));
+        leitor.close();
+    }
+
+    @Test
+    void linhasQueCruzamORecarregamentoDoBuffer() throws Exception {
+        List<String> esperados = new ArrayList<>();
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = 1; i <= 200; i++) {
+            conteudo.append(i).append(",nome-").append(i).append('\n');
+            esperados.add(i + ":nome-" + i);
+        }
+
+        ArquivoCsvItemReader<String> leitor = leitor(arquivo(conteudo.toString())).tamanhoBuffer(16).build();
+        leitor.open(new ExecutionContext());
+
+        assertEquals(esperados, lerTudo(leitor));
+        leitor.close();
+    }
+
+    @Test
+    void intervalosDasParticoesCobremCadaLinhaUmaVez() throws Exception {
+        List<String> esperados = new ArrayList<>();
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = 1; i <= 97; i++) {
+            conteudo.append(i).append(",nome de tamanho variável-").append("x".repeat(i % 7)).append("\r\n");
+            esperados.add(i + ":nome de tamanho variável-" + "x".repeat(i % 7));
+        }
+        Resource arquivo = arquivo(conteudo.toString());
+
+        Map<String, ExecutionContext> particoes = new ArquivoPartitioner(arquivo).partition(4);
+        List<String> lidos = new ArrayList<>();
+        for (ExecutionContext particao : particoes.values()) {
+            ArquivoCsvItemReader<String> leitor = leitor(arquivo)
+                  .intervalo(particao.getLong(ArquivoPartitioner.INICIO), particao.getLong(ArquivoPartitioner.FIM))
+                  .tamanhoBuffer(64)
+                  .build();
+            leitor.open(new ExecutionContext());
+            lidos.addAll(lerTudo(leitor));
+            leitor.close();
+        }
+
+        assertEquals(4, particoes.size());
+        assertEquals(esperados, lidos);
+    }
+
+    @Test
+    void reiniciaNaPosicaoSalvaNoContexto() throws Exception {
+        Resource arquivo = arquivo("1,Ana\n# obs\n2,Bruno\n3,Caio\n\n4,Davi\n5,Eva\n");
+        ExecutionContext contexto = new ExecutionContext();
+
+        ArquivoCsvItemReader<String> primeiro = leitor(arquivo).tamanhoBuffer(16).build();
+        primeiro.open(contexto);
+        assertEquals("1:Ana", primeiro.read());
+        assertEquals("2:Bruno", primeiro.read());
+        primeiro.update(contexto);
+        assertEquals("3:Caio", primeiro.read()); // Lido após o último commit, deve ser lido de novo
+        primeiro.close();
+
+        assertEquals(20L, contexto.getLong("pessoas.posicao"));
+
+        ArquivoCsvItemReader<String> segundo = leitor(arquivo).tamanhoBuffer(16).build();
+        segundo.open(contexto);
+        assertEquals(List.of("3:Caio", "4:Davi", "5:Eva"), lerTudo(segundo));
+        segundo.update(contexto);
+        segundo.close();
+    }
+
+    @Test
+    void reiniciaRecursoQueNaoEArquivoDescartandoBytesAnteriores() throws Exception {
+        Resource recurso = new ByteArrayResource("1,Ana\n2,Bruno\n3,Caio\n".getBytes(StandardCharsets.UTF_8));
+        ExecutionContext contexto = new ExecutionContext();
+        contexto.putLong("pessoas.posicao", 6);
+
+        ArquivoCsvItemReader<String> leitor = leitor(recurso).build();
+        leitor.open(contexto);
+
+        assertEquals(List.of("2:Bruno", "3:Caio"), lerTudo(leitor));
+        leitor.close();
+    }
+
+    @Test
+    void rejeitaQuantidadeDeCamposIncorreta() throws Exception {
+        ArquivoCsvItemReader<String> leitor = leitor(arquivo("1,Ana\n2,Bruno,extra\n")).build();
+        leitor.open(new ExecutionContext());
+
+        assertEquals("1:Ana", leitor.read());
+        FlatFileParseException erro = assertThrows(FlatFileParseException.class, leitor::read);
+        assertEquals(2, erro.getLineNumber());
+        assertEquals("2,Bruno,extra", erro.getInput());
+        leitor.close();
+    }
+
+    @Test
+    void rejeitaLinhaMaiorQueOBuffer() throws Exception {
+        ArquivoCsvItemReader<String> leitor = leitor(arquivo("1,Ana\n2,um nome longo demais\n")).tamanhoBuffer(8).build();
+        leitor.open(new ExecutionContext());
+
+        assertEquals("1:Ana", leitor.read());
+        assertThrows(FlatFileParseException.class, leitor::read);
+        leitor.close();
+    }
+
+    private Resource arquivo(String conteudo) throws Exception {
+        Path arquivo = Files.createTempFile(diretorio, "pessoas", ".csv");
+        Files.write(arquivo, conteudo.getBytes(StandardCharsets.UTF_8));
+        return new FileSystemResource(arquivo);
+    }
+
+    private static ArquivoCsvItemReaderBuilder<String> leitor(Resource recurso) {
+        return new ArquivoCsvItemReaderBuilder<String>()
+              .name("pessoas")
+              .resource(recurso)
+              .campos(2)
+              .addComment("#")
+              .mapeador(MAPEADOR);
+    }
+
+    private static List<String> lerTudo(ArquivoCsvItemReader<String> leitor) throws Exception {
+        List<String> itens = new ArrayList<>();
+        String item;
+        while ((item = leitor.read()) != null) {
+            itens.add(item);
+        }
+        assertNull(leitor.read());
+        return itens;
+    }
+}
@@ -0,0 +1,77 @@
+package com.dowglasmaia.migracaodadosjob.reader.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LinhaCsvTest {
+
+    private static LinhaCsv carregar(String conteudo, int campos) {
+        LinhaCsv linha = new LinhaCsv(campos);
+        ByteBuffer buffer = ByteBuffer.wrap(conteudo.getBytes(StandardCharsets.UTF_8));
+        linha.carregar(buffer, 0, buffer.limit());
+        return linha;
+    }
+
+    @Test
+    void removeEspacosDasExtremidades() {
+        LinhaCsv linha = carregar("  Maria Silva , 42 ,\t SP\t", 3);
+
+        assertEquals(3, linha.quantidadeCampos());
+        assertEquals("Maria Silva", linha.texto(0));
+        assertEquals(42, linha.inteiro(1));
+        assertEquals("SP", linha.texto(2));
+        assertEquals(2, linha.tamanho(2));
+        assertEquals('S', linha.byteEm(2, 0));
+    }
+
+    @Test
+    void campoEntreAspasPodeConterDelimitadorEAspasDuplicadas() {
+        LinhaCsv linha = carregar("\"Silva, Maria\",\"ela disse \"\"oi\"\"\",1", 3);
+
+        assertEquals("Silva, Maria", linha.texto(0));
+        assertEquals("ela disse \"oi\"", linha.texto(1));
+        assertEquals(1, linha.inteiro(2));
+    }
+
+    @Test
+    void campoVazioOuSoComEspacos() {
+        LinhaCsv linha = carregar("a,,   ", 3);
+
+        assertFalse(linha.vazio(0));
+        assertTrue(linha.vazio(1));
+        assertTrue(linha.vazio(2));
+        assertEquals("", linha.texto(2));
+        assertThrows(NumberFormatException.class, () -> linha.inteiro(1));
+    }
+
+    @Test
+    void inteiroComSinalELimites() {
+        LinhaCsv linha = carregar("-2147483648,+7,2147483648,12a", 4);
+
+        assertEquals(Integer.MIN_VALUE, linha.inteiro(0));
+        assertEquals(7, linha.inteiro(1));
+        assertThrows(NumberFormatException.class, () -> linha.inteiro(2));
+        assertThrows(NumberFormatException.class, () -> linha.inteiro(3));
+    }
+
+    @Test
+    void textoUtf8() {
+        assertEquals("João", carregar("João,1", 2).texto(0));
+    }
+
+    @Test
+    void informaCamposAMais() {
+        LinhaCsv linha = new LinhaCsv(2);
+        ByteBuffer buffer = ByteBuffer.wrap("a,b,c".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(3, linha.carregar(buffer, 0, buffer.limit()));
+        assertThrows(IndexOutOfBoundsException.class, () -> carregar("a", 2).texto(1));
+    }
+}
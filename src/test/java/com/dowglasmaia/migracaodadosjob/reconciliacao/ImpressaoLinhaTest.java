@@ -0,0 +1,174 @@
+package com.dowglasmaia.migracaodadosjob.reconciliacao;
+
+import com.dowglasmaia.migracaodadosjob.dominio.DadosBancario;
+import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * A impressão calculada em Java sobre o registro lido deve ser a mesma que o PostgreSQL calcula sobre a linha gravada.
+ * Os testes sem banco fixam as duas metades do contrato: o texto montado em Java segue a ordem e o formato das
+ * expressões SQL, e a impressão é o início do MD5 como o {@code ::bit(64)::bigint} do PostgreSQL o lê.
+ * A comparação com um PostgreSQL real roda com {@code -Dteste.postgres.url=jdbc:postgresql://host/banco?user=...&password=...}.
+ */
+class ImpressaoLinhaTest {
+
+    private static final String SEPARADOR = "\u001f";
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void textoDaPessoaComecaPeloIdESegueAOrdemDasColunas() {
+        RegistroReconciliado<Pessoa> registro = config().reconciliacaoPessoas().getRegistro();
+        Pessoa pessoa = new Pessoa(7, "Ana Souza", null, LocalDateTime.of(1990, 5, 17, 23, 59, 58), 33);
+
+        assertEquals("7" + SEPARADOR + "Ana Souza" + SEPARADOR + SEPARADOR + "1990-05-17" + SEPARADOR + "33",
+              registro.texto(pessoa).toString()); // E-mail nulo vazio, como o coalesce; só a data do nascimento
+        assertArrayEquals(new String[]{"id", "nome", "email", "to_char(data_nascimento, 'YYYY-MM-DD')", "idade"},
+              registro.colunas());
+    }
+
+    @Test
+    void textoDosDadosBancariosComecaPeloIdESegueAOrdemDasColunas() {
+        RegistroReconciliado<DadosBancario> registro = config().reconciliacaoDadosBancarios().getRegistro();
+
+        assertEquals("12" + SEPARADOR + "7" + SEPARADOR + "1234" + SEPARADOR + "56789" + SEPARADOR + "1",
+              registro.texto(new DadosBancario(12, 7, 1234, 56789, 1)).toString());
+        assertArrayEquals(new String[]{"id", "pessoa_id", "agencia", "conta", "banco"}, registro.colunas());
+    }
+
+    @Test
+    void campoFormataDatasComQuatroDigitosNoAno() {
+        StringBuilder texto = new StringBuilder("1");
+
+        ImpressaoLinha.campo(texto, LocalDateTime.of(987, 1, 2, 0, 0).toLocalDate());
+        ImpressaoLinha.campo(texto, null);
+
+        assertEquals("1" + SEPARADOR + "0987-01-02" + SEPARADOR, texto.toString()); // to_char(..., 'YYYY-MM-DD')
+    }
+
+    @Test
+    void sqlConcatenaAsColunasComChr31ECoalesce() {
+        assertEquals("('x' || substr(md5(coalesce((id)::text, '') || chr(31) || coalesce((to_char(data_nascimento, 'YYYY-MM-DD'))::text, '')), 1, 16))::bit(64)::bigint",
+              ImpressaoLinha.sql("id", ImpressaoLinha.data("data_nascimento")));
+    }
+
+    @Test
+    void impressaoEOInicioDoMd5LidoComoBigintComSinal() throws Exception {
+        // Valores de ('x' || substr(md5(texto), 1, 16))::bit(64)::bigint
+        assertEquals(-3162216497309240828L, ImpressaoLinha.de("")); // md5('') = d41d8cd98f00b204...
+        assertEquals(-6009953530235341019L, ImpressaoLinha.de("7" + SEPARADOR + "Ana Souza" + SEPARADOR + SEPARADOR + "1990-05-17" + SEPARADOR + "33"));
+        assertEquals(3066707713021651650L, ImpressaoLinha.de("12" + SEPARADOR + "7" + SEPARADOR + "1234" + SEPARADOR + "56789" + SEPARADOR + "1"));
+        String acentuado = "1" + SEPARADOR + "João" + SEPARADOR + "joao@exemplo.com" + SEPARADOR + "2000-01-01" + SEPARADOR + "24";
+        assertEquals(5149675282586503989L, ImpressaoLinha.de(acentuado)); // md5 sobre os bytes UTF-8, como no banco UTF8
+        assertEquals(bigintDoHexadecimal(acentuado), ImpressaoLinha.de(acentuado));
+    }
+
+    @Test
+    void somaNumericDoBancoReduzidaA64BitsIgualASomaEmJava() {
+        long[] impressoes = {Long.MAX_VALUE, Long.MAX_VALUE, 12345, Long.MIN_VALUE, -1, Long.MIN_VALUE, Long.MIN_VALUE};
+        long somaJava = 0;
+        BigDecimal somaBanco = BigDecimal.ZERO; // sum(bigint) do PostgreSQL é numeric, sem overflow
+        for (long impressao : impressoes) {
+            somaJava += impressao;
+            somaBanco = somaBanco.add(BigDecimal.valueOf(impressao));
+        }
+
+        assertEquals(somaJava, TabelaReconciliada.somaModulo64(somaBanco));
+        assertEquals(Long.MIN_VALUE, TabelaReconciliada.somaModulo64(BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE)));
+    }
+
+    @Test
+    void impressoesDoPostgresqlIguaisAsDoJava() throws Exception {
+        String url = System.getProperty("teste.postgres.url");
+        assumeTrue(url != null, "Informe -Dteste.postgres.url para comparar com o PostgreSQL");
+        List<Pessoa> pessoas = Arrays.asList(
+              new Pessoa(1, "João", "joao@exemplo.com", LocalDateTime.of(2000, 1, 1, 0, 0), 24),
+              new Pessoa(2, "Ana Souza", "ana@exemplo.com", LocalDateTime.of(1990, 5, 17, 23, 59, 58), 33),
+              new Pessoa(3, "Zoë 日本", "zoe@exemplo.com", LocalDateTime.of(987, 1, 2, 12, 0), 0),
+              new Pessoa(5, "Carlos", "carlos@exemplo.com", LocalDateTime.of(1970, 12, 31, 0, 0), 45));
+        RegistroReconciliado<Pessoa> registro = config().reconciliacaoPessoas().getRegistro();
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url, true);
+        try {
+            Connection conexao = dataSource.getConnection();
+            try (Statement statement = conexao.createStatement()) {
+                statement.execute("CREATE TEMP TABLE pessoa_impressao(id INT PRIMARY KEY, nome VARCHAR(500), email VARCHAR(500),"
+                      + " data_nascimento TIMESTAMP, idade INT)");
+            }
+            try (PreparedStatement insert = conexao.prepareStatement("INSERT INTO pessoa_impressao VALUES (?, ?, ?, ?, ?)")) {
+                for (Pessoa pessoa : pessoas) {
+                    insert.setInt(1, pessoa.getId());
+                    insert.setString(2, pessoa.getNome());
+                    insert.setString(3, pessoa.getEmail());
+                    insert.setTimestamp(4, Timestamp.valueOf(pessoa.getDataNascimento()));
+                    insert.setInt(5, pessoa.getIdade());
+                    insert.executeUpdate();
+                }
+            }
+            try (Statement statement = conexao.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT " + ImpressaoLinha.sql(registro.colunas())
+                       + ", (" + ImpressaoLinha.sql("id", "NULL", ImpressaoLinha.data("data_nascimento")) + ") FROM pessoa_impressao ORDER BY id")) {
+                for (Pessoa pessoa : pessoas) {
+                    resultSet.next();
+                    assertEquals(ImpressaoLinha.de(registro.texto(pessoa)), resultSet.getLong(1), "id " + pessoa.getId());
+                    StringBuilder comNulo = ImpressaoLinha.campo(new StringBuilder().append(pessoa.getId()), null);
+                    ImpressaoLinha.campo(comNulo, pessoa.getDataNascimento().toLocalDate());
+                    assertEquals(ImpressaoLinha.de(comNulo), resultSet.getLong(2), "id " + pessoa.getId());
+                }
+            }
+
+            TabelaReconciliada<Pessoa> tabela = new TabelaReconciliada<>("pessoas", "pessoa_impressao", "arquivo.pessoas", "",
+                  diretorio, "recusados.csv", null, "divergentes.csv", registro);
+            tabela.iniciar();
+            tabela.lidos(pessoas);
+            TabelaReconciliada.Resultado resultado = tabela.comparar(dataSource, Runnable::run, 2, 2, diretorio,
+                  Collections.emptyList());
+            tabela.fechar();
+
+            assertEquals(0, resultado.getFaixasDivergentes()); // Quantidades e somas módulo 2^64 iguais em cada faixa
+            assertEquals(pessoas.size(), resultado.getRegistrosBanco());
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private ReconciliacaoConfig config() {
+        ReconciliacaoConfig config = new ReconciliacaoConfig();
+        ReflectionTestUtils.setField(config, "diretorio", diretorio.toString());
+        ReflectionTestUtils.setField(config, "arquivoPessoas", "");
+        ReflectionTestUtils.setField(config, "arquivoDadosBancarios", "");
+        return config;
+    }
+
+    /**
+     * Reproduz em Java os passos da expressão SQL: {@code md5} em hexadecimal, os 16 primeiros dígitos,
+     * e a leitura como 64 bits em complemento de dois.
+     */
+    private static long bigintDoHexadecimal(String texto) throws Exception {
+        byte[] md5 = MessageDigest.getInstance("MD5").digest(texto.getBytes(StandardCharsets.UTF_8));
+        String hexadecimal = String.format("%032x", new BigInteger(1, md5));
+        return new BigInteger(hexadecimal.substring(0, 16), 16).longValue();
+    }
+}
@@ -0,0 +1,192 @@
+package com.dowglasmaia.migracaodadosjob.remoto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Fila JDBC contra um PostgreSQL, pois {@code UPDATE ... RETURNING} e {@code FOR UPDATE SKIP LOCKED} não existem no H2.
+ * Roda com {@code -Dteste.postgres.url=jdbc:postgresql://host/banco?user=...&password=...}; a tabela da fila é criada
+ * se não existir, e cada teste usa um step e uma execução de job próprios, removidos ao final.
+ */
+class FilaParticoesJdbcTest {
+
+    private final String nomeStep = "teste-fila-" + UUID.randomUUID();
+    private final long jobExecutionId = -ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE); // Nunca o de um job real
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private FilaParticoesJdbc fila;
+
+    @BeforeEach
+    void criarFila() {
+        String url = System.getProperty("teste.postgres.url");
+        assumeTrue(url != null, "Informe -Dteste.postgres.url para testar a fila no PostgreSQL");
+        dataSource = new DriverManagerDataSource(url);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        fila = new FilaParticoesJdbc(dataSource);
+        fila.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void removerParticoes() {
+        if (jdbcTemplate != null) {
+            jdbcTemplate.update("DELETE FROM migracao_fila_particao WHERE nome_step = ? OR job_execution_id = ?",
+                  nomeStep, jobExecutionId);
+        }
+    }
+
+    @Test
+    void retiraAsParticoesPendentesEmOrdemUmaVezCada() {
+        publicar(1, 2, 3);
+
+        assertNull(fila.retirar(Collections.singletonList("outro-step"), "trabalhador-a"));
+        assertEquals(1, retirar("trabalhador-a").getStepExecutionId());
+        assertEquals(2, retirar("trabalhador-b").getStepExecutionId());
+        assertEquals(3, retirar("trabalhador-a").getStepExecutionId());
+        assertNull(retirar("trabalhador-b"));
+        assertEquals("EXECUTANDO", estado(2));
+        assertEquals("trabalhador-b", jdbcTemplate.queryForObject("SELECT trabalhador FROM migracao_fila_particao"
+              + " WHERE nome_step = ? AND step_execution_id = 2", String.class, nomeStep));
+    }
+
+    @Test
+    void particaoBloqueadaPorOutraTransacaoEPuladaSemEspera() throws Exception {
+        publicar(1, 2);
+        try (Connection bloqueio = dataSource.getConnection()) {
+            bloqueio.setAutoCommit(false);
+            try (PreparedStatement ps = bloqueio.prepareStatement("SELECT id FROM migracao_fila_particao"
+                  + " WHERE nome_step = ? AND step_execution_id = 1 FOR UPDATE")) {
+                ps.setString(1, nomeStep);
+                ps.executeQuery().close();
+            }
+
+            Future<DescritorParticao> retirada = CompletableFuture.supplyAsync(() -> retirar("trabalhador-a"));
+            assertEquals(2, retirada.get(10, TimeUnit.SECONDS).getStepExecutionId()); // Sem SKIP LOCKED, aguardaria o bloqueio
+            assertNull(retirar("trabalhador-a"));
+            bloqueio.rollback();
+        }
+
+        assertEquals(1, retirar("trabalhador-a").getStepExecutionId());
+    }
+
+    @Test
+    void trabalhadoresConcorrentesNuncaRecebemAMesmaParticao() throws Exception {
+        long[] ids = new long[200];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i + 1;
+        }
+        publicar(ids);
+        ExecutorService trabalhadores = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Long>>> retiradas = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                String trabalhador = "trabalhador-" + t;
+                retiradas.add(trabalhadores.submit(() -> {
+                    List<Long> retiradasTrabalhador = new ArrayList<>();
+                    for (DescritorParticao descritor = retirar(trabalhador); descritor != null; descritor = retirar(trabalhador)) {
+                        retiradasTrabalhador.add(descritor.getStepExecutionId());
+                    }
+                    return retiradasTrabalhador;
+                }));
+            }
+            List<Long> todas = new ArrayList<>();
+            for (Future<List<Long>> retirada : retiradas) {
+                todas.addAll(retirada.get(60, TimeUnit.SECONDS));
+            }
+
+            assertEquals(ids.length, todas.size());
+            assertEquals(ids.length, new HashSet<>(todas).size());
+        } finally {
+            trabalhadores.shutdownNow();
+        }
+    }
+
+    @Test
+    void particaoSemHeartbeatExpiraUmaUnicaVezENaoEMaisConcluida() throws Exception {
+        publicar(1, 2);
+        DescritorParticao abandonada = retirar("trabalhador-a");
+        DescritorParticao renovada = retirar("trabalhador-b");
+        Thread.sleep(300);
+        fila.renovar(Collections.singletonList(renovada));
+
+        assertEquals(Collections.singletonList(1L), ids(fila.expirar(jobExecutionId, nomeStep, 200)));
+        assertEquals(Collections.emptyList(), ids(fila.expirar(jobExecutionId, nomeStep, 200))); // Devolvida a um único chamador
+
+        fila.renovar(Collections.singletonList(abandonada)); // O trabalhador ainda vivo não a recupera
+        fila.concluir(abandonada);
+        fila.concluir(renovada);
+        assertEquals("EXPIRADA", estado(1));
+        assertEquals("CONCLUIDA", estado(2));
+    }
+
+    @Test
+    void particaoExpiradaRepublicadaNoRestartERetiradaDeNovo() throws Exception {
+        publicar(1);
+        retirar("trabalhador-a");
+        Thread.sleep(100);
+        assertEquals(Collections.singletonList(1L), ids(fila.expirar(jobExecutionId, nomeStep, 50)));
+
+        publicar(1); // O restart do job publica de novo a partição registrada como falha
+        DescritorParticao retomada = retirar("trabalhador-b");
+        fila.concluir(retomada);
+
+        assertEquals(1, retomada.getStepExecutionId());
+        assertEquals(Arrays.asList("CONCLUIDA", "EXPIRADA"), jdbcTemplate.queryForList("SELECT estado FROM migracao_fila_particao"
+              + " WHERE nome_step = ? ORDER BY estado", String.class, nomeStep));
+    }
+
+    @Test
+    void descartaSoAsParticoesPendentesDaExecucao() {
+        publicar(1, 2, 3);
+        retirar("trabalhador-a");
+
+        assertEquals(2, fila.descartarPendentes(jobExecutionId));
+        assertNull(retirar("trabalhador-a"));
+        assertEquals("EXECUTANDO", estado(1));
+    }
+
+    private void publicar(long... stepExecutionIds) {
+        for (long stepExecutionId : stepExecutionIds) {
+            fila.publicar(new DescritorParticao(jobExecutionId, stepExecutionId, nomeStep));
+        }
+    }
+
+    private DescritorParticao retirar(String trabalhador) {
+        return fila.retirar(Collections.singletonList(nomeStep), trabalhador);
+    }
+
+    private String estado(long stepExecutionId) {
+        return jdbcTemplate.queryForObject("SELECT estado FROM migracao_fila_particao WHERE nome_step = ? AND step_execution_id = ?",
+              String.class, nomeStep, stepExecutionId);
+    }
+
+    private static List<Long> ids(List<DescritorParticao> descritores) {
+        List<Long> ids = new ArrayList<>();
+        for (DescritorParticao descritor : descritores) {
+            ids.add(descritor.getStepExecutionId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,157 @@
+package com.dowglasmaia.migracaodadosjob.remoto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ParticaoRemotaHandlerTest {
+
+    private static final String WORKER = "migrarPessoaWorkerStep";
+
+    private final JobExecution jobExecution = new JobExecution(7L);
+    private final StepExecution gerente = new StepExecution("migrarPessoaStep", jobExecution, 1L);
+    private final StepExecutionSplitter splitter = mock(StepExecutionSplitter.class);
+    private final JobExplorer jobExplorer = mock(JobExplorer.class);
+    private final JobRepository jobRepository = mock(JobRepository.class);
+
+    /**
+     * Partições no repositório do job, onde os trabalhadores gravam o resultado.
+     */
+    private final Map<Long, StepExecution> repositorio = new ConcurrentHashMap<>();
+
+    @Test
+    void publicaCadaParticaoEAguardaAteQueTodasTerminem() throws Exception {
+        FilaParticoesLocal fila = new FilaParticoesLocal();
+        particoes(11L, 12L);
+        CompletableFuture<Collection<StepExecution>> resultado = CompletableFuture.supplyAsync(() -> executar(handler(fila, 0)));
+
+        DescritorParticao primeira = retirar(fila);
+        DescritorParticao segunda = retirar(fila);
+        assertEquals(Arrays.asList(11L, 12L), Arrays.asList(primeira.getStepExecutionId(), segunda.getStepExecutionId()));
+        assertEquals(7L, primeira.getJobExecutionId());
+        repositorio.get(11L).setStatus(BatchStatus.COMPLETED);
+        Thread.sleep(50);
+        assertFalse(resultado.isDone()); // Ainda há uma partição em execução
+        repositorio.get(12L).setStatus(BatchStatus.COMPLETED);
+
+        assertEquals(2, resultado.get(5, TimeUnit.SECONDS).size());
+        verify(jobRepository, never()).update(any(StepExecution.class));
+    }
+
+    @Test
+    void particaoSemHeartbeatERegistradaComoFalha() throws Exception {
+        particoes(11L, 12L);
+        repositorio.get(11L).setStatus(BatchStatus.STARTED);
+        repositorio.get(12L).setStatus(BatchStatus.COMPLETED);
+        FilaExpirando fila = new FilaExpirando(new DescritorParticao(7L, 11L, WORKER), new DescritorParticao(7L, 12L, WORKER));
+
+        List<StepExecution> resultado = new ArrayList<>(handler(fila, 0).handle(splitter, gerente));
+
+        assertEquals(BatchStatus.FAILED, repositorio.get(11L).getStatus());
+        assertTrue(repositorio.get(11L).getExitStatus().getExitDescription().contains("heartbeat"));
+        assertEquals(BatchStatus.COMPLETED, repositorio.get(12L).getStatus()); // Terminou antes de expirar
+        verify(jobRepository).update(repositorio.get(11L));
+        verify(jobRepository, never()).update(repositorio.get(12L));
+        assertEquals(2, resultado.size());
+        assertEquals(1000L, fila.prazos.get(0).longValue()); // Prazo do heartbeat informado à fila
+    }
+
+    @Test
+    void tempoLimiteDescartaAsParticoesNaoRetiradas() throws Exception {
+        FilaParticoesLocal fila = new FilaParticoesLocal();
+        particoes(11L, 12L);
+
+        TimeoutException erro = assertThrows(TimeoutException.class, () -> handler(fila, 100).handle(splitter, gerente));
+
+        assertTrue(erro.getMessage().contains("2 ainda não retiradas"), erro.getMessage());
+        assertNull(fila.retirar(Collections.singletonList(WORKER), "trabalhador"));
+    }
+
+    private ParticaoRemotaHandler handler(FilaParticoes fila, long tempoLimiteMs) {
+        return new ParticaoRemotaHandler(fila, jobExplorer, jobRepository, WORKER, 2, 10, tempoLimiteMs, 1000);
+    }
+
+    /**
+     * Retira uma partição como um trabalhador, aguardando a sua publicação.
+     */
+    private static DescritorParticao retirar(FilaParticoes fila) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        DescritorParticao descritor = fila.retirar(Collections.singletonList(WORKER), "trabalhador");
+        while (descritor == null && System.currentTimeMillis() < limite) {
+            Thread.sleep(5);
+            descritor = fila.retirar(Collections.singletonList(WORKER), "trabalhador");
+        }
+        return descritor;
+    }
+
+    private Collection<StepExecution> executar(ParticaoRemotaHandler handler) {
+        try {
+            return handler.handle(splitter, gerente);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Cria as partições no repositório, como o {@link StepExecutionSplitter}, ainda não iniciadas por um trabalhador.
+     */
+    private void particoes(Long... ids) throws Exception {
+        LinkedHashSet<StepExecution> particoes = new LinkedHashSet<>();
+        for (Long id : ids) {
+            StepExecution particao = new StepExecution(WORKER + ":particao" + id, jobExecution, id);
+            repositorio.put(id, particao);
+            particoes.add(particao);
+        }
+        when(splitter.split(gerente, 2)).thenReturn(particoes);
+        when(jobExplorer.getStepExecution(any(), anyLong())).thenAnswer(invocacao -> repositorio.get(invocacao.<Long>getArgument(1)));
+    }
+
+    /**
+     * Fila em que as partições informadas expiram na primeira consulta, como se os seus trabalhadores tivessem parado.
+     */
+    private static class FilaExpirando extends FilaParticoesLocal {
+
+        private final List<DescritorParticao> expiradas;
+        private final List<Long> prazos = new ArrayList<>();
+
+        FilaExpirando(DescritorParticao... expiradas) {
+            this.expiradas = new ArrayList<>(Arrays.asList(expiradas));
+        }
+
+        @Override
+        public synchronized List<DescritorParticao> expirar(long jobExecutionId, String nomeStep, long prazoMs) {
+            prazos.add(prazoMs);
+            List<DescritorParticao> devolvidas = new ArrayList<>(expiradas);
+            expiradas.clear(); // Cada partição expirada é devolvida uma única vez
+            return devolvidas;
+        }
+    }
+}
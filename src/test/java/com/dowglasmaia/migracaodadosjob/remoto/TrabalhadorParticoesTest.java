@@ -0,0 +1,225 @@
+package com.dowglasmaia.migracaodadosjob.remoto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrabalhadorParticoesTest {
+
+    private static final String WORKER = "migrarPessoaWorkerStep";
+
+    private final JobExecution jobExecution = new JobExecution(7L);
+    private final FilaRegistrando fila = new FilaRegistrando();
+    private final Step step = mock(Step.class);
+    private final JobExplorer jobExplorer = mock(JobExplorer.class);
+    private final JobRepository jobRepository = mock(JobRepository.class);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    /**
+     * Partições no repositório do job, criadas pelo gerenciador.
+     */
+    private final Map<Long, StepExecution> repositorio = new ConcurrentHashMap<>();
+
+    private TrabalhadorParticoes trabalhador;
+
+    @AfterEach
+    void parar() {
+        if (trabalhador != null) {
+            trabalhador.parar();
+        }
+        executor.shutdownNow();
+    }
+
+    @Test
+    void executaAParticaoRetiradaEAConcluiNaFila() throws Exception {
+        DescritorParticao descritor = publicar(11L);
+        doAnswer(invocacao -> {
+            invocacao.<StepExecution>getArgument(0).setStatus(BatchStatus.COMPLETED);
+            return null;
+        }).when(step).execute(any());
+
+        iniciar(2, 0, 1000);
+
+        aguardarAte(() -> fila.concluidas().contains(descritor));
+        assertEquals(BatchStatus.COMPLETED, repositorio.get(11L).getStatus());
+        verify(step).execute(repositorio.get(11L));
+        verify(jobRepository, never()).update(any(StepExecution.class)); // O próprio step grava o resultado
+    }
+
+    @Test
+    void falhaForaDoStepRegistradaNoRepositorioEConcluida() throws Exception {
+        DescritorParticao descritor = publicar(11L);
+        IllegalStateException erro = new IllegalStateException("sem conexão");
+        doThrow(erro).when(step).execute(any());
+
+        iniciar(2, 0, 1000);
+
+        aguardarAte(() -> fila.concluidas().contains(descritor));
+        StepExecution particao = repositorio.get(11L);
+        assertEquals(BatchStatus.FAILED, particao.getStatus());
+        assertSame(erro, particao.getFailureExceptions().get(0));
+        verify(jobRepository).update(particao);
+    }
+
+    @Test
+    void particaoAusenteNoRepositorioEConcluidaSemExecutar() throws Exception {
+        DescritorParticao descritor = publicar(11L);
+        repositorio.clear();
+
+        iniciar(2, 0, 1000);
+
+        aguardarAte(() -> fila.concluidas().contains(descritor));
+        verify(step, never()).execute(any());
+    }
+
+    @Test
+    void renovaOHeartbeatSoDasParticoesEmExecucao() throws Exception {
+        DescritorParticao descritor = publicar(11L);
+        CountDownLatch liberar = new CountDownLatch(1);
+        doAnswer(invocacao -> {
+            liberar.await();
+            return null;
+        }).when(step).execute(any());
+
+        iniciar(2, 0, 20);
+
+        aguardarAte(() -> fila.renovadas().contains(descritor));
+        liberar.countDown();
+        aguardarAte(() -> fila.concluidas().contains(descritor));
+        Thread.sleep(50); // A partição sai das renovações logo após ser concluída
+        int renovacoes = fila.renovadas().size();
+        Thread.sleep(100);
+        assertEquals(renovacoes, fila.renovadas().size()); // Concluída, não é mais renovada
+    }
+
+    @Test
+    void retiraNoMaximoUmaParticaoPorPermissao() throws Exception {
+        DescritorParticao primeira = publicar(11L);
+        DescritorParticao segunda = publicar(12L);
+        CountDownLatch liberar = new CountDownLatch(1);
+        doAnswer(invocacao -> {
+            liberar.await();
+            return null;
+        }).when(step).execute(any());
+
+        iniciar(1, 0, 1000);
+
+        aguardarAte(() -> fila.retiradas().contains(primeira));
+        Thread.sleep(100);
+        assertEquals(Collections.singletonList(primeira), fila.retiradas()); // A segunda fica para outros trabalhadores
+        liberar.countDown();
+        aguardarAte(() -> fila.concluidas().contains(segunda));
+    }
+
+    @Test
+    void terminaAposOTempoOciosoMaximo() throws Exception {
+        iniciar(2, 50, 1000);
+
+        CompletableFuture<Void> aguardando = CompletableFuture.runAsync(() -> {
+            try {
+                trabalhador.aguardar();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        aguardando.get(5, TimeUnit.SECONDS);
+        assertTrue(fila.retiradas().isEmpty());
+    }
+
+    private void iniciar(int concorrencia, long ociosoMaximoMs, long heartbeatMs) {
+        when(jobExplorer.getStepExecution(any(), anyLong())).thenAnswer(invocacao -> repositorio.get(invocacao.<Long>getArgument(1)));
+        trabalhador = new TrabalhadorParticoes(fila, jobExplorer, jobRepository, Collections.singletonMap(WORKER, step),
+              executor::execute, concorrencia, 10, ociosoMaximoMs, heartbeatMs);
+        trabalhador.iniciar();
+    }
+
+    /**
+     * Cria a partição no repositório, como o gerenciador, e a publica na fila.
+     */
+    private DescritorParticao publicar(long id) {
+        repositorio.put(id, new StepExecution(WORKER + ":particao" + id, jobExecution, id));
+        DescritorParticao descritor = new DescritorParticao(7L, id, WORKER);
+        fila.publicar(descritor);
+        return descritor;
+    }
+
+    private static void aguardarAte(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!condicao.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "tempo esgotado");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Fila em memória que registra as retiradas, renovações e conclusões do trabalhador.
+     */
+    private static class FilaRegistrando extends FilaParticoesLocal {
+
+        private final List<DescritorParticao> retiradas = new ArrayList<>();
+        private final List<DescritorParticao> renovadas = new ArrayList<>();
+        private final List<DescritorParticao> concluidas = new ArrayList<>();
+
+        @Override
+        public synchronized DescritorParticao retirar(Collection<String> nomesSteps, String trabalhador) {
+            DescritorParticao descritor = super.retirar(nomesSteps, trabalhador);
+            if (descritor != null) {
+                retiradas.add(descritor);
+            }
+            return descritor;
+        }
+
+        @Override
+        public synchronized void renovar(Collection<DescritorParticao> descritores) {
+            renovadas.addAll(descritores);
+        }
+
+        @Override
+        public synchronized void concluir(DescritorParticao descritor) {
+            concluidas.add(descritor);
+        }
+
+        synchronized List<DescritorParticao> retiradas() {
+            return new ArrayList<>(retiradas);
+        }
+
+        synchronized List<DescritorParticao> renovadas() {
+            return new ArrayList<>(renovadas);
+        }
+
+        synchronized List<DescritorParticao> concluidas() {
+            return new ArrayList<>(concluidas);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.dowglasmaia.migracaodadosjob.repositorio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InicializadorSchemaRepositorioTest {
+
+    private EmbeddedDatabase banco;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void criarBanco() {
+        banco = new EmbeddedDatabaseBuilder()
+              .setType(EmbeddedDatabaseType.H2)
+              .generateUniqueName(true)
+              .build();
+        jdbcTemplate = new JdbcTemplate(banco);
+    }
+
+    @AfterEach
+    void fecharBanco() {
+        banco.shutdown();
+    }
+
+    @Test
+    void executaOScriptQuandoATabelaDeInstanciasNaoExiste() {
+        assertTrue(inicializador(true).initializeDatabase());
+
+        assertTrue(existe("BATCH_JOB_INSTANCE"));
+        assertTrue(existe("BATCH_JOB_EXECUTION"));
+    }
+
+    @Test
+    void ignoraOScriptQuandoATabelaDeInstanciasJaExiste() {
+        jdbcTemplate.execute("CREATE TABLE BATCH_JOB_INSTANCE (JOB_INSTANCE_ID BIGINT PRIMARY KEY)");
+
+        assertFalse(inicializador(true).initializeDatabase());
+
+        assertFalse(existe("BATCH_JOB_EXECUTION")); // Nenhum comando do script executado
+    }
+
+    @Test
+    void semSomenteSeAusenteOScriptEExecutadoMesmoComATabelaExistente() {
+        jdbcTemplate.execute("CREATE TABLE BATCH_JOB_INSTANCE (JOB_INSTANCE_ID BIGINT PRIMARY KEY)");
+
+        inicializador(false).initializeDatabase();
+
+        assertTrue(existe("BATCH_JOB_EXECUTION"));
+    }
+
+    private InicializadorSchemaRepositorio inicializador(boolean somenteSeAusente) {
+        BatchProperties.Jdbc properties = new BatchProperties().getJdbc();
+        properties.setInitializeSchema(DatabaseInitializationMode.ALWAYS);
+        return new InicializadorSchemaRepositorio(banco, properties, somenteSeAusente);
+    }
+
+    private boolean existe(String tabela) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?",
+              Integer.class, tabela) > 0;
+    }
+}
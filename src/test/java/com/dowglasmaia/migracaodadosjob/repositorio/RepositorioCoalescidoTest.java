@@ -0,0 +1,164 @@
+package com.dowglasmaia.migracaodadosjob.repositorio;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class RepositorioCoalescidoTest {
+
+    private final JobRepository repositorio = mock(JobRepository.class);
+
+    @Test
+    void gravaContextoEContagensJuntosACadaJanelaDeChunks() {
+        RepositorioCoalescido coalescido = new RepositorioCoalescido(repositorio, 3, 0);
+        StepExecution step = step(1L);
+        InOrder ordem = inOrder(repositorio);
+
+        coalescido.update(step); // Início do step
+        ordem.verify(repositorio).update(step);
+
+        commit(coalescido, step);
+        commit(coalescido, step);
+        verifyNoMoreInteractions(repositorio);
+
+        commit(coalescido, step); // Terceiro chunk fecha a janela
+        ordem.verify(repositorio).updateExecutionContext(step);
+        ordem.verify(repositorio).update(step);
+
+        commit(coalescido, step);
+        verifyNoMoreInteractions(repositorio);
+    }
+
+    @Test
+    void terminoDoStepGravaOContextoPendenteAntesDasContagens() {
+        RepositorioCoalescido coalescido = new RepositorioCoalescido(repositorio, 10, 0);
+        StepExecution step = step(1L);
+        coalescido.update(step);
+        commit(coalescido, step);
+        commit(coalescido, step);
+
+        step.setStatus(BatchStatus.FAILED);
+        step.setEndTime(new Date());
+        coalescido.update(step);
+
+        InOrder ordem = inOrder(repositorio);
+        ordem.verify(repositorio).update(step);
+        ordem.verify(repositorio).updateExecutionContext(step);
+        ordem.verify(repositorio).update(step);
+        verifyNoMoreInteractions(repositorio);
+    }
+
+    @Test
+    void terminoNormalGravaContextoEContagensDireto() {
+        RepositorioCoalescido coalescido = new RepositorioCoalescido(repositorio, 10, 0);
+        StepExecution step = step(1L);
+        coalescido.update(step);
+        commit(coalescido, step);
+
+        step.setStatus(BatchStatus.COMPLETED);
+        step.setEndTime(new Date());
+        coalescido.updateExecutionContext(step); // Como o AbstractStep ao terminar
+        coalescido.update(step);
+
+        InOrder ordem = inOrder(repositorio);
+        ordem.verify(repositorio).update(step);
+        ordem.verify(repositorio).updateExecutionContext(step);
+        ordem.verify(repositorio).update(step);
+        verifyNoMoreInteractions(repositorio);
+    }
+
+    @Test
+    void pedidoDeParadaNaoEAdiado() {
+        RepositorioCoalescido coalescido = new RepositorioCoalescido(repositorio, 10, 0);
+        StepExecution step = step(1L);
+        coalescido.update(step);
+        commit(coalescido, step);
+
+        step.setTerminateOnly();
+        commit(coalescido, step);
+
+        InOrder ordem = inOrder(repositorio);
+        ordem.verify(repositorio).update(step);
+        ordem.verify(repositorio).updateExecutionContext(step);
+        ordem.verify(repositorio).update(step);
+        verifyNoMoreInteractions(repositorio);
+    }
+
+    @Test
+    void gravaQuandoOIntervaloVence() throws InterruptedException {
+        RepositorioCoalescido coalescido = new RepositorioCoalescido(repositorio, 0, 1);
+        StepExecution step = step(1L);
+        coalescido.update(step);
+
+        Thread.sleep(5);
+        commit(coalescido, step);
+
+        InOrder ordem = inOrder(repositorio);
+        ordem.verify(repositorio).update(step);
+        ordem.verify(repositorio).updateExecutionContext(step);
+        ordem.verify(repositorio).update(step);
+        verifyNoMoreInteractions(repositorio);
+    }
+
+    @Test
+    void cadaStepTemASuaJanela() {
+        RepositorioCoalescido coalescido = new RepositorioCoalescido(repositorio, 2, 0);
+        StepExecution particao1 = step(1L);
+        StepExecution particao2 = step(2L);
+        coalescido.update(particao1);
+        coalescido.update(particao2);
+
+        commit(coalescido, particao1);
+        commit(coalescido, particao2);
+        commit(coalescido, particao1);
+
+        InOrder ordem = inOrder(repositorio);
+        ordem.verify(repositorio).update(particao1);
+        ordem.verify(repositorio).update(particao2);
+        ordem.verify(repositorio).updateExecutionContext(particao1);
+        ordem.verify(repositorio).update(particao1);
+        verifyNoMoreInteractions(repositorio);
+    }
+
+    @Test
+    void gravacoesDoJobNaoSaoAdiadas() {
+        RepositorioCoalescido coalescido = new RepositorioCoalescido(repositorio, 10, 0);
+        JobExecution job = new JobExecution(1L);
+
+        coalescido.update(job);
+        coalescido.updateExecutionContext(job);
+
+        verify(repositorio).update(job);
+        verify(repositorio).updateExecutionContext(job);
+    }
+
+    @Test
+    void exigeQuantidadeOuIntervalo() {
+        assertThrows(IllegalArgumentException.class, () -> new RepositorioCoalescido(repositorio, 0, 0));
+    }
+
+    /**
+     * Gravações feitas pelo {@code TaskletStep} a cada commit de chunk.
+     */
+    private static void commit(RepositorioCoalescido coalescido, StepExecution step) {
+        coalescido.updateExecutionContext(step);
+        coalescido.update(step);
+    }
+
+    private static StepExecution step(Long id) {
+        StepExecution step = new StepExecution("pessoaStep:particao" + id, new JobExecution(1L), id);
+        step.setStatus(BatchStatus.STARTED);
+        return step;
+    }
+}
@@ -0,0 +1,243 @@
+package com.dowglasmaia.migracaodadosjob.writer;
+
+import com.dowglasmaia.migracaodadosjob.dominio.Pessoa;
+import com.dowglasmaia.migracaodadosjob.integridade.IndiceIds;
+import com.dowglasmaia.migracaodadosjob.integridade.IndicePessoaItemWriter;
+import com.dowglasmaia.migracaodadosjob.metricas.MetricasMigracao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BissecaoItemWriterTest {
+
+    private static final String ARQUIVO = "pessoas_rejeitadas_banco.csv";
+
+    @TempDir
+    Path diretorio;
+
+    private EmbeddedDatabase banco;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry registry;
+    private StepExecution stepExecution;
+    private final AtomicInteger escritas = new AtomicInteger();
+
+    @BeforeEach
+    void criarBanco() {
+        banco = new EmbeddedDatabaseBuilder()
+              .setType(EmbeddedDatabaseType.H2)
+              .generateUniqueName(true)
+              .build();
+        jdbcTemplate = new JdbcTemplate(banco);
+        jdbcTemplate.execute("CREATE TABLE pessoa (id INT PRIMARY KEY, nome VARCHAR(10) NOT NULL)");
+        registry = new SimpleMeterRegistry();
+        stepExecution = MetaDataInstanceFactory.createStepExecution(new JobParametersBuilder()
+              .addString("diretorio.rejeitados", diretorio.toString())
+              .toJobParameters());
+        StepSynchronizationManager.register(stepExecution);
+    }
+
+    @AfterEach
+    void fecharBanco() {
+        StepSynchronizationManager.close();
+        banco.shutdown();
+    }
+
+    @Test
+    void chunkSemFalhasEEscritoUmaVez() throws Exception {
+        List<Registro> registros = registros(32, Set.of());
+
+        escritor(jdbc(), 10).write(registros);
+
+        assertEquals(1, escritas.get());
+        assertEquals(32, quantidadeGravada());
+        assertFalse(Files.exists(diretorio.resolve(ARQUIVO)));
+    }
+
+    @Test
+    void isolaOsRegistrosRecusadosEGravaOsDemais() throws Exception {
+        Set<Integer> invalidos = Set.of(5, 17, 30);
+        List<Registro> registros = registros(32, invalidos);
+
+        escritor(jdbc(), 10).write(registros);
+
+        assertEquals(29, quantidadeGravada());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pessoa WHERE id IN (5, 17, 30)", Integer.class));
+        assertTrue(escritas.get() < registros.size(), "Escritas: " + escritas.get()); // Menos que a varredura item a item
+
+        List<String> linhas = Files.readAllLines(diretorio.resolve(ARQUIVO));
+        assertEquals(3, linhas.size());
+        for (int i = 0; i < linhas.size(); i++) {
+            int id = List.of(5, 17, 30).get(i);
+            assertTrue(linhas.get(i).startsWith(stepExecution.getJobExecutionId() + "," + id + ",22001,\""), linhas.get(i));
+        }
+        assertEquals(3, registry.get(MetricasMigracao.PREFIXO + "registros.rejeitados")
+              .tag("etapa", MetricasMigracao.ETAPA_PESSOA)
+              .tag("motivo", "banco")
+              .counter()
+              .count());
+    }
+
+    @Test
+    void isolaChavesDuplicadas() throws Exception {
+        jdbcTemplate.update("INSERT INTO pessoa (id, nome) VALUES (100, 'existente')");
+        List<Registro> registros = new ArrayList<>(registros(8, Set.of()));
+        registros.add(3, new Registro(100, "repetido"));
+        registros.add(new Registro(6, "repetido"));
+
+        escritor(jdbc(), 10).write(registros);
+
+        assertEquals(9, quantidadeGravada());
+        assertEquals("existente", jdbcTemplate.queryForObject("SELECT nome FROM pessoa WHERE id = 100", String.class));
+        assertEquals("nome6", jdbcTemplate.queryForObject("SELECT nome FROM pessoa WHERE id = 6", String.class));
+        List<String> linhas = Files.readAllLines(diretorio.resolve(ARQUIVO));
+        assertEquals(2, linhas.size());
+        assertTrue(linhas.get(0).startsWith(stepExecution.getJobExecutionId() + ",100,23505,"), linhas.get(0));
+        assertTrue(linhas.get(1).startsWith(stepExecution.getJobExecutionId() + ",6,23505,"), linhas.get(1));
+    }
+
+    @Test
+    void limiteDeRejeitadosDesfazOChunkInteiro() {
+        List<Registro> registros = registros(32, Set.of(5, 17, 30));
+
+        assertThrows(DataIntegrityViolationException.class, () -> escritor(jdbc(), 2).write(registros));
+
+        assertEquals(0, quantidadeGravada());
+        assertFalse(Files.exists(diretorio.resolve(ARQUIVO)));
+    }
+
+    @Test
+    void outraFalhaDuranteADivisaoDesfazAsMetadesJaGravadas() {
+        List<Registro> registros = registros(32, Set.of(30));
+        JdbcBatchItemWriter<Registro> jdbc = jdbc();
+        ItemWriter<Registro> instavel = itens -> {
+            if (escritas.get() == 3) { // Segunda metade, depois de a primeira metade ter sido gravada
+                throw new DataAccessResourceFailureException("Conexão perdida");
+            }
+            jdbc.write(itens);
+        };
+
+        assertThrows(DataAccessResourceFailureException.class, () -> escritor(instavel, 10).write(registros));
+
+        assertEquals(0, quantidadeGravada());
+        assertFalse(Files.exists(diretorio.resolve(ARQUIVO)));
+    }
+
+    @Test
+    void indiceRecebeOsIdsGravadosNaConfirmacaoDoChunk() throws Exception {
+        IndiceIds indice = new IndiceIds();
+
+        escritorIndexado(indice, 10).write(pessoas(registros(32, Set.of(5, 30))));
+
+        for (int id = 1; id <= 32; id++) {
+            assertEquals(id != 5 && id != 30, indice.contem(id), "id " + id);
+        }
+    }
+
+    @Test
+    void chunkDesfeitoNaoDeixaNoIndiceOsIdsDasMetadesJaGravadas() {
+        IndiceIds indice = new IndiceIds();
+        List<Pessoa> pessoas = pessoas(registros(32, Set.of(5, 17, 30)));
+
+        assertThrows(DataIntegrityViolationException.class, () -> escritorIndexado(indice, 2).write(pessoas));
+
+        assertEquals(0, quantidadeGravada());
+        for (int id = 1; id <= 32; id++) {
+            assertFalse(indice.contem(id), "id " + id); // As metades sem recusados foram gravadas e desfeitas com o chunk
+        }
+    }
+
+    private BissecaoItemWriter<Registro> escritor(ItemWriter<Registro> delegate, int limitePorChunk) {
+        ItemWriter<Registro> contado = itens -> {
+            escritas.incrementAndGet();
+            delegate.write(itens);
+        };
+        return new BissecaoItemWriter<>(contado, new DataSourceTransactionManager(banco), registro -> registro.id, ARQUIVO,
+              limitePorChunk, new MetricasMigracao(registry, true), MetricasMigracao.ETAPA_PESSOA);
+    }
+
+    /**
+     * Escritor como o {@code bancoPessoaWriter} com a integridade e o isolamento habilitados.
+     */
+    private BissecaoItemWriter<Pessoa> escritorIndexado(IndiceIds indice, int limitePorChunk) {
+        JdbcBatchItemWriter<Registro> jdbc = jdbc();
+        ItemWriter<Pessoa> gravacao = pessoas -> jdbc.write(pessoas.stream()
+              .map(pessoa -> new Registro(pessoa.getId(), pessoa.getNome()))
+              .collect(Collectors.toList()));
+        return new BissecaoItemWriter<>(new IndicePessoaItemWriter(gravacao, indice), new DataSourceTransactionManager(banco),
+              Pessoa::getId, ARQUIVO, limitePorChunk, new MetricasMigracao(registry, true), MetricasMigracao.ETAPA_PESSOA);
+    }
+
+    private JdbcBatchItemWriter<Registro> jdbc() {
+        JdbcBatchItemWriter<Registro> writer = new JdbcBatchItemWriterBuilder<Registro>()
+              .dataSource(banco)
+              .sql("INSERT INTO pessoa (id, nome) VALUES (?, ?)")
+              .itemPreparedStatementSetter((registro, ps) -> {
+                  ps.setInt(1, registro.id);
+                  ps.setString(2, registro.nome);
+              })
+              .build();
+        writer.afterPropertiesSet();
+        return writer;
+    }
+
+    private int quantidadeGravada() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pessoa", Integer.class);
+    }
+
+    /**
+     * Registros de 1 a {@code quantidade}; os ids informados têm um nome maior que a coluna.
+     */
+    private static List<Registro> registros(int quantidade, Set<Integer> invalidos) {
+        List<Registro> registros = new ArrayList<>();
+        for (int id = 1; id <= quantidade; id++) {
+            registros.add(new Registro(id, invalidos.contains(id) ? "nome longo demais para a coluna" : "nome" + id));
+        }
+        return registros;
+    }
+
+    private static List<Pessoa> pessoas(List<Registro> registros) {
+        return registros.stream()
+              .map(registro -> new Pessoa(registro.id, registro.nome, null, null, 0))
+              .collect(Collectors.toList());
+    }
+
+    private static final class Registro {
+
+        private final int id;
+        private final String nome;
+
+        private Registro(int id, String nome) {
+            this.id = id;
+            this.nome = nome;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.dowglasmaia.migracaodadosjob.writer.copy;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class LinhaCopyTest {
+
+    @Test
+    void textoEscapaCaracteresEspeciais() {
+        LinhaCopy linha = FormatoCopy.TEXTO.novaLinha(0, 3);
+        linha.iniciarLinha();
+        linha.texto("a\tb\\c\nd\re");
+        linha.texto("João\t");
+        linha.texto(null);
+        linha.finalizarLinha();
+        linha.finalizar();
+
+        assertEquals("a\\tb\\\\c\\nd\\re\tJoão\\t\t\\N\n", conteudo(linha));
+    }
+
+    @Test
+    void textoInteirosDatasENulos() {
+        LinhaCopy linha = FormatoCopy.TEXTO.novaLinha(0, 5);
+        linha.iniciarLinha();
+        linha.inteiro(Integer.MIN_VALUE);
+        linha.inteiro(0);
+        linha.timestamp(LocalDateTime.of(987, 3, 9, 7, 5, 42));
+        linha.timestamp(LocalDate.of(2000, 1, 2));
+        linha.nulo();
+        linha.finalizarLinha();
+        linha.iniciarLinha();
+        linha.inteiro(Integer.MAX_VALUE);
+        linha.timestamp((LocalDateTime) null);
+        linha.timestamp((LocalDate) null);
+        linha.finalizarLinha();
+
+        assertEquals("-2147483648\t0\t0987-03-09 07:05:42\t2000-01-02\t\\N\n2147483647\t\\N\t\\N\n", conteudo(linha));
+    }
+
+    @Test
+    void textoCresceOBuffer() {
+        LinhaCopy linha = FormatoCopy.TEXTO.novaLinha(0, 1);
+        char[] longo = new char[5000];
+        Arrays.fill(longo, '\\');
+        linha.iniciarLinha();
+        linha.texto(new String(longo));
+        linha.finalizarLinha();
+
+        assertEquals(10_001, linha.getTamanho());
+    }
+
+    @Test
+    void binarioComCabecalhoCamposERodape() {
+        LinhaCopy linha = FormatoCopy.BINARIO.novaLinha(0, 3);
+        linha.iniciarLinha();
+        linha.inteiro(-2);
+        linha.texto("a\tç");
+        linha.timestamp(LocalDateTime.of(2000, 1, 1, 0, 0, 1, 500_000));
+        linha.finalizarLinha();
+        linha.iniciarLinha();
+        linha.nulo();
+        linha.texto(null);
+        linha.timestamp(LocalDate.of(1999, 12, 31));
+        linha.finalizarLinha();
+        linha.finalizar();
+
+        ByteBuffer bytes = ByteBuffer.wrap(linha.getBuffer(), 0, linha.getTamanho());
+        byte[] assinatura = new byte[11];
+        bytes.get(assinatura);
+        assertArrayEquals(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0}, assinatura);
+        assertEquals(0, bytes.getInt()); // Flags
+        assertEquals(0, bytes.getInt()); // Extensão do cabeçalho
+
+        assertEquals(3, bytes.getShort());
+        assertEquals(4, bytes.getInt());
+        assertEquals(-2, bytes.getInt());
+        byte[] texto = "a\tç".getBytes(StandardCharsets.UTF_8);
+        assertEquals(texto.length, bytes.getInt());
+        byte[] lido = new byte[texto.length];
+        bytes.get(lido);
+        assertArrayEquals(texto, lido); // Sem escape no formato binário
+        assertEquals(8, bytes.getInt());
+        assertEquals(1_000_500L, bytes.getLong()); // Microssegundos desde 2000-01-01
+
+        assertEquals(3, bytes.getShort());
+        assertEquals(-1, bytes.getInt());
+        assertEquals(-1, bytes.getInt());
+        assertEquals(8, bytes.getInt());
+        assertEquals(-86_400_000_000L, bytes.getLong());
+
+        assertEquals(-1, bytes.getShort()); // Rodapé
+        assertFalse(bytes.hasRemaining());
+    }
+
+    @Test
+    void opcoesDoComandoCopy() {
+        assertEquals("", FormatoCopy.TEXTO.novaLinha(0, 1).opcoes());
+        assertEquals(" (FORMAT binary)", FormatoCopy.BINARIO.novaLinha(0, 1).opcoes());
+    }
+
+    private static String conteudo(LinhaCopy linha) {
+        return new String(linha.getBuffer(), 0, linha.getTamanho(), StandardCharsets.UTF_8);
+    }
+}